@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("jacoco")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.github.natche"
@@ -24,6 +25,10 @@ tasks.withType<JacocoReport> {
     }
 }
 
+jmh {
+    profilers.add("gc")
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
 }
@@ -0,0 +1,146 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.enums.BackgroundSet;
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.enums.ImageSet;
+import com.github.natche.jrobohash.enums.UrlParameter;
+import com.github.natche.jrobohash.enums.UseGravatar;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks of building request URLs. {@link #legacyBuildRequestUrl()} reproduces the URL construction
+ * which copied the image sets twice, joined them via a stream and concatenated each parameter, as the
+ * baseline for {@link #buildRequestUrl()}, {@link #appendRequestUrl()} and {@link #templateBuildRequestUrl()}.
+ * Run with {@code ./gradlew jmh}, which reports the allocation rate of each benchmark via the GC profiler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestUrlBenchmark {
+    /**
+     * The base URL URLs are built against.
+     */
+    private static final String BASE_URL = RoboHashClient.DEFAULT_BASE_URL;
+
+    /**
+     * The client URLs are built with.
+     */
+    private RoboHashClient client;
+
+    /**
+     * The builder URLs are built for, using several image sets and every parameter.
+     */
+    private RoboHashRequestBuilder builder;
+
+    /**
+     * The template compiled from the options of the builder.
+     */
+    private RoboHashUrlTemplate template;
+
+    /**
+     * The string builder reused by {@link #appendRequestUrl()}.
+     */
+    private StringBuilder urlBuilder;
+
+    /**
+     * Creates a new instance of this class for benchmarking purposes.
+     */
+    public RequestUrlBenchmark() {}
+
+    /**
+     * Sets up the client and builder.
+     */
+    @Setup
+    public void setUp() {
+        client = RoboHashClient.builder().build();
+        builder = new RoboHashRequestBuilderImpl("nathan-cheshire")
+                .addImageSet(ImageSet.MONSTERS)
+                .addImageSet(ImageSet.HUMANS)
+                .addImageSet(ImageSet.KITTENS)
+                .setBackgroundSet(BackgroundSet.SPIRAL_AND_PATTERNS)
+                .setImageExtension(ImageExtension.JPG)
+                .setUseGravatar(UseGravatar.HASHED)
+                .setIgnoreExtension(false)
+                .setSize(new java.awt.Dimension(512, 512));
+        template = client.compileUrlTemplate(builder);
+        urlBuilder = new StringBuilder(256);
+    }
+
+    /**
+     * Builds the URL as constructed before URLs were appended in place.
+     *
+     * @return the URL
+     */
+    @Benchmark
+    public String legacyBuildRequestUrl() {
+        StringBuilder legacyBuilder = new StringBuilder(BASE_URL);
+        legacyBuilder.append(builder.getImageExtension().setAsImageExtension(builder.getAvatarKey()));
+
+        ImmutableList<ImageSet> imageSets = ImmutableList.copyOf(builder.getImageSets());
+        if (imageSets.contains(ImageSet.ANY)) {
+            legacyBuilder.append(ImageSet.ANY.constructUrlParameter(true));
+        } else if (imageSets.size() == 1) {
+            legacyBuilder.append(imageSets.get(0).constructUrlParameter(true));
+        } else {
+            legacyBuilder.append(UrlParameter.IMAGE_SETS.encodeUrlParameter(imageSets.stream()
+                    .map(ImageSet::getListUrlParameterName)
+                    .collect(Collectors.joining(",")), true));
+        }
+
+        legacyBuilder.append(UrlParameter.BACKGROUND_SET.encodeUrlParameter(
+                builder.getBackgroundSet().getBackgroundSetName()));
+        legacyBuilder.append(UrlParameter.SIZE.encodeUrlParameter(builder.getWidth() + "x" + builder.getHeight()));
+        legacyBuilder.append(builder.getUseGravatar().constructUrlParameter(false));
+        if (!builder.shouldIgnoreExtension()) {
+            legacyBuilder.append(UrlParameter.IGNORE_EXTENSION.encodeUrlParameter("false"));
+        }
+        return legacyBuilder.toString();
+    }
+
+    /**
+     * Builds the URL into a presized string builder.
+     *
+     * @return the URL
+     */
+    @Benchmark
+    public String buildRequestUrl() {
+        return client.buildRequestUrl(builder);
+    }
+
+    /**
+     * Appends the URL to a reused string builder, as when rendering many URLs into a page.
+     *
+     * @return the string builder
+     */
+    @Benchmark
+    public StringBuilder appendRequestUrl() {
+        urlBuilder.setLength(0);
+        return client.appendRequestUrl(builder, urlBuilder);
+    }
+
+    /**
+     * Builds the URL by splicing the avatar key into a compiled template, as when generating the URLs of a feed.
+     *
+     * @return the URL
+     */
+    @Benchmark
+    public String templateBuildRequestUrl() {
+        return template.buildRequestUrl(builder.getAvatarKey());
+    }
+}
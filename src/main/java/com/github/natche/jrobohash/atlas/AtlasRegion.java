@@ -0,0 +1,152 @@
+package com.github.natche.jrobohash.atlas;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The region of a {@link TextureAtlas} an avatar was drawn into, in pixels from the top left of the atlas.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class AtlasRegion {
+    /**
+     * The x coordinate of the left edge of this region.
+     */
+    private final int x;
+
+    /**
+     * The y coordinate of the top edge of this region.
+     */
+    private final int y;
+
+    /**
+     * The width of this region.
+     */
+    private final int width;
+
+    /**
+     * The height of this region.
+     */
+    private final int height;
+
+    /**
+     * Constructs a new region.
+     *
+     * @param x      the x coordinate of the left edge
+     * @param y      the y coordinate of the top edge
+     * @param width  the width
+     * @param height the height
+     * @throws IllegalArgumentException if the provided coordinates are negative or the size is not positive
+     */
+    public AtlasRegion(int x, int y, int width, int height) {
+        Preconditions.checkArgument(x >= 0);
+        Preconditions.checkArgument(y >= 0);
+        Preconditions.checkArgument(width > 0);
+        Preconditions.checkArgument(height > 0);
+
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Returns the x coordinate of the left edge of this region.
+     *
+     * @return the x coordinate of the left edge of this region
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y coordinate of the top edge of this region.
+     *
+     * @return the y coordinate of the top edge of this region
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Returns the width of this region.
+     *
+     * @return the width of this region
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of this region.
+     *
+     * @return the height of this region
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns whether this region overlaps the provided region.
+     *
+     * @param other the other region
+     * @return whether this region overlaps the provided region
+     * @throws NullPointerException if the provided region is null
+     */
+    public boolean overlaps(AtlasRegion other) {
+        Preconditions.checkNotNull(other);
+
+        return x < other.x + other.width && other.x < x + width
+                && y < other.y + other.height && other.y < y + height;
+    }
+
+    /**
+     * Returns a hashcode for this {@link AtlasRegion}.
+     *
+     * @return a hashcode for this {@link AtlasRegion}
+     */
+    @Override
+    public int hashCode() {
+        int ret = Integer.hashCode(x);
+        ret = 31 * ret + Integer.hashCode(y);
+        ret = 31 * ret + Integer.hashCode(width);
+        ret = 31 * ret + Integer.hashCode(height);
+        return ret;
+    }
+
+    /**
+     * Returns whether the provided object equals {@code this} object or is equal as defined by an equivalence relation.
+     *
+     * @param o the other object to compare against {@code this}
+     * @return whether the provided object equals {@code this} object or is equal as defined by an equivalence relation
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof AtlasRegion)) {
+            return false;
+        }
+
+        AtlasRegion other = (AtlasRegion) o;
+        return other.x == x
+                && other.y == y
+                && other.width == width
+                && other.height == height;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link AtlasRegion}.
+     *
+     * @return a {@link String} representation for this {@link AtlasRegion}
+     */
+    @Override
+    public String toString() {
+        return "AtlasRegion{"
+                + "x=" + x
+                + ", y=" + y
+                + ", width=" + width
+                + ", height=" + height
+                + "}";
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.natche.jrobohash.atlas;
+
+import com.google.common.base.Preconditions;
+
+import java.awt.Dimension;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A shelf packer placing rectangles into rows. Rectangles are placed tallest first, left to right,
+ * and a new shelf is started below the tallest rectangle of the current shelf once a rectangle
+ * no longer fits the maximum width. Avatars are mostly of equal size, for which shelves pack perfectly.
+ */
+final class ShelfPacker {
+    /**
+     * The maximum width of a shelf, unless a single rectangle is wider.
+     */
+    private final int maxWidth;
+
+    /**
+     * The spacing between rectangles.
+     */
+    private final int padding;
+
+    /**
+     * Constructs a new packer.
+     *
+     * @param maxWidth the maximum width of a shelf
+     * @param padding  the spacing between rectangles
+     * @throws IllegalArgumentException if the provided width is not positive or the padding is negative
+     */
+    ShelfPacker(int maxWidth, int padding) {
+        Preconditions.checkArgument(maxWidth > 0);
+        Preconditions.checkArgument(padding >= 0);
+
+        this.maxWidth = maxWidth;
+        this.padding = padding;
+    }
+
+    /**
+     * Packs the provided sizes.
+     *
+     * @param sizes the sizes to pack
+     * @return the region of each size, in the order of the provided sizes
+     * @throws NullPointerException     if the provided sizes are null
+     * @throws IllegalArgumentException if any of the provided sizes is not positive
+     */
+    List<AtlasRegion> pack(List<Dimension> sizes) {
+        Preconditions.checkNotNull(sizes);
+        sizes.forEach(size -> Preconditions.checkArgument(size.width > 0 && size.height > 0));
+
+        List<Integer> order = IntStream.range(0, sizes.size()).boxed()
+                .sorted(Comparator.<Integer>comparingInt(index -> sizes.get(index).height).reversed()
+                        .thenComparing(index -> sizes.get(index).width, Comparator.reverseOrder()))
+                .collect(Collectors.toList());
+
+        AtlasRegion[] regions = new AtlasRegion[sizes.size()];
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        for (int index : order) {
+            Dimension size = sizes.get(index);
+            if (shelfX > 0 && shelfX + size.width > maxWidth) {
+                shelfY += shelfHeight + padding;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+
+            regions[index] = new AtlasRegion(shelfX, shelfY, size.width, size.height);
+            shelfX += size.width + padding;
+            shelfHeight = Math.max(shelfHeight, size.height);
+        }
+
+        return List.of(regions);
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.natche.jrobohash.atlas;
+
+import com.github.natche.jrobohash.request.RoboHashResult;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A single image composed of many avatars together with the region each avatar was drawn into, keyed by
+ * the key of its builder. Pages rendering many avatars can fetch the atlas once and draw each avatar from
+ * its region, for example as a CSS sprite, rather than making one request per avatar.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class TextureAtlas {
+    /**
+     * The composed image.
+     */
+    private final BufferedImage image;
+
+    /**
+     * The region of each avatar, keyed by the key of its builder, in the order the builders were provided.
+     */
+    private final ImmutableMap<String, AtlasRegion> regions;
+
+    /**
+     * The results of the fetches which failed, whose avatars are missing from the atlas.
+     */
+    private final ImmutableList<RoboHashResult> failedResults;
+
+    /**
+     * Constructs a new atlas.
+     *
+     * @param image         the composed image
+     * @param regions       the region of each avatar, keyed by the key of its builder
+     * @param failedResults the results of the fetches which failed
+     * @throws NullPointerException     if any of the provided objects are null
+     * @throws IllegalArgumentException if any of the provided regions is outside of the image
+     */
+    TextureAtlas(BufferedImage image, Map<String, AtlasRegion> regions, List<RoboHashResult> failedResults) {
+        Preconditions.checkNotNull(image);
+        Preconditions.checkNotNull(regions);
+        Preconditions.checkNotNull(failedResults);
+        regions.values().forEach(region -> Preconditions.checkArgument(
+                region.getX() + region.getWidth() <= image.getWidth()
+                        && region.getY() + region.getHeight() <= image.getHeight()));
+
+        this.image = image;
+        this.regions = ImmutableMap.copyOf(regions);
+        this.failedResults = ImmutableList.copyOf(failedResults);
+    }
+
+    /**
+     * Returns the composed image. The returned image is not copied and must not be modified.
+     *
+     * @return the composed image
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Returns the region of each avatar, keyed by the key of its builder, in the order the builders were provided.
+     *
+     * @return the region of each avatar
+     */
+    public ImmutableMap<String, AtlasRegion> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Returns the region of the avatar with the provided key.
+     *
+     * @param key the key of the builder of the avatar
+     * @return the region of the avatar, empty if the atlas contains no avatar with the provided key
+     * @throws NullPointerException if the provided key is null
+     */
+    public Optional<AtlasRegion> getRegion(String key) {
+        Preconditions.checkNotNull(key);
+
+        return Optional.ofNullable(regions.get(key));
+    }
+
+    /**
+     * Returns the results of the fetches which failed, whose avatars are missing from the atlas.
+     *
+     * @return the results of the fetches which failed
+     */
+    public ImmutableList<RoboHashResult> getFailedResults() {
+        return failedResults;
+    }
+
+    /**
+     * Returns the index of this atlas as JSON, for clients locating avatars in the image, such as:
+     * <pre>{@code
+     * {"width":600,"height":300,"regions":{"alice":{"x":0,"y":0,"width":300,"height":300},...}}
+     * }</pre>
+     * Regions are listed in the order the builders were provided.
+     *
+     * @return the index of this atlas as JSON
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(32 + regions.size() * 64)
+                .append("{\"width\":").append(image.getWidth())
+                .append(",\"height\":").append(image.getHeight())
+                .append(",\"regions\":{");
+
+        boolean first = true;
+        for (Map.Entry<String, AtlasRegion> entry : regions.entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+
+            AtlasRegion region = entry.getValue();
+            appendJsonString(json, entry.getKey());
+            json.append(":{\"x\":").append(region.getX())
+                    .append(",\"y\":").append(region.getY())
+                    .append(",\"width\":").append(region.getWidth())
+                    .append(",\"height\":").append(region.getHeight())
+                    .append('}');
+        }
+
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Appends the provided string as a quoted and escaped JSON string.
+     *
+     * @param json   the builder to append to
+     * @param string the string to append
+     */
+    private static void appendJsonString(StringBuilder json, String string) {
+        json.append('"');
+        for (int index = 0; index < string.length(); index++) {
+            char c = string.charAt(index);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link TextureAtlas}.
+     *
+     * @return a {@link String} representation for this {@link TextureAtlas}
+     */
+    @Override
+    public String toString() {
+        return "TextureAtlas{"
+                + "width=" + image.getWidth()
+                + ", height=" + image.getHeight()
+                + ", regionCount=" + regions.size()
+                + ", failedCount=" + failedResults.size()
+                + "}";
+    }
+}
@@ -0,0 +1,353 @@
+package com.github.natche.jrobohash.atlas;
+
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.github.natche.jrobohash.request.RoboHashClient;
+import com.github.natche.jrobohash.request.RoboHashRequestHandler;
+import com.github.natche.jrobohash.request.RoboHashRequestOptions;
+import com.github.natche.jrobohash.request.RoboHashResult;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * A generator fetching the avatars of many builders concurrently and composing them into a single
+ * {@link TextureAtlas}. Avatars are packed into shelves no wider than the maximum width, tallest first.
+ * Instances are immutable and may be shared.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class TextureAtlasGenerator {
+    /**
+     * The default maximum number of outstanding fetches.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+
+    /**
+     * The default maximum width of an atlas.
+     */
+    public static final int DEFAULT_MAX_WIDTH = 2048;
+
+    /**
+     * The default spacing between avatars.
+     */
+    public static final int DEFAULT_PADDING = 0;
+
+    /**
+     * The client avatars are fetched with, null to use the client of the {@link RoboHashRequestHandler}.
+     */
+    private final RoboHashClient client;
+
+    /**
+     * The maximum number of outstanding fetches.
+     */
+    private final int maxInFlight;
+
+    /**
+     * The maximum width of an atlas, unless a single avatar is wider.
+     */
+    private final int maxWidth;
+
+    /**
+     * The spacing between avatars.
+     */
+    private final int padding;
+
+    /**
+     * The function returning the key of each builder in the index of an atlas.
+     */
+    private final Function<RoboHashRequestOptions, String> keyFunction;
+
+    /**
+     * Constructs a new generator from the state of the provided builder.
+     *
+     * @param builder the builder to construct the generator from
+     */
+    private TextureAtlasGenerator(Builder builder) {
+        this.client = builder.client;
+        this.maxInFlight = builder.maxInFlight;
+        this.maxWidth = builder.maxWidth;
+        this.padding = builder.padding;
+        this.keyFunction = builder.keyFunction;
+    }
+
+    /**
+     * Returns a new builder for a {@link TextureAtlasGenerator}.
+     *
+     * @return a new builder for a {@link TextureAtlasGenerator}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Generates an atlas of the avatars of the provided builders, blocking until it is composed.
+     *
+     * @param builders the builders to compose the avatars of
+     * @return the atlas
+     * @throws NullPointerException if the provided builders are null
+     * @throws JRoboHashException   if the atlas cannot be generated
+     * @see #generateAsync(Iterable)
+     */
+    public TextureAtlas generate(Iterable<? extends RoboHashRequestOptions> builders) {
+        try {
+            return generateAsync(builders).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof JRoboHashException) throw (JRoboHashException) cause;
+            throw new JRoboHashException("Failed to generate atlas, error: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Asynchronously generates an atlas of the avatars of the provided builders. Avatars are fetched with at most
+     * {@code maxInFlight} fetches outstanding and composed once every fetch completed. Builders whose key repeats
+     * an earlier key are skipped, thus each key is fetched once. Avatars which fail to fetch or decode are missing
+     * from the atlas and reported by {@link TextureAtlas#getFailedResults()}. An atlas without any avatar has a
+     * transparent image of a single pixel.
+     *
+     * @param builders the builders to compose the avatars of
+     * @return a future completed with the atlas
+     * @throws NullPointerException if the provided builders, any builder or the key of any builder are null
+     */
+    public CompletableFuture<TextureAtlas> generateAsync(Iterable<? extends RoboHashRequestOptions> builders) {
+        Preconditions.checkNotNull(builders);
+
+        Map<String, RoboHashRequestOptions> buildersByKey = new LinkedHashMap<>();
+        builders.forEach(builder -> buildersByKey.putIfAbsent(
+                Preconditions.checkNotNull(keyFunction.apply(Preconditions.checkNotNull(builder))), builder));
+
+        Map<RoboHashRequestOptions, RoboHashResult> results = new IdentityHashMap<>();
+        RoboHashClient atlasClient = client != null ? client : RoboHashRequestHandler.getClient();
+        return atlasClient.fetchAll(buildersByKey.values(), maxInFlight,
+                        result -> results.put(result.getBuilder(), result))
+                .thenApply(ignored -> compose(buildersByKey, results));
+    }
+
+    /**
+     * Decodes, packs and draws the fetched avatars.
+     *
+     * @param buildersByKey the builders keyed by their key, in the order they were provided
+     * @param results       the result of each builder
+     * @return the atlas
+     */
+    private TextureAtlas compose(Map<String, RoboHashRequestOptions> buildersByKey,
+                                 Map<RoboHashRequestOptions, RoboHashResult> results) {
+        List<String> keys = new ArrayList<>();
+        List<BufferedImage> images = new ArrayList<>();
+        List<RoboHashResult> failedResults = new ArrayList<>();
+        buildersByKey.forEach((key, builder) -> {
+            RoboHashResult result = results.get(builder);
+            if (!result.isSuccess()) {
+                failedResults.add(result);
+                return;
+            }
+
+            try {
+                images.add(result.getImage());
+                keys.add(key);
+            } catch (JRoboHashException e) {
+                failedResults.add(RoboHashResult.failure(builder, result.getUrl(), e));
+            }
+        });
+
+        List<Dimension> sizes = new ArrayList<>(images.size());
+        images.forEach(image -> sizes.add(new Dimension(image.getWidth(), image.getHeight())));
+        List<AtlasRegion> packedRegions = new ShelfPacker(maxWidth, padding).pack(sizes);
+
+        int width = 1;
+        int height = 1;
+        for (AtlasRegion region : packedRegions) {
+            width = Math.max(width, region.getX() + region.getWidth());
+            height = Math.max(height, region.getY() + region.getHeight());
+        }
+
+        BufferedImage atlasImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = atlasImage.createGraphics();
+        Map<String, AtlasRegion> regions = new LinkedHashMap<>();
+        try {
+            for (int index = 0; index < images.size(); index++) {
+                AtlasRegion region = packedRegions.get(index);
+                graphics.drawImage(images.get(index), region.getX(), region.getY(), null);
+                regions.put(keys.get(index), region);
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        return new TextureAtlas(atlasImage, regions, failedResults);
+    }
+
+    /**
+     * Returns the maximum number of outstanding fetches.
+     *
+     * @return the maximum number of outstanding fetches
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Returns the maximum width of an atlas, unless a single avatar is wider.
+     *
+     * @return the maximum width of an atlas
+     */
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * Returns the spacing between avatars.
+     *
+     * @return the spacing between avatars
+     */
+    public int getPadding() {
+        return padding;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link TextureAtlasGenerator}.
+     *
+     * @return a {@link String} representation for this {@link TextureAtlasGenerator}
+     */
+    @Override
+    public String toString() {
+        return "TextureAtlasGenerator{"
+                + "maxInFlight=" + maxInFlight
+                + ", maxWidth=" + maxWidth
+                + ", padding=" + padding
+                + "}";
+    }
+
+    /**
+     * A builder for a {@link TextureAtlasGenerator}.
+     */
+    public static final class Builder {
+        /**
+         * The client avatars are fetched with, null to use the client of the {@link RoboHashRequestHandler}.
+         */
+        private RoboHashClient client;
+
+        /**
+         * The maximum number of outstanding fetches.
+         */
+        private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+        /**
+         * The maximum width of an atlas, unless a single avatar is wider.
+         */
+        private int maxWidth = DEFAULT_MAX_WIDTH;
+
+        /**
+         * The spacing between avatars.
+         */
+        private int padding = DEFAULT_PADDING;
+
+        /**
+         * The function returning the key of each builder in the index of an atlas.
+         */
+        private Function<RoboHashRequestOptions, String> keyFunction = RoboHashRequestOptions::getAvatarKey;
+
+        /**
+         * Constructs a new builder with the default settings.
+         */
+        private Builder() {}
+
+        /**
+         * Sets the client avatars are fetched with, by default the client of the {@link RoboHashRequestHandler}
+         * at the time of each generation.
+         *
+         * @param client the client
+         * @return this builder
+         * @throws NullPointerException if the provided client is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setClient(RoboHashClient client) {
+            Preconditions.checkNotNull(client);
+
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of outstanding fetches.
+         *
+         * @param maxInFlight the maximum number of outstanding fetches
+         * @return this builder
+         * @throws IllegalArgumentException if the provided number is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxInFlight(int maxInFlight) {
+            Preconditions.checkArgument(maxInFlight > 0);
+
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets the maximum width of an atlas. An avatar wider than the maximum width is placed on a shelf of its own.
+         *
+         * @param maxWidth the maximum width of an atlas
+         * @return this builder
+         * @throws IllegalArgumentException if the provided width is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxWidth(int maxWidth) {
+            Preconditions.checkArgument(maxWidth > 0);
+
+            this.maxWidth = maxWidth;
+            return this;
+        }
+
+        /**
+         * Sets the spacing between avatars, which avoids neighbouring avatars bleeding into each other when
+         * the atlas is scaled.
+         *
+         * @param padding the spacing between avatars
+         * @return this builder
+         * @throws IllegalArgumentException if the provided padding is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setPadding(int padding) {
+            Preconditions.checkArgument(padding >= 0);
+
+            this.padding = padding;
+            return this;
+        }
+
+        /**
+         * Sets the function returning the key of each builder in the index of an atlas, by default its avatar key.
+         *
+         * @param keyFunction the function returning the key of each builder
+         * @return this builder
+         * @throws NullPointerException if the provided function is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setKeyFunction(Function<RoboHashRequestOptions, String> keyFunction) {
+            Preconditions.checkNotNull(keyFunction);
+
+            this.keyFunction = keyFunction;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link TextureAtlasGenerator} from the state of this builder.
+         *
+         * @return a new {@link TextureAtlasGenerator}
+         */
+        public TextureAtlasGenerator build() {
+            return new TextureAtlasGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.natche.jrobohash.balancing;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A RoboHash server within an {@link EndpointPool}, tracking the load and health the pool balances on.
+ * Instances are created by the pool and are thread-safe.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class Endpoint {
+    /**
+     * The weight of a new latency sample in the moving average.
+     */
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    /**
+     * The base URL requests to this endpoint are built against, always ending with a slash.
+     */
+    private final String baseUrl;
+
+    /**
+     * The number of requests in flight.
+     */
+    private int outstandingRequests;
+
+    /**
+     * The number of failed requests since the last successful one.
+     */
+    private int consecutiveFailures;
+
+    /**
+     * The exponentially weighted moving average of the latency of successful requests, in nanoseconds.
+     */
+    private double averageLatencyNanos;
+
+    /**
+     * Whether the endpoint is ejected from balancing.
+     */
+    private boolean ejected;
+
+    /**
+     * The time the current ejection ends at, in nanoseconds of the ticker of the pool.
+     */
+    private long ejectedUntilNanos;
+
+    /**
+     * The number of times the endpoint was ejected.
+     */
+    private int ejectionCount;
+
+    /**
+     * The number of requests which succeeded.
+     */
+    private long successCount;
+
+    /**
+     * The number of requests which failed.
+     */
+    private long failureCount;
+
+    /**
+     * Constructs a new endpoint.
+     *
+     * @param baseUrl the base URL requests to this endpoint are built against
+     * @throws NullPointerException     if the provided base URL is null
+     * @throws IllegalArgumentException if the provided base URL is empty or not an HTTP(S) URL
+     */
+    Endpoint(String baseUrl) {
+        Preconditions.checkNotNull(baseUrl);
+        Preconditions.checkArgument(!baseUrl.trim().isEmpty());
+        Preconditions.checkArgument(baseUrl.startsWith("http://") || baseUrl.startsWith("https://"));
+
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    /**
+     * Returns the base URL requests to this endpoint are built against.
+     *
+     * @return the base URL requests to this endpoint are built against
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     *
+     * @return the number of requests in flight
+     */
+    public synchronized int getOutstandingRequests() {
+        return outstandingRequests;
+    }
+
+    /**
+     * Returns the moving average of the latency of successful requests.
+     *
+     * @return the average latency in nanoseconds, zero if no request succeeded yet
+     */
+    public synchronized long getAverageLatencyNanos() {
+        return (long) averageLatencyNanos;
+    }
+
+    /**
+     * Returns whether this endpoint is currently ejected from balancing.
+     *
+     * @return whether this endpoint is currently ejected from balancing
+     */
+    public synchronized boolean isEjected() {
+        return ejected;
+    }
+
+    /**
+     * Returns the number of times this endpoint was ejected.
+     *
+     * @return the number of times this endpoint was ejected
+     */
+    public synchronized int getEjectionCount() {
+        return ejectionCount;
+    }
+
+    /**
+     * Returns the number of requests to this endpoint which succeeded.
+     *
+     * @return the number of requests which succeeded
+     */
+    public synchronized long getSuccessCount() {
+        return successCount;
+    }
+
+    /**
+     * Returns the number of requests to this endpoint which failed.
+     *
+     * @return the number of requests which failed
+     */
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Records that a request to this endpoint was sent.
+     */
+    synchronized void recordStart() {
+        outstandingRequests++;
+    }
+
+    /**
+     * Records that a request to this endpoint completed.
+     *
+     * @param healthy      whether the endpoint answered the request as a healthy server would
+     * @param latencyNanos the latency of the request in nanoseconds
+     * @return the number of consecutive failures, including this request
+     */
+    synchronized int recordCompletion(boolean healthy, long latencyNanos) {
+        outstandingRequests--;
+        if (healthy) {
+            successCount++;
+            consecutiveFailures = 0;
+            averageLatencyNanos = averageLatencyNanos == 0
+                    ? latencyNanos
+                    : averageLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - averageLatencyNanos);
+        } else {
+            failureCount++;
+            consecutiveFailures++;
+        }
+        return consecutiveFailures;
+    }
+
+    /**
+     * Records that a request to this endpoint was abandoned without an outcome, which says nothing about
+     * the health or latency of this endpoint.
+     */
+    synchronized void recordAbandonment() {
+        outstandingRequests--;
+    }
+
+    /**
+     * Ejects this endpoint from balancing until the provided time.
+     *
+     * @param untilNanos the time the ejection ends at
+     */
+    synchronized void eject(long untilNanos) {
+        ejected = true;
+        ejectedUntilNanos = untilNanos;
+        ejectionCount++;
+    }
+
+    /**
+     * Returns this endpoint to balancing if its ejection ended by the provided time.
+     *
+     * @param nowNanos the current time
+     * @return whether this endpoint is ejected
+     */
+    synchronized boolean refreshEjection(long nowNanos) {
+        if (ejected && nowNanos - ejectedUntilNanos >= 0) reinstate();
+        return ejected;
+    }
+
+    /**
+     * Returns this endpoint to balancing.
+     */
+    synchronized void reinstate() {
+        ejected = false;
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link Endpoint}.
+     *
+     * @return a {@link String} representation for this {@link Endpoint}
+     */
+    @Override
+    public synchronized String toString() {
+        return "Endpoint{"
+                + "baseUrl=\"" + baseUrl + "\""
+                + ", outstandingRequests=" + outstandingRequests
+                + ", ejected=" + ejected
+                + "}";
+    }
+}
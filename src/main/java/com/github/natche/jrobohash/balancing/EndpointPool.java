@@ -0,0 +1,594 @@
+package com.github.natche.jrobohash.balancing;
+
+import com.github.natche.jrobohash.enums.BalancingStrategy;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of RoboHash servers serving the same avatars, such as self-hosted replicas, which requests are
+ * balanced across so avatar traffic scales horizontally. Each request is sent to an endpoint selected by the
+ * {@link BalancingStrategy} among the healthy endpoints.
+ * <p>
+ * Health is checked passively: an endpoint failing a number of consecutive requests is ejected from balancing
+ * for a time growing with each ejection, while at most a share of the endpoints may be ejected at once.
+ * Optionally, endpoints are also probed actively at a fixed interval, which ejects failing endpoints and
+ * returns recovered endpoints to balancing early. Should every endpoint be ejected, all are used regardless.
+ * Instances are thread-safe and must be closed to stop active probes.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class EndpointPool implements Closeable {
+    /**
+     * The default strategy endpoints are selected with.
+     */
+    public static final BalancingStrategy DEFAULT_STRATEGY = BalancingStrategy.POWER_OF_TWO_CHOICES;
+
+    /**
+     * The default number of consecutive failed requests after which an endpoint is ejected.
+     */
+    public static final int DEFAULT_CONSECUTIVE_FAILURES = 5;
+
+    /**
+     * The default duration of the first ejection of an endpoint.
+     */
+    public static final Duration DEFAULT_BASE_EJECTION_TIME = Duration.ofSeconds(30);
+
+    /**
+     * The default maximum duration of an ejection.
+     */
+    public static final Duration DEFAULT_MAX_EJECTION_TIME = Duration.ofMinutes(5);
+
+    /**
+     * The default maximum share of endpoints which may be ejected at once.
+     */
+    public static final double DEFAULT_MAX_EJECTION_PERCENT = 0.5;
+
+    /**
+     * The default path requested from each endpoint by active probes.
+     */
+    public static final String DEFAULT_HEALTH_CHECK_PATH = "health.png?size=10x10";
+
+    /**
+     * The HTTP status code of a healthy probe.
+     */
+    private static final int HTTP_OK = 200;
+
+    /**
+     * The endpoints of this pool.
+     */
+    private final ImmutableList<Endpoint> endpoints;
+
+    /**
+     * The strategy endpoints are selected with.
+     */
+    private final BalancingStrategy strategy;
+
+    /**
+     * The number of consecutive failed requests after which an endpoint is ejected.
+     */
+    private final int consecutiveFailures;
+
+    /**
+     * The duration of the first ejection of an endpoint, in nanoseconds.
+     */
+    private final long baseEjectionNanos;
+
+    /**
+     * The maximum duration of an ejection, in nanoseconds.
+     */
+    private final long maxEjectionNanos;
+
+    /**
+     * The maximum number of endpoints which may be ejected at once.
+     */
+    private final int maxEjectedEndpoints;
+
+    /**
+     * The source of time.
+     */
+    private final Ticker ticker;
+
+    /**
+     * The path requested from each endpoint by active probes.
+     */
+    private final String healthCheckPath;
+
+    /**
+     * The timeout of an active probe, null if endpoints are not probed.
+     */
+    private final Duration healthCheckTimeout;
+
+    /**
+     * The client active probes are sent with, null if endpoints are not probed.
+     */
+    private final HttpClient healthCheckClient;
+
+    /**
+     * The executor scheduling active probes, null if endpoints are not probed periodically.
+     */
+    private final ScheduledExecutorService healthCheckExecutor;
+
+    /**
+     * The index of the next endpoint to consider, rotating to spread ties.
+     */
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    /**
+     * Constructs a new endpoint pool from the state of the provided builder.
+     *
+     * @param builder the builder to construct the pool from
+     */
+    private EndpointPool(Builder builder) {
+        this.endpoints = builder.endpoints.build();
+        this.strategy = builder.strategy;
+        this.consecutiveFailures = builder.consecutiveFailures;
+        this.baseEjectionNanos = builder.baseEjectionTime.toNanos();
+        this.maxEjectionNanos = builder.maxEjectionTime.toNanos();
+        this.maxEjectedEndpoints = (int) (endpoints.size() * builder.maxEjectionPercent);
+        this.ticker = builder.ticker;
+        this.healthCheckPath = builder.healthCheckPath;
+
+        if (builder.healthCheckInterval == null) {
+            this.healthCheckTimeout = null;
+            this.healthCheckClient = null;
+            this.healthCheckExecutor = null;
+        } else {
+            this.healthCheckTimeout = builder.healthCheckInterval;
+            this.healthCheckClient = HttpClient.newBuilder()
+                    .connectTimeout(healthCheckTimeout)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+            this.healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("jrobohash-health-check-%d")
+                    .setDaemon(true)
+                    .build());
+            long intervalNanos = builder.healthCheckInterval.toNanos();
+            healthCheckExecutor.scheduleWithFixedDelay(this::checkHealth,
+                    intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Returns a new builder for an {@link EndpointPool}.
+     *
+     * @return a new builder for an {@link EndpointPool}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Selects an endpoint for a request and records the request as in flight. Every acquired endpoint
+     * must be released via {@link #release(Endpoint, boolean, long)} once the request completes,
+     * or via {@link #abandon(Endpoint)} if the request was given up on.
+     *
+     * @return the selected endpoint
+     */
+    public Endpoint acquire() {
+        long nowNanos = ticker.read();
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.refreshEjection(nowNanos)) candidates.add(endpoint);
+        }
+        if (candidates.isEmpty()) candidates = endpoints;
+
+        Endpoint endpoint = select(candidates);
+        endpoint.recordStart();
+        return endpoint;
+    }
+
+    /**
+     * Records the completion of a request to the provided endpoint, ejecting the endpoint once it failed
+     * the configured number of consecutive requests.
+     *
+     * @param endpoint     the endpoint the request was sent to, as returned by {@link #acquire()}
+     * @param healthy      whether the endpoint answered the request as a healthy server would
+     * @param latencyNanos the latency of the request in nanoseconds
+     * @throws NullPointerException     if the provided endpoint is null
+     * @throws IllegalArgumentException if the provided endpoint is not of this pool
+     */
+    public void release(Endpoint endpoint, boolean healthy, long latencyNanos) {
+        Preconditions.checkNotNull(endpoint);
+        Preconditions.checkArgument(endpoints.contains(endpoint));
+
+        int failures = endpoint.recordCompletion(healthy, latencyNanos);
+        if (!healthy && failures >= consecutiveFailures) tryEject(endpoint);
+    }
+
+    /**
+     * Records that a request to the provided endpoint was given up on before it completed, such as when it was
+     * cancelled or aborted once the deadline of the call passed. Neither a success nor a failure is recorded.
+     *
+     * @param endpoint the endpoint the request was sent to, as returned by {@link #acquire()}
+     * @throws NullPointerException     if the provided endpoint is null
+     * @throws IllegalArgumentException if the provided endpoint is not of this pool
+     */
+    public void abandon(Endpoint endpoint) {
+        Preconditions.checkNotNull(endpoint);
+        Preconditions.checkArgument(endpoints.contains(endpoint));
+
+        endpoint.recordAbandonment();
+    }
+
+    /**
+     * Probes every endpoint once, ejecting endpoints which fail the probe and returning endpoints
+     * which pass it to balancing.
+     *
+     * @return a future which completes once every probe completed
+     * @throws IllegalStateException if this pool was built without active health checks
+     */
+    public CompletableFuture<Void> checkHealth() {
+        Preconditions.checkState(healthCheckClient != null);
+
+        CompletableFuture<?>[] probes = endpoints.stream().map(endpoint -> {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint.getBaseUrl() + healthCheckPath))
+                    .timeout(healthCheckTimeout)
+                    .GET()
+                    .build();
+            return healthCheckClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, throwable) -> {
+                        if (throwable == null && response.statusCode() == HTTP_OK) {
+                            endpoint.reinstate();
+                        } else {
+                            tryEject(endpoint);
+                        }
+                        return null;
+                    });
+        }).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(probes);
+    }
+
+    /**
+     * Selects an endpoint among the provided candidates using the strategy of this pool.
+     *
+     * @param candidates the candidate endpoints
+     * @return the selected endpoint
+     */
+    private Endpoint select(List<Endpoint> candidates) {
+        int size = candidates.size();
+        if (size == 1) return candidates.get(0);
+
+        switch (strategy) {
+            case ROUND_ROBIN:
+                return candidates.get(Math.floorMod(nextIndex.getAndIncrement(), size));
+            case LEAST_OUTSTANDING_REQUESTS:
+                int start = Math.floorMod(nextIndex.getAndIncrement(), size);
+                Endpoint least = candidates.get(start);
+                for (int offset = 1; offset < size; offset++) {
+                    Endpoint endpoint = candidates.get((start + offset) % size);
+                    if (endpoint.getOutstandingRequests() < least.getOutstandingRequests()) least = endpoint;
+                }
+                return least;
+            case POWER_OF_TWO_CHOICES:
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int first = random.nextInt(size);
+                int second = (first + 1 + random.nextInt(size - 1)) % size;
+                return lessLoaded(candidates.get(first), candidates.get(second));
+            default:
+                throw new IllegalStateException("Unsupported balancing strategy: " + strategy);
+        }
+    }
+
+    /**
+     * Returns the endpoint with fewer requests in flight, or with the lower average latency on a tie.
+     *
+     * @param first  the first endpoint
+     * @param second the second endpoint
+     * @return the less loaded endpoint
+     */
+    private static Endpoint lessLoaded(Endpoint first, Endpoint second) {
+        int firstOutstanding = first.getOutstandingRequests();
+        int secondOutstanding = second.getOutstandingRequests();
+        if (firstOutstanding != secondOutstanding) return firstOutstanding < secondOutstanding ? first : second;
+
+        return first.getAverageLatencyNanos() <= second.getAverageLatencyNanos() ? first : second;
+    }
+
+    /**
+     * Ejects the provided endpoint unless it already is or the maximum number of ejected endpoints is reached.
+     * The ejection lasts the base ejection time multiplied by the number of times the endpoint was ejected.
+     *
+     * @param endpoint the endpoint to eject
+     */
+    private synchronized void tryEject(Endpoint endpoint) {
+        long nowNanos = ticker.read();
+        if (endpoint.refreshEjection(nowNanos)) return;
+
+        int ejectedCount = 0;
+        for (Endpoint other : endpoints) {
+            if (other.refreshEjection(nowNanos)) ejectedCount++;
+        }
+        if (ejectedCount >= maxEjectedEndpoints) return;
+
+        long ejectionNanos = Math.min(maxEjectionNanos, baseEjectionNanos * (endpoint.getEjectionCount() + 1L));
+        endpoint.eject(nowNanos + ejectionNanos);
+    }
+
+    /**
+     * Returns the endpoints of this pool.
+     *
+     * @return the endpoints of this pool
+     */
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Returns the strategy endpoints are selected with.
+     *
+     * @return the strategy endpoints are selected with
+     */
+    public BalancingStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Returns the number of endpoints currently in balancing.
+     *
+     * @return the number of endpoints currently in balancing
+     */
+    public int getHealthyCount() {
+        long nowNanos = ticker.read();
+        return (int) endpoints.stream().filter(endpoint -> !endpoint.refreshEjection(nowNanos)).count();
+    }
+
+    /**
+     * Stops the active probes of this pool, if any.
+     */
+    @Override
+    public void close() {
+        if (healthCheckExecutor != null) healthCheckExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link EndpointPool}.
+     *
+     * @return a {@link String} representation for this {@link EndpointPool}
+     */
+    @Override
+    public String toString() {
+        return "EndpointPool{"
+                + "strategy=" + strategy
+                + ", endpoints=" + endpoints
+                + "}";
+    }
+
+    /**
+     * A builder for an {@link EndpointPool}.
+     */
+    public static final class Builder {
+        /**
+         * The endpoints of the pool.
+         */
+        private final ImmutableList.Builder<Endpoint> endpoints = ImmutableList.builder();
+
+        /**
+         * The number of endpoints added.
+         */
+        private int endpointCount;
+
+        /**
+         * The strategy endpoints are selected with.
+         */
+        private BalancingStrategy strategy = DEFAULT_STRATEGY;
+
+        /**
+         * The number of consecutive failed requests after which an endpoint is ejected.
+         */
+        private int consecutiveFailures = DEFAULT_CONSECUTIVE_FAILURES;
+
+        /**
+         * The duration of the first ejection of an endpoint.
+         */
+        private Duration baseEjectionTime = DEFAULT_BASE_EJECTION_TIME;
+
+        /**
+         * The maximum duration of an ejection.
+         */
+        private Duration maxEjectionTime = DEFAULT_MAX_EJECTION_TIME;
+
+        /**
+         * The maximum share of endpoints which may be ejected at once.
+         */
+        private double maxEjectionPercent = DEFAULT_MAX_EJECTION_PERCENT;
+
+        /**
+         * The interval endpoints are probed at, null if endpoints are not probed.
+         */
+        private Duration healthCheckInterval;
+
+        /**
+         * The path requested from each endpoint by active probes.
+         */
+        private String healthCheckPath = DEFAULT_HEALTH_CHECK_PATH;
+
+        /**
+         * The source of time.
+         */
+        private Ticker ticker = Ticker.systemTicker();
+
+        /**
+         * Constructs a new builder with the default settings.
+         */
+        private Builder() {}
+
+        /**
+         * Adds an endpoint to the pool. The first endpoint added is the primary endpoint, whose request URLs
+         * identify avatars in caches regardless of the endpoint serving them.
+         *
+         * @param baseUrl the base URL of the endpoint such as "https://robohash-1.example.com/"
+         * @return this builder
+         * @throws NullPointerException     if the provided base URL is null
+         * @throws IllegalArgumentException if the provided base URL is empty or not an HTTP(S) URL
+         */
+        @CanIgnoreReturnValue
+        public Builder addEndpoint(String baseUrl) {
+            endpoints.add(new Endpoint(baseUrl));
+            endpointCount++;
+            return this;
+        }
+
+        /**
+         * Sets the strategy endpoints are selected with.
+         *
+         * @param strategy the balancing strategy
+         * @return this builder
+         * @throws NullPointerException if the provided strategy is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setStrategy(BalancingStrategy strategy) {
+            Preconditions.checkNotNull(strategy);
+
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * Sets the number of consecutive failed requests after which an endpoint is ejected.
+         *
+         * @param consecutiveFailures the number of consecutive failures
+         * @return this builder
+         * @throws IllegalArgumentException if the provided number is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setConsecutiveFailures(int consecutiveFailures) {
+            Preconditions.checkArgument(consecutiveFailures > 0);
+
+            this.consecutiveFailures = consecutiveFailures;
+            return this;
+        }
+
+        /**
+         * Sets the duration of the first ejection of an endpoint. Each further ejection lasts
+         * this duration times the number of ejections, up to the maximum ejection time.
+         *
+         * @param baseEjectionTime the base ejection time
+         * @return this builder
+         * @throws NullPointerException     if the provided duration is null
+         * @throws IllegalArgumentException if the provided duration is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setBaseEjectionTime(Duration baseEjectionTime) {
+            Preconditions.checkNotNull(baseEjectionTime);
+            Preconditions.checkArgument(!baseEjectionTime.isNegative());
+
+            this.baseEjectionTime = baseEjectionTime;
+            return this;
+        }
+
+        /**
+         * Sets the maximum duration of an ejection.
+         *
+         * @param maxEjectionTime the maximum ejection time
+         * @return this builder
+         * @throws NullPointerException     if the provided duration is null
+         * @throws IllegalArgumentException if the provided duration is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxEjectionTime(Duration maxEjectionTime) {
+            Preconditions.checkNotNull(maxEjectionTime);
+            Preconditions.checkArgument(!maxEjectionTime.isNegative());
+
+            this.maxEjectionTime = maxEjectionTime;
+            return this;
+        }
+
+        /**
+         * Sets the maximum share of endpoints which may be ejected at once, which keeps a widespread
+         * failure from concentrating all traffic on the few remaining endpoints.
+         *
+         * @param maxEjectionPercent the maximum share of ejected endpoints in the range [0, 1]
+         * @return this builder
+         * @throws IllegalArgumentException if the provided share is out of range
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxEjectionPercent(double maxEjectionPercent) {
+            Preconditions.checkArgument(maxEjectionPercent >= 0 && maxEjectionPercent <= 1);
+
+            this.maxEjectionPercent = maxEjectionPercent;
+            return this;
+        }
+
+        /**
+         * Enables active probes of every endpoint at the provided interval, each of which must succeed
+         * within the interval.
+         *
+         * @param healthCheckInterval the interval endpoints are probed at
+         * @return this builder
+         * @throws NullPointerException     if the provided interval is null
+         * @throws IllegalArgumentException if the provided interval is not positive
+         */
+        @CanIgnoreReturnValue
+        public Builder setHealthCheckInterval(Duration healthCheckInterval) {
+            Preconditions.checkNotNull(healthCheckInterval);
+            Preconditions.checkArgument(!healthCheckInterval.isNegative() && !healthCheckInterval.isZero());
+
+            this.healthCheckInterval = healthCheckInterval;
+            return this;
+        }
+
+        /**
+         * Sets the path requested from each endpoint by active probes, relative to its base URL.
+         *
+         * @param healthCheckPath the path such as "health.png?size=10x10"
+         * @return this builder
+         * @throws NullPointerException     if the provided path is null
+         * @throws IllegalArgumentException if the provided path is empty
+         */
+        @CanIgnoreReturnValue
+        public Builder setHealthCheckPath(String healthCheckPath) {
+            Preconditions.checkNotNull(healthCheckPath);
+            Preconditions.checkArgument(!healthCheckPath.trim().isEmpty());
+
+            this.healthCheckPath = healthCheckPath.startsWith("/") ? healthCheckPath.substring(1) : healthCheckPath;
+            return this;
+        }
+
+        /**
+         * Sets the source of time, such as a fake ticker for tests.
+         *
+         * @param ticker the source of time
+         * @return this builder
+         * @throws NullPointerException if the provided ticker is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setTicker(Ticker ticker) {
+            Preconditions.checkNotNull(ticker);
+
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link EndpointPool} from the state of this builder, starting its active probes if enabled.
+         *
+         * @return a new {@link EndpointPool}
+         * @throws IllegalStateException if no endpoints were added or the base ejection time exceeds the maximum
+         */
+        public EndpointPool build() {
+            Preconditions.checkState(endpointCount > 0);
+            Preconditions.checkState(baseEjectionTime.compareTo(maxEjectionTime) <= 0);
+
+            return new EndpointPool(this);
+        }
+    }
+}
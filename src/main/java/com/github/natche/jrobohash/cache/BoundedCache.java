@@ -0,0 +1,360 @@
+package com.github.natche.jrobohash.cache;
+
+import com.github.natche.jrobohash.request.RoboHashRequestBuilderImpl;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Weigher;
+import com.google.common.primitives.Ints;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.OptionalLong;
+
+/**
+ * A thread-safe in-memory cache bounded by the total weight of its entries, such as their size in bytes.
+ * When an insertion would exceed the maximum weight, entries chosen by the configured {@link EvictionPolicy}
+ * are evicted until the new entry fits. Hits, misses and evictions are counted. An entry may hold the time
+ * its value was loaded at, such as a reading of the ticker of an {@link ExpiryPolicy}, so that clients
+ * sharing a cache agree on the age of its entries.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class BoundedCache<K, V> {
+    /**
+     * The approximate weight of a default sized, decoded avatar, used to size eviction policies.
+     */
+    private static final int DEFAULT_IMAGE_WEIGHT =
+            RoboHashRequestBuilderImpl.DEFAULT_WIDTH * RoboHashRequestBuilderImpl.DEFAULT_HEIGHT * 4;
+
+    /**
+     * The entries of this cache.
+     */
+    private final HashMap<K, Entry<V>> entries = new HashMap<>();
+
+    /**
+     * The maximum total weight of the entries of this cache.
+     */
+    private final long maximumWeight;
+
+    /**
+     * The weigher computing the weight of each entry.
+     */
+    private final Weigher<? super K, ? super V> weigher;
+
+    /**
+     * The policy choosing the entries to evict.
+     */
+    private final EvictionPolicy<K> evictionPolicy;
+
+    /**
+     * The total weight of the entries of this cache.
+     */
+    private long totalWeight;
+
+    /**
+     * The number of lookups which found an entry.
+     */
+    private long hitCount;
+
+    /**
+     * The number of lookups which found no entry.
+     */
+    private long missCount;
+
+    /**
+     * The number of entries evicted to make room for others.
+     */
+    private long evictionCount;
+
+    /**
+     * Constructs a new bounded cache.
+     *
+     * @param maximumWeight  the maximum total weight of the entries of this cache
+     * @param weigher        the weigher computing the weight of each entry
+     * @param evictionPolicy the policy choosing the entries to evict, which must not be shared with another cache
+     * @throws NullPointerException     if the provided weigher or eviction policy is null
+     * @throws IllegalArgumentException if the provided maximum weight is less than one
+     */
+    public BoundedCache(long maximumWeight, Weigher<? super K, ? super V> weigher, EvictionPolicy<K> evictionPolicy) {
+        Preconditions.checkArgument(maximumWeight > 0);
+        Preconditions.checkNotNull(weigher);
+        Preconditions.checkNotNull(evictionPolicy);
+
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    /**
+     * Returns a new cache of decoded images bounded by the provided number of bytes, where each image
+     * weighs its width times its height times its bytes per pixel. The cache uses a {@link TinyLfuEvictionPolicy}.
+     *
+     * @param maximumBytes the maximum number of bytes of decoded image data held
+     * @param <K>          the type of keys
+     * @return a new cache of decoded images
+     * @throws IllegalArgumentException if the provided maximum is less than one
+     */
+    public static <K> BoundedCache<K, BufferedImage> forImages(long maximumBytes) {
+        Preconditions.checkArgument(maximumBytes > 0);
+
+        int expectedEntries = Ints.saturatedCast(Math.max(16, maximumBytes / DEFAULT_IMAGE_WEIGHT));
+        return forImages(maximumBytes, new TinyLfuEvictionPolicy<>(expectedEntries));
+    }
+
+    /**
+     * Returns a new cache of decoded images bounded by the provided number of bytes, where each image
+     * weighs its width times its height times its bytes per pixel.
+     *
+     * @param maximumBytes   the maximum number of bytes of decoded image data held
+     * @param evictionPolicy the policy choosing the entries to evict
+     * @param <K>            the type of keys
+     * @return a new cache of decoded images
+     * @throws NullPointerException     if the provided eviction policy is null
+     * @throws IllegalArgumentException if the provided maximum is less than one
+     */
+    public static <K> BoundedCache<K, BufferedImage> forImages(long maximumBytes, EvictionPolicy<K> evictionPolicy) {
+        return new BoundedCache<>(maximumBytes, (key, image) -> imageWeight(image), evictionPolicy);
+    }
+
+    /**
+     * Returns the number of bytes the pixel data of the provided decoded image occupies.
+     *
+     * @param image the image
+     * @return the number of bytes the pixel data of the provided image occupies
+     * @throws NullPointerException if the provided image is null
+     */
+    public static int imageWeight(BufferedImage image) {
+        Preconditions.checkNotNull(image);
+
+        int bytesPerPixel = Math.max(1, (image.getColorModel().getPixelSize() + Byte.SIZE - 1) / Byte.SIZE);
+        return Ints.saturatedCast((long) image.getWidth() * image.getHeight() * bytesPerPixel);
+    }
+
+    /**
+     * Returns the value cached for the provided key.
+     *
+     * @param key the key
+     * @return the value cached for the provided key, or null if none is cached
+     * @throws NullPointerException if the provided key is null
+     */
+    public synchronized V getIfPresent(K key) {
+        Preconditions.checkNotNull(key);
+
+        evictionPolicy.recordAccess(key);
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * Caches the provided value for the provided key, replacing any existing value, and then evicts entries
+     * chosen by the eviction policy until the maximum weight is respected. The eviction policy may reject the
+     * new entry itself, and a value weighing more than the maximum weight of this cache is never cached.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return whether the value remains cached
+     * @throws NullPointerException     if the provided key or value is null
+     * @throws IllegalArgumentException if the weigher returns a negative weight
+     */
+    public boolean put(K key, V value) {
+        return put(key, value, OptionalLong.empty());
+    }
+
+    /**
+     * Caches the provided value for the provided key along with the time it was loaded at, evicting entries
+     * as {@link #put(Object, Object)} describes.
+     *
+     * @param key      the key
+     * @param value    the value
+     * @param loadTime the time the value was loaded at
+     * @return whether the value remains cached
+     * @throws NullPointerException     if the provided key or value is null
+     * @throws IllegalArgumentException if the weigher returns a negative weight
+     */
+    public boolean put(K key, V value, long loadTime) {
+        return put(key, value, OptionalLong.of(loadTime));
+    }
+
+    /**
+     * Returns the time the value cached for the provided key was loaded at. The lookup is neither counted
+     * as a hit or miss nor recorded as an access by the eviction policy.
+     *
+     * @param key the key
+     * @return the time the value cached for the provided key was loaded at, or empty if none is cached
+     * or it was cached without a load time
+     * @throws NullPointerException if the provided key is null
+     */
+    public synchronized OptionalLong getLoadTime(K key) {
+        Preconditions.checkNotNull(key);
+
+        Entry<V> entry = entries.get(key);
+        return entry == null ? OptionalLong.empty() : entry.loadTime;
+    }
+
+    /**
+     * Caches the provided value for the provided key along with the provided load time, evicting entries
+     * as {@link #put(Object, Object)} describes.
+     *
+     * @param key      the key
+     * @param value    the value
+     * @param loadTime the time the value was loaded at, empty if unknown
+     * @return whether the value remains cached
+     * @throws NullPointerException     if the provided key or value is null
+     * @throws IllegalArgumentException if the weigher returns a negative weight
+     */
+    private synchronized boolean put(K key, V value, OptionalLong loadTime) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(value);
+
+        int weight = weigher.weigh(key, value);
+        Preconditions.checkArgument(weight >= 0);
+
+        remove(key);
+        if (weight > maximumWeight) return false;
+
+        entries.put(key, new Entry<>(value, weight, loadTime));
+        totalWeight += weight;
+        evictionPolicy.recordInsertion(key);
+
+        while (totalWeight > maximumWeight) {
+            K victim = evictionPolicy.selectVictim();
+            Preconditions.checkState(victim != null && entries.containsKey(victim));
+
+            remove(victim);
+            evictionCount++;
+        }
+
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Removes the value cached for the provided key, if any.
+     *
+     * @param key the key
+     * @return whether a value was removed
+     * @throws NullPointerException if the provided key is null
+     */
+    public synchronized boolean invalidate(K key) {
+        Preconditions.checkNotNull(key);
+
+        return remove(key);
+    }
+
+    /**
+     * Removes all values of this cache.
+     */
+    public synchronized void invalidateAll() {
+        entries.keySet().forEach(evictionPolicy::recordRemoval);
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Returns the number of entries of this cache.
+     *
+     * @return the number of entries of this cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total weight of the entries of this cache.
+     *
+     * @return the total weight of the entries of this cache
+     */
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    /**
+     * Returns the maximum total weight of the entries of this cache.
+     *
+     * @return the maximum total weight of the entries of this cache
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns a snapshot of the counters of this cache.
+     *
+     * @return a snapshot of the counters of this cache
+     */
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount, missCount, evictionCount);
+    }
+
+    /**
+     * Removes the entry for the provided key, if any.
+     *
+     * @param key the key
+     * @return whether an entry was removed
+     */
+    private boolean remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry == null) return false;
+
+        totalWeight -= entry.weight;
+        evictionPolicy.recordRemoval(key);
+        return true;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link BoundedCache}.
+     *
+     * @return a {@link String} representation for this {@link BoundedCache}
+     */
+    @Override
+    public synchronized String toString() {
+        return "BoundedCache{"
+                + "size=" + entries.size()
+                + ", weight=" + totalWeight
+                + ", maximumWeight=" + maximumWeight
+                + ", evictionPolicy=" + evictionPolicy.getClass().getSimpleName()
+                + "}";
+    }
+
+    /**
+     * A cached value, its weight and the time it was loaded at.
+     *
+     * @param <V> the type of the value
+     */
+    private static final class Entry<V> {
+        /**
+         * The cached value.
+         */
+        private final V value;
+
+        /**
+         * The weight of the cached value.
+         */
+        private final int weight;
+
+        /**
+         * The time the cached value was loaded at, empty if unknown.
+         */
+        private final OptionalLong loadTime;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param value    the cached value
+         * @param weight   the weight of the cached value
+         * @param loadTime the time the cached value was loaded at, empty if unknown
+         */
+        private Entry(V value, int weight, OptionalLong loadTime) {
+            this.value = value;
+            this.weight = weight;
+            this.loadTime = loadTime;
+        }
+    }
+}
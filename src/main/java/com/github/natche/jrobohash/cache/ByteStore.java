@@ -0,0 +1,131 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+/**
+ * A store of encoded image bytes, such as the PNG bodies returned by a RoboHash server, keyed by request.
+ * Encoded images are a small fraction of the size of their decoded form, thus a store holds many more
+ * avatars for the same memory budget, and callers which only forward the bytes never pay for a decode.
+ * Implementations are thread-safe.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public interface ByteStore {
+    /**
+     * Returns the bytes stored for the provided key.
+     *
+     * @param key the key
+     * @return the bytes stored for the provided key, or null if none are stored
+     * @throws NullPointerException if the provided key is null
+     */
+    byte[] getIfPresent(String key);
+
+    /**
+     * Writes the bytes stored for the provided key to the provided blocking channel, such as the socket of
+     * a response. Stores holding their bytes outside the heap override this to write without copying them
+     * into a temporary array.
+     *
+     * @param key     the key
+     * @param channel the blocking channel to write the bytes to
+     * @return whether bytes were stored for the provided key and written
+     * @throws NullPointerException if the provided key or channel is null
+     * @throws IOException          if writing to the channel fails
+     */
+    default boolean transferTo(String key, WritableByteChannel channel) throws IOException {
+        Preconditions.checkNotNull(channel);
+
+        byte[] bytes = getIfPresent(key);
+        if (bytes == null) return false;
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return true;
+    }
+
+    /**
+     * Applies the provided reader to a read-only buffer of the bytes stored for the provided key, such as
+     * to decode an image. Stores holding their bytes outside the heap override this to pass a view of them
+     * rather than a copy. The buffer is valid only while the reader runs and must not be retained.
+     *
+     * @param key    the key
+     * @param reader the function reading the bytes, which must not return null
+     * @param <T>    the type of the result of the reader
+     * @return the result of the reader, or null if no bytes are stored for the provided key
+     * @throws NullPointerException if the provided key or reader is null
+     */
+    default <T> T read(String key, Function<ByteBuffer, T> reader) {
+        Preconditions.checkNotNull(reader);
+
+        byte[] bytes = getIfPresent(key);
+        if (bytes == null) return null;
+
+        return reader.apply(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+    }
+
+    /**
+     * Stores the provided bytes for the provided key, replacing any bytes already stored for the key.
+     * The store may decline to hold the bytes, such as when they exceed its capacity.
+     *
+     * @param key   the key
+     * @param bytes the bytes, which must not be modified afterwards
+     * @return whether the bytes are stored
+     * @throws NullPointerException if the provided key or bytes are null
+     */
+    boolean put(String key, byte[] bytes);
+
+    /**
+     * Stores the provided bytes for the provided key along with the time they were loaded at, such as a reading
+     * of the ticker of an {@link ExpiryPolicy}, replacing any bytes already stored for the key. Stores which do
+     * not track load times override neither this nor {@link #getLoadTime(String)}, and their entries have no
+     * known load time.
+     *
+     * @param key      the key
+     * @param bytes    the bytes, which must not be modified afterwards
+     * @param loadTime the time the bytes were loaded at
+     * @return whether the bytes are stored
+     * @throws NullPointerException if the provided key or bytes are null
+     */
+    default boolean put(String key, byte[] bytes, long loadTime) {
+        return put(key, bytes);
+    }
+
+    /**
+     * Returns the time the bytes stored for the provided key were loaded at, as provided to
+     * {@link #put(String, byte[], long)}. The lookup is not counted by the statistics of this store.
+     *
+     * @param key the key
+     * @return the time the bytes stored for the provided key were loaded at, or empty if none are stored
+     * or they were stored without a load time
+     * @throws NullPointerException if the provided key is null
+     */
+    default OptionalLong getLoadTime(String key) {
+        Preconditions.checkNotNull(key);
+
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Removes the bytes stored for the provided key, if any.
+     *
+     * @param key the key
+     * @return whether bytes were removed
+     * @throws NullPointerException if the provided key is null
+     */
+    boolean invalidate(String key);
+
+    /**
+     * Returns a snapshot of the counters of this store.
+     *
+     * @return a snapshot of the counters of this store
+     */
+    CacheStatistics getStatistics();
+}
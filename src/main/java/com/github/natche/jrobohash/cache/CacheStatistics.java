@@ -0,0 +1,137 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An immutable snapshot of the counters of a cache.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class CacheStatistics {
+    /**
+     * The number of lookups which found an entry.
+     */
+    private final long hitCount;
+
+    /**
+     * The number of lookups which found no entry.
+     */
+    private final long missCount;
+
+    /**
+     * The number of entries evicted to make room for others.
+     */
+    private final long evictionCount;
+
+    /**
+     * Constructs a new snapshot of cache counters.
+     *
+     * @param hitCount      the number of lookups which found an entry
+     * @param missCount     the number of lookups which found no entry
+     * @param evictionCount the number of entries evicted to make room for others
+     * @throws IllegalArgumentException if any of the provided counts are negative
+     */
+    public CacheStatistics(long hitCount, long missCount, long evictionCount) {
+        Preconditions.checkArgument(hitCount >= 0);
+        Preconditions.checkArgument(missCount >= 0);
+        Preconditions.checkArgument(evictionCount >= 0);
+
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Returns the number of lookups which found an entry.
+     *
+     * @return the number of lookups which found an entry
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups which found no entry.
+     *
+     * @return the number of lookups which found no entry
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for others.
+     *
+     * @return the number of entries evicted to make room for others
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the total number of lookups.
+     *
+     * @return the total number of lookups
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Returns the ratio of lookups which found an entry, or {@code 1.0} if no lookups were made.
+     *
+     * @return the ratio of lookups which found an entry
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Returns a hashcode for this {@link CacheStatistics}.
+     *
+     * @return a hashcode for this {@link CacheStatistics}
+     */
+    @Override
+    public int hashCode() {
+        int ret = Long.hashCode(hitCount);
+        ret = 31 * ret + Long.hashCode(missCount);
+        ret = 31 * ret + Long.hashCode(evictionCount);
+        return ret;
+    }
+
+    /**
+     * Returns whether the provided object equals {@code this} object or is equal as defined by an equivalence relation.
+     *
+     * @param o the other object to compare against {@code this}
+     * @return whether the provided object equals {@code this} object or is equal as defined by an equivalence relation
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof CacheStatistics)) {
+            return false;
+        }
+
+        CacheStatistics other = (CacheStatistics) o;
+        return other.hitCount == hitCount
+                && other.missCount == missCount
+                && other.evictionCount == evictionCount;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link CacheStatistics}.
+     *
+     * @return a {@link String} representation for this {@link CacheStatistics}
+     */
+    @Override
+    public String toString() {
+        return "CacheStatistics{"
+                + "hitCount=" + hitCount
+                + ", missCount=" + missCount
+                + ", evictionCount=" + evictionCount
+                + "}";
+    }
+}
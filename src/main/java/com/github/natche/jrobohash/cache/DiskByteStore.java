@@ -0,0 +1,1052 @@
+package com.github.natche.jrobohash.cache;
+
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A persistent {@link ByteStore} holding encoded images on disk so that a restarted service starts warm.
+ * <p>
+ * Entries are appended to a single data file, and a memory-mapped open-addressing hash index maps the
+ * 64-bit fingerprint of each key to the position and length of its record and the time it was loaded at.
+ * A lookup thus costs one probe of the mapped index and one positional read, with no file per avatar, which
+ * lets a store hold tens of millions of entries. Each record also holds its key, which is verified on lookup.
+ * Load times are readings of a ticker of the process which stored them, thus they are forgotten on open.
+ * <p>
+ * Records are appended to the data file, and replaced and invalidated records are reclaimed by compaction:
+ * once an append would exceed the maximum size, the live records are copied into a new data file which
+ * replaces the old one. If the live records alone leave too little room, the oldest are evicted first, so
+ * that each compaction frees at least a quarter of the maximum size. Appends are forced to disk before they
+ * are committed to the index, a record beyond the committed end of the data file is discarded on open, and
+ * an index entry which does not locate a valid record for its key is treated as a miss.
+ * <p>
+ * Lookups run concurrently with each other, while insertions, invalidations and compactions are exclusive.
+ * A transfer locates its record under the lock but copies it outside of it, holding a reference to the data
+ * file it located the record in, so that a slow channel delays neither insertions nor compactions. Records
+ * are never rewritten in place, and a data file replaced by a compaction is closed only once released.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class DiskByteStore implements ByteStore, Closeable {
+    /**
+     * The name of the data file within the directory of a store.
+     */
+    public static final String DATA_FILE_NAME = "avatars.data";
+
+    /**
+     * The name of the index file within the directory of a store.
+     */
+    public static final String INDEX_FILE_NAME = "avatars.index";
+
+    /**
+     * The name of the file live records are copied to during a compaction.
+     */
+    private static final String COMPACTION_FILE_NAME = "avatars.data.compact";
+
+    /**
+     * The share of the maximum size which the live records and the pending record may occupy after a compaction.
+     */
+    private static final double COMPACTION_TARGET = 0.75;
+
+    /**
+     * The value identifying an index file of a disk store.
+     */
+    private static final int MAGIC = 0x4A524844;
+
+    /**
+     * The version of the file format.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The size of the index header holding the magic, version, slot count, entry count and data length.
+     */
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * The position of the slot count within the index header.
+     */
+    private static final int SLOT_COUNT_POSITION = 8;
+
+    /**
+     * The position of the entry count within the index header.
+     */
+    private static final int ENTRY_COUNT_POSITION = 12;
+
+    /**
+     * The position of the committed length of the data file within the index header.
+     */
+    private static final int DATA_LENGTH_POSITION = 16;
+
+    /**
+     * The size of an index slot, a fingerprint followed by a packed record location and a load time.
+     */
+    private static final int SLOT_SIZE = 24;
+
+    /**
+     * The position of the load time within an index slot.
+     */
+    private static final int LOAD_TIME_POSITION = 2 * Long.BYTES;
+
+    /**
+     * The load time of an entry stored without one or by an earlier process.
+     */
+    private static final long UNKNOWN_LOAD_TIME = Long.MIN_VALUE;
+
+    /**
+     * The number of slots of a new index.
+     */
+    private static final int INITIAL_SLOT_COUNT = 1024;
+
+    /**
+     * The maximum number of slots, bounded by the size of a single mapping.
+     */
+    private static final int MAX_SLOT_COUNT = 1 << 26;
+
+    /**
+     * The maximum share of occupied slots before the index is grown.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    /**
+     * The number of low bits of a packed record location holding the record length.
+     */
+    private static final int LENGTH_BITS = 24;
+
+    /**
+     * The maximum length of a record, bounded by the bits of a packed record location.
+     */
+    private static final int MAX_RECORD_LENGTH = (1 << LENGTH_BITS) - 1;
+
+    /**
+     * The size of a record header holding the key length and value length.
+     */
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * The directory holding the files of this store.
+     */
+    private final Path directory;
+
+    /**
+     * The maximum size of the data file in bytes.
+     */
+    private final long maximumBytes;
+
+    /**
+     * The lock shared by lookups and held exclusively by insertions, invalidations and compactions.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The channel of the index file.
+     */
+    private final FileChannel indexChannel;
+
+    /**
+     * The number of lookups which found an entry.
+     */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /**
+     * The number of lookups which found no entry.
+     */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * The number of entries evicted by compactions.
+     */
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * The channel of the data file, replaced by each compaction.
+     */
+    private FileChannel dataChannel;
+
+    /**
+     * The number of references to the data channel, one held by this store and one by each transfer.
+     */
+    private AtomicInteger dataChannelReferences = new AtomicInteger(1);
+
+    /**
+     * The mapped index file.
+     */
+    private MappedByteBuffer index;
+
+    /**
+     * The number of slots of the index, always a power of two.
+     */
+    private int slotCount;
+
+    /**
+     * The number of entries of this store.
+     */
+    private int entryCount;
+
+    /**
+     * The committed length of the data file.
+     */
+    private long dataLength;
+
+    /**
+     * Whether this store has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructs a new store from its opened files.
+     *
+     * @param directory    the directory holding the files of this store
+     * @param maximumBytes the maximum size of the data file in bytes
+     * @param dataChannel  the channel of the data file
+     * @param indexChannel the channel of the index file
+     * @throws IOException if the index cannot be mapped or initialized
+     */
+    private DiskByteStore(Path directory, long maximumBytes,
+                          FileChannel dataChannel, FileChannel indexChannel) throws IOException {
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        this.dataChannel = dataChannel;
+        this.indexChannel = indexChannel;
+
+        if (indexChannel.size() == 0) {
+            slotCount = INITIAL_SLOT_COUNT;
+            index = map(slotCount);
+            index.putInt(0, MAGIC);
+            index.putInt(4, VERSION);
+            writeHeader();
+        } else {
+            MappedByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new JRoboHashException("Failed to open disk cache, unrecognized index file: " + directory);
+            }
+
+            slotCount = header.getInt(SLOT_COUNT_POSITION);
+            entryCount = header.getInt(ENTRY_COUNT_POSITION);
+            dataLength = header.getLong(DATA_LENGTH_POSITION);
+            index = map(slotCount);
+            for (int slot = 0; slot < slotCount; slot++) {
+                index.putLong(slotPosition(slot) + LOAD_TIME_POSITION, UNKNOWN_LOAD_TIME);
+            }
+        }
+
+        long dataSize = dataChannel.size();
+        if (dataSize > dataLength) dataChannel.truncate(dataLength);
+        if (dataSize < dataLength) discardBeyond(dataSize);
+        Files.deleteIfExists(directory.resolve(COMPACTION_FILE_NAME));
+    }
+
+    /**
+     * Opens the store in the provided directory, creating the directory and its files if they do not exist.
+     *
+     * @param directory    the directory holding the files of the store
+     * @param maximumBytes the maximum size of the data file in bytes
+     * @return the opened store
+     * @throws NullPointerException     if the provided directory is null
+     * @throws IllegalArgumentException if the provided maximum is less than one
+     * @throws JRoboHashException       if the store cannot be opened
+     */
+    public static DiskByteStore open(Path directory, long maximumBytes) {
+        Preconditions.checkNotNull(directory);
+        Preconditions.checkArgument(maximumBytes > 0);
+
+        FileChannel dataChannel = null;
+        FileChannel indexChannel = null;
+        try {
+            Files.createDirectories(directory);
+            dataChannel = FileChannel.open(directory.resolve(DATA_FILE_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            indexChannel = FileChannel.open(directory.resolve(INDEX_FILE_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new DiskByteStore(directory, maximumBytes, dataChannel, indexChannel);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(dataChannel);
+            closeQuietly(indexChannel);
+            if (e instanceof JRoboHashException) throw (JRoboHashException) e;
+            throw new JRoboHashException("Failed to open disk cache: " + directory + ", error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] getIfPresent(String key) {
+        Preconditions.checkNotNull(key);
+
+        lock.readLock().lock();
+        try {
+            ByteBuffer record = readRecord(key);
+            if (record == null) return null;
+
+            byte[] bytes = new byte[record.remaining()];
+            record.get(bytes);
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The bytes are transferred from the data file to the channel by the operating system where supported.
+     */
+    @Override
+    public boolean transferTo(String key, WritableByteChannel channel) throws IOException {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(channel);
+
+        FileChannel source;
+        AtomicInteger references;
+        long position;
+        int valueLength;
+        lock.readLock().lock();
+        try {
+            long location = findLocation(key);
+            if (location == 0) return false;
+
+            long offset = location >>> LENGTH_BITS;
+            int recordLength = (int) (location & MAX_RECORD_LENGTH);
+            int headerLength = RECORD_HEADER_SIZE + utf8Length(key);
+            if (recordLength < headerLength) {
+                recordMiss();
+                return false;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(headerLength);
+            readFully(header, offset);
+            header.flip();
+            int keyLength = header.getInt();
+            valueLength = header.getInt();
+            if (!isValidRecord(recordLength, keyLength, valueLength) || !matchesKey(header, keyLength, key)) {
+                recordMiss();
+                return false;
+            }
+
+            hitCount.incrementAndGet();
+            position = offset + RECORD_HEADER_SIZE + keyLength;
+            source = dataChannel;
+            references = dataChannelReferences;
+            references.incrementAndGet();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            long transferred = 0;
+            while (transferred < valueLength) {
+                transferred += source.transferTo(position + transferred, valueLength - transferred, channel);
+            }
+            return true;
+        } finally {
+            release(source, references);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The data file is compacted if the bytes would exceed its maximum size, evicting the oldest entries
+     * as needed. The bytes are declined only if their record alone exceeds the maximum size.
+     *
+     * @throws JRoboHashException if the bytes cannot be written
+     */
+    @Override
+    public boolean put(String key, byte[] bytes) {
+        return put(key, bytes, UNKNOWN_LOAD_TIME);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The bytes are stored as by {@link #put(String, byte[])}.
+     *
+     * @throws JRoboHashException if the bytes cannot be written
+     */
+    @Override
+    public boolean put(String key, byte[] bytes, long loadTime) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(bytes);
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long recordLength = (long) RECORD_HEADER_SIZE + keyBytes.length + bytes.length;
+
+        lock.writeLock().lock();
+        try {
+            Preconditions.checkState(!closed);
+            if (recordLength > MAX_RECORD_LENGTH || recordLength > maximumBytes) return false;
+            if (dataLength + recordLength > maximumBytes) compact(recordLength);
+
+            long fingerprint = fingerprint(key);
+            int slot = findSlot(fingerprint);
+            if (slot < 0 && !ensureCapacity()) return false;
+
+            ByteBuffer record = ByteBuffer.allocate((int) recordLength);
+            record.putInt(keyBytes.length).putInt(bytes.length).put(keyBytes).put(bytes).flip();
+            try {
+                while (record.hasRemaining()) {
+                    dataChannel.write(record, dataLength + record.position());
+                }
+                dataChannel.force(false);
+            } catch (IOException e) {
+                throw new JRoboHashException("Failed to write to disk cache: " + directory
+                        + ", error: " + e.getMessage());
+            }
+
+            long location = dataLength << LENGTH_BITS | recordLength;
+            dataLength += recordLength;
+            if (slot >= 0) {
+                index.putLong(slotPosition(slot) + Long.BYTES, location);
+                index.putLong(slotPosition(slot) + LOAD_TIME_POSITION, loadTime);
+            } else {
+                insert(fingerprint, location, loadTime);
+                entryCount++;
+            }
+            writeHeader();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Entries stored before this store was opened have no known load time.
+     */
+    @Override
+    public OptionalLong getLoadTime(String key) {
+        Preconditions.checkNotNull(key);
+
+        lock.readLock().lock();
+        try {
+            Preconditions.checkState(!closed);
+
+            int slot = findSlot(fingerprint(key));
+            long loadTime = slot < 0 ? UNKNOWN_LOAD_TIME : index.getLong(slotPosition(slot) + LOAD_TIME_POSITION);
+            return loadTime == UNKNOWN_LOAD_TIME ? OptionalLong.empty() : OptionalLong.of(loadTime);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The record of the entry remains in the data file until the next compaction.
+     */
+    @Override
+    public boolean invalidate(String key) {
+        Preconditions.checkNotNull(key);
+
+        lock.writeLock().lock();
+        try {
+            Preconditions.checkState(!closed);
+
+            int slot = findSlot(fingerprint(key));
+            if (slot < 0) return false;
+
+            delete(slot);
+            entryCount--;
+            writeHeader();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The eviction count is the number of entries evicted by compactions.
+     */
+    @Override
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount.get(), missCount.get(), evictionCount.get());
+    }
+
+    /**
+     * Returns the number of entries of this store.
+     *
+     * @return the number of entries of this store
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entryCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the committed length of the data file, including the records of replaced and invalidated
+     * entries not yet reclaimed by a compaction.
+     *
+     * @return the committed length of the data file
+     */
+    public long getDataBytes() {
+        lock.readLock().lock();
+        try {
+            return dataLength;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum size of the data file in bytes.
+     *
+     * @return the maximum size of the data file in bytes
+     */
+    public long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    /**
+     * Returns the directory holding the files of this store.
+     *
+     * @return the directory holding the files of this store
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Flushes the data file and index to disk and closes this store. Subsequent operations fail,
+     * while transfers in progress complete before the data file is closed.
+     *
+     * @throws JRoboHashException if flushing or closing fails
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+
+            try {
+                index.force();
+                dataChannel.force(false);
+            } catch (IOException e) {
+                throw new JRoboHashException("Failed to flush disk cache: " + directory + ", error: " + e.getMessage());
+            } finally {
+                release(dataChannel, dataChannelReferences);
+                closeQuietly(indexChannel);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the value of the record for the provided key. The read lock must be held.
+     *
+     * @param key the key
+     * @return a buffer positioned at the value of the record, or null if no entry is held for the key
+     * @throws JRoboHashException if the data file cannot be read
+     */
+    private ByteBuffer readRecord(String key) {
+        long location = findLocation(key);
+        if (location == 0) return null;
+
+        int recordLength = (int) (location & MAX_RECORD_LENGTH);
+        if (recordLength < RECORD_HEADER_SIZE) {
+            recordMiss();
+            return null;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(recordLength);
+        try {
+            readFully(record, location >>> LENGTH_BITS);
+        } catch (IOException e) {
+            throw new JRoboHashException("Failed to read from disk cache: " + directory + ", error: " + e.getMessage());
+        }
+
+        record.flip();
+        int keyLength = record.getInt();
+        int valueLength = record.getInt();
+        if (!isValidRecord(recordLength, keyLength, valueLength) || !matchesKey(record, keyLength, key)) {
+            recordMiss();
+            return null;
+        }
+
+        hitCount.incrementAndGet();
+        record.limit(record.position() + valueLength);
+        return record;
+    }
+
+    /**
+     * Returns the packed location of the record for the provided key, recording a miss if none is indexed
+     * or if the indexed location lies beyond the committed end of the data file. The read lock must be held.
+     *
+     * @param key the key
+     * @return the packed location of the record for the provided key, or zero if none is indexed
+     */
+    private long findLocation(String key) {
+        Preconditions.checkState(!closed);
+
+        int slot = findSlot(fingerprint(key));
+        long location = slot < 0 ? 0 : index.getLong(slotPosition(slot) + Long.BYTES);
+        if (location == 0 || recordEnd(location) > dataLength) {
+            recordMiss();
+            return 0;
+        }
+
+        return location;
+    }
+
+    /**
+     * Returns the position of the data file following the record at the provided packed location.
+     *
+     * @param location the packed location of the record
+     * @return the position of the data file following the record
+     */
+    private static long recordEnd(long location) {
+        return (location >>> LENGTH_BITS) + (location & MAX_RECORD_LENGTH);
+    }
+
+    /**
+     * Returns whether the provided key and value lengths, read from a record header, fill the provided
+     * record length exactly.
+     *
+     * @param recordLength the indexed length of the record
+     * @param keyLength    the key length of the record header
+     * @param valueLength  the value length of the record header
+     * @return whether the lengths describe a valid record
+     */
+    private static boolean isValidRecord(int recordLength, int keyLength, int valueLength) {
+        return keyLength >= 0 && valueLength >= 0
+                && (long) RECORD_HEADER_SIZE + keyLength + valueLength == recordLength;
+    }
+
+    /**
+     * Returns whether the key of a record, at the position of the provided buffer, equals the provided key.
+     * The buffer is advanced past the key of the record.
+     *
+     * @param record    the buffer holding the record
+     * @param keyLength the length of the key of the record
+     * @param key       the key
+     * @return whether the key of the record equals the provided key
+     */
+    private static boolean matchesKey(ByteBuffer record, int keyLength, String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyLength != keyBytes.length || record.remaining() < keyLength) return false;
+
+        byte[] recordKey = new byte[keyLength];
+        record.get(recordKey);
+        return Arrays.equals(recordKey, keyBytes);
+    }
+
+    /**
+     * Records a lookup which found no entry.
+     */
+    private void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the slot holding the provided fingerprint.
+     *
+     * @param fingerprint the fingerprint
+     * @return the slot holding the provided fingerprint, or -1 if none does
+     */
+    private int findSlot(long fingerprint) {
+        int mask = slotCount - 1;
+        for (int slot = (int) fingerprint & mask; ; slot = (slot + 1) & mask) {
+            long slotFingerprint = index.getLong(slotPosition(slot));
+            if (slotFingerprint == 0) return -1;
+            if (slotFingerprint == fingerprint) return slot;
+        }
+    }
+
+    /**
+     * Inserts the provided fingerprint, location and load time into the first free slot of its probe sequence.
+     *
+     * @param fingerprint the fingerprint
+     * @param location    the packed location of the record
+     * @param loadTime    the load time of the entry
+     */
+    private void insert(long fingerprint, long location, long loadTime) {
+        int mask = slotCount - 1;
+        int slot = (int) fingerprint & mask;
+        while (index.getLong(slotPosition(slot)) != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        index.putLong(slotPosition(slot), fingerprint);
+        index.putLong(slotPosition(slot) + Long.BYTES, location);
+        index.putLong(slotPosition(slot) + LOAD_TIME_POSITION, loadTime);
+    }
+
+    /**
+     * Clears the provided slot, shifting subsequent slots of the same probe sequences back so that
+     * no tombstones are required.
+     *
+     * @param slot the slot to clear
+     */
+    private void delete(int slot) {
+        int mask = slotCount - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; ; next = (next + 1) & mask) {
+            long fingerprint = index.getLong(slotPosition(next));
+            if (fingerprint == 0) break;
+
+            int home = (int) fingerprint & mask;
+            boolean movable = hole <= next ? home <= hole || home > next : home <= hole && home > next;
+            if (movable) {
+                index.putLong(slotPosition(hole), fingerprint);
+                index.putLong(slotPosition(hole) + Long.BYTES, index.getLong(slotPosition(next) + Long.BYTES));
+                index.putLong(slotPosition(hole) + LOAD_TIME_POSITION,
+                        index.getLong(slotPosition(next) + LOAD_TIME_POSITION));
+                hole = next;
+            }
+        }
+
+        index.putLong(slotPosition(hole), 0);
+        index.putLong(slotPosition(hole) + Long.BYTES, 0);
+        index.putLong(slotPosition(hole) + LOAD_TIME_POSITION, UNKNOWN_LOAD_TIME);
+    }
+
+    /**
+     * Grows the index if inserting another entry would exceed the maximum load factor.
+     *
+     * @return whether another entry may be inserted
+     * @throws JRoboHashException if the index cannot be grown
+     */
+    private boolean ensureCapacity() {
+        if (entryCount + 1 <= slotCount * MAX_LOAD_FACTOR) return true;
+        if (slotCount >= MAX_SLOT_COUNT) return false;
+
+        long[][] entries = readEntries();
+        try {
+            slotCount *= 2;
+            index = map(slotCount);
+        } catch (IOException e) {
+            throw new JRoboHashException("Failed to grow disk cache index: " + directory + ", error: " + e.getMessage());
+        }
+
+        rebuildIndex(entries[0], entries[1], entries[2], entries[0].length);
+        return true;
+    }
+
+    /**
+     * Copies the live records into a new data file which replaces the current one, evicting the oldest
+     * entries until the live records and a pending record of the provided length occupy no more than
+     * the compaction target of the maximum size. The new data file is forced to disk before it replaces
+     * the current one, and the index is rewritten only once it has. The current data file is closed
+     * once the transfers reading from it complete.
+     *
+     * @param pendingLength the length of the record to be appended after the compaction
+     * @throws JRoboHashException if the data file cannot be compacted
+     */
+    private void compact(long pendingLength) {
+        long[][] entries = readEntries();
+        long[] fingerprints = entries[0];
+        long[] locations = entries[1];
+        long[] loadTimes = entries[2];
+        sortByOffset(fingerprints, locations, loadTimes);
+
+        long liveLength = 0;
+        for (long location : locations) {
+            liveLength += location & MAX_RECORD_LENGTH;
+        }
+        int oldest = 0;
+        long targetLength = (long) (maximumBytes * COMPACTION_TARGET);
+        while (oldest < locations.length && liveLength + pendingLength > targetLength) {
+            liveLength -= locations[oldest] & MAX_RECORD_LENGTH;
+            oldest++;
+        }
+
+        Path compactionFile = directory.resolve(COMPACTION_FILE_NAME);
+        Path dataFile = directory.resolve(DATA_FILE_NAME);
+        int count = locations.length - oldest;
+        long[] survivingFingerprints = new long[count];
+        long[] survivingLocations = new long[count];
+        long[] survivingLoadTimes = new long[count];
+        long compactedLength = 0;
+        boolean released = false;
+        try {
+            try (FileChannel compactionChannel = FileChannel.open(compactionFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (int entry = 0; entry < count; entry++) {
+                    long location = locations[oldest + entry];
+                    long recordLength = location & MAX_RECORD_LENGTH;
+                    long transferred = 0;
+                    while (transferred < recordLength) {
+                        transferred += dataChannel.transferTo((location >>> LENGTH_BITS) + transferred,
+                                recordLength - transferred, compactionChannel);
+                    }
+
+                    survivingFingerprints[entry] = fingerprints[oldest + entry];
+                    survivingLoadTimes[entry] = loadTimes[oldest + entry];
+                    survivingLocations[entry] = compactedLength << LENGTH_BITS | recordLength;
+                    compactedLength += recordLength;
+                }
+                compactionChannel.force(false);
+            }
+
+            release(dataChannel, dataChannelReferences);
+            released = true;
+            Files.move(compactionFile, dataFile,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new JRoboHashException("Failed to compact disk cache: " + directory + ", error: " + e.getMessage());
+        } finally {
+            if (released) {
+                dataChannel = reopenDataChannel(dataFile);
+                dataChannelReferences = new AtomicInteger(1);
+            }
+        }
+
+        dataLength = compactedLength;
+        evictionCount.addAndGet(oldest);
+        rebuildIndex(survivingFingerprints, survivingLocations, survivingLoadTimes, count);
+        index.force();
+    }
+
+    /**
+     * Reopens the data file after a compaction released its channel.
+     *
+     * @param dataFile the data file
+     * @return the channel of the data file
+     * @throws JRoboHashException if the data file cannot be opened
+     */
+    private FileChannel reopenDataChannel(Path dataFile) {
+        try {
+            return FileChannel.open(dataFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            closed = true;
+            closeQuietly(indexChannel);
+            throw new JRoboHashException("Failed to reopen disk cache: " + directory + ", error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the entries whose records end beyond the provided length of the data file, such as
+     * after the data file was truncated outside of this store, and truncates the data file to the
+     * end of the last remaining record.
+     *
+     * @param length the length of the data file
+     * @throws IOException if the data file cannot be truncated
+     */
+    private void discardBeyond(long length) throws IOException {
+        long[][] entries = readEntries();
+        long[] fingerprints = entries[0];
+        long[] locations = entries[1];
+        long[] loadTimes = entries[2];
+        int count = 0;
+        long committedLength = 0;
+        for (int entry = 0; entry < fingerprints.length; entry++) {
+            long recordEnd = recordEnd(locations[entry]);
+            if (recordEnd > length) continue;
+
+            fingerprints[count] = fingerprints[entry];
+            locations[count] = locations[entry];
+            loadTimes[count] = loadTimes[entry];
+            committedLength = Math.max(committedLength, recordEnd);
+            count++;
+        }
+
+        dataChannel.truncate(committedLength);
+        dataLength = committedLength;
+        rebuildIndex(fingerprints, locations, loadTimes, count);
+    }
+
+    /**
+     * Returns the fingerprints, packed locations and load times of the entries of the index, in slot order.
+     *
+     * @return the fingerprints, the packed locations and the load times of the entries
+     */
+    private long[][] readEntries() {
+        long[] fingerprints = new long[entryCount];
+        long[] locations = new long[entryCount];
+        long[] loadTimes = new long[entryCount];
+        int count = 0;
+        for (int slot = 0; slot < slotCount && count < entryCount; slot++) {
+            long fingerprint = index.getLong(slotPosition(slot));
+            if (fingerprint == 0) continue;
+
+            fingerprints[count] = fingerprint;
+            locations[count] = index.getLong(slotPosition(slot) + Long.BYTES);
+            loadTimes[count] = index.getLong(slotPosition(slot) + LOAD_TIME_POSITION);
+            count++;
+        }
+
+        return new long[][]{Arrays.copyOf(fingerprints, count), Arrays.copyOf(locations, count),
+                Arrays.copyOf(loadTimes, count)};
+    }
+
+    /**
+     * Clears every slot of the index and inserts the provided entries, committing the header.
+     *
+     * @param fingerprints the fingerprints of the entries
+     * @param locations    the packed locations of the entries
+     * @param loadTimes    the load times of the entries
+     * @param count        the number of entries
+     */
+    private void rebuildIndex(long[] fingerprints, long[] locations, long[] loadTimes, int count) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            index.putLong(slotPosition(slot), 0);
+            index.putLong(slotPosition(slot) + Long.BYTES, 0);
+            index.putLong(slotPosition(slot) + LOAD_TIME_POSITION, UNKNOWN_LOAD_TIME);
+        }
+        for (int entry = 0; entry < count; entry++) {
+            insert(fingerprints[entry], locations[entry], loadTimes[entry]);
+        }
+
+        entryCount = count;
+        writeHeader();
+    }
+
+    /**
+     * Sorts the provided entries by the offset of their records, oldest first.
+     *
+     * @param fingerprints the fingerprints of the entries
+     * @param locations    the packed locations of the entries, whose high bits hold the offset
+     * @param loadTimes    the load times of the entries
+     */
+    private static void sortByOffset(long[] fingerprints, long[] locations, long[] loadTimes) {
+        Integer[] order = new Integer[locations.length];
+        for (int entry = 0; entry < order.length; entry++) {
+            order[entry] = entry;
+        }
+        Arrays.sort(order, (first, second) -> Long.compare(locations[first], locations[second]));
+
+        long[] sortedFingerprints = new long[order.length];
+        long[] sortedLocations = new long[order.length];
+        long[] sortedLoadTimes = new long[order.length];
+        for (int entry = 0; entry < order.length; entry++) {
+            sortedFingerprints[entry] = fingerprints[order[entry]];
+            sortedLocations[entry] = locations[order[entry]];
+            sortedLoadTimes[entry] = loadTimes[order[entry]];
+        }
+        System.arraycopy(sortedFingerprints, 0, fingerprints, 0, order.length);
+        System.arraycopy(sortedLocations, 0, locations, 0, order.length);
+        System.arraycopy(sortedLoadTimes, 0, loadTimes, 0, order.length);
+    }
+
+    /**
+     * Maps the index file sized for the provided number of slots, extending the file with empty slots as needed.
+     *
+     * @param slots the number of slots
+     * @return the mapped index file
+     * @throws IOException if the index file cannot be mapped
+     */
+    private MappedByteBuffer map(int slots) throws IOException {
+        return indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE);
+    }
+
+    /**
+     * Writes the slot count, entry count and committed data length to the index header.
+     */
+    private void writeHeader() {
+        index.putInt(SLOT_COUNT_POSITION, slotCount);
+        index.putInt(ENTRY_COUNT_POSITION, entryCount);
+        index.putLong(DATA_LENGTH_POSITION, dataLength);
+    }
+
+    /**
+     * Reads from the data file at the provided position until the provided buffer is full.
+     *
+     * @param buffer   the buffer to read into
+     * @param position the position of the data file to read from
+     * @throws IOException if the data file cannot be read or ends early
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = dataChannel.read(buffer, position + buffer.position());
+            if (read < 0) throw new IOException("Unexpected end of data file");
+        }
+    }
+
+    /**
+     * Returns the position of the provided slot within the index file.
+     *
+     * @param slot the slot
+     * @return the position of the provided slot within the index file
+     */
+    private static int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Returns the 64-bit fingerprint of the provided key, never zero as zero marks an empty slot.
+     *
+     * @param key the key
+     * @return the 64-bit fingerprint of the provided key
+     */
+    private static long fingerprint(String key) {
+        long fingerprint = Hashing.farmHashFingerprint64().hashString(key, StandardCharsets.UTF_8).asLong();
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    /**
+     * Returns the number of bytes of the UTF-8 encoding of the provided string.
+     *
+     * @param string the string
+     * @return the number of bytes of the UTF-8 encoding of the provided string
+     */
+    private static int utf8Length(String string) {
+        return string.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Closes the provided channel, ignoring any failure.
+     *
+     * @param channel the channel, possibly null
+     */
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the channel is unusable either way
+        }
+    }
+
+    /**
+     * Releases a reference to the provided data channel, closing it once no references remain.
+     *
+     * @param channel    the data channel
+     * @param references the number of references to the data channel
+     */
+    private static void release(FileChannel channel, AtomicInteger references) {
+        if (references.decrementAndGet() == 0) closeQuietly(channel);
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link DiskByteStore}.
+     *
+     * @return a {@link String} representation for this {@link DiskByteStore}
+     */
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return "DiskByteStore{"
+                    + "directory=\"" + directory + "\""
+                    + ", size=" + entryCount
+                    + ", dataBytes=" + dataLength
+                    + ", maximumBytes=" + maximumBytes
+                    + "}";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.natche.jrobohash.cache;
+
+/**
+ * A policy deciding which entry a {@link BoundedCache} evicts when it exceeds its maximum weight.
+ * The cache informs the policy of every access, insertion and removal, and asks it for a victim
+ * whenever room is needed. All methods are invoked while holding the lock of the owning cache,
+ * thus implementations need not be thread-safe, but an instance must not be shared between caches.
+ *
+ * @param <K> the type of keys of the owning cache
+ */
+public interface EvictionPolicy<K> {
+    /**
+     * Records a lookup of the provided key, whether or not the key is present in the cache.
+     *
+     * @param key the key which was looked up
+     */
+    void recordAccess(K key);
+
+    /**
+     * Records that the provided key was inserted into the cache.
+     *
+     * @param key the key which was inserted
+     */
+    void recordInsertion(K key);
+
+    /**
+     * Records that the provided key was removed from the cache, whether by eviction or invalidation.
+     *
+     * @param key the key which was removed
+     */
+    void recordRemoval(K key);
+
+    /**
+     * Returns the key the cache should evict next.
+     *
+     * @return the key the cache should evict next, or null if no keys are present
+     */
+    K selectVictim();
+}
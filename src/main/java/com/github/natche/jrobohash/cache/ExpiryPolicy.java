@@ -0,0 +1,318 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Duration;
+
+/**
+ * A policy for how long the outcome of fetching an avatar is cached. A decoded image is fresh for its time to
+ * live, after which it is still served for the stale-while-revalidate window while a single background refresh
+ * replaces it, thus callers never wait on an expired entry. Failed fetches are cached for a time depending on
+ * the failure, so repeated lookups of bad keys are answered without contacting the server.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class ExpiryPolicy {
+    /**
+     * The default time a decoded image is fresh for.
+     */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(1);
+
+    /**
+     * The default time an expired image is still served for while it is refreshed.
+     */
+    public static final Duration DEFAULT_STALE_WHILE_REVALIDATE = Duration.ofHours(1);
+
+    /**
+     * The default time a request answered with a client error status is cached for.
+     */
+    public static final Duration DEFAULT_CLIENT_ERROR_TTL = Duration.ofMinutes(1);
+
+    /**
+     * The default time any other failed request is cached for.
+     */
+    public static final Duration DEFAULT_SERVER_ERROR_TTL = Duration.ZERO;
+
+    /**
+     * The default maximum number of failed requests cached.
+     */
+    public static final int DEFAULT_MAX_NEGATIVE_ENTRIES = 10_000;
+
+    /**
+     * The time a decoded image is fresh for.
+     */
+    private final Duration timeToLive;
+
+    /**
+     * The time an expired image is still served for while it is refreshed.
+     */
+    private final Duration staleWhileRevalidate;
+
+    /**
+     * The time a request answered with a client error status is cached for.
+     */
+    private final Duration clientErrorTtl;
+
+    /**
+     * The time any other failed request is cached for.
+     */
+    private final Duration serverErrorTtl;
+
+    /**
+     * The maximum number of failed requests cached.
+     */
+    private final int maxNegativeEntries;
+
+    /**
+     * The source of time.
+     */
+    private final Ticker ticker;
+
+    /**
+     * Constructs a new policy from the state of the provided builder.
+     *
+     * @param builder the builder to construct the policy from
+     */
+    private ExpiryPolicy(Builder builder) {
+        this.timeToLive = builder.timeToLive;
+        this.staleWhileRevalidate = builder.staleWhileRevalidate;
+        this.clientErrorTtl = builder.clientErrorTtl;
+        this.serverErrorTtl = builder.serverErrorTtl;
+        this.maxNegativeEntries = builder.maxNegativeEntries;
+        this.ticker = builder.ticker;
+    }
+
+    /**
+     * Returns a new builder for an {@link ExpiryPolicy}.
+     *
+     * @return a new builder for an {@link ExpiryPolicy}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the time a decoded image is fresh for.
+     *
+     * @return the time a decoded image is fresh for
+     */
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Returns the time an expired image is still served for while it is refreshed.
+     *
+     * @return the time an expired image is still served for
+     */
+    public Duration getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    /**
+     * Returns the time a request answered with a client error status is cached for.
+     *
+     * @return the time a request answered with a client error status is cached for
+     */
+    public Duration getClientErrorTtl() {
+        return clientErrorTtl;
+    }
+
+    /**
+     * Returns the time any other failed request is cached for.
+     *
+     * @return the time any other failed request is cached for
+     */
+    public Duration getServerErrorTtl() {
+        return serverErrorTtl;
+    }
+
+    /**
+     * Returns the maximum number of failed requests cached.
+     *
+     * @return the maximum number of failed requests cached
+     */
+    public int getMaxNegativeEntries() {
+        return maxNegativeEntries;
+    }
+
+    /**
+     * Returns the source of time.
+     *
+     * @return the source of time
+     */
+    public Ticker getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link ExpiryPolicy}.
+     *
+     * @return a {@link String} representation for this {@link ExpiryPolicy}
+     */
+    @Override
+    public String toString() {
+        return "ExpiryPolicy{"
+                + "timeToLive=" + timeToLive
+                + ", staleWhileRevalidate=" + staleWhileRevalidate
+                + ", clientErrorTtl=" + clientErrorTtl
+                + ", serverErrorTtl=" + serverErrorTtl
+                + "}";
+    }
+
+    /**
+     * A builder for an {@link ExpiryPolicy}.
+     */
+    public static final class Builder {
+        /**
+         * The time a decoded image is fresh for.
+         */
+        private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+
+        /**
+         * The time an expired image is still served for while it is refreshed.
+         */
+        private Duration staleWhileRevalidate = DEFAULT_STALE_WHILE_REVALIDATE;
+
+        /**
+         * The time a request answered with a client error status is cached for.
+         */
+        private Duration clientErrorTtl = DEFAULT_CLIENT_ERROR_TTL;
+
+        /**
+         * The time any other failed request is cached for.
+         */
+        private Duration serverErrorTtl = DEFAULT_SERVER_ERROR_TTL;
+
+        /**
+         * The maximum number of failed requests cached.
+         */
+        private int maxNegativeEntries = DEFAULT_MAX_NEGATIVE_ENTRIES;
+
+        /**
+         * The source of time.
+         */
+        private Ticker ticker = Ticker.systemTicker();
+
+        /**
+         * Constructs a new builder with the default settings.
+         */
+        private Builder() {}
+
+        /**
+         * Sets the time a decoded image is fresh for.
+         *
+         * @param timeToLive the time to live
+         * @return this builder
+         * @throws NullPointerException     if the provided duration is null
+         * @throws IllegalArgumentException if the provided duration is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setTimeToLive(Duration timeToLive) {
+            this.timeToLive = checkDuration(timeToLive);
+            return this;
+        }
+
+        /**
+         * Sets the time an expired image is still served for while it is refreshed in the background.
+         * Zero disables serving expired images.
+         *
+         * @param staleWhileRevalidate the stale-while-revalidate window
+         * @return this builder
+         * @throws NullPointerException     if the provided duration is null
+         * @throws IllegalArgumentException if the provided duration is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = checkDuration(staleWhileRevalidate);
+            return this;
+        }
+
+        /**
+         * Sets the time a request answered with a client error status, such as a malformed key or parameter,
+         * is cached for. Zero disables caching these failures.
+         *
+         * @param clientErrorTtl the time to cache client errors for
+         * @return this builder
+         * @throws NullPointerException     if the provided duration is null
+         * @throws IllegalArgumentException if the provided duration is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setClientErrorTtl(Duration clientErrorTtl) {
+            this.clientErrorTtl = checkDuration(clientErrorTtl);
+            return this;
+        }
+
+        /**
+         * Sets the time any other failed request, such as one answered with a server error status or
+         * timing out, is cached for. Zero, the default, disables caching these failures.
+         *
+         * @param serverErrorTtl the time to cache other failures for
+         * @return this builder
+         * @throws NullPointerException     if the provided duration is null
+         * @throws IllegalArgumentException if the provided duration is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setServerErrorTtl(Duration serverErrorTtl) {
+            this.serverErrorTtl = checkDuration(serverErrorTtl);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of failed requests cached, beyond which the least recently used are evicted.
+         *
+         * @param maxNegativeEntries the maximum number of failed requests cached
+         * @return this builder
+         * @throws IllegalArgumentException if the provided number is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxNegativeEntries(int maxNegativeEntries) {
+            Preconditions.checkArgument(maxNegativeEntries > 0);
+
+            this.maxNegativeEntries = maxNegativeEntries;
+            return this;
+        }
+
+        /**
+         * Sets the source of time, such as a fake ticker for tests.
+         *
+         * @param ticker the source of time
+         * @return this builder
+         * @throws NullPointerException if the provided ticker is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setTicker(Ticker ticker) {
+            Preconditions.checkNotNull(ticker);
+
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link ExpiryPolicy} from the state of this builder.
+         *
+         * @return a new {@link ExpiryPolicy}
+         */
+        public ExpiryPolicy build() {
+            return new ExpiryPolicy(this);
+        }
+
+        /**
+         * Returns the provided duration if it is not negative.
+         *
+         * @param duration the duration
+         * @return the provided duration
+         * @throws NullPointerException     if the provided duration is null
+         * @throws IllegalArgumentException if the provided duration is negative
+         */
+        private static Duration checkDuration(Duration duration) {
+            Preconditions.checkNotNull(duration);
+            Preconditions.checkArgument(!duration.isNegative());
+
+            return duration;
+        }
+    }
+}
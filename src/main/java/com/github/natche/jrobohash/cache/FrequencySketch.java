@@ -0,0 +1,128 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A count-min sketch estimating how often keys have been accessed within a recent period.
+ * Counters saturate at {@link #MAX_FREQUENCY} and are periodically halved so that the estimates
+ * favour recent popularity over historical popularity.
+ */
+final class FrequencySketch {
+    /**
+     * The maximum frequency a counter may reach.
+     */
+    static final int MAX_FREQUENCY = 15;
+
+    /**
+     * The number of counters each key maps to.
+     */
+    private static final int DEPTH = 4;
+
+    /**
+     * The number of counters per row for each expected key, keeping collisions between keys rare.
+     */
+    private static final int COUNTERS_PER_KEY = 8;
+
+    /**
+     * The number of increments, as a multiple of the expected number of keys, after which all counters are halved.
+     */
+    private static final int SAMPLE_SIZE_MULTIPLIER = 10;
+
+    /**
+     * The counters, {@link #DEPTH} rows of {@link #width} counters laid out consecutively.
+     */
+    private final byte[] counters;
+
+    /**
+     * The number of counters per row, always a power of two.
+     */
+    private final int width;
+
+    /**
+     * The number of increments after which all counters are halved.
+     */
+    private final int sampleSize;
+
+    /**
+     * The number of increments since the counters were last halved.
+     */
+    private int additions;
+
+    /**
+     * Constructs a new sketch sized for approximately the provided number of distinct keys.
+     *
+     * @param expectedKeys the approximate number of distinct keys
+     * @throws IllegalArgumentException if the provided number of keys is less than one
+     */
+    FrequencySketch(int expectedKeys) {
+        Preconditions.checkArgument(expectedKeys > 0);
+
+        int roundedKeys = Math.max(2, Integer.highestOneBit(Math.min(expectedKeys, 1 << 24) - 1) << 1);
+        width = COUNTERS_PER_KEY * roundedKeys;
+        counters = new byte[DEPTH * width];
+        sampleSize = SAMPLE_SIZE_MULTIPLIER * roundedKeys;
+    }
+
+    /**
+     * Increments the estimated frequency of the provided key.
+     *
+     * @param key the key
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int step = spread(hash * 0x85EBCA6B) | 1;
+
+        boolean incremented = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + ((hash + row * step) & (width - 1));
+            if (counters[index] < MAX_FREQUENCY) {
+                counters[index]++;
+                incremented = true;
+            }
+        }
+
+        if (incremented && ++additions >= sampleSize) halve();
+    }
+
+    /**
+     * Returns the estimated frequency of the provided key.
+     *
+     * @param key the key
+     * @return the estimated frequency of the provided key, between zero and {@link #MAX_FREQUENCY}
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int step = spread(hash * 0x85EBCA6B) | 1;
+
+        int frequency = MAX_FREQUENCY;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters[row * width + ((hash + row * step) & (width - 1))]);
+        }
+        return frequency;
+    }
+
+    /**
+     * Halves all counters so that older accesses count for less than recent ones.
+     */
+    private void halve() {
+        for (int index = 0; index < counters.length; index++) {
+            counters[index] = (byte) (counters[index] >>> 1);
+        }
+        additions /= 2;
+    }
+
+    /**
+     * Applies a supplemental hash function to defend against poor quality hash codes.
+     *
+     * @param hash the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xED5AD4BB;
+        hash ^= hash >>> 11;
+        hash *= 0xAC4C1B51;
+        hash ^= hash >>> 15;
+        return hash;
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
+import java.util.OptionalLong;
+
+/**
+ * A {@link ByteStore} holding encoded images on the heap, bounded by the total number of bytes held.
+ * Returned arrays are shared with the store and must not be modified.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class HeapByteStore implements ByteStore {
+    /**
+     * The approximate size of an encoded, default sized avatar, used to size the default eviction policy.
+     */
+    private static final int TYPICAL_ENCODED_SIZE = 16 * 1024;
+
+    /**
+     * The cache holding the encoded images.
+     */
+    private final BoundedCache<String, byte[]> cache;
+
+    /**
+     * Constructs a new store bounded by the provided number of bytes which uses a {@link TinyLfuEvictionPolicy}.
+     *
+     * @param maximumBytes the maximum number of bytes held
+     * @throws IllegalArgumentException if the provided maximum is less than one
+     */
+    public HeapByteStore(long maximumBytes) {
+        this(maximumBytes, new TinyLfuEvictionPolicy<>(
+                Ints.saturatedCast(Math.max(16, maximumBytes / TYPICAL_ENCODED_SIZE))));
+    }
+
+    /**
+     * Constructs a new store bounded by the provided number of bytes.
+     *
+     * @param maximumBytes   the maximum number of bytes held
+     * @param evictionPolicy the policy choosing the entries to evict
+     * @throws NullPointerException     if the provided eviction policy is null
+     * @throws IllegalArgumentException if the provided maximum is less than one
+     */
+    public HeapByteStore(long maximumBytes, EvictionPolicy<String> evictionPolicy) {
+        Preconditions.checkArgument(maximumBytes > 0);
+
+        this.cache = new BoundedCache<>(maximumBytes, (key, bytes) -> bytes.length, evictionPolicy);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] getIfPresent(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean put(String key, byte[] bytes) {
+        return cache.put(key, bytes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean put(String key, byte[] bytes, long loadTime) {
+        return cache.put(key, bytes, loadTime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OptionalLong getLoadTime(String key) {
+        return cache.getLoadTime(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean invalidate(String key) {
+        return cache.invalidate(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheStatistics getStatistics() {
+        return cache.getStatistics();
+    }
+
+    /**
+     * Returns the number of encoded images held.
+     *
+     * @return the number of encoded images held
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the number of bytes held.
+     *
+     * @return the number of bytes held
+     */
+    public long weight() {
+        return cache.weight();
+    }
+
+    /**
+     * Returns the maximum number of bytes held.
+     *
+     * @return the maximum number of bytes held
+     */
+    public long getMaximumBytes() {
+        return cache.getMaximumWeight();
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link HeapByteStore}.
+     *
+     * @return a {@link String} representation for this {@link HeapByteStore}
+     */
+    @Override
+    public String toString() {
+        return "HeapByteStore{"
+                + "size=" + cache.size()
+                + ", weight=" + cache.weight()
+                + ", maximumBytes=" + cache.getMaximumWeight()
+                + "}";
+    }
+}
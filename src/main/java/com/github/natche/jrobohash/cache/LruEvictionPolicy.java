@@ -0,0 +1,64 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * An {@link EvictionPolicy} which evicts the least recently used key. Simple and cheap, but a single
+ * scan over many keys which are never requested again flushes the entire cache.
+ *
+ * @param <K> the type of keys of the owning cache
+ */
+public final class LruEvictionPolicy<K> implements EvictionPolicy<K> {
+    /**
+     * The present keys ordered from least to most recently used.
+     */
+    private final LinkedHashSet<K> keys = new LinkedHashSet<>();
+
+    /**
+     * Constructs a new LRU eviction policy.
+     */
+    public LruEvictionPolicy() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordAccess(K key) {
+        Preconditions.checkNotNull(key);
+
+        if (keys.remove(key)) keys.add(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordInsertion(K key) {
+        Preconditions.checkNotNull(key);
+
+        keys.remove(key);
+        keys.add(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordRemoval(K key) {
+        Preconditions.checkNotNull(key);
+
+        keys.remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public K selectVictim() {
+        Iterator<K> iterator = keys.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+}
@@ -0,0 +1,697 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+/**
+ * A {@link ByteStore} holding encoded images outside the heap in direct {@link ByteBuffer} slabs, so that
+ * millions of cached avatars neither inflate the old generation nor lengthen garbage collection pauses.
+ * <p>
+ * Memory is allocated in slabs of a fixed size up to an explicit capacity. Each slab is assigned to a size class
+ * on first use and carved into equally sized chunks, and each entry occupies one chunk of the smallest class
+ * it fits into. Chunk sizes grow geometrically, which bounds the space wasted per entry.
+ * <p>
+ * Once no free chunk of the required class remains and no further slab may be allocated, slabs are rebalanced
+ * between classes so that a class is not starved by slabs assigned to others earlier. A slab of another class
+ * holding no entries is reassigned first. Otherwise, if the least recently used entry of the whole store belongs
+ * to another class, the slab holding it is emptied by evicting its entries and reassigned. Only then is the least
+ * recently used entry of the required class evicted. {@link #transferTo(String, WritableByteChannel)} and
+ * {@link #read(String, Function)} access entries straight from their slab without an intermediate heap copy.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class SlabByteStore implements ByteStore {
+    /**
+     * The default size of a slab, one mebibyte.
+     */
+    public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    /**
+     * The size of the chunks of the smallest size class.
+     */
+    public static final int MIN_CHUNK_SIZE = 1024;
+
+    /**
+     * The factor the chunk size of each size class exceeds that of the previous class by.
+     */
+    private static final double GROWTH_FACTOR = 1.25;
+
+    /**
+     * The alignment of chunk sizes in bytes.
+     */
+    private static final int CHUNK_ALIGNMENT = 8;
+
+    /**
+     * The size of each slab in bytes.
+     */
+    private final int slabSize;
+
+    /**
+     * The maximum number of slabs this store allocates.
+     */
+    private final int maxSlabCount;
+
+    /**
+     * The size classes ordered by ascending chunk size.
+     */
+    private final SizeClass[] sizeClasses;
+
+    /**
+     * The slabs allocated so far.
+     */
+    private final ArrayList<Slab> slabs = new ArrayList<>();
+
+    /**
+     * The chunks holding the entries of this store.
+     */
+    private final HashMap<String, Chunk> entries = new HashMap<>();
+
+    /**
+     * The number of bytes of the chunks holding entries.
+     */
+    private long chunkBytes;
+
+    /**
+     * The number of bytes of the entries held.
+     */
+    private long storedBytes;
+
+    /**
+     * The number of lookups which found an entry.
+     */
+    private long hitCount;
+
+    /**
+     * The number of lookups which found no entry.
+     */
+    private long missCount;
+
+    /**
+     * The number of entries evicted to make room for others.
+     */
+    private long evictionCount;
+
+    /**
+     * The number of slabs reassigned from one size class to another.
+     */
+    private long reassignedSlabCount;
+
+    /**
+     * The logical clock stamping each access of an entry, ordering entries of different size classes by recency.
+     */
+    private long accessClock;
+
+    /**
+     * Constructs a new store bounded by the provided number of bytes with slabs of {@link #DEFAULT_SLAB_SIZE}.
+     *
+     * @param maximumBytes the maximum number of bytes allocated outside the heap
+     * @throws IllegalArgumentException if the provided maximum is less than the default slab size
+     */
+    public SlabByteStore(long maximumBytes) {
+        this(maximumBytes, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Constructs a new store bounded by the provided number of bytes. The slab size is also the
+     * size of the largest entry the store accepts.
+     *
+     * @param maximumBytes the maximum number of bytes allocated outside the heap
+     * @param slabSize     the size of each slab in bytes
+     * @throws IllegalArgumentException if the provided slab size is less than {@link #MIN_CHUNK_SIZE}
+     *                                  or the provided maximum is less than the slab size
+     */
+    public SlabByteStore(long maximumBytes, int slabSize) {
+        Preconditions.checkArgument(slabSize >= MIN_CHUNK_SIZE);
+        Preconditions.checkArgument(maximumBytes >= slabSize);
+
+        this.slabSize = slabSize;
+        this.maxSlabCount = Ints.saturatedCast(maximumBytes / slabSize);
+
+        ArrayList<SizeClass> classes = new ArrayList<>();
+        int chunkSize = MIN_CHUNK_SIZE;
+        while (chunkSize < slabSize) {
+            classes.add(new SizeClass(chunkSize));
+            int grownSize = (int) Math.ceil(chunkSize * GROWTH_FACTOR);
+            chunkSize = (grownSize + CHUNK_ALIGNMENT - 1) / CHUNK_ALIGNMENT * CHUNK_ALIGNMENT;
+        }
+        classes.add(new SizeClass(slabSize));
+        this.sizeClasses = classes.toArray(new SizeClass[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The returned array is a copy of the bytes held outside the heap.
+     */
+    @Override
+    public synchronized byte[] getIfPresent(String key) {
+        Preconditions.checkNotNull(key);
+
+        Chunk chunk = lookup(key);
+        if (chunk == null) return null;
+
+        byte[] bytes = new byte[chunk.length];
+        chunk.buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The bytes are written straight from their slab. The entry is pinned while being written, thus
+     * its chunk is not reused even if the entry is evicted concurrently, and the lock of this store
+     * is not held while writing.
+     */
+    @Override
+    public boolean transferTo(String key, WritableByteChannel channel) throws IOException {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(channel);
+
+        Chunk chunk = pin(key);
+        if (chunk == null) return false;
+
+        try {
+            ByteBuffer view = view(chunk);
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+            return true;
+        } finally {
+            unpin(chunk);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The buffer is a view of the slab. The entry is pinned while being read, thus its chunk is not
+     * reused even if the entry is evicted concurrently, and the lock of this store is not held while reading.
+     */
+    @Override
+    public <T> T read(String key, Function<ByteBuffer, T> reader) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(reader);
+
+        Chunk chunk = pin(key);
+        if (chunk == null) return null;
+
+        try {
+            return reader.apply(view(chunk).asReadOnlyBuffer());
+        } finally {
+            unpin(chunk);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The bytes are copied outside the heap, thus the provided array may be reused afterwards.
+     * Bytes longer than the slab size are never stored.
+     */
+    @Override
+    public boolean put(String key, byte[] bytes) {
+        return put(key, bytes, OptionalLong.empty());
+    }
+
+    /**
+     * {@inheritDoc}
+     * The bytes are stored as by {@link #put(String, byte[])}.
+     */
+    @Override
+    public boolean put(String key, byte[] bytes, long loadTime) {
+        return put(key, bytes, OptionalLong.of(loadTime));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized OptionalLong getLoadTime(String key) {
+        Preconditions.checkNotNull(key);
+
+        Chunk chunk = entries.get(key);
+        return chunk == null ? OptionalLong.empty() : chunk.loadTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean invalidate(String key) {
+        Preconditions.checkNotNull(key);
+
+        return remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount, missCount, evictionCount);
+    }
+
+    /**
+     * Returns a snapshot of the memory usage of this store.
+     *
+     * @return a snapshot of the memory usage of this store
+     */
+    public synchronized SlabStatistics getSlabStatistics() {
+        return new SlabStatistics((long) maxSlabCount * slabSize,
+                (long) slabs.size() * slabSize, chunkBytes, storedBytes);
+    }
+
+    /**
+     * Returns the number of slabs reassigned from one size class to another to rebalance memory.
+     *
+     * @return the number of slabs reassigned from one size class to another
+     */
+    public synchronized long getReassignedSlabCount() {
+        return reassignedSlabCount;
+    }
+
+    /**
+     * Returns the number of entries of this store.
+     *
+     * @return the number of entries of this store
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the size of each slab in bytes, which is also the size of the largest entry accepted.
+     *
+     * @return the size of each slab in bytes
+     */
+    public int getSlabSize() {
+        return slabSize;
+    }
+
+    /**
+     * Returns the chunk size of the size class an entry of the provided length is stored in.
+     *
+     * @param length the length of the entry in bytes
+     * @return the chunk size of the size class an entry of the provided length is stored in
+     * @throws IllegalArgumentException if the provided length is negative or exceeds the slab size
+     */
+    public int chunkSizeFor(int length) {
+        Preconditions.checkArgument(length >= 0 && length <= slabSize);
+
+        return sizeClassFor(length).chunkSize;
+    }
+
+    /**
+     * Copies the provided bytes into a chunk of their size class and stores them for the provided key along
+     * with the provided load time, replacing any bytes already stored for the key.
+     *
+     * @param key      the key
+     * @param bytes    the bytes
+     * @param loadTime the time the bytes were loaded at, empty if unknown
+     * @return whether the bytes are stored
+     * @throws NullPointerException if the provided key or bytes are null
+     */
+    private synchronized boolean put(String key, byte[] bytes, OptionalLong loadTime) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(bytes);
+
+        remove(key);
+        if (bytes.length > slabSize) return false;
+
+        SizeClass sizeClass = sizeClassFor(bytes.length);
+        Chunk chunk = allocate(sizeClass);
+        if (chunk == null) return false;
+
+        chunk.buffer.duplicate().put(bytes);
+        chunk.length = bytes.length;
+        chunk.detached = false;
+        chunk.loadTime = loadTime;
+
+        chunk.lastAccess = ++accessClock;
+        entries.put(key, chunk);
+        sizeClass.entries.put(key, chunk);
+        chunkBytes += sizeClass.chunkSize;
+        storedBytes += bytes.length;
+        return true;
+    }
+
+    /**
+     * Returns the chunk holding the entry for the provided key, recording the lookup.
+     *
+     * @param key the key
+     * @return the chunk holding the entry for the provided key, or null if none is held
+     */
+    private Chunk lookup(String key) {
+        Chunk chunk = entries.get(key);
+        if (chunk == null) {
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        chunk.sizeClass.entries.get(key);
+        chunk.lastAccess = ++accessClock;
+        return chunk;
+    }
+
+    /**
+     * Looks up and pins the chunk holding the entry for the provided key, recording the lookup.
+     *
+     * @param key the key
+     * @return the pinned chunk holding the entry for the provided key, or null if none is held
+     */
+    private synchronized Chunk pin(String key) {
+        Chunk chunk = lookup(key);
+        if (chunk != null) chunk.pinCount++;
+        return chunk;
+    }
+
+    /**
+     * Unpins the provided chunk, releasing it if it was detached from its entry while pinned.
+     *
+     * @param chunk the pinned chunk
+     */
+    private synchronized void unpin(Chunk chunk) {
+        chunk.pinCount--;
+        if (chunk.pinCount == 0 && chunk.detached) release(chunk);
+    }
+
+    /**
+     * Returns a buffer spanning the entry held by the provided chunk.
+     *
+     * @param chunk the chunk
+     * @return a buffer spanning the entry held by the provided chunk
+     */
+    private static ByteBuffer view(Chunk chunk) {
+        ByteBuffer view = chunk.buffer.duplicate();
+        view.limit(chunk.length);
+        return view;
+    }
+
+    /**
+     * Returns a free chunk of the provided size class. If none is free, a slab is allocated, or else
+     * reassigned from another class, or else the least recently used entry of the class is evicted.
+     *
+     * @param sizeClass the size class
+     * @return a free chunk of the provided size class, or null if none can be freed
+     */
+    private Chunk allocate(SizeClass sizeClass) {
+        if (sizeClass.freeChunks.isEmpty()) {
+            if (slabs.size() < maxSlabCount) {
+                Slab slab = new Slab(ByteBuffer.allocateDirect(slabSize));
+                slabs.add(slab);
+                carve(slab, sizeClass);
+            } else {
+                rebalance(sizeClass);
+            }
+        }
+
+        Iterator<String> leastRecentlyUsed = sizeClass.entries.keySet().iterator();
+        while (sizeClass.freeChunks.isEmpty() && leastRecentlyUsed.hasNext()) {
+            String victim = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            detach(entries.remove(victim));
+            evictionCount++;
+        }
+
+        Chunk chunk = sizeClass.freeChunks.poll();
+        if (chunk != null) chunk.slab.usedChunkCount++;
+        return chunk;
+    }
+
+    /**
+     * Reassigns a slab of another size class to the provided class: a slab holding no entries if any,
+     * or else the slab holding the least recently used entry of the store if that entry belongs to
+     * another class and no entry of the slab is pinned.
+     *
+     * @param sizeClass the size class short of free chunks
+     */
+    private void rebalance(SizeClass sizeClass) {
+        for (Slab slab : slabs) {
+            if (slab.sizeClass != sizeClass && slab.usedChunkCount == 0) {
+                reassign(slab, sizeClass);
+                return;
+            }
+        }
+
+        Chunk oldest = null;
+        for (SizeClass candidate : sizeClasses) {
+            if (candidate.entries.isEmpty()) continue;
+
+            Chunk leastRecentlyUsed = candidate.entries.values().iterator().next();
+            if (oldest == null || leastRecentlyUsed.lastAccess < oldest.lastAccess) oldest = leastRecentlyUsed;
+        }
+        if (oldest == null || oldest.sizeClass == sizeClass) return;
+
+        Slab slab = oldest.slab;
+        for (Chunk chunk : slab.chunks) {
+            if (chunk.pinCount > 0) return;
+        }
+
+        Iterator<Map.Entry<String, Chunk>> classEntries = slab.sizeClass.entries.entrySet().iterator();
+        while (classEntries.hasNext()) {
+            Map.Entry<String, Chunk> entry = classEntries.next();
+            if (entry.getValue().slab != slab) continue;
+
+            classEntries.remove();
+            entries.remove(entry.getKey());
+            detach(entry.getValue());
+            evictionCount++;
+        }
+        reassign(slab, sizeClass);
+    }
+
+    /**
+     * Reassigns the provided slab, holding no entries, to the provided size class.
+     *
+     * @param slab      the slab
+     * @param sizeClass the size class to assign the slab to
+     */
+    private void reassign(Slab slab, SizeClass sizeClass) {
+        slab.sizeClass.freeChunks.removeIf(chunk -> chunk.slab == slab);
+        carve(slab, sizeClass);
+        reassignedSlabCount++;
+    }
+
+    /**
+     * Assigns the provided slab to the provided size class and carves it into free chunks of the class.
+     *
+     * @param slab      the slab
+     * @param sizeClass the size class
+     */
+    private void carve(Slab slab, SizeClass sizeClass) {
+        int chunkCount = slabSize / sizeClass.chunkSize;
+        slab.sizeClass = sizeClass;
+        slab.chunks = new Chunk[chunkCount];
+        for (int index = 0; index < chunkCount; index++) {
+            Chunk chunk = new Chunk(slab.buffer.slice(index * sizeClass.chunkSize, sizeClass.chunkSize), slab);
+            slab.chunks[index] = chunk;
+            sizeClass.freeChunks.add(chunk);
+        }
+    }
+
+    /**
+     * Removes the entry for the provided key, if any.
+     *
+     * @param key the key
+     * @return whether an entry was removed
+     */
+    private boolean remove(String key) {
+        Chunk chunk = entries.remove(key);
+        if (chunk == null) return false;
+
+        chunk.sizeClass.entries.remove(key);
+        detach(chunk);
+        return true;
+    }
+
+    /**
+     * Detaches the provided chunk from its entry, releasing it unless it is being written to a channel.
+     *
+     * @param chunk the chunk
+     */
+    private void detach(Chunk chunk) {
+        chunkBytes -= chunk.sizeClass.chunkSize;
+        storedBytes -= chunk.length;
+
+        chunk.detached = true;
+        if (chunk.pinCount == 0) release(chunk);
+    }
+
+    /**
+     * Returns the provided detached chunk to the free chunks of its size class.
+     *
+     * @param chunk the chunk
+     */
+    private static void release(Chunk chunk) {
+        chunk.length = 0;
+        chunk.slab.usedChunkCount--;
+        chunk.sizeClass.freeChunks.push(chunk);
+    }
+
+    /**
+     * Returns the smallest size class an entry of the provided length fits into.
+     *
+     * @param length the length of the entry in bytes
+     * @return the smallest size class an entry of the provided length fits into
+     */
+    private SizeClass sizeClassFor(int length) {
+        int low = 0;
+        int high = sizeClasses.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sizeClasses[middle].chunkSize < length) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return sizeClasses[low];
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link SlabByteStore}.
+     *
+     * @return a {@link String} representation for this {@link SlabByteStore}
+     */
+    @Override
+    public synchronized String toString() {
+        return "SlabByteStore{"
+                + "size=" + entries.size()
+                + ", slabSize=" + slabSize
+                + ", slabCount=" + slabs.size()
+                + ", maxSlabCount=" + maxSlabCount
+                + ", reassignedSlabCount=" + reassignedSlabCount
+                + ", sizeClassCount=" + sizeClasses.length
+                + "}";
+    }
+
+    /**
+     * A size class, the chunks of one size and the entries they hold.
+     */
+    private static final class SizeClass {
+        /**
+         * The size of the chunks of this class in bytes.
+         */
+        private final int chunkSize;
+
+        /**
+         * The chunks of this class holding no entry.
+         */
+        private final ArrayDeque<Chunk> freeChunks = new ArrayDeque<>();
+
+        /**
+         * The entries held by chunks of this class, least recently used first.
+         */
+        private final LinkedHashMap<String, Chunk> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * Constructs a new size class.
+         *
+         * @param chunkSize the size of the chunks of this class in bytes
+         */
+        private SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * A slab, the memory of one direct buffer assigned to one size class at a time.
+     */
+    private static final class Slab {
+        /**
+         * The memory of this slab.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The size class this slab is assigned to.
+         */
+        private SizeClass sizeClass;
+
+        /**
+         * The chunks this slab is carved into for its size class.
+         */
+        private Chunk[] chunks;
+
+        /**
+         * The number of chunks of this slab holding an entry or awaiting release.
+         */
+        private int usedChunkCount;
+
+        /**
+         * Constructs a new slab.
+         *
+         * @param buffer the memory of this slab
+         */
+        private Slab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * A region of a slab holding at most one entry.
+     */
+    private static final class Chunk {
+        /**
+         * The region of the slab, spanning the chunk size of the size class.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The slab of this chunk.
+         */
+        private final Slab slab;
+
+        /**
+         * The size class of this chunk.
+         */
+        private final SizeClass sizeClass;
+
+        /**
+         * The length of the entry held.
+         */
+        private int length;
+
+        /**
+         * The number of reads of this chunk in progress.
+         */
+        private int pinCount;
+
+        /**
+         * The value of the access clock at the last access of the entry held.
+         */
+        private long lastAccess;
+
+        /**
+         * The time the entry held was loaded at, empty if unknown.
+         */
+        private OptionalLong loadTime = OptionalLong.empty();
+
+        /**
+         * Whether this chunk was detached from its entry while pinned and awaits release.
+         */
+        private boolean detached;
+
+        /**
+         * Constructs a new chunk of the current size class of the provided slab.
+         *
+         * @param buffer the region of the slab
+         * @param slab   the slab of this chunk
+         */
+        private Chunk(ByteBuffer buffer, Slab slab) {
+            this.buffer = buffer;
+            this.slab = slab;
+            this.sizeClass = slab.sizeClass;
+        }
+    }
+}
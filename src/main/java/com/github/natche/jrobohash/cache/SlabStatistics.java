@@ -0,0 +1,157 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An immutable snapshot of the memory usage of a {@link SlabByteStore}.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class SlabStatistics {
+    /**
+     * The maximum number of bytes the store may allocate.
+     */
+    private final long capacityBytes;
+
+    /**
+     * The number of bytes allocated as slabs.
+     */
+    private final long allocatedBytes;
+
+    /**
+     * The number of bytes of the chunks holding entries.
+     */
+    private final long chunkBytes;
+
+    /**
+     * The number of bytes of the entries held.
+     */
+    private final long storedBytes;
+
+    /**
+     * Constructs a new snapshot of slab memory usage.
+     *
+     * @param capacityBytes  the maximum number of bytes the store may allocate
+     * @param allocatedBytes the number of bytes allocated as slabs
+     * @param chunkBytes     the number of bytes of the chunks holding entries
+     * @param storedBytes    the number of bytes of the entries held
+     * @throws IllegalArgumentException if any of the provided counts are negative or inconsistent
+     */
+    public SlabStatistics(long capacityBytes, long allocatedBytes, long chunkBytes, long storedBytes) {
+        Preconditions.checkArgument(storedBytes >= 0);
+        Preconditions.checkArgument(chunkBytes >= storedBytes);
+        Preconditions.checkArgument(allocatedBytes >= chunkBytes);
+        Preconditions.checkArgument(capacityBytes >= allocatedBytes);
+
+        this.capacityBytes = capacityBytes;
+        this.allocatedBytes = allocatedBytes;
+        this.chunkBytes = chunkBytes;
+        this.storedBytes = storedBytes;
+    }
+
+    /**
+     * Returns the maximum number of bytes the store may allocate.
+     *
+     * @return the maximum number of bytes the store may allocate
+     */
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    /**
+     * Returns the number of bytes allocated as slabs.
+     *
+     * @return the number of bytes allocated as slabs
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the number of bytes of the chunks holding entries.
+     *
+     * @return the number of bytes of the chunks holding entries
+     */
+    public long getChunkBytes() {
+        return chunkBytes;
+    }
+
+    /**
+     * Returns the number of bytes of the entries held.
+     *
+     * @return the number of bytes of the entries held
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * Returns the number of allocated bytes not assigned to any entry.
+     *
+     * @return the number of allocated bytes not assigned to any entry
+     */
+    public long getFreeBytes() {
+        return allocatedBytes - chunkBytes;
+    }
+
+    /**
+     * Returns the internal fragmentation, the share of the bytes of occupied chunks which is wasted
+     * because entries are smaller than the chunks of their size class.
+     *
+     * @return the internal fragmentation in the range [0, 1]
+     */
+    public double getFragmentation() {
+        return chunkBytes == 0 ? 0.0 : (double) (chunkBytes - storedBytes) / chunkBytes;
+    }
+
+    /**
+     * Returns a hashcode for this {@link SlabStatistics}.
+     *
+     * @return a hashcode for this {@link SlabStatistics}
+     */
+    @Override
+    public int hashCode() {
+        int ret = Long.hashCode(capacityBytes);
+        ret = 31 * ret + Long.hashCode(allocatedBytes);
+        ret = 31 * ret + Long.hashCode(chunkBytes);
+        ret = 31 * ret + Long.hashCode(storedBytes);
+        return ret;
+    }
+
+    /**
+     * Returns whether the provided object equals {@code this} object or is equal as defined by an equivalence relation.
+     *
+     * @param o the other object to compare against {@code this}
+     * @return whether the provided object equals {@code this} object or is equal as defined by an equivalence relation
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof SlabStatistics)) {
+            return false;
+        }
+
+        SlabStatistics other = (SlabStatistics) o;
+        return other.capacityBytes == capacityBytes
+                && other.allocatedBytes == allocatedBytes
+                && other.chunkBytes == chunkBytes
+                && other.storedBytes == storedBytes;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link SlabStatistics}.
+     *
+     * @return a {@link String} representation for this {@link SlabStatistics}
+     */
+    @Override
+    public String toString() {
+        return "SlabStatistics{"
+                + "capacityBytes=" + capacityBytes
+                + ", allocatedBytes=" + allocatedBytes
+                + ", chunkBytes=" + chunkBytes
+                + ", storedBytes=" + storedBytes
+                + "}";
+    }
+}
@@ -0,0 +1,225 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+/**
+ * A {@link ByteStore} composed of several tiers ordered from fastest to slowest, such as a heap store in
+ * front of a {@link DiskByteStore}. Lookups consult the tiers in order, and bytes found in a slower tier are
+ * promoted to all faster tiers along with their load time. Insertions and invalidations apply to every tier.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class TieredByteStore implements ByteStore {
+    /**
+     * The tiers ordered from fastest to slowest.
+     */
+    private final ImmutableList<ByteStore> tiers;
+
+    /**
+     * The number of lookups which found an entry in any tier.
+     */
+    private long hitCount;
+
+    /**
+     * The number of lookups which found no entry in any tier.
+     */
+    private long missCount;
+
+    /**
+     * Constructs a new tiered store.
+     *
+     * @param tiers the tiers ordered from fastest to slowest
+     * @throws NullPointerException     if the provided tiers or any tier are null
+     * @throws IllegalArgumentException if no tiers are provided
+     */
+    public TieredByteStore(ByteStore... tiers) {
+        Preconditions.checkNotNull(tiers);
+        Preconditions.checkArgument(tiers.length > 0);
+
+        this.tiers = ImmutableList.copyOf(tiers);
+    }
+
+    /**
+     * Returns the tiers of this store ordered from fastest to slowest.
+     *
+     * @return the tiers of this store ordered from fastest to slowest
+     */
+    public List<ByteStore> getTiers() {
+        return tiers;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] getIfPresent(String key) {
+        Preconditions.checkNotNull(key);
+
+        for (int tier = 0; tier < tiers.size(); tier++) {
+            OptionalLong loadTime = tiers.get(tier).getLoadTime(key);
+            byte[] bytes = tiers.get(tier).getIfPresent(key);
+            if (bytes == null) continue;
+
+            for (int fasterTier = 0; fasterTier < tier; fasterTier++) {
+                if (loadTime.isPresent()) {
+                    tiers.get(fasterTier).put(key, bytes, loadTime.getAsLong());
+                } else {
+                    tiers.get(fasterTier).put(key, bytes);
+                }
+            }
+            recordLookup(true);
+            return bytes;
+        }
+
+        recordLookup(false);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The bytes are written by the fastest tier holding them, without promotion.
+     */
+    @Override
+    public boolean transferTo(String key, WritableByteChannel channel) throws IOException {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(channel);
+
+        for (ByteStore tier : tiers) {
+            if (tier.transferTo(key, channel)) {
+                recordLookup(true);
+                return true;
+            }
+        }
+
+        recordLookup(false);
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The bytes are read from the fastest tier holding them, without promotion.
+     */
+    @Override
+    public <T> T read(String key, Function<ByteBuffer, T> reader) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(reader);
+
+        for (ByteStore tier : tiers) {
+            T result = tier.read(key, reader);
+            if (result != null) {
+                recordLookup(true);
+                return result;
+            }
+        }
+
+        recordLookup(false);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return whether any tier stores the bytes
+     */
+    @Override
+    public boolean put(String key, byte[] bytes) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(bytes);
+
+        boolean stored = false;
+        for (ByteStore tier : tiers) {
+            stored |= tier.put(key, bytes);
+        }
+        return stored;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return whether any tier stores the bytes
+     */
+    @Override
+    public boolean put(String key, byte[] bytes, long loadTime) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(bytes);
+
+        boolean stored = false;
+        for (ByteStore tier : tiers) {
+            stored |= tier.put(key, bytes, loadTime);
+        }
+        return stored;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The load time is that of the fastest tier which knows it.
+     */
+    @Override
+    public OptionalLong getLoadTime(String key) {
+        Preconditions.checkNotNull(key);
+
+        for (ByteStore tier : tiers) {
+            OptionalLong loadTime = tier.getLoadTime(key);
+            if (loadTime.isPresent()) return loadTime;
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return whether bytes were removed from any tier
+     */
+    @Override
+    public boolean invalidate(String key) {
+        Preconditions.checkNotNull(key);
+
+        boolean removed = false;
+        for (ByteStore tier : tiers) {
+            removed |= tier.invalidate(key);
+        }
+        return removed;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Hits and misses count lookups of this store as a whole, and evictions are summed over all tiers.
+     */
+    @Override
+    public synchronized CacheStatistics getStatistics() {
+        long evictionCount = tiers.stream().mapToLong(tier -> tier.getStatistics().getEvictionCount()).sum();
+        return new CacheStatistics(hitCount, missCount, evictionCount);
+    }
+
+    /**
+     * Records a lookup of this store.
+     *
+     * @param hit whether the lookup found an entry
+     */
+    private synchronized void recordLookup(boolean hit) {
+        if (hit) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link TieredByteStore}.
+     *
+     * @return a {@link String} representation for this {@link TieredByteStore}
+     */
+    @Override
+    public String toString() {
+        return "TieredByteStore{tiers=" + tiers + "}";
+    }
+}
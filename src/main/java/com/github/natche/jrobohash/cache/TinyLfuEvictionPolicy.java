@@ -0,0 +1,194 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * A scan-resistant {@link EvictionPolicy} modelled on W-TinyLFU. New keys enter a small LRU admission
+ * window. Keys overflowing the window become candidates for the main space, a segmented LRU of probation
+ * and protected keys. When room is needed, the oldest candidate competes with the victim of the main space
+ * and the key with the lower estimated access frequency is evicted. A burst of keys which are never
+ * requested again thus only churns the window and leaves frequently requested entries in place.
+ *
+ * @param <K> the type of keys of the owning cache
+ */
+public final class TinyLfuEvictionPolicy<K> implements EvictionPolicy<K> {
+    /**
+     * The default share of keys held by the admission window.
+     */
+    public static final double DEFAULT_WINDOW_RATIO = 0.01;
+
+    /**
+     * The share of the main space held by the protected segment.
+     */
+    private static final double PROTECTED_RATIO = 0.8;
+
+    /**
+     * The estimated access frequencies of keys, present or not.
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * The share of keys held by the admission window.
+     */
+    private final double windowRatio;
+
+    /**
+     * The admission window ordered from least to most recently used.
+     */
+    private final LinkedHashSet<K> window = new LinkedHashSet<>();
+
+    /**
+     * The keys which overflowed the admission window and await admission to the main space, oldest first.
+     */
+    private final LinkedHashSet<K> candidates = new LinkedHashSet<>();
+
+    /**
+     * The keys of the main space accessed only once since admission, least recently used first.
+     */
+    private final LinkedHashSet<K> probation = new LinkedHashSet<>();
+
+    /**
+     * The keys of the main space accessed again since admission, least recently used first.
+     */
+    private final LinkedHashSet<K> protectedKeys = new LinkedHashSet<>();
+
+    /**
+     * Constructs a new policy for approximately the provided number of entries
+     * with an admission window of {@link #DEFAULT_WINDOW_RATIO}.
+     *
+     * @param expectedEntries the approximate number of entries the owning cache holds
+     * @throws IllegalArgumentException if the provided number of entries is less than one
+     */
+    public TinyLfuEvictionPolicy(int expectedEntries) {
+        this(expectedEntries, DEFAULT_WINDOW_RATIO);
+    }
+
+    /**
+     * Constructs a new policy for approximately the provided number of entries.
+     *
+     * @param expectedEntries the approximate number of entries the owning cache holds
+     * @param windowRatio     the share of keys held by the admission window, in the range (0, 1)
+     * @throws IllegalArgumentException if the provided number of entries is less than one
+     *                                  or the provided window ratio is out of range
+     */
+    public TinyLfuEvictionPolicy(int expectedEntries, double windowRatio) {
+        Preconditions.checkArgument(expectedEntries > 0);
+        Preconditions.checkArgument(windowRatio > 0 && windowRatio < 1);
+
+        this.sketch = new FrequencySketch(expectedEntries);
+        this.windowRatio = windowRatio;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordAccess(K key) {
+        Preconditions.checkNotNull(key);
+
+        sketch.increment(key);
+        if (window.remove(key)) {
+            window.add(key);
+        } else if (candidates.remove(key) || probation.remove(key)) {
+            protectedKeys.add(key);
+            demoteExcessProtectedKeys();
+        } else if (protectedKeys.remove(key)) {
+            protectedKeys.add(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordInsertion(K key) {
+        Preconditions.checkNotNull(key);
+
+        recordRemoval(key);
+        sketch.increment(key);
+        window.add(key);
+
+        int maxWindowSize = maxWindowSize();
+        while (window.size() > maxWindowSize) {
+            K overflowed = first(window);
+            window.remove(overflowed);
+            candidates.add(overflowed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordRemoval(K key) {
+        Preconditions.checkNotNull(key);
+
+        if (!window.remove(key) && !candidates.remove(key) && !probation.remove(key)) protectedKeys.remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public K selectVictim() {
+        while (true) {
+            K candidate = first(candidates);
+            K mainVictim = first(probation.isEmpty() ? protectedKeys : probation);
+            if (candidate == null) return mainVictim != null ? mainVictim : first(window);
+
+            if (mainVictim != null && sketch.frequency(candidate) <= sketch.frequency(mainVictim)) return candidate;
+
+            candidates.remove(candidate);
+            probation.add(candidate);
+            if (mainVictim != null) return mainVictim;
+        }
+    }
+
+    /**
+     * Returns the estimated access frequency of the provided key.
+     *
+     * @param key the key
+     * @return the estimated access frequency of the provided key
+     */
+    public int frequency(K key) {
+        Preconditions.checkNotNull(key);
+
+        return sketch.frequency(key);
+    }
+
+    /**
+     * Returns the maximum number of keys the admission window holds before keys compete for admission.
+     *
+     * @return the maximum number of keys of the admission window
+     */
+    private int maxWindowSize() {
+        int keyCount = window.size() + candidates.size() + probation.size() + protectedKeys.size();
+        return Math.max(1, (int) (keyCount * windowRatio));
+    }
+
+    /**
+     * Moves the least recently used protected keys to probation while the protected segment is over capacity.
+     */
+    private void demoteExcessProtectedKeys() {
+        int maxProtectedSize = Math.max(1, (int) ((probation.size() + protectedKeys.size()) * PROTECTED_RATIO));
+        while (protectedKeys.size() > maxProtectedSize) {
+            K demoted = first(protectedKeys);
+            protectedKeys.remove(demoted);
+            probation.add(demoted);
+        }
+    }
+
+    /**
+     * Returns the first key of the provided segment.
+     *
+     * @param segment the segment
+     * @return the first key of the provided segment, or null if the segment is empty
+     */
+    private static <K> K first(LinkedHashSet<K> segment) {
+        Iterator<K> iterator = segment.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+}
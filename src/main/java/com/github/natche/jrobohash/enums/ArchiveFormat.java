@@ -0,0 +1,39 @@
+package com.github.natche.jrobohash.enums;
+
+/**
+ * The formats avatars may be exported to as a single archive.
+ */
+public enum ArchiveFormat {
+    /**
+     * A ZIP archive. Already compressed images are stored as is, other images are deflated.
+     */
+    ZIP("zip"),
+
+    /**
+     * An uncompressed POSIX ustar archive.
+     */
+    TAR("tar");
+
+    /**
+     * The file extension of this format, without a period.
+     */
+    private final String extension;
+
+    /**
+     * Constructs a new archive format.
+     *
+     * @param extension the file extension of the format, without a period
+     */
+    ArchiveFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the file extension of this format, without a period.
+     *
+     * @return the file extension of this format, without a period
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
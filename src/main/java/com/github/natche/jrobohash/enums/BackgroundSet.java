@@ -21,8 +21,20 @@ public enum BackgroundSet {
 
     private final String backgroundSetName;
 
+    /**
+     * The URL parameter of this background set as the first parameter of a query string.
+     */
+    private final String firstUrlParameter;
+
+    /**
+     * The URL parameter of this background set following other parameters of a query string.
+     */
+    private final String urlParameter;
+
     BackgroundSet(String setName) {
         this.backgroundSetName = setName;
+        this.firstUrlParameter = UrlParameter.BACKGROUND_SET.encodeUrlParameter(setName, true);
+        this.urlParameter = UrlParameter.BACKGROUND_SET.encodeUrlParameter(setName, false);
     }
 
     /**
@@ -41,6 +53,6 @@ public enum BackgroundSet {
      * @return the URL parameter for this background set
      */
     public String constructUrlParameter(boolean firstParameter) {
-        return UrlParameter.BACKGROUND_SET.encodeUrlParameter(backgroundSetName, firstParameter);
+        return firstParameter ? firstUrlParameter : urlParameter;
     }
 }
@@ -0,0 +1,24 @@
+package com.github.natche.jrobohash.enums;
+
+/**
+ * The strategies an endpoint pool may balance requests across its healthy endpoints with.
+ */
+public enum BalancingStrategy {
+    /**
+     * Endpoints are selected in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * The endpoint with the fewest requests in flight is selected, thus a slow endpoint on which
+     * requests pile up receives less traffic.
+     */
+    LEAST_OUTSTANDING_REQUESTS,
+
+    /**
+     * Two endpoints are sampled at random and the one with fewer requests in flight is selected, preferring
+     * the lower average latency on ties. This approaches the balance of least outstanding requests while
+     * avoiding that many clients with the same view stampede the same endpoint.
+     */
+    POWER_OF_TWO_CHOICES
+}
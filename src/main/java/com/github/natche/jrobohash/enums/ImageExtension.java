@@ -1,6 +1,9 @@
 package com.github.natche.jrobohash.enums;
 
 import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.io.IOException;
 
 /**
  * The image extensions supported by the RoboHash API. If, for some reason, an invalid image
@@ -11,27 +14,44 @@ public enum ImageExtension {
     /**
      * The JPEG shorthand extension.
      */
-    JPG("jpg"),
+    JPG("jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
 
     /**
      * The standard JPEG extension.
      */
-    JPEG("jpeg"),
+    JPEG("jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
 
     /**
      * The PNG extension for lossless compression.
      */
-    PNG("png"),
+    PNG("png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
 
     /**
      * The Bitmap extension. This can take a little longer for the RoboHash server to generate and return.
      */
-    BITMAP("bmp");
+    BITMAP("bmp", new byte[]{'B', 'M'});
+
+    /**
+     * The number of leading bytes of an encoded image which suffice to identify its format.
+     */
+    public static final int SIGNATURE_LENGTH = 8;
 
     private final String extension;
 
-    ImageExtension(String extension) {
+    /**
+     * This extension with a prefixed period.
+     */
+    private final String extensionWithPeriod;
+
+    /**
+     * The leading bytes every encoded image of this format begins with.
+     */
+    private final byte[] signature;
+
+    ImageExtension(String extension, byte[] signature) {
         this.extension = extension;
+        this.extensionWithPeriod = "." + extension;
+        this.signature = signature;
     }
 
     /**
@@ -49,7 +69,18 @@ public enum ImageExtension {
      * @return this image extension with a prefixed period such as ".jpg" for {@link #JPG}
      */
     public String getExtensionWithPeriod() {
-        return "." + getExtension();
+        return extensionWithPeriod;
+    }
+
+    /**
+     * Returns the extension of the same image format this extension canonically maps to, {@link #JPG} for
+     * {@link #JPEG} and otherwise this extension. Requests ignoring their extension return the same image
+     * for both, thus they may share a request URL.
+     *
+     * @return the extension of the same image format this extension canonically maps to
+     */
+    public ImageExtension getCanonicalExtension() {
+        return this == JPEG ? JPG : this;
     }
 
     /**
@@ -89,4 +120,45 @@ public enum ImageExtension {
                 ? filename.substring(0, lastPeriodIndex) + getExtensionWithPeriod()
                 : filename + getExtensionWithPeriod();
     }
+
+    /**
+     * Appends the provided filename with its extension set to this extension, as {@link #setAsImageExtension(String)}
+     * returns it, without building the intermediate string.
+     *
+     * @param appendable the appendable to append to
+     * @param filename   the filename possibly containing an extension which will be stripped away
+     * @return the provided appendable
+     * @throws NullPointerException     if the provided appendable or filename is null
+     * @throws IllegalArgumentException if the provided filename is empty
+     * @throws IOException              if the provided appendable throws
+     */
+    @CanIgnoreReturnValue
+    public <T extends Appendable> T appendAsImageExtension(T appendable, String filename) throws IOException {
+        Preconditions.checkNotNull(appendable);
+        Preconditions.checkNotNull(filename);
+        Preconditions.checkArgument(!filename.isBlank());
+
+        int lastPeriodIndex = filename.lastIndexOf('.');
+        appendable.append(filename, 0, lastPeriodIndex != -1 ? lastPeriodIndex : filename.length());
+        appendable.append(extensionWithPeriod);
+        return appendable;
+    }
+
+    /**
+     * Returns whether the provided leading bytes of an encoded image identify the format of this extension,
+     * such as the PNG signature for {@link #PNG}. {@link #JPG} and {@link #JPEG} identify the same format.
+     *
+     * @param leadingBytes the leading bytes of an encoded image, ideally {@link #SIGNATURE_LENGTH} of them
+     * @return whether the provided bytes begin with the signature of the format of this extension
+     * @throws NullPointerException if the provided bytes are null
+     */
+    public boolean matchesSignature(byte[] leadingBytes) {
+        Preconditions.checkNotNull(leadingBytes);
+
+        if (leadingBytes.length < signature.length) return false;
+        for (int index = 0; index < signature.length; index++) {
+            if (leadingBytes[index] != signature[index]) return false;
+        }
+        return true;
+    }
 }
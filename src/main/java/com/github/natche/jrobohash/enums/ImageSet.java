@@ -1,6 +1,11 @@
 package com.github.natche.jrobohash.enums;
 
 import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
 
 /**
  * The supported RoboHash avatar image sets.
@@ -37,12 +42,141 @@ public enum ImageSet {
      */
     ANY("any", "");
 
+    /**
+     * The number of distinct masks of image sets, one per combination of image sets.
+     */
+    public static final int MASK_COUNT = 1 << values().length;
+
+    /**
+     * The image sets of each mask, in declaration order.
+     */
+    private static final ImmutableList<ImmutableList<ImageSet>> IMAGE_SETS_BY_MASK = computeImageSetsByMask();
+
+    /**
+     * The canonical image sets URL parameter of each mask as the first parameter of a query string.
+     */
+    private static final ImmutableList<String> FIRST_URL_PARAMETERS_BY_MASK = computeUrlParametersByMask(true);
+
+    /**
+     * The canonical image sets URL parameter of each mask following other parameters of a query string.
+     */
+    private static final ImmutableList<String> URL_PARAMETERS_BY_MASK = computeUrlParametersByMask(false);
+
     private final String urlParameterName;
     private final String listUrlParameterName;
 
+    /**
+     * The URL parameter of this image set as the first parameter of a query string.
+     */
+    private final String firstUrlParameter;
+
+    /**
+     * The URL parameter of this image set following other parameters of a query string.
+     */
+    private final String urlParameter;
+
     ImageSet(String urlParameterName, String listUrlParameterName) {
         this.urlParameterName = urlParameterName;
         this.listUrlParameterName = listUrlParameterName;
+        this.firstUrlParameter = UrlParameter.IMAGE_SET.encodeUrlParameter(urlParameterName, true);
+        this.urlParameter = UrlParameter.IMAGE_SET.encodeUrlParameter(urlParameterName, false);
+    }
+
+    /**
+     * Returns the image sets of each mask, in declaration order.
+     *
+     * @return the image sets of each mask
+     */
+    private static ImmutableList<ImmutableList<ImageSet>> computeImageSetsByMask() {
+        ImmutableList.Builder<ImmutableList<ImageSet>> imageSetsByMask = ImmutableList.builder();
+        for (int mask = 0; mask < MASK_COUNT; mask++) {
+            ImmutableList.Builder<ImageSet> imageSets = ImmutableList.builder();
+            for (ImageSet imageSet : values()) {
+                if ((mask & imageSet.getMask()) != 0) imageSets.add(imageSet);
+            }
+            imageSetsByMask.add(imageSets.build());
+        }
+        return imageSetsByMask.build();
+    }
+
+    /**
+     * Returns the canonical image sets URL parameter of each mask, empty for the empty mask.
+     *
+     * @param firstParameter whether the parameters are the first URL parameter in the query string
+     * @return the canonical image sets URL parameter of each mask
+     */
+    private static ImmutableList<String> computeUrlParametersByMask(boolean firstParameter) {
+        ImmutableList.Builder<String> urlParametersByMask = ImmutableList.builder();
+        for (int mask = 0; mask < MASK_COUNT; mask++) {
+            ImmutableList<ImageSet> imageSets = IMAGE_SETS_BY_MASK.get(mask);
+            if (imageSets.isEmpty()) {
+                urlParametersByMask.add("");
+            } else if (imageSets.contains(ANY)) {
+                urlParametersByMask.add(ANY.constructUrlParameter(firstParameter));
+            } else if (imageSets.size() == 1) {
+                urlParametersByMask.add(imageSets.get(0).constructUrlParameter(firstParameter));
+            } else {
+                urlParametersByMask.add(UrlParameter.IMAGE_SETS.encodeUrlParameter(imageSets.stream()
+                        .map(ImageSet::getListUrlParameterName)
+                        .collect(Collectors.joining(",")), firstParameter));
+            }
+        }
+        return urlParametersByMask.build();
+    }
+
+    /**
+     * Returns the mask of this image set, the bit of its ordinal.
+     *
+     * @return the mask of this image set
+     */
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns the mask of the provided image sets, the union of the mask of each image set.
+     *
+     * @param imageSets the image sets
+     * @return the mask of the provided image sets
+     * @throws NullPointerException if the provided image sets or any image set are null
+     */
+    public static int toMask(Collection<ImageSet> imageSets) {
+        Preconditions.checkNotNull(imageSets);
+
+        int mask = 0;
+        for (ImageSet imageSet : imageSets) {
+            mask |= imageSet.getMask();
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the image sets of the provided mask in declaration order. The returned list is shared, not copied.
+     *
+     * @param mask the mask
+     * @return the image sets of the provided mask
+     * @throws IllegalArgumentException if the provided mask contains bits of no image set
+     */
+    public static ImmutableList<ImageSet> fromMask(int mask) {
+        Preconditions.checkArgument(mask >= 0 && mask < MASK_COUNT);
+
+        return IMAGE_SETS_BY_MASK.get(mask);
+    }
+
+    /**
+     * Returns the canonical image sets URL parameter of the image sets of the provided mask, such as "?sets=2,5"
+     * for {@link #MONSTERS} and {@link #HUMANS}, or "?set=any" if {@link #ANY} is contained. Parameters are
+     * precomputed for every mask, thus this never allocates.
+     *
+     * @param mask           the mask
+     * @param firstParameter whether this parameter is the first URL parameter in the query string
+     * @return the canonical image sets URL parameter of the image sets of the provided mask
+     * @throws IllegalArgumentException if the provided mask is empty or contains bits of no image set
+     */
+    public static String constructUrlParameter(int mask, boolean firstParameter) {
+        Preconditions.checkArgument(mask > 0 && mask < MASK_COUNT);
+
+        return (firstParameter ? FIRST_URL_PARAMETERS_BY_MASK : URL_PARAMETERS_BY_MASK).get(mask);
     }
 
     /**
@@ -73,6 +207,6 @@ public enum ImageSet {
      * @return a URL parameter for this image set.
      */
     public String constructUrlParameter(boolean firstParameter) {
-        return UrlParameter.IMAGE_SET.encodeUrlParameter(urlParameterName, firstParameter);
+        return firstParameter ? firstUrlParameter : urlParameter;
     }
 }
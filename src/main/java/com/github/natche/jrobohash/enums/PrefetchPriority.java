@@ -0,0 +1,17 @@
+package com.github.natche.jrobohash.enums;
+
+/**
+ * The priorities a prefetch may run at relative to the other calls of its client.
+ */
+public enum PrefetchPriority {
+    /**
+     * Fetches are only issued while no other calls of the client are in flight, thus the prefetch
+     * never competes with page views for connections, permits or tokens.
+     */
+    LOW,
+
+    /**
+     * Fetches are issued regardless of the other calls of the client.
+     */
+    NORMAL
+}
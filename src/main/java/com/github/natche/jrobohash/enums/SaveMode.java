@@ -0,0 +1,17 @@
+package com.github.natche.jrobohash.enums;
+
+/**
+ * The ways an avatar may be saved to a file.
+ */
+public enum SaveMode {
+    /**
+     * The encoded image is streamed to disk exactly as returned by the server. The image is only decoded and
+     * re-encoded if the format returned by the server differs from the requested {@link ImageExtension}.
+     */
+    STREAM,
+
+    /**
+     * The image is always decoded and re-encoded in the format of the requested {@link ImageExtension}.
+     */
+    TRANSCODE
+}
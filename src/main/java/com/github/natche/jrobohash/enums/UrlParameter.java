@@ -46,8 +46,20 @@ public enum UrlParameter {
 
     private final String urlParameterName;
 
+    /**
+     * The prefix of this parameter as the first parameter of a query string, such as "?bgset=".
+     */
+    private final String firstUrlParameterPrefix;
+
+    /**
+     * The prefix of this parameter following other parameters of a query string, such as "&bgset=".
+     */
+    private final String urlParameterPrefix;
+
     UrlParameter(String urlParameterName) {
         this.urlParameterName = urlParameterName;
+        this.firstUrlParameterPrefix = "?" + urlParameterName + "=";
+        this.urlParameterPrefix = "&" + urlParameterName + "=";
     }
 
     /**
@@ -59,6 +71,17 @@ public enum UrlParameter {
         return urlParameterName;
     }
 
+    /**
+     * Returns the prefix preceding the value of this URL parameter, such as "?bgset=" or "&bgset="
+     * for {@link #BACKGROUND_SET}. The prefix is computed once, thus URLs may be appended without allocating.
+     *
+     * @param isFirstParameter whether this parameter is the first URL parameter in the query string
+     * @return the prefix preceding the value of this URL parameter
+     */
+    public String getUrlParameterPrefix(boolean isFirstParameter) {
+        return isFirstParameter ? firstUrlParameterPrefix : urlParameterPrefix;
+    }
+
     /**
      * Returns an encoded URL parameter for the provided text and this URL parameter.
      * For example, if "1,2,3" is provided and this {@link UrlParameter} is
@@ -91,7 +114,6 @@ public enum UrlParameter {
         Preconditions.checkNotNull(parameter);
         Preconditions.checkArgument(!parameter.trim().isEmpty());
 
-        String prefix = isFirstParameter ? "?" : "&";
-        return prefix + urlParameterName + "=" + parameter;
+        return getUrlParameterPrefix(isFirstParameter) + parameter;
     }
 }
@@ -24,8 +24,20 @@ public enum UseGravatar {
 
     private final String urlParameterName;
 
+    /**
+     * The URL parameter of this option as the first parameter of a query string.
+     */
+    private final String firstUrlParameter;
+
+    /**
+     * The URL parameter of this option following other parameters of a query string.
+     */
+    private final String urlParameter;
+
     UseGravatar(String urlParameterName) {
         this.urlParameterName = urlParameterName;
+        this.firstUrlParameter = UrlParameter.USE_GRAVATAR.encodeUrlParameter(urlParameterName, true);
+        this.urlParameter = UrlParameter.USE_GRAVATAR.encodeUrlParameter(urlParameterName, false);
     }
 
     /**
@@ -38,7 +50,7 @@ public enum UseGravatar {
      */
     public String constructUrlParameter(boolean firstParameter) {
         if (this == UseGravatar.NO) return "";
-        return UrlParameter.USE_GRAVATAR.encodeUrlParameter(getUrlParameterRepresentation(), firstParameter);
+        return firstParameter ? firstUrlParameter : urlParameter;
     }
 
     /**
@@ -0,0 +1,18 @@
+package com.github.natche.jrobohash.exceptions;
+
+/**
+ * An exception thrown when a request is rejected without being sent because
+ * a circuit breaker considers the upstream server unhealthy.
+ */
+public final class CircuitOpenException extends JRoboHashException {
+    /**
+     * Creates a new {@link CircuitOpenException} with the provided message.
+     *
+     * @param message the message
+     * @throws NullPointerException     if the provided message is null
+     * @throws IllegalArgumentException if the provided message is empty
+     */
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -3,9 +3,10 @@ package com.github.natche.jrobohash.exceptions;
 import com.google.common.base.Preconditions;
 
 /**
- * An exception thrown by methods of the JRoboHash API.
+ * An exception thrown by methods of the JRoboHash API. Subclasses identify failures
+ * callers may wish to handle specifically, such as an unhealthy upstream server.
  */
-public final class JRoboHashException extends RuntimeException {
+public class JRoboHashException extends RuntimeException {
     /**
      * Creates a new {@link JRoboHashException} with the provided message.
      *
@@ -17,6 +18,18 @@ public final class JRoboHashException extends RuntimeException {
         super(performMessageChecks(message));
     }
 
+    /**
+     * Creates a new {@link JRoboHashException} with the provided message and cause.
+     *
+     * @param message the message
+     * @param cause   the cause
+     * @throws NullPointerException if the provided message or cause is null
+     * @throws IllegalArgumentException if the provided message is empty
+     */
+    public JRoboHashException(String message, Throwable cause) {
+        super(performMessageChecks(message), Preconditions.checkNotNull(cause));
+    }
+
     /**
      * Creates a new {@link JRoboHashException} from the provided exception.
      *
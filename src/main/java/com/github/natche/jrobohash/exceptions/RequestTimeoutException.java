@@ -0,0 +1,106 @@
+package com.github.natche.jrobohash.exceptions;
+
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+
+/**
+ * An exception thrown when a request does not complete within its timeout, such as the deadline of a call
+ * or the timeout of a single attempt. The underlying transfer is aborted when this exception is raised.
+ * A passed deadline is the caller giving up rather than a sign of an unhealthy server, which
+ * {@link #isDeadlineExceeded()} tells apart from a timeout reported by the transport.
+ */
+public final class RequestTimeoutException extends JRoboHashException {
+    /**
+     * The URL which was requested.
+     */
+    private final String url;
+
+    /**
+     * The timeout which elapsed.
+     */
+    private final Duration timeout;
+
+    /**
+     * Whether the deadline of the call passed, as opposed to the transport timing out.
+     */
+    private final boolean deadlineExceeded;
+
+    /**
+     * Creates a new {@link RequestTimeoutException} for a deadline which passed.
+     *
+     * @param url     the URL which was requested
+     * @param timeout the timeout which elapsed
+     * @throws NullPointerException     if the provided URL or timeout are null
+     * @throws IllegalArgumentException if the provided URL is empty
+     */
+    public RequestTimeoutException(String url, Duration timeout) {
+        super(buildMessage(url, timeout));
+
+        this.url = url;
+        this.timeout = timeout;
+        this.deadlineExceeded = true;
+    }
+
+    /**
+     * Creates a new {@link RequestTimeoutException} for a timeout reported by the transport.
+     *
+     * @param url     the URL which was requested
+     * @param timeout the timeout which elapsed
+     * @param cause   the timeout reported by the transport
+     * @throws NullPointerException     if the provided URL, timeout, or cause are null
+     * @throws IllegalArgumentException if the provided URL is empty
+     */
+    public RequestTimeoutException(String url, Duration timeout, Throwable cause) {
+        super(buildMessage(url, timeout), cause);
+
+        this.url = url;
+        this.timeout = timeout;
+        this.deadlineExceeded = false;
+    }
+
+    /**
+     * Returns the message for a request of the provided URL which timed out after the provided timeout.
+     *
+     * @param url     the URL which was requested
+     * @param timeout the timeout which elapsed
+     * @return the message
+     * @throws NullPointerException     if the provided URL or timeout are null
+     * @throws IllegalArgumentException if the provided URL is empty
+     */
+    private static String buildMessage(String url, Duration timeout) {
+        Preconditions.checkNotNull(url);
+        Preconditions.checkNotNull(timeout);
+        Preconditions.checkArgument(!url.trim().isEmpty());
+
+        return "Timed out after " + timeout + " getting image from URL: " + url;
+    }
+
+    /**
+     * Returns the URL which was requested.
+     *
+     * @return the URL which was requested
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the timeout which elapsed.
+     *
+     * @return the timeout which elapsed
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Returns whether the deadline of the call passed, as opposed to the transport timing out
+     * while connecting or waiting for a response.
+     *
+     * @return whether the deadline of the call passed
+     */
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+}
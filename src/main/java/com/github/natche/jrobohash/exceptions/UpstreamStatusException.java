@@ -0,0 +1,72 @@
+package com.github.natche.jrobohash.exceptions;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An exception thrown when a RoboHash server answers a request with a status other than success.
+ */
+public final class UpstreamStatusException extends JRoboHashException {
+    /**
+     * The status code indicating the client is sending too many requests.
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * The lowest status code indicating a server error.
+     */
+    private static final int MIN_SERVER_ERROR = 500;
+
+    /**
+     * The URL which was requested.
+     */
+    private final String url;
+
+    /**
+     * The status code the server answered with.
+     */
+    private final int statusCode;
+
+    /**
+     * Creates a new {@link UpstreamStatusException}.
+     *
+     * @param url        the URL which was requested
+     * @param statusCode the status code the server answered with
+     * @throws NullPointerException     if the provided URL is null
+     * @throws IllegalArgumentException if the provided URL is empty
+     */
+    public UpstreamStatusException(String url, int statusCode) {
+        super("Failed to get image from URL: " + Preconditions.checkNotNull(url) + ", status: " + statusCode);
+        Preconditions.checkArgument(!url.trim().isEmpty());
+
+        this.url = url;
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Returns the URL which was requested.
+     *
+     * @return the URL which was requested
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the status code the server answered with.
+     *
+     * @return the status code the server answered with
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns whether the status indicates a transient condition of the server, namely a server
+     * error or too many requests, after which the same request may succeed.
+     *
+     * @return whether the status indicates a transient condition of the server
+     */
+    public boolean isTransient() {
+        return statusCode >= MIN_SERVER_ERROR || statusCode == TOO_MANY_REQUESTS;
+    }
+}
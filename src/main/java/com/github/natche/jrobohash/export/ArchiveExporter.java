@@ -0,0 +1,535 @@
+package com.github.natche.jrobohash.export;
+
+import com.github.natche.jrobohash.enums.ArchiveFormat;
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.github.natche.jrobohash.request.RoboHashClient;
+import com.github.natche.jrobohash.request.RoboHashRequestHandler;
+import com.github.natche.jrobohash.request.RoboHashRequestOptions;
+import com.github.natche.jrobohash.request.RoboHashResult;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An exporter writing the avatars of many builders as a single ZIP or TAR archive to an output stream,
+ * such as the body of a download response. Entries are written as their fetches complete while further
+ * fetches are in flight, and at most {@code maxInFlight} encoded images are held in memory at any time,
+ * thus exports of any size run in bounded memory. Images are written exactly as returned by the server.
+ * Instances are immutable and may be shared.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class ArchiveExporter {
+    /**
+     * The default format of archives.
+     */
+    public static final ArchiveFormat DEFAULT_FORMAT = ArchiveFormat.ZIP;
+
+    /**
+     * The default maximum number of images fetched or buffered at any time.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+
+    /**
+     * The client avatars are fetched with, null to use the client of the {@link RoboHashRequestHandler}.
+     */
+    private final RoboHashClient client;
+
+    /**
+     * The format of archives.
+     */
+    private final ArchiveFormat format;
+
+    /**
+     * The maximum number of images fetched or buffered at any time.
+     */
+    private final int maxInFlight;
+
+    /**
+     * The function naming the entry of each builder, without a file extension.
+     */
+    private final Function<RoboHashRequestOptions, String> entryNamer;
+
+    /**
+     * Constructs a new exporter from the state of the provided builder.
+     *
+     * @param builder the builder to construct the exporter from
+     */
+    private ArchiveExporter(Builder builder) {
+        this.client = builder.client;
+        this.format = builder.format;
+        this.maxInFlight = builder.maxInFlight;
+        this.entryNamer = builder.entryNamer;
+    }
+
+    /**
+     * Returns a new builder for an {@link ArchiveExporter}.
+     *
+     * @return a new builder for an {@link ArchiveExporter}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Writes an archive of the avatars of the provided builders to the provided output stream.
+     *
+     * @param builders     the builders to export the avatars of
+     * @param outputStream the output stream to write the archive to, which is flushed but not closed
+     * @return the results of the fetches which failed, whose avatars are missing from the archive
+     * @throws NullPointerException if the provided builders or output stream are null
+     * @throws JRoboHashException   if the archive cannot be written, in which case part
+     *                              of the archive may already have been written
+     * @see #export(Stream, OutputStream)
+     */
+    public List<RoboHashResult> export(Iterable<? extends RoboHashRequestOptions> builders,
+                                       OutputStream outputStream) {
+        Preconditions.checkNotNull(builders);
+
+        return export(StreamSupport.stream(builders.spliterator(), false), outputStream);
+    }
+
+    /**
+     * Writes an archive of the avatars of the provided builders to the provided output stream. The calling
+     * thread writes each entry as soon as its fetch completes and is blocked until the archive is complete.
+     * Entries are named after the avatar key by default, with the extension of the image format returned by
+     * the server; names repeated within the archive receive a numeric suffix. Names are sanitized and truncated
+     * to fit the format before anything of their entry is written. Failed fetches are skipped, as are entries
+     * which cannot be named, whose results are returned as failed.
+     *
+     * @param builders     the builders to export the avatars of, consumed lazily and closed once exported
+     * @param outputStream the output stream to write the archive to, which is flushed but not closed
+     * @return the results of the fetches which failed or could not be named, whose avatars are missing
+     * from the archive
+     * @throws NullPointerException if the provided builders or output stream are null
+     * @throws JRoboHashException   if the archive cannot be written, in which case part
+     *                              of the archive may already have been written
+     */
+    public List<RoboHashResult> export(Stream<? extends RoboHashRequestOptions> builders,
+                                       OutputStream outputStream) {
+        Preconditions.checkNotNull(builders);
+        Preconditions.checkNotNull(outputStream);
+
+        Instant modified = Instant.now();
+        ArchiveWriter writer = format == ArchiveFormat.ZIP
+                ? new ZipArchiveWriter(outputStream, modified.toEpochMilli())
+                : new TarArchiveWriter(outputStream, modified.getEpochSecond());
+        RoboHashClient exportClient = client != null ? client : RoboHashRequestHandler.getClient();
+        QueueSubscriber subscriber = new QueueSubscriber(maxInFlight);
+        exportClient.publishAll(builders, maxInFlight).subscribe(subscriber);
+
+        Set<String> entryNames = new HashSet<>();
+        List<RoboHashResult> failedResults = new ArrayList<>();
+        try {
+            RoboHashResult result;
+            while ((result = subscriber.take()) != null) {
+                RoboHashResult failedResult = result.isSuccess() ? writeEntry(writer, result, entryNames) : result;
+                if (failedResult != null) failedResults.add(failedResult);
+                subscriber.requestNext();
+            }
+            writer.finish();
+        } catch (IOException e) {
+            subscriber.cancel();
+            throw new JRoboHashException("Failed to write archive, error: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            subscriber.cancel();
+            throw e;
+        }
+
+        return failedResults;
+    }
+
+    /**
+     * Writes the image of the provided successful result as an entry with a name unique within the archive.
+     * The name is sanitized and truncated to fit the archive format before anything is written.
+     *
+     * @param writer     the archive writer
+     * @param result     the successful result
+     * @param entryNames the names of the entries written so far
+     * @return a failed result if the entry cannot be named and was skipped, otherwise null
+     * @throws IOException if the entry cannot be written
+     */
+    private RoboHashResult writeEntry(ArchiveWriter writer, RoboHashResult result, Set<String> entryNames)
+            throws IOException {
+        byte[] bytes = result.getImageBytes();
+        ImageExtension extension = detectExtension(bytes, result.getBuilder().getImageExtension());
+
+        String baseName;
+        try {
+            baseName = sanitizeEntryName(entryNamer.apply(result.getBuilder()));
+        } catch (RuntimeException e) {
+            return RoboHashResult.failure(result.getBuilder(), result.getUrl(),
+                    new JRoboHashException("Failed to name archive entry, error: " + e.getMessage(), e));
+        }
+        if (baseName.isEmpty()) {
+            return RoboHashResult.failure(result.getBuilder(), result.getUrl(),
+                    new JRoboHashException("Failed to name archive entry, no valid name remains"));
+        }
+
+        int maxNameLength = writer.getMaxNameLength();
+        String name = fitEntryName(baseName, "", extension, maxNameLength);
+        for (int suffix = 2; !entryNames.add(name); suffix++) {
+            name = fitEntryName(baseName, "-" + suffix, extension, maxNameLength);
+        }
+
+        writer.writeEntry(name, bytes, extension == ImageExtension.BITMAP);
+        return null;
+    }
+
+    /**
+     * Returns the provided entry name as a relative path which cannot escape the directory an archive is
+     * extracted to: backslashes are treated as separators, empty, {@code .} and {@code ..} segments are dropped,
+     * and control characters and colons are replaced by underscores.
+     *
+     * @param name the entry name returned by the entry namer
+     * @return the sanitized entry name, empty if no segment remains
+     * @throws NullPointerException if the provided name is null
+     */
+    private static String sanitizeEntryName(String name) {
+        Preconditions.checkNotNull(name);
+
+        StringBuilder sanitized = new StringBuilder();
+        for (String segment : name.replace('\\', '/').split("/")) {
+            String trimmedSegment = segment.trim();
+            if (trimmedSegment.isEmpty() || trimmedSegment.equals(".") || trimmedSegment.equals("..")) continue;
+
+            if (sanitized.length() > 0) sanitized.append('/');
+            sanitized.append(segment.replaceAll("[\\p{Cntrl}:]", "_"));
+        }
+        return sanitized.toString();
+    }
+
+    /**
+     * Returns the name of an entry with the provided base name, suffix and extension, truncating the base name
+     * at a character boundary so that the UTF-8 encoding of the name does not exceed the provided length.
+     *
+     * @param baseName      the sanitized base name
+     * @param suffix        the suffix distinguishing the name from those written before, possibly empty
+     * @param extension     the extension of the entry
+     * @param maxNameLength the maximum length of the name in bytes
+     * @return the name of the entry
+     */
+    private static String fitEntryName(String baseName, String suffix, ImageExtension extension,
+                                       int maxNameLength) {
+        int availableLength = maxNameLength - utf8Length(suffix + extension.getExtensionWithPeriod());
+        int end = 0;
+        int length = 0;
+        while (end < baseName.length()) {
+            int codePoint = baseName.codePointAt(end);
+            int codePointLength = utf8Length(new String(Character.toChars(codePoint)));
+            if (length + codePointLength > availableLength) break;
+
+            length += codePointLength;
+            end += Character.charCount(codePoint);
+        }
+
+        String truncatedName = baseName.substring(0, end);
+        while (truncatedName.endsWith("/")) {
+            truncatedName = truncatedName.substring(0, truncatedName.length() - 1);
+        }
+        return extension.addAsSuffix((truncatedName.isEmpty() ? "_" : truncatedName) + suffix);
+    }
+
+    /**
+     * Returns the number of bytes of the UTF-8 encoding of the provided string.
+     *
+     * @param string the string
+     * @return the number of bytes of the UTF-8 encoding of the provided string
+     */
+    private static int utf8Length(String string) {
+        return string.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Returns the extension whose signature the provided encoded image matches.
+     *
+     * @param bytes              the encoded image
+     * @param requestedExtension the extension to fall back to if no signature matches
+     * @return the extension of the provided encoded image
+     */
+    private static ImageExtension detectExtension(byte[] bytes, ImageExtension requestedExtension) {
+        if (requestedExtension.matchesSignature(bytes)) return requestedExtension;
+
+        for (ImageExtension extension : ImageExtension.values()) {
+            if (extension.matchesSignature(bytes)) return extension;
+        }
+        return requestedExtension;
+    }
+
+    /**
+     * Returns the default name of the entry of the provided builder, its avatar key with characters other than
+     * letters, digits, periods, hyphens and underscores replaced by underscores, at most 64 characters long.
+     *
+     * @param builder the builder
+     * @return the default name of the entry of the provided builder
+     * @throws NullPointerException if the provided builder is null
+     */
+    public static String defaultEntryName(RoboHashRequestOptions builder) {
+        Preconditions.checkNotNull(builder);
+
+        String name = builder.getAvatarKey().replaceAll("[^A-Za-z0-9._-]", "_");
+        return name.length() > 64 ? name.substring(0, 64) : name;
+    }
+
+    /**
+     * Returns the format of archives.
+     *
+     * @return the format of archives
+     */
+    public ArchiveFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the maximum number of images fetched or buffered at any time.
+     *
+     * @return the maximum number of images fetched or buffered at any time
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link ArchiveExporter}.
+     *
+     * @return a {@link String} representation for this {@link ArchiveExporter}
+     */
+    @Override
+    public String toString() {
+        return "ArchiveExporter{"
+                + "format=" + format
+                + ", maxInFlight=" + maxInFlight
+                + "}";
+    }
+
+    /**
+     * A subscriber handing results over to the exporting thread, requesting a further result
+     * for each result taken.
+     */
+    private static final class QueueSubscriber implements Flow.Subscriber<RoboHashResult> {
+        /**
+         * The signal queued once the publisher completed.
+         */
+        private static final Object COMPLETE = new Object();
+
+        /**
+         * The number of results initially requested.
+         */
+        private final int initialDemand;
+
+        /**
+         * The results and terminal signals received but not yet taken.
+         */
+        private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+        /**
+         * The subscription, null until subscribed.
+         */
+        private volatile Flow.Subscription subscription;
+
+        /**
+         * Constructs a new subscriber.
+         *
+         * @param initialDemand the number of results initially requested
+         */
+        private QueueSubscriber(int initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        /**
+         * Stores the provided subscription and requests the initial results.
+         *
+         * @param subscription the subscription
+         */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialDemand);
+        }
+
+        /**
+         * Queues the provided result.
+         *
+         * @param result the result
+         */
+        @Override
+        public void onNext(RoboHashResult result) {
+            signals.add(result);
+        }
+
+        /**
+         * Queues the provided error.
+         *
+         * @param throwable the error
+         */
+        @Override
+        public void onError(Throwable throwable) {
+            signals.add(throwable);
+        }
+
+        /**
+         * Queues the completion signal.
+         */
+        @Override
+        public void onComplete() {
+            signals.add(COMPLETE);
+        }
+
+        /**
+         * Waits for and returns the next result.
+         *
+         * @return the next result, null once the publisher completed
+         * @throws JRoboHashException if the publisher failed or the thread is interrupted while waiting
+         */
+        private RoboHashResult take() {
+            Object signal;
+            try {
+                signal = signals.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JRoboHashException("Interrupted while exporting avatars", e);
+            }
+
+            if (signal == COMPLETE) return null;
+            if (signal instanceof Throwable) {
+                Throwable error = (Throwable) signal;
+                throw new JRoboHashException("Failed to export avatars, error: " + error.getMessage(), error);
+            }
+            return (RoboHashResult) signal;
+        }
+
+        /**
+         * Requests a further result.
+         */
+        private void requestNext() {
+            subscription.request(1);
+        }
+
+        /**
+         * Cancels the subscription.
+         */
+        private void cancel() {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * A builder for an {@link ArchiveExporter}.
+     */
+    public static final class Builder {
+        /**
+         * The client avatars are fetched with, null to use the client of the {@link RoboHashRequestHandler}.
+         */
+        private RoboHashClient client;
+
+        /**
+         * The format of archives.
+         */
+        private ArchiveFormat format = DEFAULT_FORMAT;
+
+        /**
+         * The maximum number of images fetched or buffered at any time.
+         */
+        private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+        /**
+         * The function naming the entry of each builder, without a file extension.
+         */
+        private Function<RoboHashRequestOptions, String> entryNamer = ArchiveExporter::defaultEntryName;
+
+        /**
+         * Constructs a new builder with the default settings.
+         */
+        private Builder() {}
+
+        /**
+         * Sets the client avatars are fetched with, by default the client of the {@link RoboHashRequestHandler}
+         * at the time of each export.
+         *
+         * @param client the client
+         * @return this builder
+         * @throws NullPointerException if the provided client is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setClient(RoboHashClient client) {
+            Preconditions.checkNotNull(client);
+
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Sets the format of archives.
+         *
+         * @param format the archive format
+         * @return this builder
+         * @throws NullPointerException if the provided format is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setFormat(ArchiveFormat format) {
+            Preconditions.checkNotNull(format);
+
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of images fetched or buffered at any time, which bounds the memory of an export.
+         *
+         * @param maxInFlight the maximum number of images fetched or buffered
+         * @return this builder
+         * @throws IllegalArgumentException if the provided number is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxInFlight(int maxInFlight) {
+            Preconditions.checkArgument(maxInFlight > 0);
+
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets the function naming the entry of each builder, without a file extension. Names may contain
+         * directories separated by slashes. Absolute paths and {@code ..} segments are reduced to relative
+         * paths within the archive, and names too long for the format, such as beyond 100 bytes for TAR
+         * including the extension, are truncated. An entry whose namer throws or whose name has no valid
+         * segment is skipped and its result returned as failed.
+         *
+         * @param entryNamer the function naming entries
+         * @return this builder
+         * @throws NullPointerException if the provided function is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setEntryNamer(Function<RoboHashRequestOptions, String> entryNamer) {
+            Preconditions.checkNotNull(entryNamer);
+
+            this.entryNamer = entryNamer;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link ArchiveExporter} from the state of this builder.
+         *
+         * @return a new {@link ArchiveExporter}
+         */
+        public ArchiveExporter build() {
+            return new ArchiveExporter(this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.natche.jrobohash.export;
+
+import java.io.IOException;
+
+/**
+ * A writer of entries to an archive stream.
+ */
+interface ArchiveWriter {
+    /**
+     * Returns the maximum length of the name of an entry in bytes of its UTF-8 encoding.
+     *
+     * @return the maximum length of the name of an entry in bytes
+     */
+    int getMaxNameLength();
+
+    /**
+     * Writes an entry to the archive.
+     *
+     * @param name     the name of the entry
+     * @param bytes    the content of the entry
+     * @param compress whether the content may benefit from compression
+     * @throws IOException if the entry cannot be written
+     */
+    void writeEntry(String name, byte[] bytes, boolean compress) throws IOException;
+
+    /**
+     * Writes the trailer of the archive without closing the underlying stream.
+     *
+     * @throws IOException if the trailer cannot be written
+     */
+    void finish() throws IOException;
+}
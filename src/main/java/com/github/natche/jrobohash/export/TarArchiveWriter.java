@@ -0,0 +1,176 @@
+package com.github.natche.jrobohash.export;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A writer of uncompressed POSIX ustar archives, each entry being a 512 byte header followed by the content
+ * padded to a multiple of 512 bytes.
+ */
+final class TarArchiveWriter implements ArchiveWriter {
+    /**
+     * The size of a block of a tar archive.
+     */
+    static final int BLOCK_SIZE = 512;
+
+    /**
+     * The maximum length of the name of an entry in bytes.
+     */
+    static final int MAX_NAME_LENGTH = 100;
+
+    /**
+     * The offset of the permissions in a header.
+     */
+    private static final int MODE_OFFSET = 100;
+
+    /**
+     * The offset of the owner user id in a header.
+     */
+    private static final int UID_OFFSET = 108;
+
+    /**
+     * The offset of the owner group id in a header.
+     */
+    private static final int GID_OFFSET = 116;
+
+    /**
+     * The offset of the content size in a header.
+     */
+    private static final int SIZE_OFFSET = 124;
+
+    /**
+     * The offset of the modification time in a header.
+     */
+    private static final int MTIME_OFFSET = 136;
+
+    /**
+     * The offset of the checksum in a header.
+     */
+    private static final int CHECKSUM_OFFSET = 148;
+
+    /**
+     * The length of the checksum in a header.
+     */
+    private static final int CHECKSUM_LENGTH = 8;
+
+    /**
+     * The offset of the entry type in a header.
+     */
+    private static final int TYPE_OFFSET = 156;
+
+    /**
+     * The offset of the format magic in a header.
+     */
+    private static final int MAGIC_OFFSET = 257;
+
+    /**
+     * The entry type of a regular file.
+     */
+    private static final byte REGULAR_FILE = '0';
+
+    /**
+     * The format magic and version of a ustar header.
+     */
+    private static final byte[] USTAR_MAGIC = "ustar\u000000".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The stream the archive is written to.
+     */
+    private final OutputStream outputStream;
+
+    /**
+     * The modification time of entries, in seconds since the epoch.
+     */
+    private final long modifiedSeconds;
+
+    /**
+     * Constructs a new tar writer.
+     *
+     * @param outputStream    the stream the archive is written to, which is not closed
+     * @param modifiedSeconds the modification time of entries, in seconds since the epoch
+     * @throws NullPointerException if the provided output stream is null
+     */
+    TarArchiveWriter(OutputStream outputStream, long modifiedSeconds) {
+        Preconditions.checkNotNull(outputStream);
+
+        this.outputStream = outputStream;
+        this.modifiedSeconds = modifiedSeconds;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMaxNameLength() {
+        return MAX_NAME_LENGTH;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the provided name is longer than 100 bytes
+     */
+    @Override
+    public void writeEntry(String name, byte[] bytes, boolean compress) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        Preconditions.checkArgument(nameBytes.length <= MAX_NAME_LENGTH);
+
+        byte[] header = new byte[BLOCK_SIZE];
+        System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+        writeOctal(header, MODE_OFFSET, 8, 0644);
+        writeOctal(header, UID_OFFSET, 8, 0);
+        writeOctal(header, GID_OFFSET, 8, 0);
+        writeOctal(header, SIZE_OFFSET, 12, bytes.length);
+        writeOctal(header, MTIME_OFFSET, 12, modifiedSeconds);
+        header[TYPE_OFFSET] = REGULAR_FILE;
+        System.arraycopy(USTAR_MAGIC, 0, header, MAGIC_OFFSET, USTAR_MAGIC.length);
+
+        for (int index = 0; index < CHECKSUM_LENGTH; index++) {
+            header[CHECKSUM_OFFSET + index] = ' ';
+        }
+        long checksum = 0;
+        for (byte headerByte : header) {
+            checksum += headerByte & 0xFF;
+        }
+        writeOctal(header, CHECKSUM_OFFSET, 7, checksum);
+
+        outputStream.write(header);
+        outputStream.write(bytes);
+        int padding = (BLOCK_SIZE - bytes.length % BLOCK_SIZE) % BLOCK_SIZE;
+        outputStream.write(new byte[padding]);
+    }
+
+    /**
+     * Writes the two zero blocks ending the archive and flushes the underlying stream.
+     *
+     * @throws IOException if the blocks cannot be written
+     */
+    @Override
+    public void finish() throws IOException {
+        outputStream.write(new byte[BLOCK_SIZE * 2]);
+        outputStream.flush();
+    }
+
+    /**
+     * Writes the provided value as a zero padded octal number terminated by a NUL into the provided field.
+     *
+     * @param header the header
+     * @param offset the offset of the field
+     * @param length the length of the field including the terminator
+     * @param value  the value
+     */
+    private static void writeOctal(byte[] header, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        Preconditions.checkArgument(octal.length() < length);
+
+        int digits = length - 1;
+        for (int index = 0; index < digits; index++) {
+            int octalIndex = index - (digits - octal.length());
+            header[offset + index] = (byte) (octalIndex < 0 ? '0' : octal.charAt(octalIndex));
+        }
+        header[offset + digits] = 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.natche.jrobohash.export;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A writer of ZIP archives. Entries not benefiting from compression, such as PNG and JPEG images, use the stored
+ * method, thus they are copied to the archive without spending CPU time on compressing them again.
+ */
+final class ZipArchiveWriter implements ArchiveWriter {
+    /**
+     * The maximum length of the name of an entry in bytes, bounded by the 16-bit length field of a header.
+     */
+    static final int MAX_NAME_LENGTH = 0xFFFF;
+
+    /**
+     * The ZIP stream entries are written to.
+     */
+    private final ZipOutputStream zipOutputStream;
+
+    /**
+     * The modification time of entries, in milliseconds since the epoch.
+     */
+    private final long modifiedMillis;
+
+    /**
+     * Constructs a new ZIP writer.
+     *
+     * @param outputStream   the stream the archive is written to, which is not closed
+     * @param modifiedMillis the modification time of entries, in milliseconds since the epoch
+     * @throws NullPointerException if the provided output stream is null
+     */
+    ZipArchiveWriter(OutputStream outputStream, long modifiedMillis) {
+        Preconditions.checkNotNull(outputStream);
+
+        this.zipOutputStream = new ZipOutputStream(outputStream);
+        this.modifiedMillis = modifiedMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMaxNameLength() {
+        return MAX_NAME_LENGTH;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeEntry(String name, byte[] bytes, boolean compress) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTime(modifiedMillis);
+        if (!compress) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(bytes.length);
+            entry.setCompressedSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+
+        zipOutputStream.putNextEntry(entry);
+        zipOutputStream.write(bytes);
+        zipOutputStream.closeEntry();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void finish() throws IOException {
+        zipOutputStream.finish();
+        zipOutputStream.flush();
+    }
+}
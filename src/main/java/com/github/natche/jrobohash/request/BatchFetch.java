@@ -0,0 +1,160 @@
+package com.github.natche.jrobohash.request;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A single run of a bounded-concurrency batch fetch. At most {@code maxInFlight} fetches are
+ * outstanding at any time and a new fetch is issued as soon as one completes. Results are delivered
+ * to the consumer serially and in completion order.
+ */
+final class BatchFetch {
+    /**
+     * The client fetches are issued with.
+     */
+    private final RoboHashClient client;
+
+    /**
+     * The builders remaining to be fetched.
+     */
+    private final Iterator<? extends RoboHashRequestOptions> builders;
+
+    /**
+     * The maximum number of outstanding fetches.
+     */
+    private final int maxInFlight;
+
+    /**
+     * The consumer results are delivered to.
+     */
+    private final Consumer<RoboHashResult> resultConsumer;
+
+    /**
+     * The future completed once every builder has been fetched and its result delivered.
+     */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    /**
+     * The lock guarding the iterator, the in-flight count and result delivery.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The number of pending requests to issue fetches, used to issue fetches from a single loop
+     * rather than recursing when fetches complete synchronously.
+     */
+    private final AtomicInteger pendingIssues = new AtomicInteger();
+
+    /**
+     * The number of outstanding fetches.
+     */
+    private int inFlight;
+
+    /**
+     * Constructs a new batch fetch.
+     *
+     * @param client         the client fetches are issued with
+     * @param builders       the builders to fetch
+     * @param maxInFlight    the maximum number of outstanding fetches
+     * @param resultConsumer the consumer results are delivered to
+     * @throws NullPointerException     if any of the provided objects are null
+     * @throws IllegalArgumentException if the provided max in flight is less than one
+     */
+    BatchFetch(RoboHashClient client,
+               Iterator<? extends RoboHashRequestOptions> builders,
+               int maxInFlight,
+               Consumer<RoboHashResult> resultConsumer) {
+        Preconditions.checkNotNull(client);
+        Preconditions.checkNotNull(builders);
+        Preconditions.checkArgument(maxInFlight > 0);
+        Preconditions.checkNotNull(resultConsumer);
+
+        this.client = client;
+        this.builders = builders;
+        this.maxInFlight = maxInFlight;
+        this.resultConsumer = resultConsumer;
+    }
+
+    /**
+     * Starts this batch fetch.
+     *
+     * @return a future completed once every builder has been fetched and its result delivered,
+     * or exceptionally if the builders or the consumer throw
+     */
+    CompletableFuture<Void> start() {
+        issueFetches();
+        return completion;
+    }
+
+    /**
+     * Issues fetches until the in-flight limit is reached or the builders are exhausted. If fetches
+     * are already being issued further up the stack, that loop is instead asked to run once more.
+     */
+    private void issueFetches() {
+        if (pendingIssues.getAndIncrement() != 0) return;
+
+        do {
+            issueFetchesUntilBlocked();
+        } while (pendingIssues.decrementAndGet() != 0);
+    }
+
+    /**
+     * Issues fetches until the in-flight limit is reached or the builders are exhausted.
+     */
+    private void issueFetchesUntilBlocked() {
+        while (true) {
+            RoboHashRequestOptions builder;
+            String url;
+
+            synchronized (lock) {
+                if (completion.isDone()) return;
+
+                try {
+                    if (inFlight >= maxInFlight) return;
+                    if (!builders.hasNext()) {
+                        if (inFlight == 0) completion.complete(null);
+                        return;
+                    }
+
+                    builder = Preconditions.checkNotNull(builders.next());
+                    url = client.buildRequestUrl(builder);
+                } catch (RuntimeException e) {
+                    completion.completeExceptionally(e);
+                    return;
+                }
+
+                inFlight++;
+            }
+
+            client.getImageBytesAsync(builder).whenComplete((bytes, throwable) -> onFetchComplete(
+                    throwable == null
+                            ? RoboHashResult.success(builder, url, bytes)
+                            : RoboHashResult.failure(builder, url, throwable)));
+        }
+    }
+
+    /**
+     * Delivers the provided result and issues further fetches.
+     *
+     * @param result the result of a completed fetch
+     */
+    private void onFetchComplete(RoboHashResult result) {
+        synchronized (lock) {
+            inFlight--;
+            if (completion.isDone()) return;
+
+            try {
+                resultConsumer.accept(result);
+            } catch (RuntimeException e) {
+                completion.completeExceptionally(e);
+                return;
+            }
+        }
+
+        issueFetches();
+    }
+}
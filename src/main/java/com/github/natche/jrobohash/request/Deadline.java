@@ -0,0 +1,97 @@
+package com.github.natche.jrobohash.request;
+
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+
+/**
+ * The point in time a call must complete by, measured on the monotonic clock of {@link System#nanoTime()}.
+ * A single deadline is shared by every attempt of a call, thus retries and hedges cannot extend it.
+ */
+final class Deadline {
+    /**
+     * The deadline of a call without a timeout, which never expires.
+     */
+    static final Deadline NONE = new Deadline(null, Long.MAX_VALUE);
+
+    /**
+     * The timeout the deadline was derived from, null if it never expires.
+     */
+    private final Duration timeout;
+
+    /**
+     * The time the deadline expires at, in nanoseconds of {@link System#nanoTime()}.
+     */
+    private final long expiresAtNanos;
+
+    /**
+     * Constructs a new deadline.
+     *
+     * @param timeout        the timeout the deadline was derived from
+     * @param expiresAtNanos the time the deadline expires at
+     */
+    private Deadline(Duration timeout, long expiresAtNanos) {
+        this.timeout = timeout;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * Returns a deadline expiring once the provided timeout has elapsed from now.
+     *
+     * @param timeout the timeout, null for a deadline which never expires
+     * @return a deadline expiring once the provided timeout has elapsed
+     * @throws IllegalArgumentException if the provided timeout is negative
+     */
+    static Deadline after(Duration timeout) {
+        if (timeout == null) return NONE;
+        Preconditions.checkArgument(!timeout.isNegative());
+
+        return new Deadline(timeout, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Returns whether this deadline can expire.
+     *
+     * @return whether this deadline can expire
+     */
+    boolean isBounded() {
+        return timeout != null;
+    }
+
+    /**
+     * Returns whether this deadline has passed.
+     *
+     * @return whether this deadline has passed
+     */
+    boolean isExpired() {
+        return isBounded() && remainingNanos() <= 0;
+    }
+
+    /**
+     * Returns the time remaining until this deadline, negative once it passed.
+     *
+     * @return the time remaining in nanoseconds, {@link Long#MAX_VALUE} if this deadline never expires
+     */
+    long remainingNanos() {
+        return isBounded() ? expiresAtNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the timeout this deadline was derived from.
+     *
+     * @return the timeout this deadline was derived from, null if it never expires
+     */
+    Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link Deadline}.
+     *
+     * @return a {@link String} representation for this {@link Deadline}
+     */
+    @Override
+    public String toString() {
+        return "Deadline{timeout=" + timeout + "}";
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.cache.BoundedCache;
+import com.github.natche.jrobohash.cache.ExpiryPolicy;
+import com.github.natche.jrobohash.cache.LruEvictionPolicy;
+import com.github.natche.jrobohash.exceptions.UpstreamStatusException;
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * The state of an {@link ExpiryPolicy} for a client: the freshness of cached entries and the failed requests
+ * cached until they expire. Entries of the image cache and byte store are stamped with the time they were
+ * loaded at, read from the ticker of the policy, thus clients sharing a cache or store agree on their age.
+ * An entry without a load time, such as one cached by a client without an expiry policy, is expired.
+ * Instances are thread-safe.
+ */
+final class ExpiryTracker {
+    /**
+     * The freshness of a cached image.
+     */
+    enum Freshness {
+        /**
+         * The image may be served as is.
+         */
+        FRESH,
+
+        /**
+         * The image may be served while it is refreshed.
+         */
+        STALE,
+
+        /**
+         * The image must not be served.
+         */
+        EXPIRED
+    }
+
+    /**
+     * The policy tracked.
+     */
+    private final ExpiryPolicy policy;
+
+    /**
+     * The failed requests cached, keyed by request URL.
+     */
+    private final BoundedCache<String, CachedFailure> failures;
+
+    /**
+     * Constructs a new tracker for the provided policy.
+     *
+     * @param policy the policy to track
+     * @throws NullPointerException if the provided policy is null
+     */
+    ExpiryTracker(ExpiryPolicy policy) {
+        Preconditions.checkNotNull(policy);
+
+        this.policy = policy;
+        this.failures = new BoundedCache<>(policy.getMaxNegativeEntries(), (url, failure) -> 1,
+                new LruEvictionPolicy<>());
+    }
+
+    /**
+     * Returns the current time to stamp a loaded entry with, in nanoseconds of the ticker of the policy.
+     *
+     * @return the current time in nanoseconds of the ticker of the policy
+     */
+    long now() {
+        return policy.getTicker().read();
+    }
+
+    /**
+     * Returns the freshness of a cached entry loaded at the provided time.
+     *
+     * @param loadTime the time the entry was loaded at, as returned by {@link #now()}, empty if unknown
+     * @return the freshness of the entry
+     */
+    Freshness getFreshness(OptionalLong loadTime) {
+        if (loadTime.isEmpty()) return Freshness.EXPIRED;
+
+        long sinceExpiry = policy.getTicker().read() - loadTime.getAsLong() - policy.getTimeToLive().toNanos();
+        if (sinceExpiry < 0) return Freshness.FRESH;
+        return sinceExpiry < policy.getStaleWhileRevalidate().toNanos() ? Freshness.STALE : Freshness.EXPIRED;
+    }
+
+    /**
+     * Caches the provided failure of a request for the time the policy assigns to it.
+     *
+     * @param url     the URL which was requested
+     * @param failure the failure of the request
+     */
+    void recordFailure(String url, Throwable failure) {
+        boolean clientError = failure instanceof UpstreamStatusException
+                && !((UpstreamStatusException) failure).isTransient();
+        Duration ttl = clientError ? policy.getClientErrorTtl() : policy.getServerErrorTtl();
+        if (ttl.isZero()) return;
+
+        failures.put(url, new CachedFailure(failure, policy.getTicker().read() + ttl.toNanos()));
+    }
+
+    /**
+     * Returns the cached failure of a request for the provided URL.
+     *
+     * @param url the URL to request
+     * @return the cached failure, null if none is cached or it expired
+     */
+    Throwable getFailureIfPresent(String url) {
+        CachedFailure cachedFailure = failures.getIfPresent(url);
+        if (cachedFailure == null) return null;
+
+        if (policy.getTicker().read() - cachedFailure.expiresAtNanos >= 0) {
+            failures.invalidate(url);
+            return null;
+        }
+        return cachedFailure.failure;
+    }
+
+    /**
+     * A failed request and the time it expires at.
+     */
+    private static final class CachedFailure {
+        /**
+         * The failure of the request.
+         */
+        private final Throwable failure;
+
+        /**
+         * The time the failure expires at, in nanoseconds of the ticker of the policy.
+         */
+        private final long expiresAtNanos;
+
+        /**
+         * Constructs a new cached failure.
+         *
+         * @param failure        the failure of the request
+         * @param expiresAtNanos the time the failure expires at
+         */
+        private CachedFailure(Throwable failure, long expiresAtNanos) {
+            this.failure = failure;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
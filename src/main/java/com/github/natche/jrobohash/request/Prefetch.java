@@ -0,0 +1,278 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.enums.PrefetchPriority;
+import com.github.natche.jrobohash.resilience.TokenBucket;
+import com.google.common.base.Preconditions;
+
+import java.util.Iterator;
+import java.util.OptionalLong;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handle to a running prefetch, which warms the caches of a client with the avatars of known request
+ * builders in the background. Fetches are issued with a bounded number outstanding, optionally at a capped
+ * rate and only while the client is otherwise idle. Failed fetches are counted and skipped, thus a prefetch
+ * never fails. Instances are thread-safe.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class Prefetch {
+    /**
+     * The client whose caches are warmed.
+     */
+    private final RoboHashClient client;
+
+    /**
+     * The builders remaining to be fetched.
+     */
+    private final Iterator<? extends RoboHashRequestOptions> builders;
+
+    /**
+     * The options of this prefetch.
+     */
+    private final PrefetchOptions options;
+
+    /**
+     * The token bucket spacing fetches, null if the rate is not capped.
+     */
+    private final TokenBucket rateLimiter;
+
+    /**
+     * The future completed once every fetch completed or this prefetch was cancelled.
+     */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    /**
+     * The lock guarding the iterator and the counts.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The number of pending requests to issue fetches, used to issue fetches from a single loop
+     * rather than recursing when fetches complete synchronously.
+     */
+    private final AtomicInteger pendingIssues = new AtomicInteger();
+
+    /**
+     * The number of builders to fetch, -1 until known.
+     */
+    private long totalCount;
+
+    /**
+     * The number of fetches issued.
+     */
+    private long issuedCount;
+
+    /**
+     * The number of fetches which succeeded.
+     */
+    private long succeededCount;
+
+    /**
+     * The number of fetches which failed.
+     */
+    private long failedCount;
+
+    /**
+     * The number of outstanding fetches.
+     */
+    private int inFlight;
+
+    /**
+     * Constructs a new prefetch.
+     *
+     * @param client     the client whose caches are warmed
+     * @param builders   the builders to fetch
+     * @param totalCount the number of builders to fetch, -1 if unknown
+     * @param options    the options of the prefetch
+     * @throws NullPointerException if any of the provided objects are null
+     */
+    Prefetch(RoboHashClient client,
+             Iterator<? extends RoboHashRequestOptions> builders,
+             long totalCount,
+             PrefetchOptions options) {
+        Preconditions.checkNotNull(client);
+        Preconditions.checkNotNull(builders);
+        Preconditions.checkNotNull(options);
+
+        this.client = client;
+        this.builders = builders;
+        this.totalCount = totalCount;
+        this.options = options;
+        this.rateLimiter = options.getRequestsPerSecond().isPresent()
+                ? new TokenBucket(options.getRequestsPerSecond().getAsDouble(), 1)
+                : null;
+    }
+
+    /**
+     * Starts this prefetch.
+     *
+     * @return this prefetch
+     */
+    Prefetch start() {
+        issueFetches();
+        return this;
+    }
+
+    /**
+     * Issues fetches until the in-flight limit is reached or the builders are exhausted. If fetches
+     * are already being issued further up the stack, that loop is instead asked to run once more.
+     */
+    private void issueFetches() {
+        if (pendingIssues.getAndIncrement() != 0) return;
+
+        do {
+            issueFetchesUntilBlocked();
+        } while (pendingIssues.decrementAndGet() != 0);
+    }
+
+    /**
+     * Issues fetches until the in-flight limit is reached or the builders are exhausted.
+     */
+    private void issueFetchesUntilBlocked() {
+        while (true) {
+            String url;
+
+            synchronized (lock) {
+                if (completion.isDone() || inFlight >= options.getMaxInFlight()) return;
+
+                try {
+                    if (!builders.hasNext()) {
+                        totalCount = issuedCount;
+                        if (inFlight == 0) completion.complete(null);
+                        return;
+                    }
+
+                    url = client.buildRequestUrl(Preconditions.checkNotNull(builders.next()));
+                } catch (RuntimeException e) {
+                    completion.completeExceptionally(e);
+                    return;
+                }
+
+                issuedCount++;
+                inFlight++;
+            }
+
+            CompletableFuture<Void> gate = options.getPriority() == PrefetchPriority.LOW
+                    ? client.awaitIdle()
+                    : CompletableFuture.completedFuture(null);
+            if (rateLimiter != null) gate = gate.thenCompose(ignored -> rateLimiter.acquire());
+            gate.thenCompose(ignored -> completion.isDone()
+                            ? CompletableFuture.completedFuture(null)
+                            : client.warm(url))
+                    .whenComplete((ignored, throwable) -> onFetchComplete(throwable == null));
+        }
+    }
+
+    /**
+     * Counts a completed fetch and issues further fetches.
+     *
+     * @param succeeded whether the fetch succeeded
+     */
+    private void onFetchComplete(boolean succeeded) {
+        synchronized (lock) {
+            inFlight--;
+            if (succeeded) {
+                succeededCount++;
+            } else {
+                failedCount++;
+            }
+        }
+
+        issueFetches();
+    }
+
+    /**
+     * Stops issuing fetches. Fetches already in flight complete and fill the caches.
+     *
+     * @return whether this call cancelled the prefetch, false if it was already done
+     */
+    public boolean cancel() {
+        return completion.completeExceptionally(new CancellationException());
+    }
+
+    /**
+     * Returns a future which completes once every fetch completed, or exceptionally if iterating the
+     * builders throws or this prefetch is cancelled. Completing the returned future does not affect the prefetch.
+     *
+     * @return a future which completes once every fetch completed
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion.copy();
+    }
+
+    /**
+     * Returns whether this prefetch completed, was cancelled or failed.
+     *
+     * @return whether this prefetch completed, was cancelled or failed
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Returns the number of builders to fetch, known upfront for collections and otherwise once
+     * the builders are exhausted.
+     *
+     * @return the number of builders to fetch, empty if not yet known
+     */
+    public OptionalLong getTotalCount() {
+        synchronized (lock) {
+            return totalCount < 0 ? OptionalLong.empty() : OptionalLong.of(totalCount);
+        }
+    }
+
+    /**
+     * Returns the number of fetches issued.
+     *
+     * @return the number of fetches issued
+     */
+    public long getIssuedCount() {
+        synchronized (lock) {
+            return issuedCount;
+        }
+    }
+
+    /**
+     * Returns the number of fetches which succeeded, including avatars already cached.
+     *
+     * @return the number of fetches which succeeded
+     */
+    public long getSucceededCount() {
+        synchronized (lock) {
+            return succeededCount;
+        }
+    }
+
+    /**
+     * Returns the number of fetches which failed.
+     *
+     * @return the number of fetches which failed
+     */
+    public long getFailedCount() {
+        synchronized (lock) {
+            return failedCount;
+        }
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link Prefetch}.
+     *
+     * @return a {@link String} representation for this {@link Prefetch}
+     */
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return "Prefetch{"
+                    + "totalCount=" + totalCount
+                    + ", issuedCount=" + issuedCount
+                    + ", succeededCount=" + succeededCount
+                    + ", failedCount=" + failedCount
+                    + ", done=" + completion.isDone()
+                    + "}";
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.enums.PrefetchPriority;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.util.OptionalDouble;
+
+/**
+ * The settings of a prefetch started via {@link RoboHashClient#prefetch(Iterable, PrefetchOptions)}.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class PrefetchOptions {
+    /**
+     * The default maximum number of outstanding fetches.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    /**
+     * The default priority fetches are issued at.
+     */
+    public static final PrefetchPriority DEFAULT_PRIORITY = PrefetchPriority.LOW;
+
+    /**
+     * The default options.
+     */
+    public static final PrefetchOptions DEFAULT = builder().build();
+
+    /**
+     * The maximum number of outstanding fetches.
+     */
+    private final int maxInFlight;
+
+    /**
+     * The priority fetches are issued at.
+     */
+    private final PrefetchPriority priority;
+
+    /**
+     * The maximum number of fetches issued per second, zero if the rate is not capped.
+     */
+    private final double requestsPerSecond;
+
+    /**
+     * Constructs new options from the state of the provided builder.
+     *
+     * @param builder the builder to construct the options from
+     */
+    private PrefetchOptions(Builder builder) {
+        this.maxInFlight = builder.maxInFlight;
+        this.priority = builder.priority;
+        this.requestsPerSecond = builder.requestsPerSecond;
+    }
+
+    /**
+     * Returns a new builder for {@link PrefetchOptions}.
+     *
+     * @return a new builder for {@link PrefetchOptions}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the maximum number of outstanding fetches.
+     *
+     * @return the maximum number of outstanding fetches
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Returns the priority fetches are issued at.
+     *
+     * @return the priority fetches are issued at
+     */
+    public PrefetchPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns the maximum number of fetches issued per second.
+     *
+     * @return the maximum number of fetches issued per second, empty if the rate is not capped
+     */
+    public OptionalDouble getRequestsPerSecond() {
+        return requestsPerSecond > 0 ? OptionalDouble.of(requestsPerSecond) : OptionalDouble.empty();
+    }
+
+    /**
+     * Returns a {@link String} representation for these {@link PrefetchOptions}.
+     *
+     * @return a {@link String} representation for these {@link PrefetchOptions}
+     */
+    @Override
+    public String toString() {
+        return "PrefetchOptions{"
+                + "maxInFlight=" + maxInFlight
+                + ", priority=" + priority
+                + ", requestsPerSecond=" + requestsPerSecond
+                + "}";
+    }
+
+    /**
+     * A builder for {@link PrefetchOptions}.
+     */
+    public static final class Builder {
+        /**
+         * The maximum number of outstanding fetches.
+         */
+        private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+        /**
+         * The priority fetches are issued at.
+         */
+        private PrefetchPriority priority = DEFAULT_PRIORITY;
+
+        /**
+         * The maximum number of fetches issued per second, zero if the rate is not capped.
+         */
+        private double requestsPerSecond;
+
+        /**
+         * Constructs a new builder with the default settings.
+         */
+        private Builder() {}
+
+        /**
+         * Sets the maximum number of outstanding fetches.
+         *
+         * @param maxInFlight the maximum number of outstanding fetches
+         * @return this builder
+         * @throws IllegalArgumentException if the provided number is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxInFlight(int maxInFlight) {
+            Preconditions.checkArgument(maxInFlight > 0);
+
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets the priority fetches are issued at.
+         *
+         * @param priority the priority
+         * @return this builder
+         * @throws NullPointerException if the provided priority is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setPriority(PrefetchPriority priority) {
+            Preconditions.checkNotNull(priority);
+
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of fetches issued per second, which are spaced evenly.
+         *
+         * @param requestsPerSecond the maximum number of fetches per second
+         * @return this builder
+         * @throws IllegalArgumentException if the provided rate is not positive
+         */
+        @CanIgnoreReturnValue
+        public Builder setRequestsPerSecond(double requestsPerSecond) {
+            Preconditions.checkArgument(requestsPerSecond > 0 && Double.isFinite(requestsPerSecond));
+
+            this.requestsPerSecond = requestsPerSecond;
+            return this;
+        }
+
+        /**
+         * Builds new {@link PrefetchOptions} from the state of this builder.
+         *
+         * @return new {@link PrefetchOptions}
+         */
+        public PrefetchOptions build() {
+            return new PrefetchOptions(this);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.natche.jrobohash.request;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key into a single load. While a load for a key is in flight,
+ * further callers for that key share its result instead of starting their own. Once the load completes
+ * the key is forgotten, so later callers start a fresh load.
+ * <p>
+ * The callers sharing a load are counted. Once every one of them cancelled its future, such as when their
+ * deadlines passed, nobody waits for the load anymore: it is cancelled and the key is forgotten.
+ *
+ * @param <K> the type of the keys loads are coalesced on
+ * @param <V> the type of the loaded values
+ */
+final class RequestCoalescer<K, V> {
+    /**
+     * The in-flight loads by key.
+     */
+    private final ConcurrentHashMap<K, Load<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The number of callers which joined an already in-flight load.
+     */
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * The number of loads cancelled as every caller waiting for them gave up.
+     */
+    private final AtomicLong abandonedCount = new AtomicLong();
+
+    /**
+     * Returns the result of the in-flight load for the provided key, starting a load using
+     * the provided loader if none is in flight. Each caller receives its own dependent future,
+     * so completing it does not affect other callers, and cancelling it only cancels the load
+     * if no other caller still waits for it.
+     *
+     * @param key    the key to load
+     * @param loader the loader to start a load with if none is in flight for the key
+     * @return a future completed with the result of the load
+     * @throws NullPointerException if the provided key or loader is null
+     */
+    CompletableFuture<V> coalesce(K key, Supplier<CompletableFuture<V>> loader) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(loader);
+
+        Load<V> created = new Load<>();
+        Load<V> load = inFlight.compute(key, (ignored, existing) -> {
+            if (existing == null) return created;
+
+            existing.waiterCount++;
+            return existing;
+        });
+        if (load != created) {
+            coalescedCount.incrementAndGet();
+            return join(key, load);
+        }
+
+        CompletableFuture<V> source;
+        try {
+            source = loader.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, load);
+            load.promise.completeExceptionally(e);
+            return join(key, load);
+        }
+
+        load.source = source;
+        source.whenComplete((value, throwable) -> {
+            inFlight.remove(key, load);
+            if (throwable != null) {
+                load.promise.completeExceptionally(throwable);
+            } else {
+                load.promise.complete(value);
+            }
+        });
+        if (load.abandoned) source.cancel(true);
+        return join(key, load);
+    }
+
+    /**
+     * Returns the future of a caller waiting for the provided load, which gives up its share
+     * of the load once cancelled.
+     *
+     * @param key  the key of the load
+     * @param load the load
+     * @return the future of the caller
+     */
+    private CompletableFuture<V> join(K key, Load<V> load) {
+        CompletableFuture<V> waiter = load.promise.copy();
+        waiter.whenComplete((value, throwable) -> {
+            if (waiter.isCancelled()) leave(key, load);
+        });
+        return waiter;
+    }
+
+    /**
+     * Gives up the share of a caller in the provided load, cancelling the load if no other caller waits for it.
+     *
+     * @param key  the key of the load
+     * @param load the load
+     */
+    private void leave(K key, Load<V> load) {
+        inFlight.computeIfPresent(key, (ignored, existing) -> {
+            if (existing != load || --existing.waiterCount > 0) return existing;
+
+            existing.abandoned = true;
+            return null;
+        });
+        if (!load.abandoned) return;
+
+        abandonedCount.incrementAndGet();
+        CompletableFuture<V> source = load.source;
+        if (source != null) source.cancel(true);
+        load.promise.cancel(true);
+    }
+
+    /**
+     * Returns the number of loads currently in flight.
+     *
+     * @return the number of loads currently in flight
+     */
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Returns the number of callers which joined an already in-flight load.
+     *
+     * @return the number of callers which joined an already in-flight load
+     */
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of loads cancelled as every caller waiting for them gave up.
+     *
+     * @return the number of abandoned loads
+     */
+    long getAbandonedCount() {
+        return abandonedCount.get();
+    }
+
+    /**
+     * An in-flight load and the number of callers waiting for it.
+     *
+     * @param <V> the type of the loaded value
+     */
+    private static final class Load<V> {
+        /**
+         * The future shared by the callers waiting for the load.
+         */
+        private final CompletableFuture<V> promise = new CompletableFuture<>();
+
+        /**
+         * The number of callers waiting for the load, guarded by the in-flight map.
+         */
+        private int waiterCount = 1;
+
+        /**
+         * The future returned by the loader, null until the load started.
+         */
+        private volatile CompletableFuture<V> source;
+
+        /**
+         * Whether every caller gave up on the load.
+         */
+        private volatile boolean abandoned;
+    }
+}
@@ -0,0 +1,275 @@
+package com.github.natche.jrobohash.request;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * A publisher of the results of fetching the encoded images for a stream of builders. Fetches are only issued
+ * for demand signalled by the subscriber and at most {@code maxInFlight} results are fetched or buffered at any
+ * time, thus memory stays bounded regardless of the number of builders. Results, successful or not, are emitted
+ * in completion order. The stream is consumed lazily and closed once the subscription terminates. Since a stream
+ * may only be consumed once, the publisher accepts a single subscriber.
+ */
+final class ResultPublisher implements Flow.Publisher<RoboHashResult> {
+    /**
+     * The client fetches are issued with.
+     */
+    private final RoboHashClient client;
+
+    /**
+     * The builders to fetch.
+     */
+    private final Stream<? extends RoboHashRequestOptions> builders;
+
+    /**
+     * The maximum number of results fetched or buffered at any time.
+     */
+    private final int maxInFlight;
+
+    /**
+     * Whether a subscriber subscribed.
+     */
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Constructs a new publisher.
+     *
+     * @param client      the client fetches are issued with
+     * @param builders    the builders to fetch
+     * @param maxInFlight the maximum number of results fetched or buffered at any time
+     * @throws NullPointerException     if the provided client or builders are null
+     * @throws IllegalArgumentException if the provided max in flight is less than one
+     */
+    ResultPublisher(RoboHashClient client, Stream<? extends RoboHashRequestOptions> builders, int maxInFlight) {
+        Preconditions.checkNotNull(client);
+        Preconditions.checkNotNull(builders);
+        Preconditions.checkArgument(maxInFlight > 0);
+
+        this.client = client;
+        this.builders = builders;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Subscribes the provided subscriber to the results. Any subscriber after the first is signalled
+     * an {@link IllegalStateException}.
+     *
+     * @param subscriber the subscriber
+     * @throws NullPointerException if the provided subscriber is null
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super RoboHashResult> subscriber) {
+        Preconditions.checkNotNull(subscriber);
+
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("Publisher only supports a single subscriber"));
+            return;
+        }
+
+        ResultSubscription subscription = new ResultSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    /**
+     * The subscription of the single subscriber of this publisher.
+     */
+    private final class ResultSubscription implements Flow.Subscription {
+        /**
+         * The subscriber.
+         */
+        private final Flow.Subscriber<? super RoboHashResult> subscriber;
+
+        /**
+         * The lock guarding the state of this subscription.
+         */
+        private final Object lock = new Object();
+
+        /**
+         * The results fetched but not yet emitted.
+         */
+        private final ArrayDeque<RoboHashResult> readyResults = new ArrayDeque<>();
+
+        /**
+         * The number of pending requests to drain, used to signal the subscriber serially from a single loop.
+         */
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+
+        /**
+         * The iterator over the builders, null until the first fetch is issued.
+         */
+        private Iterator<? extends RoboHashRequestOptions> iterator;
+
+        /**
+         * The number of results requested but not yet emitted.
+         */
+        private long demand;
+
+        /**
+         * The number of outstanding fetches.
+         */
+        private int inFlight;
+
+        /**
+         * Whether the builders are exhausted.
+         */
+        private boolean exhausted;
+
+        /**
+         * The error to signal the subscriber, null if none.
+         */
+        private Throwable error;
+
+        /**
+         * Whether the subscription was cancelled or a terminal signal was emitted.
+         */
+        private boolean terminated;
+
+        /**
+         * Constructs a new subscription.
+         *
+         * @param subscriber the subscriber
+         */
+        private ResultSubscription(Flow.Subscriber<? super RoboHashResult> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Requests the provided number of further results. A non-positive number terminates the subscription
+         * with an {@link IllegalArgumentException}.
+         *
+         * @param n the number of further results
+         */
+        @Override
+        public void request(long n) {
+            synchronized (lock) {
+                if (n <= 0) {
+                    if (error == null) error = new IllegalArgumentException("Non-positive request: " + n);
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+
+            drain();
+        }
+
+        /**
+         * Stops emitting results and issuing fetches. Fetches already in flight complete and fill the caches.
+         */
+        @Override
+        public void cancel() {
+            synchronized (lock) {
+                if (terminated) return;
+
+                terminated = true;
+                readyResults.clear();
+            }
+
+            builders.close();
+        }
+
+        /**
+         * Emits ready results, issues fetches for outstanding demand and emits terminal signals. If the
+         * subscription is already being drained further up the stack, that loop is instead asked to run once more.
+         */
+        private void drain() {
+            if (pendingDrains.getAndIncrement() != 0) return;
+
+            do {
+                drainUntilBlocked();
+            } while (pendingDrains.decrementAndGet() != 0);
+        }
+
+        /**
+         * Emits ready results, issues fetches for outstanding demand and emits terminal signals until no
+         * further progress can be made.
+         */
+        private void drainUntilBlocked() {
+            while (true) {
+                RoboHashResult result = null;
+                RoboHashRequestOptions builder = null;
+                String url = null;
+                Throwable terminalError = null;
+
+                synchronized (lock) {
+                    if (terminated) return;
+
+                    int outstanding = inFlight + readyResults.size();
+                    if (error != null) {
+                        terminated = true;
+                        terminalError = error;
+                    } else if (demand > 0 && !readyResults.isEmpty()) {
+                        result = readyResults.poll();
+                        demand--;
+                    } else if (exhausted && outstanding == 0) {
+                        terminated = true;
+                    } else if (!exhausted && outstanding < maxInFlight && outstanding < demand) {
+                        try {
+                            if (iterator == null) iterator = builders.iterator();
+                            if (iterator.hasNext()) {
+                                builder = Preconditions.checkNotNull(iterator.next());
+                                url = client.buildRequestUrl(builder);
+                                inFlight++;
+                            } else {
+                                exhausted = true;
+                            }
+                        } catch (RuntimeException e) {
+                            error = e;
+                        }
+                        if (builder == null) continue;
+                    } else {
+                        return;
+                    }
+                }
+
+                if (result != null) {
+                    subscriber.onNext(result);
+                } else if (builder != null) {
+                    fetch(builder, url);
+                } else {
+                    builders.close();
+                    if (terminalError == null) {
+                        subscriber.onComplete();
+                    } else {
+                        subscriber.onError(terminalError);
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Fetches the encoded image for the provided builder and queues its result.
+         *
+         * @param builder the builder
+         * @param url     the URL of the builder when the fetch was issued
+         */
+        private void fetch(RoboHashRequestOptions builder, String url) {
+            client.getImageBytesAsync(builder).whenComplete((bytes, throwable) -> {
+                synchronized (lock) {
+                    inFlight--;
+                    if (!terminated) {
+                        readyResults.add(throwable == null
+                                ? RoboHashResult.success(builder, url, bytes)
+                                : RoboHashResult.failure(builder, url, throwable));
+                    }
+                }
+
+                drain();
+            });
+        }
+    }
+}
@@ -0,0 +1,2053 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.balancing.Endpoint;
+import com.github.natche.jrobohash.balancing.EndpointPool;
+import com.github.natche.jrobohash.cache.BoundedCache;
+import com.github.natche.jrobohash.cache.ByteStore;
+import com.github.natche.jrobohash.cache.ExpiryPolicy;
+import com.github.natche.jrobohash.cache.HeapByteStore;
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.enums.SaveMode;
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.github.natche.jrobohash.exceptions.RequestTimeoutException;
+import com.github.natche.jrobohash.exceptions.UpstreamStatusException;
+import com.github.natche.jrobohash.resilience.CircuitBreaker;
+import com.github.natche.jrobohash.resilience.ConcurrencyLimiter;
+import com.github.natche.jrobohash.resilience.HedgingPolicy;
+import com.github.natche.jrobohash.resilience.RetryPolicy;
+import com.github.natche.jrobohash.resilience.TokenBucket;
+import com.github.natche.jrobohash.util.BufferPool;
+import com.github.natche.jrobohash.util.GeneralUtils;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A client for a RoboHash server which owns its own transport. Each client holds a connection-pooled
+ * {@link HttpClient} so warm connections are reused across calls, and may target any RoboHash
+ * deployment, such as a self-hosted instance or a local stand-in server for tests and benchmarks.
+ * Instances are thread-safe and intended to be shared.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class RoboHashClient {
+    /**
+     * The base URL of the public RoboHash server.
+     */
+    public static final String DEFAULT_BASE_URL = "https://robohash.org/";
+
+    /**
+     * The HTTP status code RoboHash responds with for a successfully generated image.
+     */
+    private static final int HTTP_OK = 200;
+
+    /**
+     * The maximum number of buffers pooled for streaming responses.
+     */
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    /**
+     * The scheduler of the timers enforcing deadlines. Timers are cancelled once the call they bound completes
+     * and cancelled timers are removed at once, thus they do not keep completed responses reachable.
+     */
+    private static final ScheduledThreadPoolExecutor DEADLINE_SCHEDULER = createDeadlineScheduler();
+
+    /**
+     * The base URL requests of this client are built against, always ending with a slash.
+     */
+    private final String baseUrl;
+
+    /**
+     * The HTTP protocol version this client prefers.
+     */
+    private final HttpClient.Version httpVersion;
+
+    /**
+     * The pooled HTTP client this client sends all requests with.
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * Whether concurrent requests for the same URL share a single fetch and decode.
+     */
+    private final boolean requestCoalescing;
+
+    /**
+     * The cache of decoded images keyed by request URL, null if decoded images are not cached.
+     */
+    private final BoundedCache<String, BufferedImage> imageCache;
+
+    /**
+     * The store of encoded image bytes keyed by request URL, null if encoded images are not stored.
+     */
+    private final ByteStore byteStore;
+
+    /**
+     * The policy for how long fetched avatars and failures are cached, null if cached images never expire.
+     */
+    private final ExpiryPolicy expiryPolicy;
+
+    /**
+     * The state of the expiry policy, null if cached images never expire.
+     */
+    private final ExpiryTracker expiryTracker;
+
+    /**
+     * The policy failed requests are retried with, null if requests are not retried.
+     */
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * The circuit breaker requests are guarded by, null if requests are always sent.
+     */
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * The limiter of concurrent requests, null if concurrency is not limited.
+     */
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * The token bucket capping the request rate, null if the request rate is not capped.
+     */
+    private final TokenBucket rateLimiter;
+
+    /**
+     * The policy slow requests for image bytes are hedged with, null if requests are not hedged.
+     */
+    private final HedgingPolicy hedgingPolicy;
+
+    /**
+     * The pool of servers requests are balanced across, null if requests are sent to the base URL.
+     */
+    private final EndpointPool endpointPool;
+
+    /**
+     * The timeout for establishing a connection, null to wait indefinitely.
+     */
+    private final Duration connectTimeout;
+
+    /**
+     * The timeout of a single attempt until the response arrives, null to wait indefinitely.
+     */
+    private final Duration requestTimeout;
+
+    /**
+     * The deadline of a call covering all of its attempts and decoding, null if calls have no deadline.
+     */
+    private final Duration callTimeout;
+
+    /**
+     * The coalescer for in-flight fetches of encoded image bytes, keyed by request URL.
+     */
+    private final RequestCoalescer<String, byte[]> byteCoalescer = new RequestCoalescer<>();
+
+    /**
+     * The coalescer for in-flight fetches and decodes of images, keyed by request URL.
+     */
+    private final RequestCoalescer<String, BufferedImage> imageCoalescer = new RequestCoalescer<>();
+
+    /**
+     * The URLs of the stale images being refreshed in the background.
+     */
+    private final Set<String> refreshingUrls = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The pool of buffers responses are streamed through.
+     */
+    private final BufferPool bufferPool = new BufferPool(BufferPool.DEFAULT_BUFFER_SIZE, MAX_POOLED_BUFFERS);
+
+    /**
+     * The lock guarding the foreground call count and the idle waiters.
+     */
+    private final Object foregroundLock = new Object();
+
+    /**
+     * The futures completed once no foreground calls are in flight.
+     */
+    private final List<CompletableFuture<Void>> idleWaiters = new ArrayList<>();
+
+    /**
+     * The number of calls in flight made via the public API, which excludes prefetches.
+     */
+    private int foregroundCalls;
+
+    /**
+     * Constructs a new client from the state of the provided builder.
+     *
+     * @param builder the builder to construct the client from
+     */
+    private RoboHashClient(Builder builder) {
+        this.endpointPool = builder.endpointPool;
+        if (endpointPool != null) {
+            this.baseUrl = endpointPool.getEndpoints().get(0).getBaseUrl();
+        } else {
+            this.baseUrl = builder.baseUrl == null ? DEFAULT_BASE_URL : builder.baseUrl;
+        }
+        this.httpVersion = builder.httpVersion;
+        this.requestCoalescing = builder.requestCoalescing;
+        this.imageCache = builder.imageCache;
+        this.byteStore = builder.byteStore;
+        this.expiryPolicy = builder.expiryPolicy;
+        this.expiryTracker = expiryPolicy == null ? null : new ExpiryTracker(expiryPolicy);
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.concurrencyLimiter = builder.concurrencyLimiter;
+        this.rateLimiter = builder.rateLimiter;
+        this.hedgingPolicy = builder.hedgingPolicy;
+        this.connectTimeout = builder.connectTimeout;
+        this.requestTimeout = builder.requestTimeout;
+        this.callTimeout = builder.callTimeout;
+
+        HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+                .version(httpVersion)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (builder.executor != null) httpClientBuilder.executor(builder.executor);
+        if (connectTimeout != null) httpClientBuilder.connectTimeout(connectTimeout);
+        this.httpClient = httpClientBuilder.build();
+    }
+
+    /**
+     * Returns a new builder for a {@link RoboHashClient}.
+     *
+     * @return a new builder for a {@link RoboHashClient}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the base URL requests of this client are built against.
+     *
+     * @return the base URL requests of this client are built against
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Returns the HTTP protocol version this client prefers.
+     *
+     * @return the HTTP protocol version this client prefers
+     */
+    public HttpClient.Version getHttpVersion() {
+        return httpVersion;
+    }
+
+    /**
+     * Returns whether concurrent requests for the same URL share a single fetch and decode.
+     *
+     * @return whether concurrent requests for the same URL share a single fetch and decode
+     */
+    public boolean isRequestCoalescing() {
+        return requestCoalescing;
+    }
+
+    /**
+     * Returns the number of requests which were served by joining an identical in-flight request
+     * rather than fetching or decoding on their own.
+     *
+     * @return the number of requests which were served by joining an identical in-flight request
+     */
+    public long getCoalescedRequestCount() {
+        return byteCoalescer.getCoalescedCount() + imageCoalescer.getCoalescedCount();
+    }
+
+    /**
+     * Returns the number of coalesced requests which were cancelled as every caller waiting for them gave up,
+     * such as once their deadlines passed.
+     *
+     * @return the number of coalesced requests which were cancelled as every caller gave up
+     */
+    public long getAbandonedRequestCount() {
+        return byteCoalescer.getAbandonedCount() + imageCoalescer.getAbandonedCount();
+    }
+
+    /**
+     * Returns the cache of decoded images of this client, keyed by request URL.
+     *
+     * @return the cache of decoded images of this client, empty if decoded images are not cached
+     */
+    public Optional<BoundedCache<String, BufferedImage>> getImageCache() {
+        return Optional.ofNullable(imageCache);
+    }
+
+    /**
+     * Returns the store of encoded image bytes of this client, keyed by request URL.
+     *
+     * @return the store of encoded image bytes of this client, empty if encoded images are not stored
+     */
+    public Optional<ByteStore> getByteStore() {
+        return Optional.ofNullable(byteStore);
+    }
+
+    /**
+     * Returns the policy for how long avatars and failures fetched by this client are cached.
+     *
+     * @return the expiry policy of this client, empty if cached images never expire
+     */
+    public Optional<ExpiryPolicy> getExpiryPolicy() {
+        return Optional.ofNullable(expiryPolicy);
+    }
+
+    /**
+     * Returns the policy failed requests of this client are retried with.
+     *
+     * @return the policy failed requests of this client are retried with, empty if requests are not retried
+     */
+    public Optional<RetryPolicy> getRetryPolicy() {
+        return Optional.ofNullable(retryPolicy);
+    }
+
+    /**
+     * Returns the circuit breaker requests of this client are guarded by.
+     *
+     * @return the circuit breaker requests of this client are guarded by, empty if requests are always sent
+     */
+    public Optional<CircuitBreaker> getCircuitBreaker() {
+        return Optional.ofNullable(circuitBreaker);
+    }
+
+    /**
+     * Returns the limiter of concurrent requests of this client.
+     *
+     * @return the limiter of concurrent requests of this client, empty if concurrency is not limited
+     */
+    public Optional<ConcurrencyLimiter> getConcurrencyLimiter() {
+        return Optional.ofNullable(concurrencyLimiter);
+    }
+
+    /**
+     * Returns the token bucket capping the request rate of this client.
+     *
+     * @return the token bucket capping the request rate of this client, empty if the request rate is not capped
+     */
+    public Optional<TokenBucket> getRateLimiter() {
+        return Optional.ofNullable(rateLimiter);
+    }
+
+    /**
+     * Returns the policy slow requests of this client for image bytes are hedged with.
+     *
+     * @return the policy slow requests of this client are hedged with, empty if requests are not hedged
+     */
+    public Optional<HedgingPolicy> getHedgingPolicy() {
+        return Optional.ofNullable(hedgingPolicy);
+    }
+
+    /**
+     * Returns the pool of servers requests of this client are balanced across.
+     *
+     * @return the pool of servers requests of this client are balanced across, empty if requests are
+     * sent to the base URL
+     */
+    public Optional<EndpointPool> getEndpointPool() {
+        return Optional.ofNullable(endpointPool);
+    }
+
+    /**
+     * Returns the timeout for establishing a connection.
+     *
+     * @return the timeout for establishing a connection, empty to wait indefinitely
+     */
+    public Optional<Duration> getConnectTimeout() {
+        return Optional.ofNullable(connectTimeout);
+    }
+
+    /**
+     * Returns the timeout of a single attempt until the response arrives.
+     *
+     * @return the timeout of a single attempt, empty to wait indefinitely
+     */
+    public Optional<Duration> getRequestTimeout() {
+        return Optional.ofNullable(requestTimeout);
+    }
+
+    /**
+     * Returns the deadline of each call, covering all of its attempts and decoding.
+     *
+     * @return the deadline of each call, empty if calls have no deadline
+     */
+    public Optional<Duration> getCallTimeout() {
+        return Optional.ofNullable(callTimeout);
+    }
+
+    /**
+     * Builds and returns the request URL for the current state of a {@link RoboHashRequestOptions}
+     * against the base URL of this client. Equivalent builders yield the same canonical URL, thus
+     * share cache entries and coalesced fetches; see {@link RoboHashRequest#canonicalize()}.
+     *
+     * @param builder the builder to construct the URL from
+     * @return the built URL
+     * @throws NullPointerException if the provided builder is null
+     */
+    public String buildRequestUrl(RoboHashRequestOptions builder) {
+        Preconditions.checkNotNull(builder);
+
+        return RoboHashRequestHandler.buildRequestUrl(baseUrl, builder);
+    }
+
+    /**
+     * Appends the request URL for the current state of a {@link RoboHashRequestOptions} against the base URL
+     * of this client to the provided appendable, such as the writer of a rendered page. No intermediate strings
+     * are built, and appending to a reused {@link StringBuilder} does not allocate once it has grown to fit.
+     *
+     * @param builder    the builder to construct the URL from
+     * @param appendable the appendable to append the URL to
+     * @param <T>        the type of the appendable
+     * @return the provided appendable
+     * @throws NullPointerException if the provided builder or appendable is null
+     * @throws JRoboHashException   if the provided appendable throws
+     */
+    @CanIgnoreReturnValue
+    public <T extends Appendable> T appendRequestUrl(RoboHashRequestOptions builder, T appendable) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkNotNull(appendable);
+
+        try {
+            RoboHashRequestHandler.appendRequestUrl(appendable, baseUrl, builder);
+        } catch (IOException e) {
+            throw new JRoboHashException("Failed to append request URL, error: " + e.getMessage(), e);
+        }
+        return appendable;
+    }
+
+    /**
+     * Compiles the options of a {@link RoboHashRequestOptions} into a URL template against the base URL of
+     * this client. The template generates the URL of many avatar keys sharing the options by splicing only
+     * the key into the precomputed remainder, rather than rebuilding the query string of each URL.
+     *
+     * @param options the builder whose options to compile, whose avatar key is ignored
+     * @return the compiled template
+     * @throws NullPointerException     if the provided options are null
+     * @throws IllegalArgumentException if the provided options have no image sets
+     */
+    public RoboHashUrlTemplate compileUrlTemplate(RoboHashRequestOptions options) {
+        Preconditions.checkNotNull(options);
+
+        return new RoboHashUrlTemplate(baseUrl, options);
+    }
+
+    /**
+     * Asynchronously reads the encoded image bytes for the current state of a {@link RoboHashRequestOptions}.
+     * No thread is blocked while the request is in flight and the bytes are never decoded. The returned
+     * array may be shared with other callers and with the byte store, and must therefore not be modified.
+     *
+     * @param builder the builder to construct the URL from
+     * @return a future which completes with the encoded image bytes, or exceptionally with
+     * a {@link JRoboHashException} if the image cannot be read
+     * @throws NullPointerException if the provided builder is null
+     */
+    public CompletableFuture<byte[]> getImageBytesAsync(RoboHashRequestOptions builder) {
+        Preconditions.checkNotNull(builder);
+
+        return trackForeground(getImageBytesAsync(buildRequestUrl(builder), Deadline.after(callTimeout)));
+    }
+
+    /**
+     * Asynchronously reads the encoded image bytes for the current state of a {@link RoboHashRequestOptions}
+     * within the provided timeout, which takes the place of the call timeout of this client.
+     *
+     * @param builder the builder to construct the URL from
+     * @param timeout the deadline of the call, covering all of its attempts
+     * @return a future which completes with the encoded image bytes, or exceptionally with
+     * a {@link RequestTimeoutException} if the timeout elapses or a {@link JRoboHashException}
+     * if the image cannot be read
+     * @throws NullPointerException     if the provided builder or timeout are null
+     * @throws IllegalArgumentException if the provided timeout is negative
+     */
+    public CompletableFuture<byte[]> getImageBytesAsync(RoboHashRequestOptions builder, Duration timeout) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkNotNull(timeout);
+
+        return trackForeground(getImageBytesAsync(buildRequestUrl(builder), Deadline.after(timeout)));
+    }
+
+    /**
+     * Asynchronously reads the encoded image bytes for the provided URL within the provided deadline.
+     *
+     * @param url      the URL to fetch
+     * @param deadline the deadline of the call
+     * @return a future which completes with the encoded image bytes
+     */
+    private CompletableFuture<byte[]> getImageBytesAsync(String url, Deadline deadline) {
+        Throwable cachedFailure = expiryTracker == null ? null : expiryTracker.getFailureIfPresent(url);
+        if (cachedFailure != null) return CompletableFuture.failedFuture(cachedFailure);
+
+        return withDeadline(fetchBytes(url, deadline), url, deadline);
+    }
+
+    /**
+     * Asynchronously reads and decodes the image for the current state of a {@link RoboHashRequestOptions}.
+     * When request coalescing or an image cache is enabled, callers for the same request may receive
+     * the same image instance, which must therefore not be modified.
+     *
+     * @param builder the builder to construct the URL from
+     * @return a future which completes with the decoded image, or exceptionally with
+     * a {@link JRoboHashException} if the image cannot be read
+     * @throws NullPointerException if the provided builder is null
+     */
+    public CompletableFuture<BufferedImage> getImageAsync(RoboHashRequestOptions builder) {
+        Preconditions.checkNotNull(builder);
+
+        return trackForeground(getImageAsync(buildRequestUrl(builder), Deadline.after(callTimeout)));
+    }
+
+    /**
+     * Asynchronously reads and decodes the image for the current state of a {@link RoboHashRequestOptions}
+     * within the provided timeout, which takes the place of the call timeout of this client.
+     *
+     * @param builder the builder to construct the URL from
+     * @param timeout the deadline of the call, covering all of its attempts and decoding
+     * @return a future which completes with the decoded image, or exceptionally with
+     * a {@link RequestTimeoutException} if the timeout elapses or a {@link JRoboHashException}
+     * if the image cannot be read
+     * @throws NullPointerException     if the provided builder or timeout are null
+     * @throws IllegalArgumentException if the provided timeout is negative
+     */
+    public CompletableFuture<BufferedImage> getImageAsync(RoboHashRequestOptions builder, Duration timeout) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkNotNull(timeout);
+
+        return trackForeground(getImageAsync(buildRequestUrl(builder), Deadline.after(timeout)));
+    }
+
+    /**
+     * Asynchronously reads and decodes the image for the provided URL within the provided deadline.
+     *
+     * @param url      the URL to fetch
+     * @param deadline the deadline of the call
+     * @return a future which completes with the decoded image
+     */
+    private CompletableFuture<BufferedImage> getImageAsync(String url, Deadline deadline) {
+        OptionalLong loadTime = imageCache == null || expiryTracker == null
+                ? OptionalLong.empty()
+                : imageCache.getLoadTime(url);
+        BufferedImage cachedImage = imageCache == null ? null : imageCache.getIfPresent(url);
+        if (cachedImage != null && isServable(url, loadTime)) return CompletableFuture.completedFuture(cachedImage);
+
+        Throwable cachedFailure = expiryTracker == null ? null : expiryTracker.getFailureIfPresent(url);
+        if (cachedFailure != null) return CompletableFuture.failedFuture(cachedFailure);
+
+        boolean expired = cachedImage != null;
+        CompletableFuture<BufferedImage> image = requestCoalescing
+                ? imageCoalescer.coalesce(url, () -> loadImage(url, Deadline.NONE, expired))
+                : loadImage(url, deadline, expired);
+        return withDeadline(image, url, deadline);
+    }
+
+    /**
+     * Asynchronously saves the image for the current state of a {@link RoboHashRequestOptions} to the provided file
+     * using {@link SaveMode#STREAM}.
+     *
+     * @param builder the builder to construct the URL from
+     * @param file    the file to save the resulting image to
+     * @return a future which completes once the image has been saved, or exceptionally with
+     * a {@link JRoboHashException} if the image cannot be read or saved
+     * @throws NullPointerException     if the provided builder or file are null
+     * @throws IllegalArgumentException if the provided file exists or is a directory
+     */
+    public CompletableFuture<Void> saveToFileAsync(RoboHashRequestOptions builder, File file) {
+        return saveToFileAsync(builder, file, SaveMode.STREAM);
+    }
+
+    /**
+     * Asynchronously saves the image for the current state of a {@link RoboHashRequestOptions} to the provided file.
+     * The image is written to a temporary file in the same directory which is then atomically renamed, thus the
+     * provided file never holds a partially written image.
+     * <p>
+     * With {@link SaveMode#STREAM}, the response body is streamed to disk, or transferred from the byte store
+     * if present there, and only decoded when the server returned a format other than the requested extension.
+     *
+     * @param builder  the builder to construct the URL from
+     * @param file     the file to save the resulting image to
+     * @param saveMode how the image is saved
+     * @return a future which completes once the image has been saved, or exceptionally with
+     * a {@link JRoboHashException} if the image cannot be read or saved
+     * @throws NullPointerException     if the provided builder, file, or save mode are null
+     * @throws IllegalArgumentException if the provided file exists or is a directory
+     */
+    public CompletableFuture<Void> saveToFileAsync(RoboHashRequestOptions builder, File file, SaveMode saveMode) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkNotNull(file);
+        Preconditions.checkNotNull(saveMode);
+        Preconditions.checkArgument(!file.isDirectory());
+        Preconditions.checkArgument(!file.exists());
+
+        ImageExtension extension = builder.getImageExtension();
+        Path target = file.toPath().toAbsolutePath();
+        String url = buildRequestUrl(builder);
+        Deadline deadline = Deadline.after(callTimeout);
+        if (saveMode == SaveMode.TRANSCODE) {
+            return trackForeground(getImageAsync(url, deadline)
+                    .thenAccept(image -> writeImage(image, extension, target)));
+        }
+
+        Path temporaryFile;
+        try {
+            temporaryFile = createTemporaryFile(target);
+        } catch (JRoboHashException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> download = downloadTo(url, temporaryFile, deadline);
+        CompletableFuture<Void> save = propagateCancellation(download
+                .thenRun(() -> completeSave(temporaryFile, extension, target))
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) deleteIfExists(temporaryFile);
+                }), download);
+        return trackForeground(withDeadline(save, url, deadline));
+    }
+
+    /**
+     * Starts warming the caches of this client with the avatars of the provided builders in the background
+     * using the {@link PrefetchOptions#DEFAULT default options}, such as the avatars of known users at startup.
+     *
+     * @param builders the builders to fetch the images of
+     * @return a handle reporting the progress of the prefetch
+     * @throws NullPointerException  if the provided builders are null
+     * @throws IllegalStateException if this client has neither an image cache nor a byte store
+     * @see #prefetch(Iterable, PrefetchOptions)
+     */
+    public Prefetch prefetch(Iterable<? extends RoboHashRequestOptions> builders) {
+        return prefetch(builders, PrefetchOptions.DEFAULT);
+    }
+
+    /**
+     * Starts warming the caches of this client with the avatars of the provided builders in the background.
+     * Images are fetched into the image cache, decoded, if present and otherwise into the byte store.
+     * This method returns once the first fetches are issued without waiting for them, thus it may be called
+     * at startup without delaying readiness. Fetches of avatars already cached complete immediately.
+     * <p>
+     * With {@link com.github.natche.jrobohash.enums.PrefetchPriority#LOW}, fetches are only issued while
+     * no calls made via the public API of this client are in flight, thus page views are never queued
+     * behind the prefetch but a prefetch may stall under constant traffic.
+     *
+     * @param builders the builders to fetch the images of
+     * @param options  the options of the prefetch
+     * @return a handle reporting the progress of the prefetch
+     * @throws NullPointerException  if the provided builders or options are null
+     * @throws IllegalStateException if this client has neither an image cache nor a byte store
+     */
+    public Prefetch prefetch(Iterable<? extends RoboHashRequestOptions> builders, PrefetchOptions options) {
+        Preconditions.checkNotNull(builders);
+        Preconditions.checkNotNull(options);
+        Preconditions.checkState(imageCache != null || byteStore != null);
+
+        long totalCount = builders instanceof Collection ? ((Collection<?>) builders).size() : -1;
+        return new Prefetch(this, builders.iterator(), totalCount, options).start();
+    }
+
+    /**
+     * Fetches the encoded images for all of the provided builders with at most {@code maxInFlight}
+     * fetches outstanding at any time. A new fetch is issued as soon as one completes, so a batch runs at
+     * the throughput of the server rather than at one round trip per avatar. No thread is held per fetch.
+     * <p>
+     * Results, successful or not, are delivered to the provided consumer serially and in completion order.
+     * The URL of each builder is captured when its fetch is issued.
+     *
+     * @param builders       the builders to fetch the images of
+     * @param maxInFlight    the maximum number of outstanding fetches
+     * @param resultConsumer the consumer the result of each fetch is delivered to
+     * @return a future which completes once every result has been delivered, or exceptionally
+     * if iterating the builders or the consumer throws, in which case no further fetches are issued
+     * @throws NullPointerException     if the provided builders or consumer are null
+     * @throws IllegalArgumentException if the provided max in flight is less than one
+     */
+    public CompletableFuture<Void> fetchAll(Iterable<? extends RoboHashRequestOptions> builders,
+                                            int maxInFlight,
+                                            Consumer<RoboHashResult> resultConsumer) {
+        Preconditions.checkNotNull(builders);
+
+        return new BatchFetch(this, builders.iterator(), maxInFlight, resultConsumer).start();
+    }
+
+    /**
+     * Fetches the encoded images for all of the provided builders with at most {@code maxInFlight}
+     * fetches outstanding at any time. The stream is consumed lazily as fetches complete.
+     *
+     * @param builders       the builders to fetch the images of
+     * @param maxInFlight    the maximum number of outstanding fetches
+     * @param resultConsumer the consumer the result of each fetch is delivered to
+     * @return a future which completes once every result has been delivered
+     * @throws NullPointerException     if the provided builders or consumer are null
+     * @throws IllegalArgumentException if the provided max in flight is less than one
+     * @see #fetchAll(Iterable, int, Consumer)
+     */
+    public CompletableFuture<Void> fetchAll(Stream<? extends RoboHashRequestOptions> builders,
+                                            int maxInFlight,
+                                            Consumer<RoboHashResult> resultConsumer) {
+        Preconditions.checkNotNull(builders);
+
+        return new BatchFetch(this, builders.iterator(), maxInFlight, resultConsumer).start();
+    }
+
+    /**
+     * Returns a publisher of the results of fetching the encoded images for the provided builders, for reactive
+     * consumers needing backpressure. Fetches are only issued for the demand the subscriber signals via
+     * {@link Flow.Subscription#request(long)}, and at most {@code maxInFlight} results are fetched or buffered
+     * at any time, thus memory stays bounded regardless of the number of builders. Results, successful or not,
+     * are emitted in completion order and the publisher completes once every builder has been fetched.
+     * <p>
+     * The stream is consumed lazily once demand is signalled and closed once the subscription terminates.
+     * The publisher accepts a single subscriber; further subscribers are signalled an error.
+     *
+     * @param builders    the builders to fetch the images of
+     * @param maxInFlight the maximum number of results fetched or buffered at any time
+     * @return a publisher of the results
+     * @throws NullPointerException     if the provided builders are null
+     * @throws IllegalArgumentException if the provided max in flight is less than one
+     */
+    public Flow.Publisher<RoboHashResult> publishAll(Stream<? extends RoboHashRequestOptions> builders,
+                                                     int maxInFlight) {
+        return new ResultPublisher(this, builders, maxInFlight);
+    }
+
+    /**
+     * Reads the encoded image bytes for the current state of a {@link RoboHashRequestOptions}.
+     *
+     * @param builder the builder to construct the URL from
+     * @return the encoded image bytes
+     * @throws NullPointerException if the provided builder is null
+     * @throws JRoboHashException   if the image cannot be read
+     */
+    public byte[] getImageBytes(RoboHashRequestOptions builder) {
+        return await(getImageBytesAsync(builder));
+    }
+
+    /**
+     * Reads and decodes the image for the current state of a {@link RoboHashRequestOptions}.
+     *
+     * @param builder the builder to construct the URL from
+     * @return the decoded image
+     * @throws NullPointerException if the provided builder is null
+     * @throws JRoboHashException   if the image cannot be read
+     */
+    public BufferedImage getImage(RoboHashRequestOptions builder) {
+        return await(getImageAsync(builder));
+    }
+
+    /**
+     * Saves the image for the current state of a {@link RoboHashRequestOptions} to the provided file
+     * using {@link SaveMode#STREAM}.
+     *
+     * @param builder the builder to construct the URL from
+     * @param file    the file to save the resulting image to
+     * @throws NullPointerException     if the provided builder or file are null
+     * @throws IllegalArgumentException if the provided file exists or is a directory
+     * @throws JRoboHashException       if the image cannot be read or saved
+     */
+    public void saveToFile(RoboHashRequestOptions builder, File file) {
+        await(saveToFileAsync(builder, file));
+    }
+
+    /**
+     * Saves the image for the current state of a {@link RoboHashRequestOptions} to the provided file.
+     *
+     * @param builder  the builder to construct the URL from
+     * @param file     the file to save the resulting image to
+     * @param saveMode how the image is saved
+     * @throws NullPointerException     if the provided builder, file, or save mode are null
+     * @throws IllegalArgumentException if the provided file exists or is a directory
+     * @throws JRoboHashException       if the image cannot be read or saved
+     * @see #saveToFileAsync(RoboHashRequestOptions, File, SaveMode)
+     */
+    public void saveToFile(RoboHashRequestOptions builder, File file, SaveMode saveMode) {
+        await(saveToFileAsync(builder, file, saveMode));
+    }
+
+    /**
+     * Streams the encoded image for the current state of a {@link RoboHashRequestOptions} to the provided
+     * output stream, such as the body of a proxied response. The image is neither decoded nor held in memory
+     * as a whole, rather it is copied through a small pooled buffer as it arrives, thus the memory used per
+     * call is constant regardless of the requested size. Bytes held by the byte store are written from there
+     * and bytes streamed from the server are not added to it. The calling thread is blocked until the image
+     * has been written, and the output stream is neither flushed nor closed. The call timeout of this client
+     * bounds the whole transfer: once it elapses the body of the response is closed, which aborts the transfer
+     * even if the server stalls mid-body.
+     *
+     * @param builder      the builder to construct the URL from
+     * @param outputStream the output stream to write the encoded image to
+     * @throws NullPointerException if the provided builder or output stream are null
+     * @throws JRoboHashException   if the image cannot be read or written, in which case part
+     *                              of the image may already have been written
+     */
+    public void streamTo(RoboHashRequestOptions builder, OutputStream outputStream) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkNotNull(outputStream);
+
+        streamTo(buildRequestUrl(builder), Channels.newChannel(outputStream),
+                chunk -> outputStream.write(chunk.array(), chunk.position(), chunk.remaining()));
+    }
+
+    /**
+     * Streams the encoded image for the current state of a {@link RoboHashRequestOptions} to the provided
+     * blocking channel, such as the socket of a proxied response.
+     *
+     * @param builder the builder to construct the URL from
+     * @param channel the blocking channel to write the encoded image to
+     * @throws NullPointerException if the provided builder or channel are null
+     * @throws JRoboHashException   if the image cannot be read or written, in which case part
+     *                              of the image may already have been written
+     * @see #streamTo(RoboHashRequestOptions, OutputStream)
+     */
+    public void streamTo(RoboHashRequestOptions builder, WritableByteChannel channel) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkNotNull(channel);
+
+        streamTo(buildRequestUrl(builder), channel, chunk -> {
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+        });
+    }
+
+    /**
+     * Writes the encoded image bytes for the provided URL from the byte store to the provided channel if present
+     * there, and otherwise streams the body of the response chunk by chunk to the provided sink.
+     *
+     * @param url     the URL to request
+     * @param channel the channel stored bytes are written to
+     * @param sink    the sink each chunk of the body of the response is written to
+     * @throws JRoboHashException if the image cannot be read or written
+     */
+    private void streamTo(String url, WritableByteChannel channel, ChunkSink sink) {
+        Deadline deadline = Deadline.after(callTimeout);
+        beginForegroundCall();
+        try {
+            if (byteStore != null && isStoredServable(url) && byteStore.transferTo(url, channel)) return;
+
+            HttpResponse.BodyHandler<InputStream> bodyHandler = responseInfo -> responseInfo.statusCode() == HTTP_OK
+                    ? HttpResponse.BodySubscribers.ofInputStream()
+                    : HttpResponse.BodySubscribers.replacing(InputStream.nullInputStream());
+            try (InputStream body = await(exchange(url, bodyHandler, false, deadline)).body()) {
+                ScheduledFuture<?> abort = deadline.isBounded()
+                        ? scheduleDeadline(deadline.remainingNanos(), () -> closeQuietly(body))
+                        : null;
+                ByteBuffer buffer = bufferPool.acquire();
+                try {
+                    int read;
+                    while ((read = body.read(buffer.array(), 0, buffer.capacity())) != -1) {
+                        if (deadline.isExpired()) throw new RequestTimeoutException(url, deadline.getTimeout());
+
+                        buffer.clear().limit(read);
+                        sink.write(buffer);
+                    }
+                } catch (IOException e) {
+                    if (deadline.isExpired()) throw new RequestTimeoutException(url, deadline.getTimeout(), e);
+                    throw e;
+                } finally {
+                    if (abort != null) abort.cancel(false);
+                    bufferPool.release(buffer);
+                }
+            }
+        } catch (IOException e) {
+            throw new JRoboHashException("Failed to stream image from URL: " + url + ", error: " + e.getMessage(), e);
+        } finally {
+            endForegroundCall();
+        }
+    }
+
+    /**
+     * Warms the caches of this client with the avatar for the provided URL, decoding it into the image cache
+     * if present and otherwise storing its encoded bytes in the byte store.
+     *
+     * @param url the URL to fetch
+     * @return a future which completes once the avatar is cached
+     */
+    CompletableFuture<?> warm(String url) {
+        Deadline deadline = Deadline.after(callTimeout);
+        return imageCache != null ? getImageAsync(url, deadline) : getImageBytesAsync(url, deadline);
+    }
+
+    /**
+     * Returns a future which completes once no foreground calls of this client are in flight.
+     *
+     * @return a future which completes once no foreground calls are in flight
+     */
+    CompletableFuture<Void> awaitIdle() {
+        synchronized (foregroundLock) {
+            if (foregroundCalls == 0) return CompletableFuture.completedFuture(null);
+
+            CompletableFuture<Void> idle = new CompletableFuture<>();
+            idleWaiters.add(idle);
+            return idle;
+        }
+    }
+
+    /**
+     * Counts the provided foreground call as in flight until it completes.
+     *
+     * @param call the future of the call
+     * @param <T>  the type of the result of the call
+     * @return the provided future
+     */
+    private <T> CompletableFuture<T> trackForeground(CompletableFuture<T> call) {
+        beginForegroundCall();
+        call.whenComplete((result, throwable) -> endForegroundCall());
+        return call;
+    }
+
+    /**
+     * Counts a foreground call as in flight.
+     */
+    private void beginForegroundCall() {
+        synchronized (foregroundLock) {
+            foregroundCalls++;
+        }
+    }
+
+    /**
+     * Counts a foreground call as completed, completing the idle waiters if it was the last in flight.
+     */
+    private void endForegroundCall() {
+        List<CompletableFuture<Void>> idle;
+        synchronized (foregroundLock) {
+            if (--foregroundCalls > 0 || idleWaiters.isEmpty()) return;
+
+            idle = new ArrayList<>(idleWaiters);
+            idleWaiters.clear();
+        }
+
+        idle.forEach(waiter -> waiter.complete(null));
+    }
+
+    /**
+     * Fetches and decodes the image from the provided URL, caching it if an image cache is configured.
+     * The encoded image bytes are decoded straight from the byte store if present, without copying them
+     * into an array, thus the image is only decoded once a caller asks for it. The byte store is bypassed
+     * when replacing an expired image, since the bytes it holds are as old as that image, and the fetched
+     * bytes replace those stored.
+     *
+     * @param url             the URL to fetch
+     * @param deadline        the deadline of the call
+     * @param bypassByteStore whether to fetch from the server even if the byte store holds the bytes
+     * @return a future which completes with the decoded image
+     */
+    private CompletableFuture<BufferedImage> loadImage(String url, Deadline deadline, boolean bypassByteStore) {
+        CompletableFuture<BufferedImage> storedImage = bypassByteStore ? null : decodeStoredImage(url);
+        if (storedImage != null) return storedImage;
+
+        CompletableFuture<byte[]> bytes = bypassByteStore
+                ? sendAndStore(url, deadline)
+                : requestBytes(url, deadline);
+        CompletableFuture<BufferedImage> image = propagateCancellation(
+                bytes.thenApply(GeneralUtils::decodeBufferedImage), bytes);
+        if (imageCache == null) return image;
+
+        return propagateCancellation(image.thenApply(decodedImage -> cacheImage(url, decodedImage, loadTime())),
+                image);
+    }
+
+    /**
+     * Decodes the image from the encoded image bytes held by the byte store for the provided URL, unless they
+     * expired, and caches it along with the load time of the bytes.
+     *
+     * @param url the URL the bytes were fetched from
+     * @return a future which completes with the decoded image, or null if no byte store is configured
+     * or it holds no servable bytes for the provided URL
+     */
+    private CompletableFuture<BufferedImage> decodeStoredImage(String url) {
+        if (byteStore == null) return null;
+
+        try {
+            OptionalLong loadTime = expiryTracker == null ? OptionalLong.empty() : byteStore.getLoadTime(url);
+            if (!isServable(url, loadTime)) return null;
+
+            BufferedImage image = byteStore.read(url, GeneralUtils::decodeBufferedImageFromBuffer);
+            if (image == null) return null;
+            return CompletableFuture.completedFuture(imageCache == null ? image : cacheImage(url, image, loadTime));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Returns whether an entry cached for the provided URL and loaded at the provided time may be served,
+     * refreshing it in the background if it is stale. Every entry may be served without an expiry policy.
+     * The load time is read before the entry, thus an entry replaced in between is newer than it.
+     *
+     * @param url      the URL the entry was fetched from
+     * @param loadTime the time the entry was loaded at, empty if unknown
+     * @return whether the entry may be served
+     */
+    private boolean isServable(String url, OptionalLong loadTime) {
+        if (expiryTracker == null) return true;
+
+        ExpiryTracker.Freshness freshness = expiryTracker.getFreshness(loadTime);
+        if (freshness == ExpiryTracker.Freshness.STALE) revalidate(url);
+        return freshness != ExpiryTracker.Freshness.EXPIRED;
+    }
+
+    /**
+     * Returns whether the bytes held by the byte store for the provided URL, if any, may be served, refreshing
+     * them in the background if they are stale.
+     *
+     * @param url the URL the bytes were fetched from
+     * @return whether the stored bytes may be served
+     */
+    private boolean isStoredServable(String url) {
+        return isServable(url, expiryTracker == null ? OptionalLong.empty() : byteStore.getLoadTime(url));
+    }
+
+    /**
+     * Returns the time to stamp an entry loaded now with.
+     *
+     * @return the time to stamp an entry loaded now with, empty without an expiry policy
+     */
+    private OptionalLong loadTime() {
+        return expiryTracker == null ? OptionalLong.empty() : OptionalLong.of(expiryTracker.now());
+    }
+
+    /**
+     * Refreshes the stale image or bytes cached for the provided URL in the background, bypassing the byte store.
+     * The image is reloaded if an image cache is configured, which also refreshes the byte store, and otherwise
+     * only the bytes are. A single refresh per URL is in flight at any time regardless of request coalescing,
+     * with which concurrent loads of the same URL also join the refresh. The refresh is bounded by the call timeout.
+     *
+     * @param url the URL to fetch
+     */
+    private void revalidate(String url) {
+        if (!refreshingUrls.add(url)) return;
+
+        CompletableFuture<?> refresh;
+        try {
+            Deadline deadline = Deadline.after(callTimeout);
+            if (imageCache == null) {
+                refresh = requestBytes(url, deadline);
+            } else {
+                refresh = requestCoalescing
+                        ? imageCoalescer.coalesce(url, () -> loadImage(url, Deadline.NONE, true))
+                        : loadImage(url, deadline, true);
+            }
+            refresh = withDeadline(refresh, url, deadline);
+        } catch (RuntimeException e) {
+            refreshingUrls.remove(url);
+            throw e;
+        }
+        refresh.whenComplete((result, throwable) -> refreshingUrls.remove(url));
+    }
+
+    /**
+     * Puts the provided image into the image cache along with the time it was loaded at.
+     *
+     * @param url      the URL the image was fetched from
+     * @param image    the image
+     * @param loadTime the time the image was loaded at, empty if unknown
+     * @return the provided image
+     */
+    private BufferedImage cacheImage(String url, BufferedImage image, OptionalLong loadTime) {
+        if (loadTime.isPresent()) {
+            imageCache.put(url, image, loadTime.getAsLong());
+        } else {
+            imageCache.put(url, image);
+        }
+        return image;
+    }
+
+    /**
+     * Fetches the encoded image bytes from the provided URL, serving them from the byte store if present
+     * and not expired.
+     *
+     * @param url      the URL to fetch
+     * @param deadline the deadline of the call
+     * @return a future which completes with the encoded image bytes
+     */
+    private CompletableFuture<byte[]> fetchBytes(String url, Deadline deadline) {
+        if (byteStore != null && isStoredServable(url)) {
+            byte[] storedBytes = byteStore.getIfPresent(url);
+            if (storedBytes != null) return CompletableFuture.completedFuture(storedBytes);
+        }
+
+        return requestBytes(url, deadline);
+    }
+
+    /**
+     * Requests the encoded image bytes from the provided URL, joining an identical in-flight request if request
+     * coalescing is enabled. A coalesced request is shared by callers with different deadlines, thus it runs
+     * without a deadline, bounded only by the request timeout of each attempt, and each caller applies its own
+     * deadline via {@link #withDeadline}. Once every caller gave up, the coalescer cancels the request.
+     *
+     * @param url      the URL to request
+     * @param deadline the deadline of the call
+     * @return a future which completes with the encoded image bytes
+     */
+    private CompletableFuture<byte[]> requestBytes(String url, Deadline deadline) {
+        if (!requestCoalescing) return sendAndStore(url, deadline);
+        return byteCoalescer.coalesce(url, () -> sendAndStore(url, Deadline.NONE));
+    }
+
+    /**
+     * Sends a request for the provided URL and stores the body of the response along with the time it was
+     * loaded at if a byte store is configured. A failure is cached for the time the expiry policy assigns
+     * to it, if an expiry policy is configured.
+     *
+     * @param url      the URL to request
+     * @param deadline the deadline of the call
+     * @return a future which completes with the body of the response
+     */
+    private CompletableFuture<byte[]> sendAndStore(String url, Deadline deadline) {
+        CompletableFuture<byte[]> bytes = send(url, deadline);
+        if (expiryTracker != null) {
+            bytes.whenComplete((body, throwable) -> {
+                if (throwable != null) expiryTracker.recordFailure(url, unwrap(throwable));
+            });
+        }
+        if (byteStore == null) return bytes;
+
+        return propagateCancellation(bytes.thenApply(body -> {
+            OptionalLong loadTime = loadTime();
+            if (loadTime.isPresent()) {
+                byteStore.put(url, body, loadTime.getAsLong());
+            } else {
+                byteStore.put(url, body);
+            }
+            return body;
+        }), bytes);
+    }
+
+    /**
+     * Sends a request for the provided URL and returns the body of the response.
+     *
+     * @param url      the URL to request
+     * @param deadline the deadline of the call
+     * @return a future which completes with the body of the response, or exceptionally with
+     * a {@link JRoboHashException} if the request fails or is not answered with an image
+     */
+    private CompletableFuture<byte[]> send(String url, Deadline deadline) {
+        CompletableFuture<HttpResponse<byte[]>> response = exchange(url, HttpResponse.BodyHandlers.ofByteArray(),
+                true, deadline);
+        return propagateCancellation(response.thenApply(HttpResponse::body), response);
+    }
+
+    /**
+     * Writes the encoded image bytes for the provided URL to the provided empty file, transferring them from
+     * the byte store if present there and otherwise streaming the body of the response straight to the file.
+     *
+     * @param url      the URL to request
+     * @param file     the empty file to write the encoded image bytes to
+     * @param deadline the deadline of the call
+     * @return a future which completes once the bytes have been written
+     */
+    private CompletableFuture<Void> downloadTo(String url, Path file, Deadline deadline) {
+        if (byteStore != null) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                if (isStoredServable(url) && byteStore.transferTo(url, channel)) {
+                    return CompletableFuture.completedFuture(null);
+                }
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new JRoboHashException(
+                        "Failed to write image to file: " + file.getFileName() + ", error: " + e.getMessage()));
+            }
+
+            CompletableFuture<byte[]> bytes = fetchBytes(url, deadline);
+            return propagateCancellation(bytes.thenAccept(fetchedBytes -> writeBytes(fetchedBytes, file)), bytes);
+        }
+
+        HttpResponse.BodyHandler<Path> bodyHandler = responseInfo -> responseInfo.statusCode() == HTTP_OK
+                ? HttpResponse.BodySubscribers.ofFile(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                : HttpResponse.BodySubscribers.replacing(file);
+        CompletableFuture<HttpResponse<Path>> response = exchange(url, bodyHandler, false, deadline);
+        return propagateCancellation(response.thenApply(ignored -> null), response);
+    }
+
+    /**
+     * Rewrites the provided request URL, built against the base URL of this client, to target the provided
+     * endpoint by replacing the base URL with that of the endpoint.
+     *
+     * @param url      the request URL
+     * @param endpoint the endpoint to target
+     * @return the request URL targeting the provided endpoint
+     * @throws IllegalStateException if the provided URL was not built against the base URL of this client
+     */
+    private String rewriteUrl(String url, Endpoint endpoint) {
+        Preconditions.checkState(url.startsWith(baseUrl), "Request URL not built against base URL %s: %s",
+                baseUrl, url);
+
+        return endpoint.getBaseUrl() + url.substring(baseUrl.length());
+    }
+
+    /**
+     * Sends a request for the provided URL through the circuit breaker, retrying it per the retry policy,
+     * and returns the response once it successfully returned an image. Each attempt waits for a token of the
+     * rate limiter and then for a permit of the concurrency limiter before it is sent. Hedged attempts hold a
+     * single permit for the request and its hedge, and the slower of the two is cancelled. A hedge takes its own
+     * token of the rate limiter and is not sent if none is available, as waiting for one defeats its purpose.
+     * <p>
+     * Each sent request is bounded by the request timeout and by the deadline of the call, whichever is sooner.
+     * Once the deadline passes, the transfer is aborted and no further attempts are made, and the attempt ends
+     * with a {@link RequestTimeoutException} for the deadline which the circuit breaker and the concurrency
+     * limiter disregard like a cancellation, since nothing was learned about the server. If an endpoint pool is
+     * set, each sent request, including hedges and retries, is sent to the endpoint the pool selects.
+     * Cancelling the returned future aborts the transfers in flight and makes no further attempts.
+     *
+     * @param url         the URL to request
+     * @param bodyHandler the handler for the body of the response, invoked once per sent request
+     * @param hedgeable   whether the request may be hedged, only so if its body is held in memory
+     * @param deadline    the deadline of the call
+     * @param <T>         the type of the body of the response
+     * @return a future which completes with the response, or exceptionally with a {@link JRoboHashException}
+     * if the request fails or is not answered with an image on every attempt
+     */
+    private <T> CompletableFuture<HttpResponse<T>> exchange(String url, HttpResponse.BodyHandler<T> bodyHandler,
+                                                            boolean hedgeable, Deadline deadline) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Set<CompletableFuture<HttpResponse<T>>> pendingResponses = ConcurrentHashMap.newKeySet();
+        Supplier<CompletableFuture<HttpResponse<T>>> send = () -> {
+            if (cancelled.get()) return CompletableFuture.failedFuture(new CancellationException());
+
+            long remainingNanos = deadline.remainingNanos();
+            if (remainingNanos <= 0) {
+                return CompletableFuture.failedFuture(new RequestTimeoutException(url, deadline.getTimeout()));
+            }
+
+            Endpoint endpoint = endpointPool == null ? null : endpointPool.acquire();
+            String targetUrl = endpoint == null ? url : rewriteUrl(url, endpoint);
+            long startNanos = System.nanoTime();
+
+            HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create(targetUrl)).GET();
+            if (requestTimeout != null) requestBuilder.timeout(requestTimeout);
+
+            CompletableFuture<HttpResponse<T>> pendingResponse = httpClient.sendAsync(requestBuilder.build(),
+                    bodyHandler);
+            pendingResponses.add(pendingResponse);
+            if (cancelled.get()) pendingResponse.cancel(true);
+            // Not derived from the response future, whose dependents abort the request when cancelled
+            // rather than themselves ending cancelled
+            CompletableFuture<HttpResponse<T>> checkedResponse = new CompletableFuture<>();
+            pendingResponse.whenComplete((response, throwable) -> {
+                pendingResponses.remove(pendingResponse);
+                try {
+                    if (throwable != null) checkTimeout(targetUrl, unwrap(throwable), deadline);
+                    if (cancelled.get()) throw new CancellationException();
+                    checkedResponse.complete(checkResponse(targetUrl, response, throwable));
+                } catch (RuntimeException e) {
+                    checkedResponse.completeExceptionally(e);
+                }
+            });
+            checkedResponse.whenComplete((response, throwable) -> {
+                if (checkedResponse.isCancelled()) pendingResponse.cancel(true);
+                if (endpoint == null) return;
+
+                Throwable failure = throwable == null ? null : unwrap(throwable);
+                if (checkedResponse.isCancelled() || cancelled.get() || isAbandoned(failure)) {
+                    endpointPool.abandon(endpoint);
+                } else {
+                    endpointPool.release(endpoint, isHealthy(failure), System.nanoTime() - startNanos);
+                }
+            });
+            if (deadline.isBounded()) {
+                ScheduledFuture<?> abort = scheduleDeadline(remainingNanos, () -> pendingResponse.cancel(true));
+                pendingResponse.whenComplete((response, throwable) -> abort.cancel(false));
+            }
+            return checkedResponse;
+        };
+        Supplier<CompletableFuture<HttpResponse<T>>> hedgedSend = hedgingPolicy == null || !hedgeable
+                ? send
+                : () -> hedgingPolicy.execute(send, rateLimiter == null ? () -> true : rateLimiter::tryAcquire);
+        Supplier<CompletableFuture<HttpResponse<T>>> limitedSend = concurrencyLimiter == null
+                ? hedgedSend
+                : () -> concurrencyLimiter.execute(hedgedSend);
+        Supplier<CompletableFuture<HttpResponse<T>>> attempt = rateLimiter == null
+                ? limitedSend
+                : () -> rateLimiter.acquire().thenCompose(ignored -> limitedSend.get());
+        Supplier<CompletableFuture<HttpResponse<T>>> guardedAttempt = circuitBreaker == null
+                ? attempt
+                : () -> circuitBreaker.execute(attempt);
+        CompletableFuture<HttpResponse<T>> call;
+        if (retryPolicy == null) {
+            call = guardedAttempt.get();
+        } else if (deadline.isBounded()) {
+            call = retryPolicy.execute(guardedAttempt, Duration.ofNanos(Math.max(0, deadline.remainingNanos())));
+        } else {
+            call = retryPolicy.execute(guardedAttempt);
+        }
+        call.whenComplete((response, throwable) -> {
+            if (!call.isCancelled()) return;
+
+            cancelled.set(true);
+            pendingResponses.forEach(pendingResponse -> pendingResponse.cancel(true));
+        });
+        return call;
+    }
+
+    /**
+     * Returns whether the provided failure of a request shows that the request was given up on, that is whether
+     * it was cancelled or aborted once the deadline of the call passed, which says nothing about the server.
+     * Timeouts of the transport, under the connect or request timeout, are not abandonments.
+     *
+     * @param throwable the reason the request failed, null if it did not
+     * @return whether the provided failure shows that the request was given up on
+     */
+    private static boolean isAbandoned(Throwable throwable) {
+        return throwable instanceof CancellationException || throwable instanceof RequestTimeoutException
+                && ((RequestTimeoutException) throwable).isDeadlineExceeded();
+    }
+
+    /**
+     * Returns whether the provided outcome of a request shows a healthy server, that is whether the request
+     * succeeded or was answered with a status which does not indicate an overloaded or failing server.
+     *
+     * @param throwable the reason the request failed, null if it did not
+     * @return whether the provided outcome shows a healthy server
+     */
+    private static boolean isHealthy(Throwable throwable) {
+        return throwable == null
+                || throwable instanceof UpstreamStatusException && !((UpstreamStatusException) throwable).isTransient();
+    }
+
+    /**
+     * Returns the provided response if it successfully returned an image.
+     *
+     * @param url       the URL which was requested
+     * @param response  the response, null if the request failed
+     * @param throwable the reason the request failed, null if it did not
+     * @param <T>       the type of the body of the response
+     * @return the provided response
+     * @throws JRoboHashException      if the request failed
+     * @throws UpstreamStatusException if the request was not answered with an image
+     */
+    private static <T> HttpResponse<T> checkResponse(String url, HttpResponse<T> response, Throwable throwable) {
+        if (throwable != null) {
+            Throwable cause = unwrap(throwable);
+            throw new JRoboHashException("Failed to get image from URL: "
+                    + url + ", error: " + cause.getMessage(), cause);
+        } else if (response.statusCode() != HTTP_OK) {
+            throw new UpstreamStatusException(url, response.statusCode());
+        }
+
+        return response;
+    }
+
+    /**
+     * Throws a {@link RequestTimeoutException} if the provided failure of a request is due to a timeout.
+     *
+     * @param url      the URL which was requested
+     * @param failure  the failure of the request
+     * @param deadline the deadline of the call
+     * @throws RequestTimeoutException if the deadline passed or the transport timed out
+     */
+    private void checkTimeout(String url, Throwable failure, Deadline deadline) {
+        if (deadline.isExpired()) {
+            throw new RequestTimeoutException(url, deadline.getTimeout());
+        } else if (failure instanceof HttpTimeoutException) {
+            Duration elapsedTimeout = failure instanceof HttpConnectTimeoutException && connectTimeout != null
+                    ? connectTimeout
+                    : requestTimeout;
+            if (elapsedTimeout != null) throw new RequestTimeoutException(url, elapsedTimeout, failure);
+        }
+    }
+
+    /**
+     * Returns the cause of the provided throwable if it is a {@link CompletionException}.
+     *
+     * @param throwable the throwable to unwrap
+     * @return the cause of the provided completion exception, otherwise the provided throwable
+     */
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+    }
+
+    /**
+     * Returns a future which completes with the outcome of the provided future, or exceptionally with
+     * a {@link RequestTimeoutException} if the provided deadline passes first, in which case the provided
+     * future is cancelled.
+     *
+     * @param future   the future
+     * @param url      the URL which was requested
+     * @param deadline the deadline of the call
+     * @param <T>      the type of the result
+     * @return a future bounded by the provided deadline
+     */
+    private static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, String url, Deadline deadline) {
+        if (!deadline.isBounded() || future.isDone()) return future;
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                result.complete(value);
+            } else if (!future.isCancelled() || !deadline.isExpired()) {
+                result.completeExceptionally(unwrap(throwable));
+            }
+        });
+        // Completes the result only once the cancellation ran every dependent of the future
+        ScheduledFuture<?> timer = scheduleDeadline(deadline.remainingNanos(), () -> {
+            future.cancel(true);
+            result.completeExceptionally(new RequestTimeoutException(url, deadline.getTimeout()));
+        });
+        result.whenComplete((value, throwable) -> timer.cancel(false));
+        return result;
+    }
+
+    /**
+     * Cancels the provided source future once the provided dependent future is cancelled, so that
+     * giving up on a derived result also aborts the work it was derived from.
+     *
+     * @param dependent the future derived from the source future
+     * @param source    the source future
+     * @param <T>       the type of the result of the dependent future
+     * @return the provided dependent future
+     */
+    private static <T> CompletableFuture<T> propagateCancellation(CompletableFuture<T> dependent,
+                                                                  CompletableFuture<?> source) {
+        dependent.whenComplete((value, throwable) -> {
+            if (dependent.isCancelled()) source.cancel(true);
+        });
+        return dependent;
+    }
+
+    /**
+     * Schedules the provided action to run on the common pool once the provided delay elapsed. The returned
+     * timer should be cancelled once the action is no longer needed, which releases the action at once.
+     *
+     * @param delayNanos the delay in nanoseconds, run at once if not positive
+     * @param action     the action to run
+     * @return the timer of the action
+     */
+    private static ScheduledFuture<?> scheduleDeadline(long delayNanos, Runnable action) {
+        return DEADLINE_SCHEDULER.schedule(() -> ForkJoinPool.commonPool().execute(action),
+                Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates the scheduler of the timers enforcing deadlines, whose single daemon thread only hands
+     * expired actions over to the common pool.
+     *
+     * @return the scheduler of the timers enforcing deadlines
+     */
+    private static ScheduledThreadPoolExecutor createDeadlineScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("jrobohash-deadline-%d")
+                .setDaemon(true)
+                .build());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Waits for the provided future to complete and returns its result, unwrapping any
+     * {@link JRoboHashException} the future completed exceptionally with.
+     *
+     * @param future the future to wait for
+     * @param <T>    the type of the result
+     * @return the result of the future
+     * @throws JRoboHashException if the future completed exceptionally
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof JRoboHashException) throw (JRoboHashException) e.getCause();
+            throw new JRoboHashException(e);
+        }
+    }
+
+    /**
+     * Moves the provided downloaded image to the provided target, transcoding it first if its format
+     * differs from the provided extension.
+     *
+     * @param downloadedFile the file holding the encoded image as returned by the server
+     * @param extension      the requested image extension
+     * @param target         the file to save the image to
+     * @throws JRoboHashException if the image cannot be transcoded or moved
+     */
+    private static void completeSave(Path downloadedFile, ImageExtension extension, Path target) {
+        try {
+            byte[] leadingBytes = new byte[ImageExtension.SIGNATURE_LENGTH];
+            try (FileChannel channel = FileChannel.open(downloadedFile, StandardOpenOption.READ)) {
+                channel.read(ByteBuffer.wrap(leadingBytes));
+            }
+
+            if (extension.matchesSignature(leadingBytes)) {
+                moveAtomically(downloadedFile, target);
+                return;
+            }
+
+            BufferedImage image = ImageIO.read(downloadedFile.toFile());
+            if (image == null) throw new JRoboHashException("Failed to decode image, no suitable reader found");
+            writeImage(image, extension, target);
+            Files.delete(downloadedFile);
+        } catch (IOException e) {
+            throw new JRoboHashException(
+                    "Failed to write image to file: " + target.getFileName() + ", error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes the provided image in the format of the provided extension and atomically saves it to the
+     * provided file. Transparency is flattened for formats which do not support it.
+     *
+     * @param image     the image to write
+     * @param extension the image extension to encode the image with
+     * @param target    the file to write the image to
+     * @throws JRoboHashException if the image cannot be written to the file
+     */
+    private static void writeImage(BufferedImage image, ImageExtension extension, Path target) {
+        Path temporaryFile = createTemporaryFile(target);
+        try {
+            boolean written = ImageIO.write(toWritableImage(image, extension), extension.getExtension(),
+                    temporaryFile.toFile());
+            if (!written) throw new IOException("no suitable writer found");
+
+            moveAtomically(temporaryFile, target);
+        } catch (IOException e) {
+            deleteIfExists(temporaryFile);
+            throw new JRoboHashException(
+                    "Failed to write image to file: " + target.getFileName() + ", error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the provided image, drawn onto an opaque background if it is translucent
+     * and the format of the provided extension does not support transparency.
+     *
+     * @param image     the image
+     * @param extension the image extension the image is to be encoded with
+     * @return an image the format of the provided extension can encode
+     */
+    private static BufferedImage toWritableImage(BufferedImage image, ImageExtension extension) {
+        if (extension == ImageExtension.PNG || !image.getColorModel().hasAlpha()) return image;
+
+        BufferedImage opaqueImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = opaqueImage.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return opaqueImage;
+    }
+
+    /**
+     * Writes the provided bytes to the provided empty file.
+     *
+     * @param bytes the bytes to write
+     * @param file  the file to write the bytes to
+     * @throws JRoboHashException if the bytes cannot be written
+     */
+    private static void writeBytes(byte[] bytes, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new JRoboHashException(
+                    "Failed to write image to file: " + file.getFileName() + ", error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates an empty temporary file in the directory of the provided target file.
+     *
+     * @param target the file the temporary file is to be renamed to
+     * @return the created temporary file
+     * @throws JRoboHashException if the temporary file cannot be created
+     */
+    private static Path createTemporaryFile(Path target) {
+        try {
+            return Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        } catch (IOException e) {
+            throw new JRoboHashException(
+                    "Failed to write image to file: " + target.getFileName() + ", error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Renames the provided source file to the provided target, atomically if the file system supports it.
+     *
+     * @param source the file to rename
+     * @param target the new name of the file
+     * @throws IOException if the file cannot be renamed
+     */
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+    }
+
+    /**
+     * Deletes the provided file if it exists, ignoring any failure.
+     *
+     * @param file the file to delete
+     */
+    private static void deleteIfExists(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // a leftover temporary file is harmless
+        }
+    }
+
+    /**
+     * Closes the provided input stream, ignoring any failure.
+     *
+     * @param inputStream the input stream to close
+     */
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException ignored) {
+            // the reader observes the closed stream
+        }
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link RoboHashClient}.
+     *
+     * @return a {@link String} representation for this {@link RoboHashClient}
+     */
+    @Override
+    public String toString() {
+        return "RoboHashClient{"
+                + "baseUrl=\"" + baseUrl + "\""
+                + ", httpVersion=" + httpVersion
+                + "}";
+    }
+
+    /**
+     * A destination for the chunks of a streamed response.
+     */
+    @FunctionalInterface
+    private interface ChunkSink {
+        /**
+         * Writes the remaining bytes of the provided chunk.
+         *
+         * @param chunk the chunk, backed by an accessible array
+         * @throws IOException if the chunk cannot be written
+         */
+        void write(ByteBuffer chunk) throws IOException;
+    }
+
+    /**
+     * A builder for a {@link RoboHashClient}.
+     */
+    public static final class Builder {
+        /**
+         * The base URL requests of the client are built against, or null for {@link #DEFAULT_BASE_URL}.
+         */
+        private String baseUrl;
+
+        /**
+         * The HTTP protocol version the client prefers.
+         */
+        private HttpClient.Version httpVersion = HttpClient.Version.HTTP_2;
+
+        /**
+         * The executor for asynchronous tasks of the client, null to use the HTTP client's default.
+         */
+        private Executor executor;
+
+        /**
+         * Whether concurrent requests for the same URL share a single fetch and decode.
+         */
+        private boolean requestCoalescing = true;
+
+        /**
+         * The cache of decoded images, null if decoded images are not cached.
+         */
+        private BoundedCache<String, BufferedImage> imageCache;
+
+        /**
+         * The store of encoded image bytes, null if encoded images are not stored.
+         */
+        private ByteStore byteStore;
+
+        /**
+         * The policy for how long fetched avatars and failures are cached, null if cached images never expire.
+         */
+        private ExpiryPolicy expiryPolicy;
+
+        /**
+         * The policy failed requests are retried with, null if requests are not retried.
+         */
+        private RetryPolicy retryPolicy;
+
+        /**
+         * The circuit breaker requests are guarded by, null if requests are always sent.
+         */
+        private CircuitBreaker circuitBreaker;
+
+        /**
+         * The limiter of concurrent requests, null if concurrency is not limited.
+         */
+        private ConcurrencyLimiter concurrencyLimiter;
+
+        /**
+         * The token bucket capping the request rate, null if the request rate is not capped.
+         */
+        private TokenBucket rateLimiter;
+
+        /**
+         * The policy slow requests for image bytes are hedged with, null if requests are not hedged.
+         */
+        private HedgingPolicy hedgingPolicy;
+
+        /**
+         * The pool of servers requests are balanced across, null if requests are sent to the base URL.
+         */
+        private EndpointPool endpointPool;
+
+        /**
+         * The timeout for establishing a connection, null to wait indefinitely.
+         */
+        private Duration connectTimeout;
+
+        /**
+         * The timeout of a single attempt until the response arrives, null to wait indefinitely.
+         */
+        private Duration requestTimeout;
+
+        /**
+         * The deadline of a call covering all of its attempts and decoding, null if calls have no deadline.
+         */
+        private Duration callTimeout;
+
+        /**
+         * Constructs a new builder with the default transport settings.
+         */
+        private Builder() {}
+
+        /**
+         * Sets the base URL requests of the client are built against, such as that of a self-hosted
+         * RoboHash instance. A trailing slash is appended if not present. Mutually exclusive with an
+         * endpoint pool, whose primary endpoint provides the base URL instead.
+         *
+         * @param baseUrl the base URL such as "https://robohash.example.com/"
+         * @return this builder
+         * @throws NullPointerException     if the provided base URL is null
+         * @throws IllegalArgumentException if the provided base URL is empty or not an HTTP(S) URL
+         */
+        @CanIgnoreReturnValue
+        public Builder setBaseUrl(String baseUrl) {
+            Preconditions.checkNotNull(baseUrl);
+            Preconditions.checkArgument(!baseUrl.trim().isEmpty());
+            Preconditions.checkArgument(baseUrl.startsWith("http://") || baseUrl.startsWith("https://"));
+
+            this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+            return this;
+        }
+
+        /**
+         * Sets the HTTP protocol version the client prefers. {@link HttpClient.Version#HTTP_2} multiplexes
+         * concurrent requests over a single connection and falls back to HTTP/1.1 when unsupported by the server.
+         *
+         * @param httpVersion the HTTP protocol version
+         * @return this builder
+         * @throws NullPointerException if the provided version is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setHttpVersion(HttpClient.Version httpVersion) {
+            Preconditions.checkNotNull(httpVersion);
+
+            this.httpVersion = httpVersion;
+            return this;
+        }
+
+        /**
+         * Sets the executor used for asynchronous tasks of the client, such as completing futures
+         * and decoding images.
+         *
+         * @param executor the executor
+         * @return this builder
+         * @throws NullPointerException if the provided executor is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setExecutor(Executor executor) {
+            Preconditions.checkNotNull(executor);
+
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets whether concurrent requests for the same URL share a single fetch and decode.
+         * This is enabled by default and cuts upstream traffic when many callers request the
+         * same avatar at once.
+         *
+         * @param requestCoalescing whether concurrent requests for the same URL are coalesced
+         * @return this builder
+         */
+        @CanIgnoreReturnValue
+        public Builder setRequestCoalescing(boolean requestCoalescing) {
+            this.requestCoalescing = requestCoalescing;
+            return this;
+        }
+
+        /**
+         * Sets the cache decoded images are served from and stored in, keyed by request URL. Avatars are
+         * deterministic for a request URL, thus a cached image saves both the round trip and the decode.
+         * A cache may be shared by clients targeting the same base URL.
+         *
+         * @param imageCache the cache of decoded images, such as one from {@link BoundedCache#forImages(long)}
+         * @return this builder
+         * @throws NullPointerException if the provided cache is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setImageCache(BoundedCache<String, BufferedImage> imageCache) {
+            Preconditions.checkNotNull(imageCache);
+
+            this.imageCache = imageCache;
+            return this;
+        }
+
+        /**
+         * Sets the store encoded image bytes are served from and stored in, keyed by request URL. Encoded
+         * images take a fraction of the memory of decoded ones, thus a byte store holds many more avatars for
+         * the same budget. Images are decoded from stored bytes only when a caller asks for a decoded image.
+         * A store may be shared by clients targeting the same base URL.
+         *
+         * @param byteStore the store of encoded image bytes, such as a {@link HeapByteStore}
+         * @return this builder
+         * @throws NullPointerException if the provided store is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setByteStore(ByteStore byteStore) {
+            Preconditions.checkNotNull(byteStore);
+
+            this.byteStore = byteStore;
+            return this;
+        }
+
+        /**
+         * Sets the policy for how long fetched avatars and failures are cached. An image in the image cache
+         * or bytes in the byte store past their time to live are still served during the stale-while-revalidate
+         * window while a single background refresh replaces them. Entries are stamped with the time they were
+         * loaded at, thus clients sharing a cache or store agree on their age, and an entry cached without
+         * a load time, such as by a client without an expiry policy, is expired. Failed requests for images
+         * or image bytes are answered from the cache for the time the policy assigns to the failure.
+         *
+         * @param expiryPolicy the expiry policy
+         * @return this builder
+         * @throws NullPointerException if the provided policy is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setExpiryPolicy(ExpiryPolicy expiryPolicy) {
+            Preconditions.checkNotNull(expiryPolicy);
+
+            this.expiryPolicy = expiryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the policy requests failing transiently, such as on a dropped connection or a server error,
+         * are retried with. Requests are retried after a jittered delay, thus a brief upstream hiccup does not
+         * surface as a failed avatar. Requests the server rejects as bad are not retried.
+         *
+         * @param retryPolicy the retry policy
+         * @return this builder
+         * @throws NullPointerException if the provided policy is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) {
+            Preconditions.checkNotNull(retryPolicy);
+
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the circuit breaker requests are guarded by. Once too many requests fail transiently, the breaker
+         * fails requests fast with a {@link com.github.natche.jrobohash.exceptions.CircuitOpenException} rather
+         * than waiting on an unhealthy server. Each retried attempt passes through the breaker. A breaker may be
+         * shared by clients targeting the same server.
+         *
+         * @param circuitBreaker the circuit breaker
+         * @return this builder
+         * @throws NullPointerException if the provided circuit breaker is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setCircuitBreaker(CircuitBreaker circuitBreaker) {
+            Preconditions.checkNotNull(circuitBreaker);
+
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Sets the limiter of concurrent requests. The limiter adapts the number of requests in flight to the
+         * latency and errors it observes, thus batch jobs find the highest throughput the server sustains
+         * rather than relying on a fixed pool size. Requests beyond the limit wait without blocking a thread.
+         *
+         * @param concurrencyLimiter the limiter of concurrent requests
+         * @return this builder
+         * @throws NullPointerException if the provided limiter is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+            Preconditions.checkNotNull(concurrencyLimiter);
+
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        /**
+         * Sets the token bucket capping the rate requests are sent at, such as to stay within
+         * the rate limit of a shared server.
+         *
+         * @param rateLimiter the token bucket capping the request rate
+         * @return this builder
+         * @throws NullPointerException if the provided token bucket is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setRateLimiter(TokenBucket rateLimiter) {
+            Preconditions.checkNotNull(rateLimiter);
+
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets the policy slow requests for image bytes are hedged with. A request still in flight after the
+         * hedge delay is duplicated and the first response wins, which cuts the tail latency caused by the
+         * occasional slow response. Requests streamed to files or output streams are never hedged, and a hedge
+         * is skipped if the rate limiter, if set, has no token available for it.
+         *
+         * @param hedgingPolicy the hedging policy
+         * @return this builder
+         * @throws NullPointerException if the provided policy is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+            Preconditions.checkNotNull(hedgingPolicy);
+
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the pool of servers requests are balanced across, such as replicas of a self-hosted RoboHash
+         * instance. Mutually exclusive with a base URL: request URLs are built against the primary endpoint of the
+         * pool, thus cached avatars are shared by all endpoints, and rewritten to the selected endpoint when sent.
+         *
+         * @param endpointPool the endpoint pool
+         * @return this builder
+         * @throws NullPointerException if the provided pool is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setEndpointPool(EndpointPool endpointPool) {
+            Preconditions.checkNotNull(endpointPool);
+
+            this.endpointPool = endpointPool;
+            return this;
+        }
+
+        /**
+         * Sets the timeout for establishing a connection to the server.
+         *
+         * @param connectTimeout the connect timeout
+         * @return this builder
+         * @throws NullPointerException     if the provided timeout is null
+         * @throws IllegalArgumentException if the provided timeout is not positive
+         */
+        @CanIgnoreReturnValue
+        public Builder setConnectTimeout(Duration connectTimeout) {
+            Preconditions.checkNotNull(connectTimeout);
+            Preconditions.checkArgument(!connectTimeout.isNegative() && !connectTimeout.isZero());
+
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the timeout of a single attempt until the response arrives. An attempt timing out
+         * fails transiently, thus it is retried if a retry policy is set.
+         *
+         * @param requestTimeout the request timeout
+         * @return this builder
+         * @throws NullPointerException     if the provided timeout is null
+         * @throws IllegalArgumentException if the provided timeout is not positive
+         */
+        @CanIgnoreReturnValue
+        public Builder setRequestTimeout(Duration requestTimeout) {
+            Preconditions.checkNotNull(requestTimeout);
+            Preconditions.checkArgument(!requestTimeout.isNegative() && !requestTimeout.isZero());
+
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the deadline of each call, covering connecting, waiting for and downloading the response over all
+         * attempts, and decoding. Once the deadline passes, the transfer is aborted and the call fails with a
+         * {@link RequestTimeoutException}. The deadline may be overridden per call.
+         *
+         * @param callTimeout the call timeout
+         * @return this builder
+         * @throws NullPointerException     if the provided timeout is null
+         * @throws IllegalArgumentException if the provided timeout is not positive
+         */
+        @CanIgnoreReturnValue
+        public Builder setCallTimeout(Duration callTimeout) {
+            Preconditions.checkNotNull(callTimeout);
+            Preconditions.checkArgument(!callTimeout.isNegative() && !callTimeout.isZero());
+
+            this.callTimeout = callTimeout;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link RoboHashClient} from the state of this builder.
+         *
+         * @return a new {@link RoboHashClient}
+         * @throws IllegalStateException if both a base URL and an endpoint pool are set
+         */
+        public RoboHashClient build() {
+            Preconditions.checkState(baseUrl == null || endpointPool == null,
+                    "A base URL and an endpoint pool are mutually exclusive");
+
+            return new RoboHashClient(this);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.enums.BackgroundSet;
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.enums.ImageSet;
+import com.github.natche.jrobohash.enums.UseGravatar;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An immutable snapshot of the state of a {@link RoboHashRequestBuilder}. The request URL relative to the base URL
+ * of a server and a 64-bit fingerprint are computed once on construction, thus a request may be shared across
+ * threads, handed to a client repeatedly and used as a key of hash-based caches without recomputation.
+ * <p>
+ * A request is a read-only {@link RoboHashRequestOptions}, thus accepted wherever a builder is, and has no
+ * mutators; {@link #toBuilder()} returns a mutable copy to derive modified requests from.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class RoboHashRequest implements RoboHashRequestOptions {
+    /**
+     * The avatar key of this request.
+     */
+    private final String avatarKey;
+
+    /**
+     * The image sets this request can use.
+     */
+    private final ImmutableList<ImageSet> imageSets;
+
+    /**
+     * The image sets this request can use as a mask of {@link ImageSet#getMask()}.
+     */
+    private final int imageSetsMask;
+
+    /**
+     * The background set of this request.
+     */
+    private final BackgroundSet backgroundSet;
+
+    /**
+     * The width of this request.
+     */
+    private final int width;
+
+    /**
+     * The height of this request.
+     */
+    private final int height;
+
+    /**
+     * The Gravatar mode of this request.
+     */
+    private final UseGravatar useGravatar;
+
+    /**
+     * Whether the image extension is ignored when computing the avatar for this request.
+     */
+    private final boolean ignoreExtension;
+
+    /**
+     * The image extension of this request.
+     */
+    private final ImageExtension imageExtension;
+
+    /**
+     * Whether safe URL mode is enabled for this request.
+     */
+    private final boolean safeUrlMode;
+
+    /**
+     * The request URL relative to the base URL of a server.
+     */
+    private final String relativeUrl;
+
+    /**
+     * The 64-bit fingerprint of the state of this request.
+     */
+    private final long fingerprint;
+
+    /**
+     * Constructs a new request from the current state of the provided options.
+     *
+     * @param builder the options, such as a builder
+     * @throws IllegalArgumentException if the provided options have no image sets
+     */
+    private RoboHashRequest(RoboHashRequestOptions builder) {
+        this.avatarKey = builder.getAvatarKey();
+        this.imageSets = ImmutableList.copyOf(builder.getImageSets());
+        this.imageSetsMask = ImageSet.toMask(imageSets);
+        this.backgroundSet = builder.getBackgroundSet();
+        this.width = builder.getWidth();
+        this.height = builder.getHeight();
+        this.useGravatar = builder.getUseGravatar();
+        this.ignoreExtension = builder.shouldIgnoreExtension();
+        this.imageExtension = builder.getImageExtension();
+        this.safeUrlMode = builder.isSafeUrlMode();
+        this.relativeUrl = RoboHashRequestHandler.buildRelativeRequestUrl(this);
+        this.fingerprint = Hashing.farmHashFingerprint64().newHasher()
+                .putString(avatarKey, StandardCharsets.UTF_8)
+                .putString(relativeUrl, StandardCharsets.UTF_8)
+                .putBoolean(safeUrlMode)
+                .hash()
+                .asLong();
+    }
+
+    /**
+     * Returns an immutable snapshot of the current state of the provided options, such as a builder.
+     * A {@link RoboHashRequest} is returned as is.
+     *
+     * @param builder the options
+     * @return an immutable snapshot of the current state of the provided options
+     * @throws NullPointerException     if the provided options are null
+     * @throws IllegalArgumentException if the provided options have no image sets
+     */
+    public static RoboHashRequest copyOf(RoboHashRequestOptions builder) {
+        Preconditions.checkNotNull(builder);
+
+        return builder instanceof RoboHashRequest ? (RoboHashRequest) builder : new RoboHashRequest(builder);
+    }
+
+    /**
+     * Returns this request.
+     *
+     * @return this request
+     */
+    @Override
+    public RoboHashRequest build() {
+        return this;
+    }
+
+    /**
+     * Returns the canonical form of this request, which equals the canonical form of every request the server
+     * answers with the same image. The canonical form differs from this request in that:
+     * <ul>
+     *     <li>the image sets are in declaration order without duplicates, or only {@link ImageSet#ANY} if
+     *     contained</li>
+     *     <li>{@link ImageExtension#JPEG} is replaced by {@link ImageExtension#JPG} if the extension is ignored</li>
+     *     <li>the avatar key ends with the extension, as the request URL replaces any extension of the key</li>
+     *     <li>safe URL mode is enabled, as it does not affect the request URL</li>
+     * </ul>
+     * Equivalent requests thus have equal canonical forms with equal fingerprints, which makes the canonical
+     * form the key to use for caches of requests. The request URL of a request is always canonical.
+     *
+     * @return the canonical form of this request, this request if already canonical
+     */
+    public RoboHashRequest canonicalize() {
+        ImageExtension canonicalExtension = ignoreExtension ? imageExtension.getCanonicalExtension() : imageExtension;
+        String canonicalKey = canonicalExtension.setAsImageExtension(avatarKey);
+        ImmutableList<ImageSet> canonicalImageSets = ImageSet.fromMask(imageSets.contains(ImageSet.ANY)
+                ? ImageSet.ANY.getMask()
+                : imageSetsMask);
+
+        if (canonicalKey.equals(avatarKey)
+                && canonicalImageSets.equals(imageSets)
+                && canonicalExtension == imageExtension
+                && safeUrlMode) {
+            return this;
+        }
+
+        return new RoboHashRequestBuilderImpl(canonicalKey)
+                .setImageSets(canonicalImageSets)
+                .setBackgroundSet(backgroundSet)
+                .setWidth(width)
+                .setHeight(height)
+                .setUseGravatar(useGravatar)
+                .setIgnoreExtension(ignoreExtension)
+                .setImageExtension(canonicalExtension)
+                .build();
+    }
+
+    /**
+     * Returns whether this request is in canonical form.
+     *
+     * @return whether this request is in canonical form
+     * @see #canonicalize()
+     */
+    public boolean isCanonical() {
+        return canonicalize() == this;
+    }
+
+    /**
+     * Returns a new mutable builder with the state of this request.
+     *
+     * @return a new mutable builder with the state of this request
+     */
+    public RoboHashRequestBuilderImpl toBuilder() {
+        RoboHashRequestBuilderImpl builder = new RoboHashRequestBuilderImpl(avatarKey);
+        if (!safeUrlMode) builder.disableSafeUrlMode();
+        builder.setImageSets(imageSets)
+                .setBackgroundSet(backgroundSet)
+                .setWidth(width)
+                .setHeight(height)
+                .setUseGravatar(useGravatar)
+                .setIgnoreExtension(ignoreExtension)
+                .setImageExtension(imageExtension);
+        return builder;
+    }
+
+    /**
+     * Returns the request URL of this request relative to the base URL of a server, such as
+     * "key.png?set=any&bgset=any&size=300x300". The URL is canonical and computed once.
+     *
+     * @return the request URL of this request relative to the base URL of a server
+     */
+    public String getRelativeUrl() {
+        return relativeUrl;
+    }
+
+    /**
+     * Returns the 64-bit fingerprint of the state of this request. Equal requests have equal fingerprints, which
+     * are stable across runs and virtual machines, thus fingerprints may be persisted or shared between processes.
+     *
+     * @return the 64-bit fingerprint of the state of this request
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getAvatarKey() {
+        return avatarKey;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ImmutableList<ImageSet> getImageSets() {
+        return imageSets;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getImageSetsMask() {
+        return imageSetsMask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BackgroundSet getBackgroundSet() {
+        return backgroundSet;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public UseGravatar getUseGravatar() {
+        return useGravatar;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean shouldIgnoreExtension() {
+        return ignoreExtension;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ImageExtension getImageExtension() {
+        return imageExtension;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSafeUrlMode() {
+        return safeUrlMode;
+    }
+
+    /**
+     * Returns a hashcode for this {@link RoboHashRequest}, derived from its fingerprint.
+     *
+     * @return a hashcode for this {@link RoboHashRequest}
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint);
+    }
+
+    /**
+     * Returns whether the provided object equals {@code this} object or is equal as defined by an equivalence relation.
+     *
+     * @param o the other object to compare against {@code this}
+     * @return whether the provided object equals {@code this} object or is equal as defined by an equivalence relation
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof RoboHashRequest)) {
+            return false;
+        }
+
+        RoboHashRequest other = (RoboHashRequest) o;
+        return other.fingerprint == fingerprint
+                && other.avatarKey.equals(avatarKey)
+                && other.imageSets.equals(imageSets)
+                && other.backgroundSet == backgroundSet
+                && other.width == width
+                && other.height == height
+                && other.useGravatar == useGravatar
+                && other.ignoreExtension == ignoreExtension
+                && other.imageExtension == imageExtension
+                && other.safeUrlMode == safeUrlMode;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link RoboHashRequest}.
+     *
+     * @return a {@link String} representation for this {@link RoboHashRequest}
+     */
+    @Override
+    public String toString() {
+        return "RoboHashRequest{"
+                + "avatarKey=\"" + avatarKey + "\""
+                + ", imageSets=" + imageSets
+                + ", backgroundSet=" + backgroundSet
+                + ", width=" + width
+                + ", height=" + height
+                + ", useGravatar=" + useGravatar
+                + ", ignoreExtension=" + ignoreExtension
+                + ", imageExtension=" + imageExtension
+                + ", safeUrlMode=" + safeUrlMode
+                + "}";
+    }
+}
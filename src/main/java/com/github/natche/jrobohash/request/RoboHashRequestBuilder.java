@@ -11,8 +11,9 @@ import java.util.Collection;
 
 /**
  * The interface from which all implementations of a RoboHash request builder must inherit from.
+ * The state of a builder is read through the {@link RoboHashRequestOptions} it extends.
  */
-public interface RoboHashRequestBuilder {
+public interface RoboHashRequestBuilder extends RoboHashRequestOptions {
     /**
      * Adds the provided image set to the sets this request can use.
      *
@@ -187,69 +188,4 @@ public interface RoboHashRequestBuilder {
      */
     @CanIgnoreReturnValue
     RoboHashRequestBuilder resetSize();
-
-    /**
-     * Returns the avatar key this request will use.
-     *
-     * @return the avatar key this request will use
-     */
-    String getAvatarKey();
-
-    /**
-     * Returns the image sets this request will use.
-     *
-     * @return the image sets this request will use
-     */
-    Collection<ImageSet> getImageSets();
-
-    /**
-     * Returns the background set this request will use.
-     *
-     * @return the background set this request will use
-     */
-    BackgroundSet getBackgroundSet();
-
-    /**
-     * Returns the width the resulting image will be of.
-     *
-     * @return the width the resulting image will be of
-     */
-    int getWidth();
-
-    /**
-     * Returns the height the resulting image will be of.
-     *
-     * @return the height the resulting image will be of
-     */
-    int getHeight();
-
-    /**
-     * Returns the {@link UseGravatar} mode for this request.
-     *
-     * @return the {@link UseGravatar} mode for this request
-     */
-    UseGravatar getUseGravatar();
-
-    /**
-     * Returns whether the image extension should be ignored when constructing
-     * the RoboHash avatar based on the avatar key.
-     *
-     * @return whether the image extension should be ignored when constructing
-     * the RoboHash avatar based on the avatar key
-     */
-    boolean shouldIgnoreExtension();
-
-    /**
-     * Returns the image extension to use for this request.
-     *
-     * @return the image extension to use for this request
-     */
-    ImageExtension getImageExtension();
-
-    /**
-     * Returns whether safe mode is enabled for when building the URL.
-     *
-     * @return whether safe mode is enabled for when building the URL
-     */
-     boolean isSafeUrlMode();
 }
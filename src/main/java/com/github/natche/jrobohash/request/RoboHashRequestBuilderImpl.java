@@ -10,9 +10,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * The standard, default implementation of {@link RoboHashRequestBuilder}.
@@ -37,9 +35,9 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
     private final String avatarKey;
 
     /**
-     * The image sets this request can use.
+     * The image sets this request can use as a mask of {@link ImageSet#getMask()}.
      */
-    private final ArrayList<ImageSet> imageSets;
+    private int imageSetsMask;
 
     /**
      * The background image sets this request can use.
@@ -106,7 +104,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
         if (!safeUrlMode) Preconditions.checkArgument(GeneralUtils.isValidUrlChars(avatarKey));
 
         this.avatarKey = avatarKey;
-        imageSets = new ArrayList<>(List.of(ImageSet.ANY));
+        imageSetsMask = ImageSet.ANY.getMask();
         backgroundImageSet = BackgroundSet.ANY;
         width = DEFAULT_WIDTH;
         height = DEFAULT_HEIGHT;
@@ -127,14 +125,12 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
     public RoboHashRequestBuilder addImageSet(ImageSet imageSet) {
         Preconditions.checkNotNull(imageSet);
 
-        // Ensure if ANY is contained in the list, it is the only element
+        // Ensure if ANY is contained in the sets, it is the only element
         if (imageSet != ImageSet.ANY) {
-            imageSets.remove(ImageSet.ANY);
+            imageSetsMask = imageSetsMask & ~ImageSet.ANY.getMask() | imageSet.getMask();
         } else {
-            imageSets.clear();
+            imageSetsMask = imageSet.getMask();
         }
-
-        imageSets.add(imageSet);
         return this;
     }
 
@@ -148,7 +144,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
     public RoboHashRequestBuilder removeImageSet(ImageSet imageSet) {
         Preconditions.checkNotNull(imageSet);
 
-        imageSets.remove(imageSet);
+        imageSetsMask &= ~imageSet.getMask();
         return this;
     }
 
@@ -157,7 +153,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
      *
      * @param imageSets the image sets to add to the sets this request can use
      * @return this builder
-     * @throws NullPointerException     if the provided collection is null
+     * @throws NullPointerException     if the provided collection or any image set is null
      * @throws IllegalArgumentException if the provided collection is empty
      */
     @Override
@@ -165,7 +161,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
         Preconditions.checkNotNull(imageSets);
         Preconditions.checkArgument(!imageSets.isEmpty());
 
-        this.imageSets.addAll(imageSets);
+        imageSetsMask |= ImageSet.toMask(imageSets);
         return this;
     }
 
@@ -174,7 +170,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
      *
      * @param imageSets the image sets to remove from the sets this request can use
      * @return this builder
-     * @throws NullPointerException     if the provided collection is null
+     * @throws NullPointerException     if the provided collection or any image set is null
      * @throws IllegalArgumentException if the provided collection is empty
      */
     @Override
@@ -182,7 +178,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
         Preconditions.checkNotNull(imageSets);
         Preconditions.checkArgument(!imageSets.isEmpty());
 
-        this.imageSets.removeAll(imageSets);
+        imageSetsMask &= ~ImageSet.toMask(imageSets);
         return this;
     }
 
@@ -191,7 +187,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
      *
      * @param imageSets the image sets this request can use
      * @return this builder
-     * @throws NullPointerException     if the provided sets is null
+     * @throws NullPointerException     if the provided sets or any image set is null
      * @throws IllegalArgumentException if the provided sets is empty
      */
     @Override
@@ -199,8 +195,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
         Preconditions.checkNotNull(imageSets);
         Preconditions.checkArgument(!imageSets.isEmpty());
 
-        this.imageSets.clear();
-        this.imageSets.addAll(imageSets);
+        imageSetsMask = ImageSet.toMask(imageSets);
         return this;
     }
 
@@ -212,8 +207,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
      */
     @Override
     public RoboHashRequestBuilder resetImageSets() {
-        imageSets.clear();
-        imageSets.add(ImageSet.ANY);
+        imageSetsMask = ImageSet.ANY.getMask();
         return this;
     }
 
@@ -408,12 +402,23 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
         return avatarKey;
     }
 
+    /**
+     * Returns the image sets this request will use in declaration order, without duplicates.
+     * The returned list is immutable and shared, thus this never allocates.
+     *
+     * @return the image sets this request will use
+     */
+    @Override
+    public ImmutableList<ImageSet> getImageSets() {
+        return ImageSet.fromMask(imageSetsMask);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public Collection<ImageSet> getImageSets() {
-        return ImmutableList.copyOf(imageSets);
+    public int getImageSetsMask() {
+        return imageSetsMask;
     }
 
     /**
@@ -505,14 +510,14 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
     @Override
     public int hashCode() {
         int ret = avatarKey.hashCode();
-        ret += 31 * imageSets.hashCode();
-        ret += 31 * backgroundImageSet.hashCode();
-        ret += 31 * Integer.hashCode(width);
-        ret += 31 * Integer.hashCode(height);
-        ret += 31 * useGravatar.hashCode();
-        ret += 31 * Boolean.hashCode(ignoreExtension);
-        ret += 31 * imageExtension.hashCode();
-        ret += 31 * Boolean.hashCode(safeUrlMode);
+        ret = 31 * ret + Integer.hashCode(imageSetsMask);
+        ret = 31 * ret + backgroundImageSet.hashCode();
+        ret = 31 * ret + Integer.hashCode(width);
+        ret = 31 * ret + Integer.hashCode(height);
+        ret = 31 * ret + useGravatar.hashCode();
+        ret = 31 * ret + Boolean.hashCode(ignoreExtension);
+        ret = 31 * ret + imageExtension.hashCode();
+        ret = 31 * ret + Boolean.hashCode(safeUrlMode);
         return ret;
     }
 
@@ -532,7 +537,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
 
         RoboHashRequestBuilderImpl other = (RoboHashRequestBuilderImpl) o;
         return other.avatarKey.equals(avatarKey)
-                && other.imageSets.equals(imageSets)
+                && other.imageSetsMask == imageSetsMask
                 && other.backgroundImageSet == backgroundImageSet
                 && other.width == width
                 && other.height == height
@@ -551,7 +556,7 @@ public class RoboHashRequestBuilderImpl implements RoboHashRequestBuilder {
     public String toString() {
         return "RoboHashRequestBuilderImpl{"
                 + "avatarKey=\"" + avatarKey + "\""
-                + ", imageSets=" + imageSets
+                + ", imageSets=" + getImageSets()
                 + ", backgroundImageSet=" + backgroundImageSet
                 + ", width=" + width
                 + ", height=" + height
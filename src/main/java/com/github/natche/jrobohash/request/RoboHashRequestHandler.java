@@ -1,32 +1,46 @@
 package com.github.natche.jrobohash.request;
 
+import com.github.natche.jrobohash.enums.ImageExtension;
 import com.github.natche.jrobohash.enums.ImageSet;
+import com.github.natche.jrobohash.enums.SaveMode;
 import com.github.natche.jrobohash.enums.UrlParameter;
 import com.github.natche.jrobohash.exceptions.JRoboHashException;
-import com.github.natche.jrobohash.util.GeneralUtils;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.stream.Collectors;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * A handler for accepting {@link RoboHashRequestBuilder}s.
+ * A handler for accepting {@link RoboHashRequestOptions}s. All requests are delegated to a shared
+ * {@link RoboHashClient} which targets the public RoboHash server unless replaced via {@link #setClient(RoboHashClient)}.
  */
 public class RoboHashRequestHandler {
     /**
-     * The domain URL header for RoboHash.
+     * The separation character for width and height.
      */
-    private static final String DOMAIN_HEADER = "https://robohash.org/";
+    private static final String WIDTH_HEIGHT_SEPARATOR = "x";
 
     /**
-     * The separation character for width and height.
+     * The URL parameter disabling ignoring the extension of the requested image.
      */
-    private static final String WIDTH_HEIGHT_SEPARATOR = "x";
+    private static final String IGNORE_EXTENSION_FALSE_PARAMETER =
+            UrlParameter.IGNORE_EXTENSION.encodeUrlParameter("false");
+
+    /**
+     * The estimated length of the query string of a request URL, used to presize URL builders.
+     */
+    private static final int ESTIMATED_QUERY_LENGTH = 64;
+
+    /**
+     * The client all requests of this handler are delegated to.
+     */
+    private static volatile RoboHashClient client = RoboHashClient.builder().build();
 
     /**
      * Suppress default constructor to prevent instantiation via reflection.
@@ -38,32 +52,174 @@ public class RoboHashRequestHandler {
     }
 
     /**
-     * Builds and returns the request URL based on the current state of a {@link RoboHashRequestBuilder}.
+     * Returns the client all requests of this handler are delegated to.
+     *
+     * @return the client all requests of this handler are delegated to
+     */
+    public static RoboHashClient getClient() {
+        return client;
+    }
+
+    /**
+     * Sets the client all requests of this handler are delegated to, such as a client
+     * targeting a self-hosted RoboHash instance.
+     *
+     * @param client the client to delegate requests to
+     * @throws NullPointerException if the provided client is null
+     */
+    public static void setClient(RoboHashClient client) {
+        Preconditions.checkNotNull(client);
+
+        RoboHashRequestHandler.client = client;
+    }
+
+    /**
+     * Builds and returns the request URL based on the current state of a {@link RoboHashRequestOptions}.
      *
      * @param builder the builder to construct the URL from
      * @return the built URL
      * @throws NullPointerException if the provided builder is null
      */
-    public static String buildRequestUrl(RoboHashRequestBuilder builder) {
+    public static String buildRequestUrl(RoboHashRequestOptions builder) {
         Preconditions.checkNotNull(builder);
 
-        StringBuilder urlBuilder = initializeUrlBuilder(builder);
-        addUrlParameters(builder, urlBuilder);
-        return urlBuilder.toString();
+        return client.buildRequestUrl(builder);
+    }
+
+    /**
+     * Appends the request URL based on the current state of a {@link RoboHashRequestOptions} to the provided
+     * appendable, such as the writer of a rendered page, without building an intermediate string.
+     *
+     * @param builder    the builder to construct the URL from
+     * @param appendable the appendable to append the URL to
+     * @param <T>        the type of the appendable
+     * @return the provided appendable
+     * @throws NullPointerException if the provided builder or appendable is null
+     * @throws JRoboHashException   if the provided appendable throws
+     */
+    @CanIgnoreReturnValue
+    public static <T extends Appendable> T appendRequestUrl(RoboHashRequestOptions builder, T appendable) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkNotNull(appendable);
+
+        return client.appendRequestUrl(builder, appendable);
     }
 
     /**
-     * Builds the URL based on the current state of a {@link RoboHashRequestBuilder}
+     * Compiles the options of a {@link RoboHashRequestOptions} into a URL template, which generates the URL
+     * of many avatar keys sharing the options by splicing only the key into the precomputed remainder.
+     *
+     * @param options the builder whose options to compile, whose avatar key is ignored
+     * @return the compiled template
+     * @throws NullPointerException     if the provided options are null
+     * @throws IllegalArgumentException if the provided options have no image sets
+     */
+    public static RoboHashUrlTemplate compileUrlTemplate(RoboHashRequestOptions options) {
+        Preconditions.checkNotNull(options);
+
+        return client.compileUrlTemplate(options);
+    }
+
+    /**
+     * Builds the URL based on the current state of a {@link RoboHashRequestOptions}
      * and reads and returns the image from the URL.
      *
      * @param builder the builder to construct the URL from
      * @return the {@link Image} read from the URL
      * @throws NullPointerException if the provided builder is null
+     * @throws JRoboHashException if the image cannot be read from the URL
+     */
+    public static BufferedImage getImage(RoboHashRequestOptions builder) {
+        Preconditions.checkNotNull(builder);
+
+        return client.getImage(builder);
+    }
+
+    /**
+     * Builds the URL based on the current state of a {@link RoboHashRequestOptions} and asynchronously
+     * reads the encoded image bytes from the URL. No thread is blocked while the request is in flight.
+     *
+     * @param builder the builder to construct the URL from
+     * @return a future which completes with the encoded image bytes, or exceptionally with
+     * a {@link JRoboHashException} if the image cannot be read from the URL
+     * @throws NullPointerException if the provided builder is null
      */
-    public static BufferedImage getImage(RoboHashRequestBuilder builder) {
+    public static CompletableFuture<byte[]> getImageBytesAsync(RoboHashRequestOptions builder) {
         Preconditions.checkNotNull(builder);
 
-        return GeneralUtils.readBufferedImage(buildRequestUrl(builder));
+        return client.getImageBytesAsync(builder);
+    }
+
+    /**
+     * Builds the URL based on the current state of a {@link RoboHashRequestOptions} and
+     * asynchronously reads and decodes the image from the URL.
+     *
+     * @param builder the builder to construct the URL from
+     * @return a future which completes with the {@link BufferedImage} read from the URL, or exceptionally
+     * with a {@link JRoboHashException} if the image cannot be read from the URL
+     * @throws NullPointerException if the provided builder is null
+     */
+    public static CompletableFuture<BufferedImage> getImageAsync(RoboHashRequestOptions builder) {
+        Preconditions.checkNotNull(builder);
+
+        return client.getImageAsync(builder);
+    }
+
+    /**
+     * Constructs a URL from the provided builder and streams the encoded image to the provided output stream
+     * through a small pooled buffer, without decoding it or holding it in memory as a whole.
+     *
+     * @param builder      the builder to construct the URL from
+     * @param outputStream the output stream to write the encoded image to
+     * @throws NullPointerException if the provided builder or output stream are null
+     * @throws JRoboHashException   if the image cannot be read or written
+     */
+    public static void streamTo(RoboHashRequestOptions builder, OutputStream outputStream) {
+        client.streamTo(builder, outputStream);
+    }
+
+    /**
+     * Constructs a URL from the provided builder and streams the encoded image to the provided blocking channel
+     * through a small pooled buffer, without decoding it or holding it in memory as a whole.
+     *
+     * @param builder the builder to construct the URL from
+     * @param channel the blocking channel to write the encoded image to
+     * @throws NullPointerException if the provided builder or channel are null
+     * @throws JRoboHashException   if the image cannot be read or written
+     */
+    public static void streamTo(RoboHashRequestOptions builder, WritableByteChannel channel) {
+        client.streamTo(builder, channel);
+    }
+
+    /**
+     * Constructs a URL from the provided builder and asynchronously saves the image to the provided file.
+     *
+     * @param builder the builder to construct the URL from
+     * @param file    the file to save the resulting image to
+     * @return a future which completes once the image has been saved, or exceptionally with
+     * a {@link JRoboHashException} if the image cannot be read or saved
+     * @throws NullPointerException     if the provided builder or file are null
+     * @throws IllegalArgumentException if the provided file exists or is a directory
+     */
+    public static CompletableFuture<Void> saveToFileAsync(RoboHashRequestOptions builder, File file) {
+        return client.saveToFileAsync(builder, file);
+    }
+
+    /**
+     * Constructs a URL from the provided builder and asynchronously saves the image to the provided file
+     * using the provided save mode.
+     *
+     * @param builder  the builder to construct the URL from
+     * @param file     the file to save the resulting image to
+     * @param saveMode how the image is saved
+     * @return a future which completes once the image has been saved, or exceptionally with
+     * a {@link JRoboHashException} if the image cannot be read or saved
+     * @throws NullPointerException     if the provided builder, file, or save mode are null
+     * @throws IllegalArgumentException if the provided file exists or is a directory
+     */
+    public static CompletableFuture<Void> saveToFileAsync(RoboHashRequestOptions builder, File file,
+                                                          SaveMode saveMode) {
+        return client.saveToFileAsync(builder, file, saveMode);
     }
 
     /**
@@ -75,89 +231,176 @@ public class RoboHashRequestHandler {
      * @throws IllegalArgumentException if the provided file exists or is a directory
      * @throws JRoboHashException if the downloaded image cannot be saved
      */
-    public static void saveToFile(RoboHashRequestBuilder builder, File file) {
+    public static void saveToFile(RoboHashRequestOptions builder, File file) {
+        client.saveToFile(builder, file);
+    }
+
+    /**
+     * Constructs a URL from the provided builder and saves the image to the provided file
+     * using the provided save mode.
+     *
+     * @param builder  the builder to construct the URL from
+     * @param file     the file to save the resulting image to
+     * @param saveMode how the image is saved
+     * @throws NullPointerException     if the provided builder, file, or save mode are null
+     * @throws IllegalArgumentException if the provided file exists or is a directory
+     * @throws JRoboHashException       if the downloaded image cannot be saved
+     */
+    public static void saveToFile(RoboHashRequestOptions builder, File file, SaveMode saveMode) {
+        client.saveToFile(builder, file, saveMode);
+    }
+
+    /**
+     * Builds and returns the request URL based on the current state of a {@link RoboHashRequestOptions}
+     * against the provided base URL. The URL is written into a single string builder presized for it.
+     *
+     * @param baseUrl the base URL of the RoboHash server, ending with a slash
+     * @param builder the builder to construct the URL from
+     * @return the built URL
+     * @throws NullPointerException if the provided base URL or builder is null
+     */
+    static String buildRequestUrl(String baseUrl, RoboHashRequestOptions builder) {
+        Preconditions.checkNotNull(baseUrl);
         Preconditions.checkNotNull(builder);
-        Preconditions.checkNotNull(file);
-        Preconditions.checkArgument(!file.isDirectory());
-        Preconditions.checkArgument(!file.exists());
 
-        BufferedImage image = getImage(builder);
+        if (builder instanceof RoboHashRequest) return baseUrl.concat(((RoboHashRequest) builder).getRelativeUrl());
 
+        StringBuilder urlBuilder = new StringBuilder(baseUrl.length()
+                + builder.getAvatarKey().length() + ESTIMATED_QUERY_LENGTH);
         try {
-            ImageIO.write(image, builder.getImageExtension().getExtension(), file);
+            appendRequestUrl(urlBuilder, baseUrl, builder);
         } catch (IOException e) {
-            throw new JRoboHashException(
-                    "Failed to write image to file: " + file.getName() + ", error: " + e.getMessage());
+            throw new AssertionError("StringBuilder does not throw", e);
         }
+        return urlBuilder.toString();
     }
 
     /**
-     * Initializes and returns a {@link StringBuilder} with the RoboHash
-     * domain header and avatar key already set up for the request.
+     * Builds and returns the request URL of the provided request relative to the base URL of a server.
      *
-     * @param builder the builder
-     * @return the initialized string builder
-     * @throws NullPointerException if the provided builder is null
+     * @param request the request, whose relative URL may not yet be computed
+     * @return the relative request URL
+     * @throws IllegalArgumentException if the provided request has no image sets
      */
-    private static StringBuilder initializeUrlBuilder(RoboHashRequestBuilder builder) {
-        Preconditions.checkNotNull(builder);
-
-        StringBuilder urlBuilder = new StringBuilder(DOMAIN_HEADER);
-        String avatarKey = builder.getImageExtension().setAsImageExtension(builder.getAvatarKey());
-        urlBuilder.append(avatarKey);
-        return urlBuilder;
+    static String buildRelativeRequestUrl(RoboHashRequest request) {
+        StringBuilder urlBuilder = new StringBuilder(request.getAvatarKey().length() + ESTIMATED_QUERY_LENGTH);
+        try {
+            appendRequestPath(urlBuilder, request);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw", e);
+        }
+        return urlBuilder.toString();
     }
 
     /**
-     * Adds the URL parameters from the provided builder to the provided existing URl string builder.
+     * Appends the request URL based on the current state of a {@link RoboHashRequestOptions} against the
+     * provided base URL to the provided appendable. Every fragment is precomputed by the enums or appended
+     * in place, thus no intermediate strings or collections are built.
+     * <p>
+     * The URL is canonical: builders whose image sets differ only in order or duplicates, or whose extensions
+     * name the same format while the extension is ignored, yield the same URL. Since caches and coalesced
+     * fetches are keyed by URL, equivalent builders share their entries.
      *
-     * @param builder    the RoboHash request builder
-     * @param urlBuilder the string builder initialized with the RoboHash domain and avatar key
-     * @throws NullPointerException if either the provided builder or string builder is null
+     * @param appendable the appendable to append the URL to
+     * @param baseUrl    the base URL of the RoboHash server, ending with a slash
+     * @param builder    the builder to construct the URL from
+     * @throws NullPointerException     if the provided appendable, base URL or builder is null
+     * @throws IllegalArgumentException if the provided builder has no image sets
+     * @throws IOException              if the provided appendable throws
      */
-    private static void addUrlParameters(RoboHashRequestBuilder builder, StringBuilder urlBuilder) {
+    static void appendRequestUrl(Appendable appendable, String baseUrl, RoboHashRequestOptions builder)
+            throws IOException {
+        Preconditions.checkNotNull(appendable);
+        Preconditions.checkNotNull(baseUrl);
         Preconditions.checkNotNull(builder);
-        Preconditions.checkNotNull(urlBuilder);
 
-        urlBuilder.append(getImageSetsUrlParameter(builder));
-        urlBuilder.append(UrlParameter.BACKGROUND_SET.encodeUrlParameter(builder.getBackgroundSet().getBackgroundSetName()));
-        urlBuilder.append(constructSizeParameter(builder));
-        urlBuilder.append(builder.getUseGravatar().constructUrlParameter(false));
-        if (!builder.shouldIgnoreExtension()) {
-            urlBuilder.append(UrlParameter.IGNORE_EXTENSION.encodeUrlParameter("false"));
+        appendable.append(baseUrl);
+        if (builder instanceof RoboHashRequest) {
+            appendable.append(((RoboHashRequest) builder).getRelativeUrl());
+        } else {
+            appendRequestPath(appendable, builder);
         }
     }
 
     /**
-     * Constructs the image sets URL parameter part for the image sets the provided builder can use.
+     * Appends the request URL based on the current state of a {@link RoboHashRequestOptions}
+     * relative to the base URL of a server to the provided appendable.
      *
-     * @param builder the builder
-     * @return the URL parameter string for the image sets
-     * @throws IllegalArgumentException if the provided builder is null
+     * @param appendable the appendable to append the URL to
+     * @param builder    the builder to construct the URL from
+     * @throws IllegalArgumentException if the provided builder has no image sets
+     * @throws IOException              if the provided appendable throws
      */
-    private static String getImageSetsUrlParameter(RoboHashRequestBuilder builder) {
-        Preconditions.checkNotNull(builder);
-
-        ImmutableList<ImageSet> imageSets = ImmutableList.copyOf(builder.getImageSets());
-        if (imageSets.contains(ImageSet.ANY)) return ImageSet.ANY.constructUrlParameter(true);
-        if (imageSets.size() == 1) return imageSets.get(0).constructUrlParameter(true);
+    private static void appendRequestPath(Appendable appendable, RoboHashRequestOptions builder) throws IOException {
+        getRequestExtension(builder).appendAsImageExtension(appendable, builder.getAvatarKey());
+        appendRequestQuery(appendable, builder);
+    }
 
-        return UrlParameter.IMAGE_SETS.encodeUrlParameter(imageSets.stream()
-                .map(ImageSet::getListUrlParameterName)
-                .collect(Collectors.joining(",")), true);
+    /**
+     * Builds and returns the query string of the request URL based on the current state of a
+     * {@link RoboHashRequestOptions}, which is independent of the avatar key of the builder.
+     *
+     * @param builder the builder to construct the query string from
+     * @return the query string, beginning with a question mark
+     * @throws IllegalArgumentException if the provided builder has no image sets
+     */
+    static String buildRequestQuery(RoboHashRequestOptions builder) {
+        StringBuilder queryBuilder = new StringBuilder(ESTIMATED_QUERY_LENGTH);
+        try {
+            appendRequestQuery(queryBuilder, builder);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw", e);
+        }
+        return queryBuilder.toString();
     }
 
     /**
-     * Constructs the size parameter for the provided builder.
+     * Returns the extension of the request URL of the provided builder, the canonical extension
+     * if the builder ignores the extension.
      *
      * @param builder the builder
-     * @return the size parameter for the provided builder
-     * @throws IllegalArgumentException if the provided builder is null
+     * @return the extension of the request URL of the provided builder
      */
-    private static String constructSizeParameter(RoboHashRequestBuilder builder) {
-        Preconditions.checkNotNull(builder);
+    static ImageExtension getRequestExtension(RoboHashRequestOptions builder) {
+        return builder.shouldIgnoreExtension()
+                ? builder.getImageExtension().getCanonicalExtension()
+                : builder.getImageExtension();
+    }
 
-        String sizeQueryStringParamValue = builder.getWidth() + WIDTH_HEIGHT_SEPARATOR + builder.getHeight();
-        return UrlParameter.SIZE.encodeUrlParameter(sizeQueryStringParamValue);
+    /**
+     * Appends the query string of the request URL based on the current state of a {@link RoboHashRequestOptions}
+     * to the provided appendable.
+     *
+     * @param appendable the appendable to append the query string to
+     * @param builder    the builder to construct the query string from
+     * @throws IllegalArgumentException if the provided builder has no image sets
+     * @throws IOException              if the provided appendable throws
+     */
+    private static void appendRequestQuery(Appendable appendable, RoboHashRequestOptions builder) throws IOException {
+        appendable.append(ImageSet.constructUrlParameter(builder.getImageSetsMask(), true));
+        appendable.append(builder.getBackgroundSet().constructUrlParameter(false));
+        appendable.append(UrlParameter.SIZE.getUrlParameterPrefix(false));
+        appendInt(appendable, builder.getWidth());
+        appendable.append(WIDTH_HEIGHT_SEPARATOR);
+        appendInt(appendable, builder.getHeight());
+        appendable.append(builder.getUseGravatar().constructUrlParameter(false));
+        if (!builder.shouldIgnoreExtension()) {
+            appendable.append(IGNORE_EXTENSION_FALSE_PARAMETER);
+        }
+    }
+
+    /**
+     * Appends the decimal representation of the provided value, in place when appending to a {@link StringBuilder}.
+     *
+     * @param appendable the appendable to append the value to
+     * @param value      the value
+     * @throws IOException if the provided appendable throws
+     */
+    private static void appendInt(Appendable appendable, int value) throws IOException {
+        if (appendable instanceof StringBuilder) {
+            ((StringBuilder) appendable).append(value);
+        } else {
+            appendable.append(Integer.toString(value));
+        }
     }
 }
@@ -0,0 +1,104 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.enums.BackgroundSet;
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.enums.ImageSet;
+import com.github.natche.jrobohash.enums.UseGravatar;
+
+import java.util.Collection;
+
+/**
+ * A read-only view of the options of a RoboHash request: the avatar key, image sets, background set, size,
+ * gravatar usage and extension. Both the mutable {@link RoboHashRequestBuilder} and the immutable
+ * {@link RoboHashRequest} are views, thus either is accepted wherever a request is sent or a URL is built.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public interface RoboHashRequestOptions {
+    /**
+     * Returns the avatar key this request will use.
+     *
+     * @return the avatar key this request will use
+     */
+    String getAvatarKey();
+
+    /**
+     * Returns the image sets this request will use.
+     *
+     * @return the image sets this request will use
+     */
+    Collection<ImageSet> getImageSets();
+
+    /**
+     * Returns the image sets this request will use as a mask, the union of {@link ImageSet#getMask()} of each set.
+     *
+     * @return the image sets this request will use as a mask
+     * @see ImageSet#fromMask(int)
+     */
+    default int getImageSetsMask() {
+        return ImageSet.toMask(getImageSets());
+    }
+
+    /**
+     * Returns the background set this request will use.
+     *
+     * @return the background set this request will use
+     */
+    BackgroundSet getBackgroundSet();
+
+    /**
+     * Returns the width the resulting image will be of.
+     *
+     * @return the width the resulting image will be of
+     */
+    int getWidth();
+
+    /**
+     * Returns the height the resulting image will be of.
+     *
+     * @return the height the resulting image will be of
+     */
+    int getHeight();
+
+    /**
+     * Returns the {@link UseGravatar} mode for this request.
+     *
+     * @return the {@link UseGravatar} mode for this request
+     */
+    UseGravatar getUseGravatar();
+
+    /**
+     * Returns whether the image extension should be ignored when constructing
+     * the RoboHash avatar based on the avatar key.
+     *
+     * @return whether the image extension should be ignored when constructing
+     * the RoboHash avatar based on the avatar key
+     */
+    boolean shouldIgnoreExtension();
+
+    /**
+     * Returns the image extension to use for this request.
+     *
+     * @return the image extension to use for this request
+     */
+    ImageExtension getImageExtension();
+
+    /**
+     * Returns whether safe mode is enabled for when building the URL.
+     *
+     * @return whether safe mode is enabled for when building the URL
+     */
+    boolean isSafeUrlMode();
+
+    /**
+     * Returns an immutable, thread-safe snapshot of the current state of these options. Further changes
+     * to a builder do not affect the returned request.
+     *
+     * @return an immutable snapshot of the current state of these options
+     * @throws IllegalArgumentException if these options have no image sets
+     */
+    default RoboHashRequest build() {
+        return RoboHashRequest.copyOf(this);
+    }
+}
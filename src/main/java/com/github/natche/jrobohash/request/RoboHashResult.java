@@ -0,0 +1,159 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.util.GeneralUtils;
+import com.google.common.base.Preconditions;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The outcome of fetching a single avatar as part of a batch, either the encoded image bytes
+ * or the error which caused the fetch to fail.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class RoboHashResult {
+    /**
+     * The builder this result was fetched for.
+     */
+    private final RoboHashRequestOptions builder;
+
+    /**
+     * The URL this result was fetched from.
+     */
+    private final String url;
+
+    /**
+     * The encoded image bytes, null if the fetch failed.
+     */
+    private final byte[] imageBytes;
+
+    /**
+     * The error which caused the fetch to fail, null if the fetch succeeded.
+     */
+    private final Throwable error;
+
+    /**
+     * Constructs a new result.
+     *
+     * @param builder    the builder this result was fetched for
+     * @param url        the URL this result was fetched from
+     * @param imageBytes the encoded image bytes, null if the fetch failed
+     * @param error      the error which caused the fetch to fail, null if the fetch succeeded
+     */
+    private RoboHashResult(RoboHashRequestOptions builder, String url, byte[] imageBytes, Throwable error) {
+        this.builder = builder;
+        this.url = url;
+        this.imageBytes = imageBytes;
+        this.error = error;
+    }
+
+    /**
+     * Returns a new successful result.
+     *
+     * @param builder    the builder the result was fetched for
+     * @param url        the URL the result was fetched from
+     * @param imageBytes the encoded image bytes
+     * @return a new successful result
+     * @throws NullPointerException if any of the provided arguments are null
+     */
+    public static RoboHashResult success(RoboHashRequestOptions builder, String url, byte[] imageBytes) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkNotNull(url);
+        Preconditions.checkNotNull(imageBytes);
+
+        return new RoboHashResult(builder, url, imageBytes, null);
+    }
+
+    /**
+     * Returns a new failed result. A {@link CompletionException} is unwrapped to its cause.
+     *
+     * @param builder the builder the result was fetched for
+     * @param url     the URL the result was fetched from
+     * @param error   the error which caused the fetch to fail
+     * @return a new failed result
+     * @throws NullPointerException if any of the provided arguments are null
+     */
+    public static RoboHashResult failure(RoboHashRequestOptions builder, String url, Throwable error) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkNotNull(url);
+        Preconditions.checkNotNull(error);
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return new RoboHashResult(builder, url, null, cause);
+    }
+
+    /**
+     * Returns the builder this result was fetched for.
+     *
+     * @return the builder this result was fetched for
+     */
+    public RoboHashRequestOptions getBuilder() {
+        return builder;
+    }
+
+    /**
+     * Returns the URL this result was fetched from.
+     *
+     * @return the URL this result was fetched from
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns whether the fetch succeeded.
+     *
+     * @return whether the fetch succeeded
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Returns the encoded image bytes. The returned array is not copied and must not be modified.
+     *
+     * @return the encoded image bytes
+     * @throws IllegalStateException if the fetch failed
+     */
+    public byte[] getImageBytes() {
+        Preconditions.checkState(isSuccess());
+        return imageBytes;
+    }
+
+    /**
+     * Decodes and returns the image.
+     *
+     * @return the decoded image
+     * @throws IllegalStateException if the fetch failed
+     */
+    public BufferedImage getImage() {
+        return GeneralUtils.decodeBufferedImage(getImageBytes());
+    }
+
+    /**
+     * Returns the error which caused the fetch to fail.
+     *
+     * @return the error which caused the fetch to fail
+     * @throws IllegalStateException if the fetch succeeded
+     */
+    public Throwable getError() {
+        Preconditions.checkState(!isSuccess());
+        return error;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link RoboHashResult}.
+     *
+     * @return a {@link String} representation for this {@link RoboHashResult}
+     */
+    @Override
+    public String toString() {
+        return "RoboHashResult{"
+                + "url=\"" + url + "\""
+                + ", success=" + isSuccess()
+                + (isSuccess() ? ", bytes=" + imageBytes.length : ", error=" + error)
+                + "}";
+    }
+}
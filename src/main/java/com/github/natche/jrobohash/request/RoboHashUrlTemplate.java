@@ -0,0 +1,228 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.github.natche.jrobohash.util.GeneralUtils;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * A compiled request URL template for the options of a {@link RoboHashRequestOptions}: image sets, background
+ * set, size, gravatar usage and extension. The base URL and the query string are built once, thus a URL is
+ * generated by splicing only the avatar key, with its extension set, between them. Generated URLs are equal
+ * to those {@link RoboHashClient#buildRequestUrl(RoboHashRequestOptions)} builds for a builder with the same
+ * options and avatar key, thus they share cache entries. Instances are immutable and thus thread-safe.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class RoboHashUrlTemplate {
+    /**
+     * The base URL of the RoboHash server, ending with a slash.
+     */
+    private final String baseUrl;
+
+    /**
+     * The extension set on each avatar key.
+     */
+    private final ImageExtension imageExtension;
+
+    /**
+     * The query string appended after each avatar key, beginning with a question mark.
+     */
+    private final String query;
+
+    /**
+     * Whether avatar keys may contain characters not valid in a URL.
+     */
+    private final boolean safeUrlMode;
+
+    /**
+     * The length of the invariant parts of each URL, used to presize URL builders.
+     */
+    private final int invariantLength;
+
+    /**
+     * Constructs a new template compiled from the options of the provided builder against the provided base URL.
+     *
+     * @param baseUrl the base URL of the RoboHash server, ending with a slash
+     * @param options the builder whose options to compile, whose avatar key is ignored
+     * @throws NullPointerException     if the provided base URL or options are null
+     * @throws IllegalArgumentException if the provided options have no image sets
+     */
+    RoboHashUrlTemplate(String baseUrl, RoboHashRequestOptions options) {
+        Preconditions.checkNotNull(baseUrl);
+        Preconditions.checkNotNull(options);
+
+        this.baseUrl = baseUrl;
+        this.imageExtension = RoboHashRequestHandler.getRequestExtension(options);
+        this.query = RoboHashRequestHandler.buildRequestQuery(options);
+        this.safeUrlMode = options.isSafeUrlMode();
+        this.invariantLength = baseUrl.length() + imageExtension.getExtensionWithPeriod().length() + query.length();
+    }
+
+    /**
+     * Returns the base URL of the RoboHash server generated URLs target.
+     *
+     * @return the base URL of the RoboHash server generated URLs target
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Returns the extension set on each avatar key.
+     *
+     * @return the extension set on each avatar key
+     */
+    public ImageExtension getImageExtension() {
+        return imageExtension;
+    }
+
+    /**
+     * Returns the query string appended after each avatar key, beginning with a question mark.
+     *
+     * @return the query string appended after each avatar key
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Returns whether avatar keys may contain characters not valid in a URL.
+     *
+     * @return whether avatar keys may contain characters not valid in a URL
+     */
+    public boolean isSafeUrlMode() {
+        return safeUrlMode;
+    }
+
+    /**
+     * Builds and returns the request URL for the provided avatar key. The URL is written into
+     * a single string builder presized for it.
+     *
+     * @param avatarKey the avatar key
+     * @return the built URL
+     * @throws NullPointerException     if the provided avatar key is null
+     * @throws IllegalArgumentException if the provided avatar key is empty or contains
+     *                                  invalid characters when safe URL mode is disabled
+     */
+    public String buildRequestUrl(String avatarKey) {
+        checkAvatarKey(avatarKey);
+
+        StringBuilder urlBuilder = new StringBuilder(invariantLength + avatarKey.length());
+        try {
+            appendRequestUrlUnchecked(urlBuilder, avatarKey);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw", e);
+        }
+        return urlBuilder.toString();
+    }
+
+    /**
+     * Appends the request URL for the provided avatar key to the provided appendable, such as the
+     * writer of a rendered page, without building an intermediate string.
+     *
+     * @param avatarKey  the avatar key
+     * @param appendable the appendable to append the URL to
+     * @param <T>        the type of the appendable
+     * @return the provided appendable
+     * @throws NullPointerException     if the provided avatar key or appendable is null
+     * @throws IllegalArgumentException if the provided avatar key is empty or contains
+     *                                  invalid characters when safe URL mode is disabled
+     * @throws JRoboHashException       if the provided appendable throws
+     */
+    @CanIgnoreReturnValue
+    public <T extends Appendable> T appendRequestUrl(String avatarKey, T appendable) {
+        checkAvatarKey(avatarKey);
+        Preconditions.checkNotNull(appendable);
+
+        try {
+            appendRequestUrlUnchecked(appendable, avatarKey);
+        } catch (IOException e) {
+            throw new JRoboHashException("Failed to append request URL, error: " + e.getMessage(), e);
+        }
+        return appendable;
+    }
+
+    /**
+     * Builds and returns the request URLs for the provided avatar keys, in the order of the keys.
+     *
+     * @param avatarKeys the avatar keys
+     * @return the built URLs
+     * @throws NullPointerException     if the provided avatar keys or any avatar key are null
+     * @throws IllegalArgumentException if any avatar key is empty or contains
+     *                                  invalid characters when safe URL mode is disabled
+     */
+    public ImmutableList<String> buildRequestUrls(Collection<String> avatarKeys) {
+        Preconditions.checkNotNull(avatarKeys);
+
+        ImmutableList.Builder<String> urls = ImmutableList.builderWithExpectedSize(avatarKeys.size());
+        for (String avatarKey : avatarKeys) {
+            urls.add(buildRequestUrl(avatarKey));
+        }
+        return urls.build();
+    }
+
+    /**
+     * Returns a stream of the request URLs for the provided stream of avatar keys. The returned stream is lazy
+     * and keeps the characteristics of the provided stream, thus URLs are generated in parallel if the provided
+     * stream is parallel, and in encounter order if it is ordered.
+     *
+     * @param avatarKeys the avatar keys
+     * @return a stream of the request URLs
+     * @throws NullPointerException if the provided avatar keys are null, or when consumed if any avatar key is null
+     */
+    public Stream<String> buildRequestUrls(Stream<String> avatarKeys) {
+        Preconditions.checkNotNull(avatarKeys);
+
+        return avatarKeys.map(this::buildRequestUrl);
+    }
+
+    /**
+     * Validates the provided avatar key as a {@link RoboHashRequestBuilderImpl} would.
+     *
+     * @param avatarKey the avatar key
+     * @throws NullPointerException     if the provided avatar key is null
+     * @throws IllegalArgumentException if the provided avatar key is empty or contains
+     *                                  invalid characters when safe URL mode is disabled
+     */
+    private void checkAvatarKey(String avatarKey) {
+        Preconditions.checkNotNull(avatarKey);
+        Preconditions.checkArgument(!avatarKey.isBlank());
+        if (!safeUrlMode) Preconditions.checkArgument(GeneralUtils.isValidUrlChars(avatarKey));
+    }
+
+    /**
+     * Appends the request URL for the provided validated avatar key to the provided appendable.
+     *
+     * @param appendable the appendable to append the URL to
+     * @param avatarKey  the avatar key
+     * @throws IOException if the provided appendable throws
+     */
+    private void appendRequestUrlUnchecked(Appendable appendable, String avatarKey) throws IOException {
+        appendable.append(baseUrl);
+        imageExtension.appendAsImageExtension(appendable, avatarKey);
+        appendable.append(query);
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link RoboHashUrlTemplate}.
+     *
+     * @return a {@link String} representation for this {@link RoboHashUrlTemplate}
+     */
+    @Override
+    public String toString() {
+        return "RoboHashUrlTemplate{"
+                + "baseUrl=\"" + baseUrl + "\""
+                + ", imageExtension=" + imageExtension
+                + ", query=\"" + query + "\""
+                + ", safeUrlMode=" + safeUrlMode
+                + "}";
+    }
+}
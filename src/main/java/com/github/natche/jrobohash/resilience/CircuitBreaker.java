@@ -0,0 +1,568 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.github.natche.jrobohash.exceptions.CircuitOpenException;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A circuit breaker which fails calls fast while an upstream server is unhealthy, so that an outage does not
+ * leave callers waiting on dead connections. The outcomes of recent calls are tracked in a sliding window;
+ * once enough calls were made and the share of transient failures reaches the threshold, the breaker opens and
+ * rejects calls with a {@link CircuitOpenException} without sending them. After the open duration, a limited
+ * number of trial calls are let through: if all succeed the breaker closes, otherwise it opens again.
+ * Requests the server rejects as bad count as successes, as the server is evidently responsive.
+ * The outcome of a call only affects the state if the breaker is still in the state the call was admitted in,
+ * so a call admitted while closed does not count as a trial call once it completes while half open.
+ * Instances are thread-safe.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class CircuitBreaker {
+    /**
+     * The states of a circuit breaker.
+     */
+    public enum State {
+        /**
+         * Calls are permitted and their outcomes recorded.
+         */
+        CLOSED,
+
+        /**
+         * Calls are rejected until the open duration has elapsed.
+         */
+        OPEN,
+
+        /**
+         * A limited number of trial calls are permitted to probe whether the upstream server recovered.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * The default share of failed calls within the sliding window at which the breaker opens.
+     */
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+
+    /**
+     * The default number of most recent calls the failure rate is computed over.
+     */
+    public static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+
+    /**
+     * The default minimum number of calls within the sliding window before the breaker may open.
+     */
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+
+    /**
+     * The default duration the breaker stays open before permitting trial calls.
+     */
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * The default number of trial calls permitted while half open.
+     */
+    public static final int DEFAULT_HALF_OPEN_CALLS = 1;
+
+    /**
+     * The share of failed calls within the sliding window at which the breaker opens.
+     */
+    private final double failureRateThreshold;
+
+    /**
+     * The minimum number of calls within the sliding window before the breaker may open.
+     */
+    private final int minimumCalls;
+
+    /**
+     * The duration the breaker stays open before permitting trial calls, in nanoseconds.
+     */
+    private final long openDurationNanos;
+
+    /**
+     * The number of trial calls permitted while half open.
+     */
+    private final int halfOpenCalls;
+
+    /**
+     * The source of time.
+     */
+    private final Ticker ticker;
+
+    /**
+     * The outcomes of the most recent calls, true for a failure, used as a ring.
+     */
+    private final boolean[] window;
+
+    /**
+     * The index of the slot of the window the next outcome is recorded in.
+     */
+    private int windowIndex;
+
+    /**
+     * The number of outcomes within the window.
+     */
+    private int windowCount;
+
+    /**
+     * The number of failures within the window.
+     */
+    private int windowFailures;
+
+    /**
+     * The current state.
+     */
+    private State state = State.CLOSED;
+
+    /**
+     * The number of state transitions, identifying the spell of the current state calls were admitted in.
+     */
+    private long generation;
+
+    /**
+     * The time the breaker last opened, in nanoseconds of the ticker.
+     */
+    private long openedAtNanos;
+
+    /**
+     * The number of trial calls which may still be permitted while half open.
+     */
+    private int remainingTrialCalls;
+
+    /**
+     * The number of trial calls which succeeded while half open.
+     */
+    private int successfulTrialCalls;
+
+    /**
+     * The number of calls which succeeded.
+     */
+    private long successCount;
+
+    /**
+     * The number of calls which failed transiently.
+     */
+    private long failureCount;
+
+    /**
+     * The number of calls rejected without being sent.
+     */
+    private long rejectedCount;
+
+    /**
+     * The number of times the breaker opened.
+     */
+    private long openedCount;
+
+    /**
+     * Constructs a new circuit breaker from the state of the provided builder.
+     *
+     * @param builder the builder to construct the circuit breaker from
+     */
+    private CircuitBreaker(Builder builder) {
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.minimumCalls = builder.minimumCalls;
+        this.openDurationNanos = builder.openDuration.toNanos();
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.ticker = builder.ticker;
+        this.window = new boolean[builder.slidingWindowSize];
+    }
+
+    /**
+     * Returns a new builder for a {@link CircuitBreaker}.
+     *
+     * @return a new builder for a {@link CircuitBreaker}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Performs the provided call if the breaker permits it and records its outcome.
+     *
+     * @param call the call
+     * @param <T>  the type of the result of the call
+     * @return a future which completes with the outcome of the call, or exceptionally
+     * with a {@link CircuitOpenException} if the breaker rejected the call
+     * @throws NullPointerException if the provided call is null
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        Preconditions.checkNotNull(call);
+
+        long admittedGeneration = admit();
+        if (admittedGeneration < 0) {
+            return CompletableFuture.failedFuture(
+                    new CircuitOpenException("Circuit breaker is open, upstream considered unhealthy"));
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            recordOutcome(e, admittedGeneration);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((value, throwable) -> recordOutcome(throwable, admittedGeneration));
+    }
+
+    /**
+     * Returns the generation of the current state if a call may be made now, consuming a trial call if half open.
+     *
+     * @return the generation the call was admitted in, or -1 if the call is rejected
+     */
+    private synchronized long admit() {
+        return tryAcquirePermission() ? generation : -1;
+    }
+
+    /**
+     * Returns whether a call may be made now, consuming a trial call if half open.
+     * Every permitted call must be followed by {@link #recordSuccess()} or {@link #recordFailure()}.
+     *
+     * @return whether a call may be made now
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && ticker.read() - openedAtNanos >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            generation++;
+            remainingTrialCalls = halfOpenCalls;
+            successfulTrialCalls = 0;
+        }
+
+        if (state == State.CLOSED) return true;
+        if (state == State.HALF_OPEN && remainingTrialCalls > 0) {
+            remainingTrialCalls--;
+            return true;
+        }
+
+        rejectedCount++;
+        return false;
+    }
+
+    /**
+     * Records that a permitted call succeeded.
+     */
+    public synchronized void recordSuccess() {
+        recordSuccess(generation);
+    }
+
+    /**
+     * Records that a permitted call failed transiently.
+     */
+    public synchronized void recordFailure() {
+        recordFailure(generation);
+    }
+
+    /**
+     * Records that a call admitted in the provided generation succeeded, affecting the state only
+     * if the generation is still current.
+     *
+     * @param admittedGeneration the generation the call was admitted in
+     */
+    private synchronized void recordSuccess(long admittedGeneration) {
+        successCount++;
+        if (admittedGeneration != generation) return;
+
+        if (state == State.HALF_OPEN) {
+            if (++successfulTrialCalls >= halfOpenCalls) close();
+        } else if (state == State.CLOSED) {
+            recordInWindow(false);
+        }
+    }
+
+    /**
+     * Records that a call admitted in the provided generation failed transiently, affecting the state only
+     * if the generation is still current.
+     *
+     * @param admittedGeneration the generation the call was admitted in
+     */
+    private synchronized void recordFailure(long admittedGeneration) {
+        failureCount++;
+        if (admittedGeneration != generation) return;
+
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            recordInWindow(true);
+            if (windowCount >= minimumCalls && (double) windowFailures / windowCount >= failureRateThreshold) open();
+        }
+    }
+
+    /**
+     * Returns the current state, moving to half open if the open duration has elapsed.
+     *
+     * @return the current state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && ticker.read() - openedAtNanos >= openDurationNanos) return State.HALF_OPEN;
+        return state;
+    }
+
+    /**
+     * Returns the number of calls which succeeded.
+     *
+     * @return the number of calls which succeeded
+     */
+    public synchronized long getSuccessCount() {
+        return successCount;
+    }
+
+    /**
+     * Returns the number of calls which failed transiently.
+     *
+     * @return the number of calls which failed transiently
+     */
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Returns the number of calls rejected without being sent.
+     *
+     * @return the number of calls rejected without being sent
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Returns the number of times the breaker opened.
+     *
+     * @return the number of times the breaker opened
+     */
+    public synchronized long getOpenedCount() {
+        return openedCount;
+    }
+
+    /**
+     * Records the outcome of a call given its failure, if any. A cancelled call is not recorded,
+     * rather its permission is returned.
+     *
+     * @param throwable          the failure of the call, null if it succeeded
+     * @param admittedGeneration the generation the call was admitted in
+     */
+    private void recordOutcome(Throwable throwable, long admittedGeneration) {
+        if (throwable == null) {
+            recordSuccess(admittedGeneration);
+        } else if (Failures.isCancellation(throwable)) {
+            releasePermission(admittedGeneration);
+        } else if (Failures.isTransient(throwable)) {
+            recordFailure(admittedGeneration);
+        } else {
+            recordSuccess(admittedGeneration);
+        }
+    }
+
+    /**
+     * Returns the permission of a call admitted in the provided generation which was cancelled, restoring
+     * its trial call if it was admitted as one in the current half open state.
+     *
+     * @param admittedGeneration the generation the call was admitted in
+     */
+    private synchronized void releasePermission(long admittedGeneration) {
+        if (state == State.HALF_OPEN && admittedGeneration == generation) remainingTrialCalls++;
+    }
+
+    /**
+     * Records an outcome in the sliding window, replacing the oldest outcome once the window is full.
+     *
+     * @param failure whether the call failed
+     */
+    private void recordInWindow(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) windowFailures--;
+        } else {
+            windowCount++;
+        }
+
+        window[windowIndex] = failure;
+        if (failure) windowFailures++;
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    /**
+     * Opens the breaker.
+     */
+    private void open() {
+        state = State.OPEN;
+        generation++;
+        openedAtNanos = ticker.read();
+        openedCount++;
+    }
+
+    /**
+     * Closes the breaker and clears the sliding window.
+     */
+    private void close() {
+        state = State.CLOSED;
+        generation++;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link CircuitBreaker}.
+     *
+     * @return a {@link String} representation for this {@link CircuitBreaker}
+     */
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker{"
+                + "state=" + getState()
+                + ", successCount=" + successCount
+                + ", failureCount=" + failureCount
+                + ", rejectedCount=" + rejectedCount
+                + ", openedCount=" + openedCount
+                + "}";
+    }
+
+    /**
+     * A builder for a {@link CircuitBreaker}.
+     */
+    public static final class Builder {
+        /**
+         * The share of failed calls within the sliding window at which the breaker opens.
+         */
+        private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+
+        /**
+         * The number of most recent calls the failure rate is computed over.
+         */
+        private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+
+        /**
+         * The minimum number of calls within the sliding window before the breaker may open.
+         */
+        private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+
+        /**
+         * The duration the breaker stays open before permitting trial calls.
+         */
+        private Duration openDuration = DEFAULT_OPEN_DURATION;
+
+        /**
+         * The number of trial calls permitted while half open.
+         */
+        private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+        /**
+         * The source of time.
+         */
+        private Ticker ticker = Ticker.systemTicker();
+
+        /**
+         * Constructs a new builder with the default settings.
+         */
+        private Builder() {}
+
+        /**
+         * Sets the share of failed calls within the sliding window at which the breaker opens.
+         *
+         * @param failureRateThreshold the failure rate threshold in the range (0, 1]
+         * @return this builder
+         * @throws IllegalArgumentException if the provided threshold is out of range
+         */
+        @CanIgnoreReturnValue
+        public Builder setFailureRateThreshold(double failureRateThreshold) {
+            Preconditions.checkArgument(failureRateThreshold > 0 && failureRateThreshold <= 1);
+
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the number of most recent calls the failure rate is computed over.
+         *
+         * @param slidingWindowSize the number of most recent calls the failure rate is computed over
+         * @return this builder
+         * @throws IllegalArgumentException if the provided size is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setSlidingWindowSize(int slidingWindowSize) {
+            Preconditions.checkArgument(slidingWindowSize > 0);
+
+            this.slidingWindowSize = slidingWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of calls within the sliding window before the breaker may open.
+         *
+         * @param minimumCalls the minimum number of calls before the breaker may open
+         * @return this builder
+         * @throws IllegalArgumentException if the provided minimum is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMinimumCalls(int minimumCalls) {
+            Preconditions.checkArgument(minimumCalls > 0);
+
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets the duration the breaker stays open before permitting trial calls.
+         *
+         * @param openDuration the duration the breaker stays open
+         * @return this builder
+         * @throws NullPointerException     if the provided duration is null
+         * @throws IllegalArgumentException if the provided duration is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setOpenDuration(Duration openDuration) {
+            Preconditions.checkNotNull(openDuration);
+            Preconditions.checkArgument(!openDuration.isNegative());
+
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Sets the number of trial calls permitted while half open, all of which must succeed to close the breaker.
+         *
+         * @param halfOpenCalls the number of trial calls permitted while half open
+         * @return this builder
+         * @throws IllegalArgumentException if the provided number is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setHalfOpenCalls(int halfOpenCalls) {
+            Preconditions.checkArgument(halfOpenCalls > 0);
+
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * Sets the source of time, such as a fake ticker for tests.
+         *
+         * @param ticker the source of time
+         * @return this builder
+         * @throws NullPointerException if the provided ticker is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setTicker(Ticker ticker) {
+            Preconditions.checkNotNull(ticker);
+
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link CircuitBreaker} from the state of this builder.
+         *
+         * @return a new {@link CircuitBreaker}
+         * @throws IllegalStateException if the minimum number of calls exceeds the sliding window size
+         */
+        public CircuitBreaker build() {
+            Preconditions.checkState(minimumCalls <= slidingWindowSize);
+
+            return new CircuitBreaker(this);
+        }
+    }
+}
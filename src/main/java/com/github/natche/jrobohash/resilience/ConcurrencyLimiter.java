@@ -0,0 +1,509 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * A limiter of the number of concurrent upstream calls which adapts its limit to the observed health of the
+ * server using additive increase, multiplicative decrease. While calls complete quickly and the limit is in use,
+ * the limit grows by one per call. When a call fails transiently, or takes longer than the latency tolerance
+ * times the baseline latency, the limit is multiplied by the backoff ratio. The baseline is the lowest latency
+ * of the successful calls within the current and previous baseline window, thus it follows the server as its
+ * latency drifts and a single unusually fast response is forgotten. Batch jobs thus settle near the highest
+ * concurrency the server sustains without being throttled. Calls beyond the limit wait in a queue without
+ * blocking a thread, and cancelling the future of a call dequeues or cancels it. Instances are thread-safe.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class ConcurrencyLimiter {
+    /**
+     * The default limit before any calls completed.
+     */
+    public static final int DEFAULT_INITIAL_LIMIT = 10;
+
+    /**
+     * The default lowest limit.
+     */
+    public static final int DEFAULT_MIN_LIMIT = 1;
+
+    /**
+     * The default highest limit.
+     */
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    /**
+     * The default factor the limit is multiplied by when the server shows signs of overload.
+     */
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    /**
+     * The default multiple of the lowest observed latency above which a call indicates overload.
+     */
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    /**
+     * The default number of successful calls per baseline window.
+     */
+    public static final int DEFAULT_BASELINE_WINDOW = 100;
+
+    /**
+     * The lowest limit.
+     */
+    private final int minLimit;
+
+    /**
+     * The highest limit.
+     */
+    private final int maxLimit;
+
+    /**
+     * The factor the limit is multiplied by when the server shows signs of overload.
+     */
+    private final double backoffRatio;
+
+    /**
+     * The multiple of the lowest observed latency above which a call indicates overload.
+     */
+    private final double latencyTolerance;
+
+    /**
+     * The number of successful calls per baseline window.
+     */
+    private final int baselineWindow;
+
+    /**
+     * The source of time.
+     */
+    private final Ticker ticker;
+
+    /**
+     * The calls waiting for the number of calls in flight to drop below the limit.
+     */
+    private final ArrayDeque<Runnable> waitingCalls = new ArrayDeque<>();
+
+    /**
+     * The current limit, fractional so that repeated backoff stays proportional.
+     */
+    private double limit;
+
+    /**
+     * The number of calls in flight.
+     */
+    private int inFlight;
+
+    /**
+     * The lowest latency of the successful calls within the current baseline window, in nanoseconds.
+     */
+    private long windowMinLatencyNanos = Long.MAX_VALUE;
+
+    /**
+     * The lowest latency of the successful calls within the previous baseline window, in nanoseconds.
+     */
+    private long previousWindowMinLatencyNanos = Long.MAX_VALUE;
+
+    /**
+     * The number of successful calls within the current baseline window.
+     */
+    private int windowSamples;
+
+    /**
+     * The number of times the limit was decreased.
+     */
+    private long backoffCount;
+
+    /**
+     * Constructs a new limiter from the state of the provided builder.
+     *
+     * @param builder the builder to construct the limiter from
+     */
+    private ConcurrencyLimiter(Builder builder) {
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.latencyTolerance = builder.latencyTolerance;
+        this.baselineWindow = builder.baselineWindow;
+        this.ticker = builder.ticker;
+        this.limit = builder.initialLimit;
+    }
+
+    /**
+     * Returns a new builder for a {@link ConcurrencyLimiter}.
+     *
+     * @return a new builder for a {@link ConcurrencyLimiter}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Performs the provided call once the number of calls in flight is below the limit, and adjusts
+     * the limit from its outcome and latency. Cancelling the returned future removes the call from
+     * the queue if it is waiting, and otherwise cancels the future the call returned.
+     *
+     * @param call the call
+     * @param <T>  the type of the result of the call
+     * @return a future which completes with the outcome of the call
+     * @throws NullPointerException if the provided call is null
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        Preconditions.checkNotNull(call);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> startedCall = new AtomicReference<>();
+        Runnable start = () -> start(call, result, startedCall);
+
+        boolean permitted;
+        synchronized (this) {
+            permitted = inFlight < getLimit();
+            if (permitted) {
+                inFlight++;
+            } else {
+                waitingCalls.add(start);
+            }
+        }
+
+        result.whenComplete((value, throwable) -> {
+            if (!result.isCancelled()) return;
+
+            boolean dequeued;
+            synchronized (this) {
+                dequeued = waitingCalls.remove(start);
+            }
+            CompletableFuture<T> future = startedCall.get();
+            if (!dequeued && future != null) future.cancel(true);
+        });
+
+        if (permitted) start.run();
+        return result;
+    }
+
+    /**
+     * Performs the provided permitted call and completes the provided result with its outcome. If the result
+     * was cancelled before the call started, the call is skipped and its permit returned.
+     *
+     * @param call        the call
+     * @param result      the future to complete with the outcome of the call
+     * @param startedCall the reference to set to the future the call returned
+     * @param <T>         the type of the result of the call
+     */
+    private <T> void start(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result,
+                           AtomicReference<CompletableFuture<T>> startedCall) {
+        if (result.isCancelled()) {
+            complete(0, null, false);
+            return;
+        }
+
+        long startNanos = ticker.read();
+
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            complete(ticker.read() - startNanos, e, true);
+            result.completeExceptionally(e);
+            return;
+        }
+
+        startedCall.set(future);
+        if (result.isCancelled()) future.cancel(true);
+        future.whenComplete((value, throwable) -> {
+            complete(ticker.read() - startNanos, throwable, true);
+            if (throwable == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(Failures.unwrap(throwable));
+            }
+        });
+    }
+
+    /**
+     * Records the completion of a call, adjusts the limit and starts waiting calls the limit now permits.
+     * Only successful calls are sampled for the baseline latency. Calls failing for reasons other than
+     * an unhealthy server, and cancelled calls, say nothing about its latency and leave the baseline as is.
+     *
+     * @param latencyNanos the latency of the call in nanoseconds
+     * @param throwable    the failure of the call, null if it succeeded
+     * @param performed    whether the call was performed, false if it was cancelled before it started
+     */
+    private void complete(long latencyNanos, Throwable throwable, boolean performed) {
+        List<Runnable> permittedCalls = new ArrayList<>();
+
+        synchronized (this) {
+            boolean saturated = inFlight * 2 >= getLimit();
+            inFlight--;
+
+            if (performed && (throwable == null || !Failures.isCancellation(throwable))) {
+                boolean overloaded;
+                if (throwable == null) {
+                    overloaded = latencyNanos > getBaselineLatencyNanos() * latencyTolerance;
+                    sampleLatency(latencyNanos);
+                } else {
+                    overloaded = Failures.isTransient(throwable);
+                }
+
+                if (overloaded) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    backoffCount++;
+                } else if (saturated) {
+                    limit = Math.min(maxLimit, limit + 1);
+                }
+            }
+
+            while (inFlight < getLimit() && !waitingCalls.isEmpty()) {
+                inFlight++;
+                permittedCalls.add(waitingCalls.poll());
+            }
+        }
+
+        permittedCalls.forEach(Runnable::run);
+    }
+
+    /**
+     * Returns the baseline latency, the lowest latency of the successful calls within the current
+     * and previous baseline window.
+     *
+     * @return the baseline latency in nanoseconds, {@link Long#MAX_VALUE} before any call succeeded
+     */
+    private long getBaselineLatencyNanos() {
+        return Math.min(windowMinLatencyNanos, previousWindowMinLatencyNanos);
+    }
+
+    /**
+     * Samples the latency of a successful call for the baseline, starting a new baseline window once
+     * the current one is full.
+     *
+     * @param latencyNanos the latency of the call in nanoseconds
+     */
+    private void sampleLatency(long latencyNanos) {
+        windowMinLatencyNanos = Math.min(windowMinLatencyNanos, latencyNanos);
+        if (++windowSamples < baselineWindow) return;
+
+        previousWindowMinLatencyNanos = windowMinLatencyNanos;
+        windowMinLatencyNanos = Long.MAX_VALUE;
+        windowSamples = 0;
+    }
+
+    /**
+     * Returns the current maximum number of calls in flight.
+     *
+     * @return the current maximum number of calls in flight
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of calls in flight.
+     *
+     * @return the number of calls in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Returns the number of calls waiting for the number of calls in flight to drop below the limit.
+     *
+     * @return the number of waiting calls
+     */
+    public synchronized int getWaitingCount() {
+        return waitingCalls.size();
+    }
+
+    /**
+     * Returns the number of times the limit was decreased.
+     *
+     * @return the number of times the limit was decreased
+     */
+    public synchronized long getBackoffCount() {
+        return backoffCount;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link ConcurrencyLimiter}.
+     *
+     * @return a {@link String} representation for this {@link ConcurrencyLimiter}
+     */
+    @Override
+    public synchronized String toString() {
+        return "ConcurrencyLimiter{"
+                + "limit=" + getLimit()
+                + ", inFlight=" + inFlight
+                + ", waitingCount=" + waitingCalls.size()
+                + ", backoffCount=" + backoffCount
+                + "}";
+    }
+
+    /**
+     * A builder for a {@link ConcurrencyLimiter}.
+     */
+    public static final class Builder {
+        /**
+         * The limit before any calls completed.
+         */
+        private int initialLimit = DEFAULT_INITIAL_LIMIT;
+
+        /**
+         * The lowest limit.
+         */
+        private int minLimit = DEFAULT_MIN_LIMIT;
+
+        /**
+         * The highest limit.
+         */
+        private int maxLimit = DEFAULT_MAX_LIMIT;
+
+        /**
+         * The factor the limit is multiplied by when the server shows signs of overload.
+         */
+        private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+
+        /**
+         * The multiple of the lowest observed latency above which a call indicates overload.
+         */
+        private double latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+
+        /**
+         * The number of successful calls per baseline window.
+         */
+        private int baselineWindow = DEFAULT_BASELINE_WINDOW;
+
+        /**
+         * The source of time.
+         */
+        private Ticker ticker = Ticker.systemTicker();
+
+        /**
+         * Constructs a new builder with the default settings.
+         */
+        private Builder() {}
+
+        /**
+         * Sets the limit before any calls completed.
+         *
+         * @param initialLimit the initial limit
+         * @return this builder
+         * @throws IllegalArgumentException if the provided limit is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setInitialLimit(int initialLimit) {
+            Preconditions.checkArgument(initialLimit > 0);
+
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Sets the lowest limit.
+         *
+         * @param minLimit the lowest limit
+         * @return this builder
+         * @throws IllegalArgumentException if the provided limit is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMinLimit(int minLimit) {
+            Preconditions.checkArgument(minLimit > 0);
+
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * Sets the highest limit.
+         *
+         * @param maxLimit the highest limit
+         * @return this builder
+         * @throws IllegalArgumentException if the provided limit is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxLimit(int maxLimit) {
+            Preconditions.checkArgument(maxLimit > 0);
+
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Sets the factor the limit is multiplied by when the server shows signs of overload.
+         *
+         * @param backoffRatio the backoff ratio in the range (0, 1)
+         * @return this builder
+         * @throws IllegalArgumentException if the provided ratio is out of range
+         */
+        @CanIgnoreReturnValue
+        public Builder setBackoffRatio(double backoffRatio) {
+            Preconditions.checkArgument(backoffRatio > 0 && backoffRatio < 1);
+
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Sets the multiple of the lowest observed latency above which a call indicates overload.
+         *
+         * @param latencyTolerance the latency tolerance of at least one
+         * @return this builder
+         * @throws IllegalArgumentException if the provided tolerance is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setLatencyTolerance(double latencyTolerance) {
+            Preconditions.checkArgument(latencyTolerance >= 1);
+
+            this.latencyTolerance = latencyTolerance;
+            return this;
+        }
+
+        /**
+         * Sets the number of successful calls per baseline window. The baseline latency is the lowest latency
+         * within the current and previous window, thus an observed latency is forgotten after at most twice
+         * this many successful calls.
+         *
+         * @param baselineWindow the number of successful calls per baseline window
+         * @return this builder
+         * @throws IllegalArgumentException if the provided window is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setBaselineWindow(int baselineWindow) {
+            Preconditions.checkArgument(baselineWindow > 0);
+
+            this.baselineWindow = baselineWindow;
+            return this;
+        }
+
+        /**
+         * Sets the source of time, such as a fake ticker for tests.
+         *
+         * @param ticker the source of time
+         * @return this builder
+         * @throws NullPointerException if the provided ticker is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setTicker(Ticker ticker) {
+            Preconditions.checkNotNull(ticker);
+
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link ConcurrencyLimiter} from the state of this builder.
+         *
+         * @return a new {@link ConcurrencyLimiter}
+         * @throws IllegalStateException if the initial limit is not between the lowest and highest limit
+         */
+        public ConcurrencyLimiter build() {
+            Preconditions.checkState(minLimit <= initialLimit && initialLimit <= maxLimit);
+
+            return new ConcurrencyLimiter(this);
+        }
+    }
+}
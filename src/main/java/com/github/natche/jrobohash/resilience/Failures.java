@@ -0,0 +1,78 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.github.natche.jrobohash.exceptions.CircuitOpenException;
+import com.github.natche.jrobohash.exceptions.RequestTimeoutException;
+import com.github.natche.jrobohash.exceptions.UpstreamStatusException;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Utility methods for classifying the failures of upstream calls.
+ */
+final class Failures {
+    /**
+     * Suppress default constructor to prevent instantiation via reflection.
+     *
+     * @throws AssertionError if invoked
+     */
+    private Failures() {
+        throw new AssertionError("Cannot create instances of Failures");
+    }
+
+    /**
+     * Returns the provided throwable without any {@link CompletionException} or {@link ExecutionException} wrapping.
+     *
+     * @param throwable the throwable
+     * @return the underlying throwable
+     */
+    static Throwable unwrap(Throwable throwable) {
+        Throwable unwrapped = throwable;
+        while ((unwrapped instanceof CompletionException || unwrapped instanceof ExecutionException)
+                && unwrapped.getCause() != null) {
+            unwrapped = unwrapped.getCause();
+        }
+        return unwrapped;
+    }
+
+    /**
+     * Returns whether the provided failure indicates an unhealthy upstream server rather than a bad request,
+     * namely a transport failure, a timeout of the transport, a server error, or a request rejected for
+     * exceeding a rate limit. A passed deadline is not transient, as no later attempt can meet it.
+     *
+     * @param throwable the failure
+     * @return whether the provided failure is transient and the same request may later succeed
+     */
+    static boolean isTransient(Throwable throwable) {
+        Throwable failure = unwrap(throwable);
+        if (failure instanceof CircuitOpenException) return false;
+        if (failure instanceof RequestTimeoutException) return !isDeadlineExceeded(failure);
+        if (failure instanceof UpstreamStatusException) return ((UpstreamStatusException) failure).isTransient();
+        return failure instanceof IOException || failure.getCause() instanceof IOException;
+    }
+
+    /**
+     * Returns whether the provided failure is the cancellation of a call, including a call aborted locally
+     * once its deadline passed, which says nothing about the health of the upstream server and is thus
+     * neither a success nor a failure.
+     *
+     * @param throwable the failure
+     * @return whether the provided failure is a cancellation
+     */
+    static boolean isCancellation(Throwable throwable) {
+        Throwable failure = unwrap(throwable);
+        return failure instanceof CancellationException || isDeadlineExceeded(failure);
+    }
+
+    /**
+     * Returns whether the provided unwrapped failure is a {@link RequestTimeoutException} for a passed deadline.
+     *
+     * @param failure the unwrapped failure
+     * @return whether the provided failure is a passed deadline
+     */
+    private static boolean isDeadlineExceeded(Throwable failure) {
+        return failure instanceof RequestTimeoutException && ((RequestTimeoutException) failure).isDeadlineExceeded();
+    }
+}
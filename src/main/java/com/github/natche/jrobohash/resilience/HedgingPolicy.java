@@ -0,0 +1,534 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A policy hedging idempotent upstream calls to cut tail latency. When a call has not completed within the hedge
+ * delay, a duplicate call is sent and whichever completes successfully first wins, while the other is cancelled.
+ * The hedge delay is the configured percentile of recently observed latencies, thus only the slowest calls are
+ * hedged. Latencies are those of the first request of each call; when a hedge wins, the time the first request
+ * had taken until then is recorded as a censored sample, a lower bound of its latency, so that the slow requests
+ * hedging cuts short still raise the hedge delay. A budget caps the extra load: every call earns a fraction of
+ * a hedge, and a hedge is only sent while a whole one was earned, up to a maximum burst, and while the hedge
+ * admission of the call, such as a rate limiter, admits it. Instances are thread-safe.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class HedgingPolicy {
+    /**
+     * The default percentile of observed latencies after which a call is hedged.
+     */
+    public static final double DEFAULT_PERCENTILE = 0.95;
+
+    /**
+     * The default hedge delay until enough latencies were observed.
+     */
+    public static final Duration DEFAULT_INITIAL_DELAY = Duration.ofMillis(500);
+
+    /**
+     * The default lowest hedge delay.
+     */
+    public static final Duration DEFAULT_MIN_DELAY = Duration.ofMillis(10);
+
+    /**
+     * The default number of hedges earned per call.
+     */
+    public static final double DEFAULT_BUDGET_RATIO = 0.1;
+
+    /**
+     * The default maximum number of hedges which may be earned ahead of time.
+     */
+    public static final int DEFAULT_MAX_BURST = 10;
+
+    /**
+     * The number of most recent latencies the hedge delay is computed from.
+     */
+    private static final int LATENCY_SAMPLE_SIZE = 256;
+
+    /**
+     * The number of latencies which must be observed before the hedge delay is derived from them.
+     */
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    /**
+     * The percentile of observed latencies after which a call is hedged.
+     */
+    private final double percentile;
+
+    /**
+     * The hedge delay until enough latencies were observed, in nanoseconds.
+     */
+    private final long initialDelayNanos;
+
+    /**
+     * The lowest hedge delay, in nanoseconds.
+     */
+    private final long minDelayNanos;
+
+    /**
+     * The number of hedges earned per call.
+     */
+    private final double budgetRatio;
+
+    /**
+     * The maximum number of hedges which may be earned ahead of time.
+     */
+    private final int maxBurst;
+
+    /**
+     * The source of time.
+     */
+    private final Ticker ticker;
+
+    /**
+     * The most recent latencies of the first requests of calls in nanoseconds, used as a ring.
+     */
+    private final long[] latencies = new long[LATENCY_SAMPLE_SIZE];
+
+    /**
+     * The number of latencies observed.
+     */
+    private long latencyCount;
+
+    /**
+     * The number of hedges currently earned.
+     */
+    private double budget;
+
+    /**
+     * The number of calls performed.
+     */
+    private long callCount;
+
+    /**
+     * The number of hedges sent.
+     */
+    private long hedgeCount;
+
+    /**
+     * The number of hedges which completed before the call they duplicated.
+     */
+    private long hedgeWinCount;
+
+    /**
+     * Constructs a new hedging policy from the state of the provided builder.
+     *
+     * @param builder the builder to construct the policy from
+     */
+    private HedgingPolicy(Builder builder) {
+        this.percentile = builder.percentile;
+        this.initialDelayNanos = builder.initialDelay.toNanos();
+        this.minDelayNanos = builder.minDelay.toNanos();
+        this.budgetRatio = builder.budgetRatio;
+        this.maxBurst = builder.maxBurst;
+        this.ticker = builder.ticker;
+        this.budget = builder.maxBurst;
+    }
+
+    /**
+     * Returns a new builder for a {@link HedgingPolicy}.
+     *
+     * @return a new builder for a {@link HedgingPolicy}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Performs the provided call, sending a duplicate if it has not completed within the hedge delay and the
+     * budget permits. The call is expected to be idempotent, and to abort its work when its future is cancelled.
+     *
+     * @param call the call, invoked once per sent request
+     * @param <T>  the type of the result of the call
+     * @return a future which completes with the result of the first successful request, or exceptionally
+     * with the failure of the last request if all fail
+     * @throws NullPointerException if the provided call is null
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        return execute(call, () -> true);
+    }
+
+    /**
+     * Performs the provided call as {@link #execute(Supplier)} does, sending a duplicate only if the provided
+     * admission also admits it, such as by taking a token of a rate limiter. The admission is consulted only
+     * once the budget holds a whole hedge, and a hedge it rejects is neither sent nor spent.
+     *
+     * @param call           the call, invoked once per sent request
+     * @param hedgeAdmission whether a hedge may be sent, consulted once per hedge about to be sent
+     * @param <T>            the type of the result of the call
+     * @return a future which completes with the result of the first successful request, or exceptionally
+     * with the failure of the last request if all fail
+     * @throws NullPointerException if the provided call or admission is null
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call, BooleanSupplier hedgeAdmission) {
+        Preconditions.checkNotNull(call);
+        Preconditions.checkNotNull(hedgeAdmission);
+
+        long delayNanos;
+        synchronized (this) {
+            callCount++;
+            budget = Math.min(maxBurst, budget + budgetRatio);
+            delayNanos = getHedgeDelay().toNanos();
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        List<CompletableFuture<T>> requests = new CopyOnWriteArrayList<>();
+        AtomicInteger pendingRequests = new AtomicInteger(1);
+        result.whenComplete((value, throwable) -> requests.forEach(request -> request.cancel(true)));
+
+        Call<T> state = new Call<>(result, requests, pendingRequests, ticker.read());
+        send(call, false, state);
+        if (!result.isDone()) {
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                if (result.isDone() || !tryAcquireHedge(hedgeAdmission)) return;
+
+                pendingRequests.incrementAndGet();
+                send(call, true, state);
+            });
+        }
+
+        return result;
+    }
+
+    /**
+     * Sends a request of the provided call and completes the result of the call with it if it succeeds first,
+     * or if it is the last of the sent requests to fail. The latency of the first request is recorded once it
+     * succeeds, or once a hedge wins as the time it had taken until then.
+     *
+     * @param call  the call
+     * @param hedge whether the request is a hedge
+     * @param state the state of the call
+     * @param <T>   the type of the result of the call
+     */
+    private <T> void send(Supplier<CompletableFuture<T>> call, boolean hedge, Call<T> state) {
+        CompletableFuture<T> result = state.result;
+        List<CompletableFuture<T>> requests = state.requests;
+
+        CompletableFuture<T> request;
+        try {
+            request = call.get();
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+
+        requests.add(request);
+        if (result.isDone()) request.cancel(true);
+
+        request.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                if (!hedge) recordFirstRequestLatency(state);
+                if (result.complete(value) && hedge) {
+                    recordFirstRequestLatency(state);
+                    recordHedgeWin();
+                }
+            } else if (state.pendingRequests.decrementAndGet() == 0) {
+                result.completeExceptionally(Failures.unwrap(throwable));
+            }
+        });
+    }
+
+    /**
+     * Spends a hedge of the budget if a whole one was earned and the provided admission admits it.
+     *
+     * @param hedgeAdmission whether a hedge may be sent
+     * @return whether a hedge may be sent
+     */
+    private synchronized boolean tryAcquireHedge(BooleanSupplier hedgeAdmission) {
+        if (budget < 1 || !hedgeAdmission.getAsBoolean()) return false;
+
+        budget--;
+        hedgeCount++;
+        return true;
+    }
+
+    /**
+     * Records the time the first request of the provided call has taken until now, once per call.
+     *
+     * @param state the state of the call
+     */
+    private void recordFirstRequestLatency(Call<?> state) {
+        if (state.sampled.compareAndSet(false, true)) recordLatency(ticker.read() - state.startNanos);
+    }
+
+    /**
+     * Records the latency of the first request of a call, or a lower bound of it if a hedge won.
+     *
+     * @param latencyNanos the latency in nanoseconds
+     */
+    private synchronized void recordLatency(long latencyNanos) {
+        latencies[(int) (latencyCount++ % LATENCY_SAMPLE_SIZE)] = latencyNanos;
+    }
+
+    /**
+     * Records that a hedge completed before the call it duplicated.
+     */
+    private synchronized void recordHedgeWin() {
+        hedgeWinCount++;
+    }
+
+    /**
+     * Returns the delay after which a call is currently hedged, the configured percentile of recently observed
+     * latencies, or the initial delay until enough latencies were observed.
+     *
+     * @return the delay after which a call is currently hedged
+     */
+    public synchronized Duration getHedgeDelay() {
+        if (latencyCount < MIN_LATENCY_SAMPLES) return Duration.ofNanos(initialDelayNanos);
+
+        int sampleCount = (int) Math.min(latencyCount, LATENCY_SAMPLE_SIZE);
+        long[] sortedLatencies = Arrays.copyOf(latencies, sampleCount);
+        Arrays.sort(sortedLatencies);
+        int index = Math.min(sampleCount - 1, (int) Math.ceil(percentile * sampleCount) - 1);
+        return Duration.ofNanos(Math.max(minDelayNanos, sortedLatencies[Math.max(0, index)]));
+    }
+
+    /**
+     * Returns the number of calls performed.
+     *
+     * @return the number of calls performed
+     */
+    public synchronized long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * Returns the number of hedges sent.
+     *
+     * @return the number of hedges sent
+     */
+    public synchronized long getHedgeCount() {
+        return hedgeCount;
+    }
+
+    /**
+     * Returns the number of hedges which completed before the call they duplicated.
+     *
+     * @return the number of hedges which completed before the call they duplicated
+     */
+    public synchronized long getHedgeWinCount() {
+        return hedgeWinCount;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link HedgingPolicy}.
+     *
+     * @return a {@link String} representation for this {@link HedgingPolicy}
+     */
+    @Override
+    public synchronized String toString() {
+        return "HedgingPolicy{"
+                + "percentile=" + percentile
+                + ", hedgeDelay=" + getHedgeDelay()
+                + ", callCount=" + callCount
+                + ", hedgeCount=" + hedgeCount
+                + ", hedgeWinCount=" + hedgeWinCount
+                + "}";
+    }
+
+    /**
+     * The state of a call, shared by its first request and its hedge.
+     *
+     * @param <T> the type of the result of the call
+     */
+    private static final class Call<T> {
+        /**
+         * The future to complete with the outcome of the call.
+         */
+        private final CompletableFuture<T> result;
+
+        /**
+         * The requests sent for the call, cancelled once the result completes.
+         */
+        private final List<CompletableFuture<T>> requests;
+
+        /**
+         * The number of sent requests which have not failed.
+         */
+        private final AtomicInteger pendingRequests;
+
+        /**
+         * The time the first request was sent at, in nanoseconds of the ticker.
+         */
+        private final long startNanos;
+
+        /**
+         * Whether the latency of the first request was recorded.
+         */
+        private final AtomicBoolean sampled = new AtomicBoolean();
+
+        /**
+         * Constructs the state of a new call.
+         *
+         * @param result          the future to complete with the outcome of the call
+         * @param requests        the requests sent for the call
+         * @param pendingRequests the number of sent requests which have not failed
+         * @param startNanos      the time the first request was sent at
+         */
+        private Call(CompletableFuture<T> result, List<CompletableFuture<T>> requests,
+                     AtomicInteger pendingRequests, long startNanos) {
+            this.result = result;
+            this.requests = requests;
+            this.pendingRequests = pendingRequests;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * A builder for a {@link HedgingPolicy}.
+     */
+    public static final class Builder {
+        /**
+         * The percentile of observed latencies after which a call is hedged.
+         */
+        private double percentile = DEFAULT_PERCENTILE;
+
+        /**
+         * The hedge delay until enough latencies were observed.
+         */
+        private Duration initialDelay = DEFAULT_INITIAL_DELAY;
+
+        /**
+         * The lowest hedge delay.
+         */
+        private Duration minDelay = DEFAULT_MIN_DELAY;
+
+        /**
+         * The number of hedges earned per call.
+         */
+        private double budgetRatio = DEFAULT_BUDGET_RATIO;
+
+        /**
+         * The maximum number of hedges which may be earned ahead of time.
+         */
+        private int maxBurst = DEFAULT_MAX_BURST;
+
+        /**
+         * The source of time.
+         */
+        private Ticker ticker = Ticker.systemTicker();
+
+        /**
+         * Constructs a new builder with the default settings.
+         */
+        private Builder() {}
+
+        /**
+         * Sets the percentile of observed latencies after which a call is hedged.
+         *
+         * @param percentile the percentile in the range (0, 1)
+         * @return this builder
+         * @throws IllegalArgumentException if the provided percentile is out of range
+         */
+        @CanIgnoreReturnValue
+        public Builder setPercentile(double percentile) {
+            Preconditions.checkArgument(percentile > 0 && percentile < 1);
+
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the hedge delay used until enough latencies were observed.
+         *
+         * @param initialDelay the initial hedge delay
+         * @return this builder
+         * @throws NullPointerException     if the provided delay is null
+         * @throws IllegalArgumentException if the provided delay is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setInitialDelay(Duration initialDelay) {
+            Preconditions.checkNotNull(initialDelay);
+            Preconditions.checkArgument(!initialDelay.isNegative());
+
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        /**
+         * Sets the lowest hedge delay, which keeps a fast server from being hedged on noise.
+         *
+         * @param minDelay the lowest hedge delay
+         * @return this builder
+         * @throws NullPointerException     if the provided delay is null
+         * @throws IllegalArgumentException if the provided delay is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setMinDelay(Duration minDelay) {
+            Preconditions.checkNotNull(minDelay);
+            Preconditions.checkArgument(!minDelay.isNegative());
+
+            this.minDelay = minDelay;
+            return this;
+        }
+
+        /**
+         * Sets the number of hedges earned per call, which caps the extra load of hedging
+         * at this fraction of the calls.
+         *
+         * @param budgetRatio the number of hedges earned per call in the range (0, 1]
+         * @return this builder
+         * @throws IllegalArgumentException if the provided ratio is out of range
+         */
+        @CanIgnoreReturnValue
+        public Builder setBudgetRatio(double budgetRatio) {
+            Preconditions.checkArgument(budgetRatio > 0 && budgetRatio <= 1);
+
+            this.budgetRatio = budgetRatio;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of hedges which may be earned ahead of time, all of which are
+         * available to the first calls.
+         *
+         * @param maxBurst the maximum number of hedges earned ahead of time
+         * @return this builder
+         * @throws IllegalArgumentException if the provided maximum is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxBurst(int maxBurst) {
+            Preconditions.checkArgument(maxBurst > 0);
+
+            this.maxBurst = maxBurst;
+            return this;
+        }
+
+        /**
+         * Sets the source of time, such as a fake ticker for tests.
+         *
+         * @param ticker the source of time
+         * @return this builder
+         * @throws NullPointerException if the provided ticker is null
+         */
+        @CanIgnoreReturnValue
+        public Builder setTicker(Ticker ticker) {
+            Preconditions.checkNotNull(ticker);
+
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link HedgingPolicy} from the state of this builder.
+         *
+         * @return a new {@link HedgingPolicy}
+         */
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A policy retrying idempotent upstream calls which fail transiently, such as on a dropped connection or a
+ * server error. Delays between attempts follow decorrelated jitter: each delay is drawn uniformly between the
+ * base delay and three times the previous delay, capped at the maximum delay. This spreads out the retries of
+ * many callers failing at once so they do not hammer a recovering server in lockstep. Requests the server
+ * rejects as bad are never retried, nor are calls whose deadline passed. Instances are thread-safe and count
+ * the retries they perform.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class RetryPolicy {
+    /**
+     * The default maximum number of attempts per call, including the first.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * The default minimum delay between attempts.
+     */
+    public static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(100);
+
+    /**
+     * The default maximum delay between attempts.
+     */
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(2);
+
+    /**
+     * The maximum number of attempts per call, including the first.
+     */
+    private final int maxAttempts;
+
+    /**
+     * The minimum delay between attempts.
+     */
+    private final Duration baseDelay;
+
+    /**
+     * The maximum delay between attempts.
+     */
+    private final Duration maxDelay;
+
+    /**
+     * The number of retries performed.
+     */
+    private final AtomicLong retryCount = new AtomicLong();
+
+    /**
+     * The number of calls which failed transiently on every attempt.
+     */
+    private final AtomicLong exhaustedCount = new AtomicLong();
+
+    /**
+     * Constructs a new retry policy from the state of the provided builder.
+     *
+     * @param builder the builder to construct the policy from
+     */
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelay = builder.baseDelay;
+        this.maxDelay = builder.maxDelay;
+    }
+
+    /**
+     * Returns a new builder for a {@link RetryPolicy}.
+     *
+     * @return a new builder for a {@link RetryPolicy}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Performs the provided call, retrying it after a delay while it fails transiently and attempts remain.
+     * The call is expected to be idempotent.
+     *
+     * @param call the call, invoked once per attempt
+     * @param <T>  the type of the result of the call
+     * @return a future which completes with the result of the first successful attempt, or exceptionally
+     * with the failure of the last attempt
+     * @throws NullPointerException if the provided call is null
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        Preconditions.checkNotNull(call);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(call, 1, baseDelay, () -> Long.MAX_VALUE, result);
+        return result;
+    }
+
+    /**
+     * Performs the provided call, retrying it after a delay while it fails transiently, attempts remain
+     * and the provided timeout has not elapsed. The delay before a retry is cut short to the time remaining,
+     * and no retry is made once the timeout elapsed. The call is expected to be idempotent.
+     *
+     * @param call    the call, invoked once per attempt
+     * @param timeout the time within which retries may be made, starting now
+     * @param <T>     the type of the result of the call
+     * @return a future which completes with the result of the first successful attempt, or exceptionally
+     * with the failure of the last attempt
+     * @throws NullPointerException     if the provided call or timeout are null
+     * @throws IllegalArgumentException if the provided timeout is negative
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call, Duration timeout) {
+        Preconditions.checkNotNull(call);
+        Preconditions.checkNotNull(timeout);
+        Preconditions.checkArgument(!timeout.isNegative());
+
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(call, 1, baseDelay, () -> deadlineNanos - System.nanoTime(), result);
+        return result;
+    }
+
+    /**
+     * Performs an attempt of the provided call and completes the provided result with its outcome
+     * unless another attempt is scheduled.
+     *
+     * @param call           the call
+     * @param attempt        the number of this attempt, starting at one
+     * @param previousDelay  the delay before this attempt, or the base delay for the first attempt
+     * @param remainingNanos the source of the time remaining for retries, in nanoseconds
+     * @param result         the future to complete with the outcome of the call
+     * @param <T>            the type of the result of the call
+     */
+    private <T> void attempt(Supplier<CompletableFuture<T>> call, int attempt, Duration previousDelay,
+                             LongSupplier remainingNanos, CompletableFuture<T> result) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+
+        future.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                result.complete(value);
+                return;
+            }
+
+            Throwable failure = Failures.unwrap(throwable);
+            long remaining = remainingNanos.getAsLong();
+            if (!Failures.isTransient(failure) || remaining <= 0) {
+                result.completeExceptionally(failure);
+            } else if (attempt >= maxAttempts) {
+                exhaustedCount.incrementAndGet();
+                result.completeExceptionally(failure);
+            } else {
+                retryCount.incrementAndGet();
+                Duration delay = nextDelay(previousDelay);
+                long delayNanos = Math.min(delay.toNanos(), remaining);
+                CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS)
+                        .execute(() -> attempt(call, attempt + 1, delay, remainingNanos, result));
+            }
+        });
+    }
+
+    /**
+     * Returns the delay before the next attempt given the delay before the previous attempt,
+     * drawn uniformly between the base delay and three times the previous delay and capped at the maximum delay.
+     *
+     * @param previousDelay the delay before the previous attempt
+     * @return the delay before the next attempt
+     * @throws NullPointerException if the provided delay is null
+     */
+    public Duration nextDelay(Duration previousDelay) {
+        Preconditions.checkNotNull(previousDelay);
+
+        long base = baseDelay.toNanos();
+        long upper = Math.max(base, Math.min(maxDelay.toNanos(), previousDelay.toNanos()) * 3);
+        long delay = base + ThreadLocalRandom.current().nextLong(upper - base + 1);
+        return Duration.ofNanos(Math.min(delay, maxDelay.toNanos()));
+    }
+
+    /**
+     * Returns the maximum number of attempts per call, including the first.
+     *
+     * @return the maximum number of attempts per call
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns the minimum delay between attempts.
+     *
+     * @return the minimum delay between attempts
+     */
+    public Duration getBaseDelay() {
+        return baseDelay;
+    }
+
+    /**
+     * Returns the maximum delay between attempts.
+     *
+     * @return the maximum delay between attempts
+     */
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Returns the number of retries performed.
+     *
+     * @return the number of retries performed
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Returns the number of calls which failed transiently on every attempt.
+     *
+     * @return the number of calls which failed transiently on every attempt
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount.get();
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link RetryPolicy}.
+     *
+     * @return a {@link String} representation for this {@link RetryPolicy}
+     */
+    @Override
+    public String toString() {
+        return "RetryPolicy{"
+                + "maxAttempts=" + maxAttempts
+                + ", baseDelay=" + baseDelay
+                + ", maxDelay=" + maxDelay
+                + ", retryCount=" + retryCount.get()
+                + ", exhaustedCount=" + exhaustedCount.get()
+                + "}";
+    }
+
+    /**
+     * A builder for a {@link RetryPolicy}.
+     */
+    public static final class Builder {
+        /**
+         * The maximum number of attempts per call, including the first.
+         */
+        private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+        /**
+         * The minimum delay between attempts.
+         */
+        private Duration baseDelay = DEFAULT_BASE_DELAY;
+
+        /**
+         * The maximum delay between attempts.
+         */
+        private Duration maxDelay = DEFAULT_MAX_DELAY;
+
+        /**
+         * Constructs a new builder with the default settings.
+         */
+        private Builder() {}
+
+        /**
+         * Sets the maximum number of attempts per call, including the first.
+         *
+         * @param maxAttempts the maximum number of attempts per call
+         * @return this builder
+         * @throws IllegalArgumentException if the provided maximum is less than one
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxAttempts(int maxAttempts) {
+            Preconditions.checkArgument(maxAttempts > 0);
+
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the minimum delay between attempts.
+         *
+         * @param baseDelay the minimum delay between attempts
+         * @return this builder
+         * @throws NullPointerException     if the provided delay is null
+         * @throws IllegalArgumentException if the provided delay is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setBaseDelay(Duration baseDelay) {
+            Preconditions.checkNotNull(baseDelay);
+            Preconditions.checkArgument(!baseDelay.isNegative());
+
+            this.baseDelay = baseDelay;
+            return this;
+        }
+
+        /**
+         * Sets the maximum delay between attempts.
+         *
+         * @param maxDelay the maximum delay between attempts
+         * @return this builder
+         * @throws NullPointerException     if the provided delay is null
+         * @throws IllegalArgumentException if the provided delay is negative
+         */
+        @CanIgnoreReturnValue
+        public Builder setMaxDelay(Duration maxDelay) {
+            Preconditions.checkNotNull(maxDelay);
+            Preconditions.checkArgument(!maxDelay.isNegative());
+
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link RetryPolicy} from the state of this builder.
+         *
+         * @return a new {@link RetryPolicy}
+         * @throws IllegalStateException if the base delay exceeds the maximum delay
+         */
+        public RetryPolicy build() {
+            Preconditions.checkState(baseDelay.compareTo(maxDelay) <= 0);
+
+            return new RetryPolicy(this);
+        }
+    }
+}
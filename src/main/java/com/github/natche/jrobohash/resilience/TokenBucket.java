@@ -0,0 +1,185 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket capping the rate of upstream calls. Tokens are added at a fixed rate up to the capacity of
+ * the bucket, which bounds the size of a burst after a quiet period. Each call takes a token; a call finding
+ * the bucket empty reserves the next token and waits for it without blocking a thread, thus waiting calls
+ * are spaced evenly at the configured rate. Instances are thread-safe.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class TokenBucket {
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The number of nanoseconds between two tokens.
+     */
+    private final double nanosPerToken;
+
+    /**
+     * The maximum number of tokens held.
+     */
+    private final long capacity;
+
+    /**
+     * The source of time.
+     */
+    private final Ticker ticker;
+
+    /**
+     * The number of tokens held, negative while tokens are reserved ahead of time.
+     */
+    private double tokens;
+
+    /**
+     * The time tokens were last added, in nanoseconds of the ticker.
+     */
+    private long lastRefillNanos;
+
+    /**
+     * The number of calls which had to wait for a token.
+     */
+    private long throttledCount;
+
+    /**
+     * Constructs a new full token bucket.
+     *
+     * @param tokensPerSecond the rate tokens are added at
+     * @param capacity        the maximum number of tokens held
+     * @throws IllegalArgumentException if the provided rate is not positive or the capacity is less than one
+     */
+    public TokenBucket(double tokensPerSecond, long capacity) {
+        this(tokensPerSecond, capacity, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructs a new full token bucket.
+     *
+     * @param tokensPerSecond the rate tokens are added at
+     * @param capacity        the maximum number of tokens held
+     * @param ticker          the source of time, such as a fake ticker for tests
+     * @throws NullPointerException     if the provided ticker is null
+     * @throws IllegalArgumentException if the provided rate is not positive or the capacity is less than one
+     */
+    public TokenBucket(double tokensPerSecond, long capacity, Ticker ticker) {
+        Preconditions.checkArgument(tokensPerSecond > 0 && Double.isFinite(tokensPerSecond));
+        Preconditions.checkArgument(capacity > 0);
+        Preconditions.checkNotNull(ticker);
+
+        this.nanosPerToken = NANOS_PER_SECOND / tokensPerSecond;
+        this.capacity = capacity;
+        this.ticker = ticker;
+        this.tokens = capacity;
+        this.lastRefillNanos = ticker.read();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return whether a token was taken
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) return false;
+
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Reserves the next token and returns how long the caller must wait before using it.
+     *
+     * @return the time to wait in nanoseconds, zero if a token was available
+     */
+    public synchronized long reserve() {
+        refill();
+        long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+        tokens--;
+        if (waitNanos > 0) throttledCount++;
+        return waitNanos;
+    }
+
+    /**
+     * Reserves the next token and returns a future which completes once it may be used.
+     *
+     * @return a future which completes once the reserved token may be used
+     */
+    public CompletableFuture<Void> acquire() {
+        long waitNanos = reserve();
+        if (waitNanos == 0) return CompletableFuture.completedFuture(null);
+
+        return CompletableFuture.runAsync(() -> {},
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Adds the tokens accrued since the last refill, up to the capacity.
+     */
+    private void refill() {
+        long now = ticker.read();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / nanosPerToken);
+        lastRefillNanos = now;
+    }
+
+    /**
+     * Returns the rate tokens are added at, per second.
+     *
+     * @return the rate tokens are added at, per second
+     */
+    public double getTokensPerSecond() {
+        return NANOS_PER_SECOND / nanosPerToken;
+    }
+
+    /**
+     * Returns the maximum number of tokens held.
+     *
+     * @return the maximum number of tokens held
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of whole tokens currently available.
+     *
+     * @return the number of whole tokens currently available
+     */
+    public synchronized long getAvailableTokens() {
+        refill();
+        return Math.max(0, (long) Math.floor(tokens));
+    }
+
+    /**
+     * Returns the number of calls which had to wait for a token.
+     *
+     * @return the number of calls which had to wait for a token
+     */
+    public synchronized long getThrottledCount() {
+        return throttledCount;
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link TokenBucket}.
+     *
+     * @return a {@link String} representation for this {@link TokenBucket}
+     */
+    @Override
+    public String toString() {
+        return "TokenBucket{"
+                + "tokensPerSecond=" + getTokensPerSecond()
+                + ", capacity=" + capacity
+                + ", availableTokens=" + getAvailableTokens()
+                + ", throttledCount=" + getThrottledCount()
+                + "}";
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.natche.jrobohash.util;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A thread-safe pool of equally sized, array-backed buffers for copying streams. Reusing buffers keeps the
+ * memory of each copy constant and avoids allocating a new buffer per request. A buffer is allocated when
+ * the pool is empty, and released buffers beyond the maximum number pooled are left to the garbage collector.
+ *
+ * @author nathancheshire
+ * @since 1.0.0
+ */
+public final class BufferPool {
+    /**
+     * The default size of the buffers of a pool.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The size of the buffers of this pool.
+     */
+    private final int bufferSize;
+
+    /**
+     * The buffers available for reuse.
+     */
+    private final ArrayBlockingQueue<ByteBuffer> buffers;
+
+    /**
+     * Constructs a new buffer pool.
+     *
+     * @param bufferSize       the size of the buffers of this pool
+     * @param maxPooledBuffers the maximum number of buffers held for reuse
+     * @throws IllegalArgumentException if the provided buffer size or maximum are less than one
+     */
+    public BufferPool(int bufferSize, int maxPooledBuffers) {
+        Preconditions.checkArgument(bufferSize > 0);
+        Preconditions.checkArgument(maxPooledBuffers > 0);
+
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxPooledBuffers);
+    }
+
+    /**
+     * Returns a cleared buffer from this pool, allocating one if none is available.
+     *
+     * @return a cleared buffer
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Returns the provided buffer, previously acquired from this pool, to this pool for reuse.
+     * The buffer must not be used afterwards.
+     *
+     * @param buffer the buffer to release
+     * @throws NullPointerException     if the provided buffer is null
+     * @throws IllegalArgumentException if the provided buffer was not acquired from a pool of this buffer size
+     */
+    public void release(ByteBuffer buffer) {
+        Preconditions.checkNotNull(buffer);
+        Preconditions.checkArgument(buffer.capacity() == bufferSize && buffer.hasArray());
+
+        buffer.clear();
+        //noinspection ResultOfMethodCallIgnored
+        buffers.offer(buffer);
+    }
+
+    /**
+     * Returns the size of the buffers of this pool.
+     *
+     * @return the size of the buffers of this pool
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Returns the number of buffers currently available for reuse.
+     *
+     * @return the number of buffers currently available for reuse
+     */
+    public int getPooledCount() {
+        return buffers.size();
+    }
+
+    /**
+     * Returns a {@link String} representation for this {@link BufferPool}.
+     *
+     * @return a {@link String} representation for this {@link BufferPool}
+     */
+    @Override
+    public String toString() {
+        return "BufferPool{"
+                + "bufferSize=" + bufferSize
+                + ", pooledCount=" + buffers.size()
+                + "}";
+    }
+}
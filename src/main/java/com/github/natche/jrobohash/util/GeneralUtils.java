@@ -1,20 +1,44 @@
 package com.github.natche.jrobohash.util;
 
 import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.github.natche.jrobohash.exceptions.RequestTimeoutException;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URI;
 import java.net.URL;
+import java.net.URLConnection;
 import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
 /**
  * General utility methods used throughout the JRoboHash API.
  */
 public final class GeneralUtils {
+    /**
+     * The default deadline for reading an image from a URL.
+     */
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+
     /**
      * The valid characters RoboHash accepts in an avatar key.
      */
@@ -37,7 +61,7 @@ public final class GeneralUtils {
     }
 
     /**
-     * Returns a buffered image read from the provided URL.
+     * Returns a buffered image read from the provided URL within the {@link #DEFAULT_READ_TIMEOUT}.
      *
      * @param url the URL to read the image from
      * @return the URL from the provided image
@@ -46,17 +70,180 @@ public final class GeneralUtils {
      * @throws JRoboHashException       if an image cannot be read from the provided URL
      */
     public static BufferedImage readBufferedImage(String url) {
+        return readBufferedImage(url, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * Returns a buffered image read from the provided URL within the provided timeout. The timeout is a deadline
+     * covering connecting, waiting for the first byte, downloading and decoding the image. An HTTP transfer still
+     * in progress once the deadline passes is aborted, thus a stalled connection cannot block the calling thread
+     * past the deadline. Other URLs are read with connect and read timeouts set to the time remaining.
+     *
+     * @param url     the URL to read the image from
+     * @param timeout the deadline for reading the image
+     * @return the URL from the provided image
+     * @throws NullPointerException     if the provided URL or timeout are null
+     * @throws IllegalArgumentException if the provided URL is empty or the timeout is not positive
+     * @throws RequestTimeoutException  if the image cannot be read within the provided timeout
+     * @throws JRoboHashException       if an image cannot be read from the provided URL
+     */
+    public static BufferedImage readBufferedImage(String url, Duration timeout) {
         Preconditions.checkNotNull(url);
+        Preconditions.checkNotNull(timeout);
         Preconditions.checkArgument(!url.trim().isEmpty());
+        Preconditions.checkArgument(!timeout.isNegative() && !timeout.isZero());
 
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
         try {
-            return ImageIO.read(new URL(url));
+            URL parsedUrl = new URL(url);
+            String protocol = parsedUrl.getProtocol();
+            BufferedImage image = protocol.equals("http") || protocol.equals("https")
+                    ? readHttpImage(parsedUrl.toURI(), deadlineNanos)
+                    : readConnectionImage(parsedUrl, deadlineNanos);
+            if (System.nanoTime() - deadlineNanos > 0) throw new SocketTimeoutException("Deadline passed");
+            return image;
+        } catch (SocketTimeoutException | HttpTimeoutException e) {
+            throw new RequestTimeoutException(url, timeout, e);
         } catch (Exception e) {
             throw new JRoboHashException("Failed to get image from URL: "
                     + url + ", error: " + e.getMessage());
         }
     }
 
+    /**
+     * Reads an image over HTTP before the provided deadline, aborting the transfer once the deadline passes.
+     *
+     * @param uri           the HTTP URI to read the image from
+     * @param deadlineNanos the time the deadline passes at, in nanoseconds of {@link System#nanoTime()}
+     * @return the decoded image, null if no suitable reader was found
+     * @throws IOException          if the transfer fails or the server does not answer with an image
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    private static BufferedImage readHttpImage(URI uri, long deadlineNanos) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofNanos(remainingNanos(deadlineNanos)))
+                .GET()
+                .build();
+        CompletableFuture<HttpResponse<byte[]>> pendingResponse = HttpClientHolder.HTTP_CLIENT
+                .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        HttpResponse<byte[]> response;
+        try {
+            response = pendingResponse.get(remainingNanos(deadlineNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            pendingResponse.cancel(true);
+            throw new SocketTimeoutException("Deadline passed");
+        } catch (InterruptedException e) {
+            pendingResponse.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+
+        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Server returned HTTP response code: " + response.statusCode());
+        }
+        return ImageIO.read(new ByteArrayInputStream(response.body()));
+    }
+
+    /**
+     * Reads an image from a URL other than HTTP before the provided deadline, with connect and read timeouts
+     * set to the time remaining before each.
+     *
+     * @param url           the URL to read the image from
+     * @param deadlineNanos the time the deadline passes at, in nanoseconds of {@link System#nanoTime()}
+     * @return the decoded image, null if no suitable reader was found
+     * @throws IOException if the image cannot be read or the deadline passed
+     */
+    private static BufferedImage readConnectionImage(URL url, long deadlineNanos) throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(remainingMillis(deadlineNanos));
+        connection.connect();
+        connection.setReadTimeout(remainingMillis(deadlineNanos));
+        try (InputStream inputStream = new DeadlineInputStream(connection.getInputStream(), deadlineNanos)) {
+            return ImageIO.read(inputStream);
+        }
+    }
+
+    /**
+     * Returns the time remaining until the provided deadline.
+     *
+     * @param deadlineNanos the time the deadline passes at, in nanoseconds of {@link System#nanoTime()}
+     * @return the time remaining in nanoseconds, positive
+     * @throws SocketTimeoutException if the deadline passed
+     */
+    private static long remainingNanos(long deadlineNanos) throws SocketTimeoutException {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) throw new SocketTimeoutException("Deadline passed");
+        return remainingNanos;
+    }
+
+    /**
+     * Returns the time remaining until the provided deadline as a timeout for a {@link URLConnection}.
+     *
+     * @param deadlineNanos the time the deadline passes at, in nanoseconds of {@link System#nanoTime()}
+     * @return the time remaining in milliseconds, at least one
+     * @throws SocketTimeoutException if the deadline passed
+     */
+    private static int remainingMillis(long deadlineNanos) throws SocketTimeoutException {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(remainingNanos(deadlineNanos));
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingMillis));
+    }
+
+    /**
+     * Decodes and returns a buffered image from the provided encoded image bytes.
+     *
+     * @param imageBytes the encoded image bytes such as the body of a RoboHash response
+     * @return the decoded image
+     * @throws NullPointerException     if the provided bytes are null
+     * @throws IllegalArgumentException if the provided bytes are empty
+     * @throws JRoboHashException       if the provided bytes cannot be decoded to an image
+     */
+    public static BufferedImage decodeBufferedImage(byte[] imageBytes) {
+        Preconditions.checkNotNull(imageBytes);
+        Preconditions.checkArgument(imageBytes.length > 0);
+
+        return decodeBufferedImage(new ByteArrayInputStream(imageBytes));
+    }
+
+    /**
+     * Decodes and returns a buffered image from the remaining encoded image bytes of the provided buffer,
+     * such as a view of bytes held outside the heap, without copying them into an array first.
+     * The buffer is advanced past the bytes read.
+     *
+     * @param imageBytes the buffer holding the encoded image bytes
+     * @return the decoded image
+     * @throws NullPointerException     if the provided buffer is null
+     * @throws IllegalArgumentException if the provided buffer has no bytes remaining
+     * @throws JRoboHashException       if the provided bytes cannot be decoded to an image
+     */
+    public static BufferedImage decodeBufferedImageFromBuffer(ByteBuffer imageBytes) {
+        Preconditions.checkNotNull(imageBytes);
+        Preconditions.checkArgument(imageBytes.hasRemaining());
+
+        return decodeBufferedImage(new ByteBufferInputStream(imageBytes));
+    }
+
+    /**
+     * Decodes and returns a buffered image from the provided stream of encoded image bytes.
+     *
+     * @param inputStream the stream of encoded image bytes
+     * @return the decoded image
+     * @throws JRoboHashException if the bytes cannot be decoded to an image
+     */
+    private static BufferedImage decodeBufferedImage(InputStream inputStream) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(inputStream);
+        } catch (Exception e) {
+            throw new JRoboHashException("Failed to decode image, error: " + e.getMessage());
+        }
+
+        if (image == null) throw new JRoboHashException("Failed to decode image, no suitable reader found");
+        return image;
+    }
+
     /**
      * Returns whether the provided filename is valid for the host operating system.
      *
@@ -103,4 +290,122 @@ public final class GeneralUtils {
 
         return URLEncoder.encode(input, StandardCharsets.UTF_8);
     }
+
+    /**
+     * The holder of the HTTP client images are read with, created once first needed.
+     */
+    private static final class HttpClientHolder {
+        /**
+         * The HTTP client images are read with.
+         */
+        private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        /**
+         * Suppress default constructor to prevent instantiation via reflection.
+         *
+         * @throws AssertionError if invoked
+         */
+        private HttpClientHolder() {
+            throw new AssertionError("Cannot create instances of HttpClientHolder");
+        }
+    }
+
+    /**
+     * An input stream failing with a {@link SocketTimeoutException} once a deadline passed.
+     */
+    private static final class DeadlineInputStream extends FilterInputStream {
+        /**
+         * The time the deadline passes at, in nanoseconds of {@link System#nanoTime()}.
+         */
+        private final long deadlineNanos;
+
+        /**
+         * Constructs a new deadline input stream.
+         *
+         * @param inputStream   the input stream to read from
+         * @param deadlineNanos the time the deadline passes at
+         */
+        private DeadlineInputStream(InputStream inputStream, long deadlineNanos) {
+            super(inputStream);
+
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Throws a {@link SocketTimeoutException} if the deadline passed.
+         *
+         * @throws SocketTimeoutException if the deadline passed
+         */
+        private void checkDeadline() throws SocketTimeoutException {
+            if (System.nanoTime() - deadlineNanos > 0) throw new SocketTimeoutException("Deadline passed");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            return super.read();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            checkDeadline();
+            return super.read(bytes, offset, length);
+        }
+    }
+
+    /**
+     * An input stream reading the remaining bytes of a buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        /**
+         * The buffer read from.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Constructs a new stream reading the remaining bytes of the provided buffer.
+         *
+         * @param buffer the buffer to read from
+         */
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package com.github.natche.jrobohash.atlas;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link AtlasRegion}.
+ */
+public class AtlasRegionTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    AtlasRegionTest() {}
+
+    /**
+     * Tests for construction of a region.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(IllegalArgumentException.class, () -> new AtlasRegion(-1, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new AtlasRegion(0, -1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new AtlasRegion(0, 0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new AtlasRegion(0, 0, 1, 0));
+
+        AtlasRegion region = new AtlasRegion(1, 2, 3, 4);
+        assertEquals(1, region.getX());
+        assertEquals(2, region.getY());
+        assertEquals(3, region.getWidth());
+        assertEquals(4, region.getHeight());
+    }
+
+    /**
+     * Tests for the overlaps method.
+     */
+    @Test
+    void testOverlaps() {
+        AtlasRegion region = new AtlasRegion(0, 0, 10, 10);
+        assertThrows(NullPointerException.class, () -> region.overlaps(null));
+        assertTrue(region.overlaps(region));
+        assertTrue(region.overlaps(new AtlasRegion(9, 9, 10, 10)));
+        assertFalse(region.overlaps(new AtlasRegion(10, 0, 10, 10)));
+        assertFalse(region.overlaps(new AtlasRegion(0, 10, 10, 10)));
+    }
+
+    /**
+     * Tests for the equals, hashCode and toString methods.
+     */
+    @Test
+    void testEqualsHashCodeToString() {
+        AtlasRegion region = new AtlasRegion(1, 2, 3, 4);
+        AtlasRegion equal = new AtlasRegion(1, 2, 3, 4);
+        AtlasRegion different = new AtlasRegion(1, 2, 3, 5);
+
+        assertEquals(region, region);
+        assertEquals(region, equal);
+        assertNotEquals(region, different);
+        assertNotEquals(region, new Object());
+        assertEquals(region.hashCode(), equal.hashCode());
+        assertNotEquals(region.hashCode(), different.hashCode());
+        assertEquals("AtlasRegion{x=1, y=2, width=3, height=4}", region.toString());
+    }
+}
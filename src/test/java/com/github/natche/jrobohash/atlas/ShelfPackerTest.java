@@ -0,0 +1,55 @@
+package com.github.natche.jrobohash.atlas;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Dimension;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ShelfPacker}.
+ */
+public class ShelfPackerTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    ShelfPackerTest() {}
+
+    /**
+     * Tests for construction of a packer.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(IllegalArgumentException.class, () -> new ShelfPacker(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ShelfPacker(1, -1));
+        assertDoesNotThrow(() -> new ShelfPacker(1, 0));
+    }
+
+    /**
+     * Tests for packing sizes.
+     */
+    @Test
+    void testPack() {
+        ShelfPacker packer = new ShelfPacker(25, 1);
+        assertThrows(NullPointerException.class, () -> packer.pack(null));
+        assertThrows(IllegalArgumentException.class, () -> packer.pack(List.of(new Dimension(0, 1))));
+        assertTrue(packer.pack(List.of()).isEmpty());
+
+        List<AtlasRegion> regions = packer.pack(List.of(
+                new Dimension(10, 5),
+                new Dimension(10, 10),
+                new Dimension(10, 10),
+                new Dimension(40, 8)));
+        assertEquals(new AtlasRegion(0, 0, 10, 10), regions.get(1));
+        assertEquals(new AtlasRegion(11, 0, 10, 10), regions.get(2));
+        assertEquals(new AtlasRegion(0, 11, 40, 8), regions.get(3));
+        assertEquals(new AtlasRegion(0, 20, 10, 5), regions.get(0));
+
+        for (int i = 0; i < regions.size(); i++) {
+            for (int j = i + 1; j < regions.size(); j++) {
+                assertFalse(regions.get(i).overlaps(regions.get(j)));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.natche.jrobohash.atlas;
+
+import com.github.natche.jrobohash.request.LocalRoboHashServer;
+import com.github.natche.jrobohash.request.RoboHashClient;
+import com.github.natche.jrobohash.request.RoboHashRequestBuilder;
+import com.github.natche.jrobohash.request.RoboHashRequestBuilderImpl;
+import com.github.natche.jrobohash.util.GeneralUtils;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link TextureAtlasGenerator}.
+ */
+public class TextureAtlasGeneratorTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    TextureAtlasGeneratorTest() {}
+
+    /**
+     * Tests for construction of a generator via its builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(NullPointerException.class, () -> TextureAtlasGenerator.builder().setClient(null));
+        assertThrows(IllegalArgumentException.class, () -> TextureAtlasGenerator.builder().setMaxInFlight(0));
+        assertThrows(IllegalArgumentException.class, () -> TextureAtlasGenerator.builder().setMaxWidth(0));
+        assertThrows(IllegalArgumentException.class, () -> TextureAtlasGenerator.builder().setPadding(-1));
+        assertThrows(NullPointerException.class, () -> TextureAtlasGenerator.builder().setKeyFunction(null));
+
+        TextureAtlasGenerator generator = TextureAtlasGenerator.builder().build();
+        assertEquals(TextureAtlasGenerator.DEFAULT_MAX_IN_FLIGHT, generator.getMaxInFlight());
+        assertEquals(TextureAtlasGenerator.DEFAULT_MAX_WIDTH, generator.getMaxWidth());
+        assertEquals(TextureAtlasGenerator.DEFAULT_PADDING, generator.getPadding());
+        assertThrows(NullPointerException.class, () -> generator.generateAsync(null));
+        assertEquals("TextureAtlasGenerator{maxInFlight=8, maxWidth=2048, padding=0}", generator.toString());
+    }
+
+    /**
+     * Tests for generating an atlas.
+     */
+    @Test
+    void testGenerate() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            TextureAtlasGenerator generator = TextureAtlasGenerator.builder()
+                    .setClient(RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build())
+                    .setMaxWidth(700)
+                    .setPadding(2)
+                    .build();
+            List<RoboHashRequestBuilder> builders = List.of(
+                    new RoboHashRequestBuilderImpl("a"),
+                    new RoboHashRequestBuilderImpl("b"),
+                    new RoboHashRequestBuilderImpl("c"),
+                    new RoboHashRequestBuilderImpl("a"));
+
+            TextureAtlas atlas = generator.generate(builders);
+            assertEquals(3, server.getRequestCount());
+            assertEquals(List.of("a", "b", "c"), List.copyOf(atlas.getRegions().keySet()));
+            assertTrue(atlas.getFailedResults().isEmpty());
+            assertEquals(602, atlas.getImage().getWidth());
+            assertEquals(602, atlas.getImage().getHeight());
+
+            List<AtlasRegion> regions = List.copyOf(atlas.getRegions().values());
+            for (int i = 0; i < regions.size(); i++) {
+                assertEquals(300, regions.get(i).getWidth());
+                assertEquals(300, regions.get(i).getHeight());
+                for (int j = i + 1; j < regions.size(); j++) {
+                    assertFalse(regions.get(i).overlaps(regions.get(j)));
+                }
+            }
+
+            BufferedImage avatar = GeneralUtils.decodeBufferedImage(server.getImageBytes());
+            AtlasRegion region = atlas.getRegion("b").orElseThrow();
+            assertEquals(avatar.getRGB(150, 150),
+                    atlas.getImage().getRGB(region.getX() + 150, region.getY() + 150));
+        }
+    }
+
+    /**
+     * Tests that failed fetches are missing from the atlas and reported.
+     */
+    @Test
+    void testFailedFetches() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            server.setStatusCode(404);
+            TextureAtlasGenerator generator = TextureAtlasGenerator.builder()
+                    .setClient(RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build())
+                    .build();
+
+            TextureAtlas atlas = generator.generate(List.of(new RoboHashRequestBuilderImpl("missing")));
+            assertTrue(atlas.getRegions().isEmpty());
+            assertEquals(1, atlas.getFailedResults().size());
+            assertEquals(1, atlas.getImage().getWidth());
+            assertEquals(1, atlas.getImage().getHeight());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.natche.jrobohash.atlas;
+
+import com.github.natche.jrobohash.request.RoboHashRequestBuilderImpl;
+import com.github.natche.jrobohash.request.RoboHashResult;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link TextureAtlas}.
+ */
+public class TextureAtlasTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    TextureAtlasTest() {}
+
+    /**
+     * Tests for construction of an atlas.
+     */
+    @Test
+    void testConstruction() {
+        BufferedImage image = new BufferedImage(20, 10, BufferedImage.TYPE_INT_ARGB);
+        assertThrows(NullPointerException.class, () -> new TextureAtlas(null, Map.of(), List.of()));
+        assertThrows(NullPointerException.class, () -> new TextureAtlas(image, null, List.of()));
+        assertThrows(NullPointerException.class, () -> new TextureAtlas(image, Map.of(), null));
+        assertThrows(IllegalArgumentException.class, () -> new TextureAtlas(image,
+                Map.of("a", new AtlasRegion(11, 0, 10, 10)), List.of()));
+
+        RoboHashResult failedResult = RoboHashResult.failure(
+                new RoboHashRequestBuilderImpl("c"), "url", new IllegalStateException());
+        TextureAtlas atlas = new TextureAtlas(image,
+                Map.of("a", new AtlasRegion(0, 0, 10, 10)), List.of(failedResult));
+        assertSame(image, atlas.getImage());
+        assertEquals(Optional.of(new AtlasRegion(0, 0, 10, 10)), atlas.getRegion("a"));
+        assertEquals(Optional.empty(), atlas.getRegion("b"));
+        assertThrows(NullPointerException.class, () -> atlas.getRegion(null));
+        assertEquals(List.of(failedResult), atlas.getFailedResults());
+        assertEquals("TextureAtlas{width=20, height=10, regionCount=1, failedCount=1}", atlas.toString());
+    }
+
+    /**
+     * Tests for the JSON index of an atlas.
+     */
+    @Test
+    void testToJson() {
+        BufferedImage image = new BufferedImage(20, 10, BufferedImage.TYPE_INT_ARGB);
+        assertEquals("{\"width\":20,\"height\":10,\"regions\":{}}",
+                new TextureAtlas(image, Map.of(), List.of()).toJson());
+
+        Map<String, AtlasRegion> regions = new LinkedHashMap<>();
+        regions.put("b", new AtlasRegion(10, 0, 10, 10));
+        regions.put("a\"\\\n", new AtlasRegion(0, 0, 10, 10));
+        assertEquals("{\"width\":20,\"height\":10,\"regions\":{"
+                        + "\"b\":{\"x\":10,\"y\":0,\"width\":10,\"height\":10},"
+                        + "\"a\\\"\\\\\\u000a\":{\"x\":0,\"y\":0,\"width\":10,\"height\":10}}}",
+                new TextureAtlas(image, regions, List.of()).toJson());
+    }
+}
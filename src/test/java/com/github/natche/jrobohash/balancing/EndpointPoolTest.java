@@ -0,0 +1,244 @@
+package com.github.natche.jrobohash.balancing;
+
+import com.github.natche.jrobohash.enums.BalancingStrategy;
+import com.github.natche.jrobohash.request.LocalRoboHashServer;
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link EndpointPool}.
+ */
+public class EndpointPoolTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    EndpointPoolTest() {}
+
+    /**
+     * Tests for construction of a pool via its builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(NullPointerException.class, () -> EndpointPool.builder().addEndpoint(null));
+        assertThrows(IllegalArgumentException.class, () -> EndpointPool.builder().addEndpoint("robohash.org"));
+        assertThrows(NullPointerException.class, () -> EndpointPool.builder().setStrategy(null));
+        assertThrows(IllegalArgumentException.class, () -> EndpointPool.builder().setConsecutiveFailures(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> EndpointPool.builder().setBaseEjectionTime(Duration.ofSeconds(-1)));
+        assertThrows(NullPointerException.class, () -> EndpointPool.builder().setMaxEjectionTime(null));
+        assertThrows(IllegalArgumentException.class, () -> EndpointPool.builder().setMaxEjectionPercent(1.5));
+        assertThrows(IllegalArgumentException.class,
+                () -> EndpointPool.builder().setHealthCheckInterval(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> EndpointPool.builder().setHealthCheckPath(""));
+        assertThrows(NullPointerException.class, () -> EndpointPool.builder().setTicker(null));
+        assertThrows(IllegalStateException.class, () -> EndpointPool.builder().build());
+        assertThrows(IllegalStateException.class, () -> EndpointPool.builder()
+                .addEndpoint("http://localhost:8080/")
+                .setBaseEjectionTime(Duration.ofMinutes(10))
+                .build());
+
+        EndpointPool pool = EndpointPool.builder()
+                .addEndpoint("http://localhost:8080")
+                .addEndpoint("http://localhost:8081/")
+                .build();
+        assertEquals(EndpointPool.DEFAULT_STRATEGY, pool.getStrategy());
+        assertEquals(2, pool.getEndpoints().size());
+        assertEquals("http://localhost:8080/", pool.getEndpoints().get(0).getBaseUrl());
+        assertEquals(2, pool.getHealthyCount());
+        assertThrows(IllegalStateException.class, pool::checkHealth);
+        assertThrows(NullPointerException.class, () -> pool.release(null, true, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> pool.release(new Endpoint("http://localhost:8080/"), true, 0));
+        assertThrows(NullPointerException.class, () -> pool.abandon(null));
+        assertThrows(IllegalArgumentException.class, () -> pool.abandon(new Endpoint("http://localhost:8080/")));
+    }
+
+    /**
+     * Tests for round robin selection.
+     */
+    @Test
+    void testRoundRobin() {
+        EndpointPool pool = newPool(BalancingStrategy.ROUND_ROBIN, 3, new AtomicLong());
+        List<Endpoint> endpoints = pool.getEndpoints();
+        for (int i = 0; i < 6; i++) {
+            assertSame(endpoints.get(i % 3), pool.acquire());
+        }
+        endpoints.forEach(endpoint -> assertEquals(2, endpoint.getOutstandingRequests()));
+    }
+
+    /**
+     * Tests for least outstanding requests selection.
+     */
+    @Test
+    void testLeastOutstandingRequests() {
+        EndpointPool pool = newPool(BalancingStrategy.LEAST_OUTSTANDING_REQUESTS, 3, new AtomicLong());
+        for (int i = 0; i < 9; i++) {
+            pool.acquire();
+        }
+        pool.getEndpoints().forEach(endpoint -> assertEquals(3, endpoint.getOutstandingRequests()));
+
+        Endpoint freed = pool.getEndpoints().get(1);
+        pool.release(freed, true, 10);
+        pool.release(freed, true, 10);
+        assertSame(freed, pool.acquire());
+        assertSame(freed, pool.acquire());
+    }
+
+    /**
+     * Tests for power of two choices selection.
+     */
+    @Test
+    void testPowerOfTwoChoices() {
+        EndpointPool pool = newPool(BalancingStrategy.POWER_OF_TWO_CHOICES, 2, new AtomicLong());
+        Endpoint first = pool.getEndpoints().get(0);
+        Endpoint second = pool.getEndpoints().get(1);
+
+        first.recordStart();
+        for (int i = 0; i < 10; i++) {
+            assertSame(second, pool.acquire());
+            pool.release(second, true, 10);
+        }
+
+        pool.release(first, true, 1000);
+        for (int i = 0; i < 10; i++) {
+            assertSame(second, pool.acquire());
+            pool.release(second, true, 10);
+        }
+    }
+
+    /**
+     * Tests for ejection of an endpoint failing consecutive requests.
+     */
+    @Test
+    void testEjection() {
+        AtomicLong nanos = new AtomicLong();
+        EndpointPool pool = newPool(BalancingStrategy.ROUND_ROBIN, 2, nanos);
+        Endpoint failing = pool.getEndpoints().get(0);
+        Endpoint healthy = pool.getEndpoints().get(1);
+
+        for (int i = 0; i < 2; i++) {
+            failing.recordStart();
+            pool.release(failing, false, 10);
+        }
+        assertFalse(failing.isEjected());
+        failing.recordStart();
+        pool.release(failing, false, 10);
+        assertTrue(failing.isEjected());
+        assertEquals(1, pool.getHealthyCount());
+        for (int i = 0; i < 4; i++) {
+            Endpoint endpoint = pool.acquire();
+            assertSame(healthy, endpoint);
+            pool.release(endpoint, true, 10);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            healthy.recordStart();
+            pool.release(healthy, false, 10);
+        }
+        assertFalse(healthy.isEjected());
+        healthy.recordStart();
+        pool.abandon(healthy);
+        assertFalse(healthy.isEjected());
+        assertEquals(0, healthy.getOutstandingRequests());
+
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(2, pool.getHealthyCount());
+        for (int i = 0; i < 3; i++) {
+            failing.recordStart();
+            pool.release(failing, false, 10);
+        }
+        assertTrue(failing.isEjected());
+        assertEquals(2, failing.getEjectionCount());
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(failing.isEjected());
+        assertEquals(1, pool.getHealthyCount());
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(2, pool.getHealthyCount());
+    }
+
+    /**
+     * Tests for selection when every endpoint is ejected.
+     */
+    @Test
+    void testAllEjected() {
+        EndpointPool pool = EndpointPool.builder()
+                .addEndpoint("http://localhost:8080/")
+                .setConsecutiveFailures(1)
+                .setMaxEjectionPercent(1)
+                .build();
+        Endpoint endpoint = pool.acquire();
+        pool.release(endpoint, false, 10);
+        assertTrue(endpoint.isEjected());
+        assertEquals(0, pool.getHealthyCount());
+        assertSame(endpoint, pool.acquire());
+    }
+
+    /**
+     * Tests for active health checks.
+     */
+    @Test
+    void testCheckHealth() {
+        try (LocalRoboHashServer healthyServer = new LocalRoboHashServer();
+             LocalRoboHashServer failingServer = new LocalRoboHashServer();
+             EndpointPool pool = EndpointPool.builder()
+                     .addEndpoint(healthyServer.getBaseUrl())
+                     .addEndpoint(failingServer.getBaseUrl())
+                     .setHealthCheckInterval(Duration.ofMinutes(1))
+                     .build()) {
+            failingServer.setStatusCode(503);
+            pool.checkHealth().join();
+            assertFalse(pool.getEndpoints().get(0).isEjected());
+            assertTrue(pool.getEndpoints().get(1).isEjected());
+            assertEquals(1, healthyServer.getRequestCount());
+
+            failingServer.setStatusCode(200);
+            pool.checkHealth().join();
+            assertEquals(2, pool.getHealthyCount());
+        }
+    }
+
+    /**
+     * Tests for the toString method.
+     */
+    @Test
+    void testToString() {
+        EndpointPool pool = EndpointPool.builder()
+                .addEndpoint("http://localhost:8080/")
+                .setStrategy(BalancingStrategy.ROUND_ROBIN)
+                .build();
+        assertEquals("EndpointPool{strategy=ROUND_ROBIN, endpoints=[Endpoint{baseUrl=\"http://localhost:8080/\","
+                + " outstandingRequests=0, ejected=false}]}", pool.toString());
+    }
+
+    /**
+     * Returns a new pool of the provided number of endpoints ejecting endpoints after three consecutive failures
+     * for one second per ejection.
+     *
+     * @param strategy      the balancing strategy
+     * @param endpointCount the number of endpoints
+     * @param nanos         the time read by the ticker of the pool
+     * @return a new pool
+     */
+    private static EndpointPool newPool(BalancingStrategy strategy, int endpointCount, AtomicLong nanos) {
+        EndpointPool.Builder builder = EndpointPool.builder()
+                .setStrategy(strategy)
+                .setConsecutiveFailures(3)
+                .setBaseEjectionTime(Duration.ofSeconds(1))
+                .setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                });
+        for (int i = 0; i < endpointCount; i++) {
+            builder.addEndpoint("http://localhost:" + (8080 + i) + "/");
+        }
+        return builder.build();
+    }
+}
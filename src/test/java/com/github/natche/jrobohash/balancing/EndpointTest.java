@@ -0,0 +1,88 @@
+package com.github.natche.jrobohash.balancing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link Endpoint}.
+ */
+public class EndpointTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    EndpointTest() {}
+
+    /**
+     * Tests for construction of an endpoint.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(NullPointerException.class, () -> new Endpoint(null));
+        assertThrows(IllegalArgumentException.class, () -> new Endpoint(" "));
+        assertThrows(IllegalArgumentException.class, () -> new Endpoint("ftp://robohash.example.com/"));
+
+        assertEquals("http://localhost:8080/", new Endpoint("http://localhost:8080").getBaseUrl());
+        assertEquals("https://robohash.example.com/", new Endpoint("https://robohash.example.com/").getBaseUrl());
+    }
+
+    /**
+     * Tests for recording requests to an endpoint.
+     */
+    @Test
+    void testRecordCompletion() {
+        Endpoint endpoint = new Endpoint("http://localhost:8080/");
+        endpoint.recordStart();
+        endpoint.recordStart();
+        assertEquals(2, endpoint.getOutstandingRequests());
+
+        assertEquals(0, endpoint.recordCompletion(true, 100));
+        assertEquals(100, endpoint.getAverageLatencyNanos());
+        assertEquals(1, endpoint.recordCompletion(false, 1000));
+        assertEquals(100, endpoint.getAverageLatencyNanos());
+        assertEquals(0, endpoint.getOutstandingRequests());
+        assertEquals(1, endpoint.getSuccessCount());
+        assertEquals(1, endpoint.getFailureCount());
+
+        endpoint.recordStart();
+        assertEquals(0, endpoint.recordCompletion(true, 600));
+        assertEquals(200, endpoint.getAverageLatencyNanos());
+
+        endpoint.recordStart();
+        endpoint.recordAbandonment();
+        assertEquals(0, endpoint.getOutstandingRequests());
+        assertEquals(2, endpoint.getSuccessCount());
+        assertEquals(1, endpoint.getFailureCount());
+        assertEquals(200, endpoint.getAverageLatencyNanos());
+    }
+
+    /**
+     * Tests for ejecting and reinstating an endpoint.
+     */
+    @Test
+    void testEjection() {
+        Endpoint endpoint = new Endpoint("http://localhost:8080/");
+        assertFalse(endpoint.refreshEjection(0));
+
+        endpoint.eject(100);
+        assertTrue(endpoint.isEjected());
+        assertEquals(1, endpoint.getEjectionCount());
+        assertTrue(endpoint.refreshEjection(99));
+        assertFalse(endpoint.refreshEjection(100));
+        assertFalse(endpoint.isEjected());
+
+        endpoint.eject(200);
+        endpoint.reinstate();
+        assertFalse(endpoint.isEjected());
+        assertEquals(2, endpoint.getEjectionCount());
+    }
+
+    /**
+     * Tests for the toString method.
+     */
+    @Test
+    void testToString() {
+        assertEquals("Endpoint{baseUrl=\"http://localhost:8080/\", outstandingRequests=0, ejected=false}",
+                new Endpoint("http://localhost:8080").toString());
+    }
+}
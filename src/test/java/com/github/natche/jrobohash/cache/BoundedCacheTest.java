@@ -0,0 +1,157 @@
+package com.github.natche.jrobohash.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link BoundedCache}.
+ */
+public class BoundedCacheTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    BoundedCacheTest() {}
+
+    /**
+     * Tests for construction of a cache.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedCache<String, String>(0, (key, value) -> 1, new LruEvictionPolicy<>()));
+        assertThrows(NullPointerException.class,
+                () -> new BoundedCache<String, String>(1, null, new LruEvictionPolicy<>()));
+        assertThrows(NullPointerException.class,
+                () -> new BoundedCache<String, String>(1, (key, value) -> 1, null));
+        assertThrows(IllegalArgumentException.class, () -> BoundedCache.forImages(0));
+        assertThrows(NullPointerException.class, () -> BoundedCache.forImages(1, null));
+
+        BoundedCache<String, BufferedImage> imageCache = BoundedCache.forImages(1024);
+        assertEquals(1024, imageCache.getMaximumWeight());
+        assertEquals("BoundedCache{size=0, weight=0, maximumWeight=1024, evictionPolicy=TinyLfuEvictionPolicy}",
+                imageCache.toString());
+    }
+
+    /**
+     * Tests for the image weight method.
+     */
+    @Test
+    void testImageWeight() {
+        assertThrows(NullPointerException.class, () -> BoundedCache.imageWeight(null));
+        assertEquals(40, BoundedCache.imageWeight(new BufferedImage(2, 5, BufferedImage.TYPE_INT_ARGB)));
+        assertEquals(30, BoundedCache.imageWeight(new BufferedImage(2, 5, BufferedImage.TYPE_3BYTE_BGR)));
+        assertEquals(10, BoundedCache.imageWeight(new BufferedImage(2, 5, BufferedImage.TYPE_BYTE_GRAY)));
+    }
+
+    /**
+     * Tests for lookups, insertions and invalidation.
+     */
+    @Test
+    void testGetPutInvalidate() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, (key, value) -> value.length(),
+                new LruEvictionPolicy<>());
+        assertThrows(NullPointerException.class, () -> cache.getIfPresent(null));
+        assertThrows(NullPointerException.class, () -> cache.put(null, "value"));
+        assertThrows(NullPointerException.class, () -> cache.put("key", null));
+        assertThrows(NullPointerException.class, () -> cache.invalidate(null));
+
+        assertNull(cache.getIfPresent("one"));
+        assertTrue(cache.put("one", "1111"));
+        assertEquals("1111", cache.getIfPresent("one"));
+        assertTrue(cache.put("one", "11"));
+        assertEquals(2, cache.weight());
+        assertEquals(1, cache.size());
+
+        assertFalse(cache.put("huge", "12345678901"));
+        assertNull(cache.getIfPresent("huge"));
+
+        assertTrue(cache.invalidate("one"));
+        assertFalse(cache.invalidate("one"));
+        assertEquals(0, cache.weight());
+
+        cache.put("a", "aaa");
+        cache.put("b", "bbb");
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+
+        assertEquals(new CacheStatistics(1, 2, 0), cache.getStatistics());
+    }
+
+    /**
+     * Tests that load times are held by the entries they were cached with.
+     */
+    @Test
+    void testLoadTime() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, (key, value) -> value.length(),
+                new LruEvictionPolicy<>());
+        assertThrows(NullPointerException.class, () -> cache.getLoadTime(null));
+        assertThrows(NullPointerException.class, () -> cache.put("key", null, 1));
+
+        assertEquals(OptionalLong.empty(), cache.getLoadTime("key"));
+        assertTrue(cache.put("key", "value", 42));
+        assertEquals(OptionalLong.of(42), cache.getLoadTime("key"));
+        assertTrue(cache.put("key", "value"));
+        assertEquals(OptionalLong.empty(), cache.getLoadTime("key"));
+        assertTrue(cache.put("key", "value", -7));
+        assertEquals(OptionalLong.of(-7), cache.getLoadTime("key"));
+        assertTrue(cache.invalidate("key"));
+        assertEquals(OptionalLong.empty(), cache.getLoadTime("key"));
+        assertEquals(new CacheStatistics(0, 0, 0), cache.getStatistics());
+    }
+
+    /**
+     * Tests that entries are evicted when the maximum weight is exceeded.
+     */
+    @Test
+    void testEviction() {
+        BoundedCache<String, String> cache = new BoundedCache<>(9, (key, value) -> value.length(),
+                new LruEvictionPolicy<>());
+
+        cache.put("a", "aaa");
+        cache.put("b", "bbb");
+        cache.put("c", "ccc");
+        assertEquals("aaa", cache.getIfPresent("a"));
+
+        cache.put("d", "ddddd");
+        assertNull(cache.getIfPresent("b"));
+        assertNull(cache.getIfPresent("c"));
+        assertEquals("aaa", cache.getIfPresent("a"));
+        assertEquals("ddddd", cache.getIfPresent("d"));
+        assertEquals(8, cache.weight());
+        assertEquals(2, cache.getStatistics().getEvictionCount());
+    }
+
+    /**
+     * Tests that a TinyLFU cache keeps frequently requested entries through a scan of one-off keys.
+     */
+    @Test
+    void testScanResistance() {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, (key, value) -> 1,
+                new TinyLfuEvictionPolicy<>(100));
+
+        for (int index = 0; index < 100; index++) {
+            cache.put("hot" + index, "value");
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int index = 0; index < 100; index++) {
+                cache.getIfPresent("hot" + index);
+            }
+        }
+
+        for (int index = 0; index < 500; index++) {
+            if (cache.getIfPresent("scan" + index) == null) cache.put("scan" + index, "value");
+        }
+
+        int hotEntries = 0;
+        for (int index = 0; index < 100; index++) {
+            if (cache.getIfPresent("hot" + index) != null) hotEntries++;
+        }
+        assertTrue(hotEntries >= 95, "hot entries retained: " + hotEntries);
+        assertEquals(100, cache.size());
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.natche.jrobohash.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link CacheStatistics}.
+ */
+public class CacheStatisticsTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    CacheStatisticsTest() {}
+
+    /**
+     * Tests for construction and the accessor methods.
+     */
+    @Test
+    void testAccessors() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheStatistics(-1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CacheStatistics(0, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CacheStatistics(0, 0, -1));
+
+        CacheStatistics statistics = new CacheStatistics(3, 1, 2);
+        assertEquals(3, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(2, statistics.getEvictionCount());
+        assertEquals(4, statistics.getRequestCount());
+        assertEquals(0.75, statistics.getHitRate());
+        assertEquals(1.0, new CacheStatistics(0, 0, 0).getHitRate());
+        assertEquals("CacheStatistics{hitCount=3, missCount=1, evictionCount=2}", statistics.toString());
+    }
+
+    /**
+     * Tests for the equals and hashcode methods.
+     */
+    @Test
+    void testEqualsHashCode() {
+        CacheStatistics statistics = new CacheStatistics(3, 1, 2);
+        assertEquals(statistics, statistics);
+        assertEquals(statistics, new CacheStatistics(3, 1, 2));
+        assertEquals(statistics.hashCode(), new CacheStatistics(3, 1, 2).hashCode());
+        assertNotEquals(statistics, new CacheStatistics(3, 1, 3));
+        assertNotEquals(statistics, new Object());
+    }
+}
@@ -0,0 +1,325 @@
+package com.github.natche.jrobohash.cache;
+
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link DiskByteStore}.
+ */
+public class DiskByteStoreTest {
+    /**
+     * The directory holding the files of the stores under test.
+     */
+    private Path directory;
+
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    DiskByteStoreTest() {}
+
+    /**
+     * Creates the directory holding the files of the stores under test.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("jrobohash-disk");
+    }
+
+    /**
+     * Deletes the directory holding the files of the stores under test.
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Tests for opening a store.
+     */
+    @Test
+    void testOpen() throws IOException {
+        assertThrows(NullPointerException.class, () -> DiskByteStore.open(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> DiskByteStore.open(directory, 0));
+
+        Path storeDirectory = directory.resolve("store");
+        try (DiskByteStore store = DiskByteStore.open(storeDirectory, 1024)) {
+            assertEquals(storeDirectory, store.getDirectory());
+            assertEquals(1024, store.getMaximumBytes());
+            assertTrue(Files.exists(storeDirectory.resolve(DiskByteStore.DATA_FILE_NAME)));
+            assertTrue(Files.exists(storeDirectory.resolve(DiskByteStore.INDEX_FILE_NAME)));
+            assertEquals("DiskByteStore{directory=\"" + storeDirectory + "\", size=0, dataBytes=0, maximumBytes=1024}",
+                    store.toString());
+        }
+
+        Path corruptDirectory = directory.resolve("corrupt");
+        Files.createDirectories(corruptDirectory);
+        Files.write(corruptDirectory.resolve(DiskByteStore.INDEX_FILE_NAME), new byte[64]);
+        assertThrows(JRoboHashException.class, () -> DiskByteStore.open(corruptDirectory, 1024));
+    }
+
+    /**
+     * Tests for lookups, insertions, replacement and invalidation.
+     */
+    @Test
+    void testGetPutInvalidate() {
+        try (DiskByteStore store = DiskByteStore.open(directory, 100)) {
+            assertThrows(NullPointerException.class, () -> store.getIfPresent(null));
+            assertThrows(NullPointerException.class, () -> store.put(null, new byte[1]));
+            assertThrows(NullPointerException.class, () -> store.put("key", null));
+            assertThrows(NullPointerException.class, () -> store.invalidate(null));
+
+            assertNull(store.getIfPresent("key"));
+            assertTrue(store.put("key", new byte[]{1, 2, 3}));
+            assertArrayEquals(new byte[]{1, 2, 3}, store.getIfPresent("key"));
+            assertEquals(14, store.getDataBytes());
+
+            assertTrue(store.put("key", new byte[]{4, 5}));
+            assertArrayEquals(new byte[]{4, 5}, store.getIfPresent("key"));
+            assertEquals(1, store.size());
+            assertEquals(27, store.getDataBytes());
+
+            assertFalse(store.put("large", new byte[90]));
+            assertTrue(store.invalidate("key"));
+            assertFalse(store.invalidate("key"));
+            assertNull(store.getIfPresent("key"));
+            assertEquals(0, store.size());
+            assertEquals(new CacheStatistics(2, 2, 0), store.getStatistics());
+        }
+    }
+
+    /**
+     * Tests that entries survive reopening the store and that appends beyond the committed
+     * length of the data file are discarded.
+     */
+    @Test
+    void testPersistence() throws IOException {
+        try (DiskByteStore store = DiskByteStore.open(directory, 1_000_000)) {
+            for (int index = 0; index < 2000; index++) {
+                assertTrue(store.put("key" + index, ("value" + index).getBytes(StandardCharsets.UTF_8)));
+            }
+            for (int index = 0; index < 2000; index += 2) {
+                assertTrue(store.invalidate("key" + index));
+            }
+        }
+
+        Path dataFile = directory.resolve(DiskByteStore.DATA_FILE_NAME);
+        long committedLength = Files.size(dataFile);
+        Files.write(dataFile, new byte[]{9, 9, 9}, StandardOpenOption.APPEND);
+
+        try (DiskByteStore store = DiskByteStore.open(directory, 1_000_000)) {
+            assertEquals(1000, store.size());
+            assertEquals(committedLength, store.getDataBytes());
+            assertEquals(committedLength, Files.size(dataFile));
+            for (int index = 0; index < 2000; index++) {
+                byte[] bytes = store.getIfPresent("key" + index);
+                if (index % 2 == 0) {
+                    assertNull(bytes);
+                } else {
+                    assertArrayEquals(("value" + index).getBytes(StandardCharsets.UTF_8), bytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that replaced and invalidated records are reclaimed by compaction, that the oldest entries
+     * are evicted once the live records no longer fit, and that compacted stores survive reopening.
+     */
+    @Test
+    void testCompaction() {
+        try (DiskByteStore store = DiskByteStore.open(directory, 1000)) {
+            for (int round = 0; round < 20; round++) {
+                for (int index = 0; index < 5; index++) {
+                    assertTrue(store.put("key" + index, new byte[]{(byte) round, (byte) index}));
+                }
+                assertTrue(store.getDataBytes() <= 1000);
+            }
+            assertEquals(5, store.size());
+            for (int index = 0; index < 5; index++) {
+                assertArrayEquals(new byte[]{19, (byte) index}, store.getIfPresent("key" + index));
+            }
+            assertEquals(0, store.getStatistics().getEvictionCount());
+
+            for (int index = 0; index < 100; index++) {
+                assertTrue(store.put("entry" + index, new byte[50]));
+                assertTrue(store.getDataBytes() <= 1000);
+            }
+            assertTrue(store.getStatistics().getEvictionCount() > 0);
+            assertNull(store.getIfPresent("key0"));
+            assertNull(store.getIfPresent("entry0"));
+            assertArrayEquals(new byte[50], store.getIfPresent("entry99"));
+            assertFalse(Files.exists(directory.resolve("avatars.data.compact")));
+        }
+
+        try (DiskByteStore store = DiskByteStore.open(directory, 1000)) {
+            assertArrayEquals(new byte[50], store.getIfPresent("entry99"));
+            assertArrayEquals(new byte[50], store.getIfPresent("entry98"));
+        }
+    }
+
+    /**
+     * Tests that load times survive growth of the index and compaction, and are forgotten on reopening
+     * as they are readings of a ticker of the process which stored them.
+     */
+    @Test
+    void testLoadTime() {
+        try (DiskByteStore store = DiskByteStore.open(directory, 20_000)) {
+            assertThrows(NullPointerException.class, () -> store.getLoadTime(null));
+            assertEquals(OptionalLong.empty(), store.getLoadTime("key0"));
+
+            for (int index = 0; index < 2000; index++) {
+                assertTrue(store.put("key" + index, new byte[]{(byte) index}, index - 1000));
+            }
+            assertTrue(store.put("unknown", new byte[]{1}));
+            assertEquals(OptionalLong.empty(), store.getLoadTime("unknown"));
+            assertTrue(store.getStatistics().getEvictionCount() > 0);
+            assertEquals(OptionalLong.empty(), store.getLoadTime("key0"));
+            for (int index = 1500; index < 2000; index++) {
+                assertEquals(OptionalLong.of(index - 1000), store.getLoadTime("key" + index));
+            }
+
+            assertTrue(store.invalidate("key1999"));
+            assertEquals(OptionalLong.empty(), store.getLoadTime("key1999"));
+            assertEquals(OptionalLong.of(998), store.getLoadTime("key1998"));
+        }
+
+        try (DiskByteStore store = DiskByteStore.open(directory, 20_000)) {
+            assertNotNull(store.getIfPresent("key1998"));
+            assertEquals(OptionalLong.empty(), store.getLoadTime("key1998"));
+        }
+    }
+
+    /**
+     * Tests that index entries locating records beyond the end of a truncated data file are misses.
+     */
+    @Test
+    void testTruncatedDataFile() throws IOException {
+        try (DiskByteStore store = DiskByteStore.open(directory, 1000)) {
+            assertTrue(store.put("first", new byte[]{1, 2, 3}));
+            assertTrue(store.put("second", new byte[]{4, 5, 6}));
+        }
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(DiskByteStore.DATA_FILE_NAME),
+                StandardOpenOption.WRITE)) {
+            channel.truncate(20);
+        }
+
+        try (DiskByteStore store = DiskByteStore.open(directory, 1000)) {
+            assertEquals(1, store.size());
+            assertEquals(16, store.getDataBytes());
+            assertArrayEquals(new byte[]{1, 2, 3}, store.getIfPresent("first"));
+            assertNull(store.getIfPresent("second"));
+            assertDoesNotThrow(() -> store.transferTo("second", Channels.newChannel(new ByteArrayOutputStream())));
+        }
+    }
+
+    /**
+     * Tests that entries are written to channels and that a closed store rejects operations.
+     */
+    @Test
+    void testTransferToAndClose() throws IOException {
+        DiskByteStore store = DiskByteStore.open(directory, 1024);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertThrows(NullPointerException.class, () -> store.transferTo("key", null));
+
+        assertFalse(store.transferTo("key", Channels.newChannel(outputStream)));
+        assertTrue(store.put("key", new byte[]{1, 2, 3}));
+        assertTrue(store.transferTo("key", Channels.newChannel(outputStream)));
+        assertArrayEquals(new byte[]{1, 2, 3}, outputStream.toByteArray());
+
+        store.close();
+        assertDoesNotThrow(store::close);
+        assertThrows(IllegalStateException.class, () -> store.getIfPresent("key"));
+        assertThrows(IllegalStateException.class, () -> store.put("key", new byte[1]));
+    }
+
+    /**
+     * Tests that a transfer to a blocked channel delays neither insertions, compactions nor closing,
+     * and that it completes with the bytes it located.
+     */
+    @Test
+    void testTransferToSlowChannel() throws Exception {
+        DiskByteStore store = DiskByteStore.open(directory, 1024);
+        byte[] bytes = new byte[300];
+        Arrays.fill(bytes, (byte) 7);
+        assertTrue(store.put("first", bytes));
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        WritableByteChannel slowChannel = new WritableByteChannel() {
+            private final WritableByteChannel delegate = Channels.newChannel(outputStream);
+
+            @Override
+            public int write(ByteBuffer source) throws IOException {
+                writing.countDown();
+                try {
+                    assertTrue(resume.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return delegate.write(source);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return delegate.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+        };
+
+        CompletableFuture<Boolean> transfer = CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.transferTo("first", slowChannel);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        assertTrue(store.put("second", new byte[300]));
+        assertTrue(store.put("third", new byte[300]));
+        assertTrue(store.put("fourth", new byte[300]));
+        assertTrue(store.getStatistics().getEvictionCount() > 0);
+        assertNull(store.getIfPresent("first"));
+        store.close();
+
+        resume.countDown();
+        assertTrue(transfer.get(10, TimeUnit.SECONDS));
+        assertArrayEquals(bytes, outputStream.toByteArray());
+    }
+}
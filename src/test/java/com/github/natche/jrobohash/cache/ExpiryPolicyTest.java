@@ -0,0 +1,64 @@
+package com.github.natche.jrobohash.cache;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ExpiryPolicy}.
+ */
+public class ExpiryPolicyTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    ExpiryPolicyTest() {}
+
+    /**
+     * Tests for construction of a policy via its builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(NullPointerException.class, () -> ExpiryPolicy.builder().setTimeToLive(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExpiryPolicy.builder().setTimeToLive(Duration.ofSeconds(-1)));
+        assertThrows(NullPointerException.class, () -> ExpiryPolicy.builder().setStaleWhileRevalidate(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExpiryPolicy.builder().setClientErrorTtl(Duration.ofMillis(-1)));
+        assertThrows(NullPointerException.class, () -> ExpiryPolicy.builder().setServerErrorTtl(null));
+        assertThrows(IllegalArgumentException.class, () -> ExpiryPolicy.builder().setMaxNegativeEntries(0));
+        assertThrows(NullPointerException.class, () -> ExpiryPolicy.builder().setTicker(null));
+
+        ExpiryPolicy defaultPolicy = ExpiryPolicy.builder().build();
+        assertEquals(ExpiryPolicy.DEFAULT_TIME_TO_LIVE, defaultPolicy.getTimeToLive());
+        assertEquals(ExpiryPolicy.DEFAULT_STALE_WHILE_REVALIDATE, defaultPolicy.getStaleWhileRevalidate());
+        assertEquals(ExpiryPolicy.DEFAULT_CLIENT_ERROR_TTL, defaultPolicy.getClientErrorTtl());
+        assertEquals(ExpiryPolicy.DEFAULT_SERVER_ERROR_TTL, defaultPolicy.getServerErrorTtl());
+        assertEquals(ExpiryPolicy.DEFAULT_MAX_NEGATIVE_ENTRIES, defaultPolicy.getMaxNegativeEntries());
+        assertSame(Ticker.systemTicker(), defaultPolicy.getTicker());
+
+        ExpiryPolicy policy = ExpiryPolicy.builder()
+                .setTimeToLive(Duration.ofMinutes(10))
+                .setStaleWhileRevalidate(Duration.ZERO)
+                .setClientErrorTtl(Duration.ofSeconds(30))
+                .setServerErrorTtl(Duration.ofSeconds(5))
+                .setMaxNegativeEntries(100)
+                .build();
+        assertEquals(Duration.ofMinutes(10), policy.getTimeToLive());
+        assertEquals(Duration.ZERO, policy.getStaleWhileRevalidate());
+        assertEquals(Duration.ofSeconds(30), policy.getClientErrorTtl());
+        assertEquals(Duration.ofSeconds(5), policy.getServerErrorTtl());
+        assertEquals(100, policy.getMaxNegativeEntries());
+    }
+
+    /**
+     * Tests for the toString method.
+     */
+    @Test
+    void testToString() {
+        assertEquals("ExpiryPolicy{timeToLive=PT1H, staleWhileRevalidate=PT1H,"
+                + " clientErrorTtl=PT1M, serverErrorTtl=PT0S}", ExpiryPolicy.builder().build().toString());
+    }
+}
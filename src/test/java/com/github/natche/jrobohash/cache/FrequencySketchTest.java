@@ -0,0 +1,39 @@
+package com.github.natche.jrobohash.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link FrequencySketch}.
+ */
+public class FrequencySketchTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    FrequencySketchTest() {}
+
+    /**
+     * Tests that frequencies are estimated, saturated and aged.
+     */
+    @Test
+    void testFrequency() {
+        assertThrows(IllegalArgumentException.class, () -> new FrequencySketch(0));
+
+        FrequencySketch sketch = new FrequencySketch(16);
+        assertEquals(0, sketch.frequency("key"));
+        sketch.increment("key");
+        sketch.increment("key");
+        assertEquals(2, sketch.frequency("key"));
+
+        for (int index = 0; index < 100; index++) {
+            sketch.increment("saturated");
+        }
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency("saturated"));
+
+        for (int index = 0; index < 1000; index++) {
+            sketch.increment("other" + index);
+        }
+        assertTrue(sketch.frequency("saturated") < FrequencySketch.MAX_FREQUENCY);
+    }
+}
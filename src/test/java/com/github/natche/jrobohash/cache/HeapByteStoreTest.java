@@ -0,0 +1,79 @@
+package com.github.natche.jrobohash.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link HeapByteStore}.
+ */
+public class HeapByteStoreTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    HeapByteStoreTest() {}
+
+    /**
+     * Tests for construction of a store.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(IllegalArgumentException.class, () -> new HeapByteStore(0));
+        assertThrows(NullPointerException.class, () -> new HeapByteStore(1, null));
+
+        HeapByteStore store = new HeapByteStore(1024);
+        assertEquals(1024, store.getMaximumBytes());
+        assertEquals("HeapByteStore{size=0, weight=0, maximumBytes=1024}", store.toString());
+    }
+
+    /**
+     * Tests for lookups, insertions, eviction and invalidation.
+     */
+    @Test
+    void testGetPutInvalidate() {
+        HeapByteStore store = new HeapByteStore(10, new LruEvictionPolicy<>());
+        assertThrows(NullPointerException.class, () -> store.getIfPresent(null));
+        assertThrows(NullPointerException.class, () -> store.put(null, new byte[1]));
+        assertThrows(NullPointerException.class, () -> store.put("key", null));
+        assertThrows(NullPointerException.class, () -> store.invalidate(null));
+
+        byte[] first = new byte[4];
+        assertNull(store.getIfPresent("first"));
+        assertTrue(store.put("first", first));
+        assertSame(first, store.getIfPresent("first"));
+        assertTrue(store.put("second", new byte[6]));
+        assertEquals(10, store.weight());
+
+        assertTrue(store.put("third", new byte[3]));
+        assertNull(store.getIfPresent("first"));
+        assertEquals(2, store.size());
+        assertEquals(9, store.weight());
+
+        assertFalse(store.put("huge", new byte[11]));
+        assertTrue(store.invalidate("second"));
+        assertFalse(store.invalidate("second"));
+        assertEquals(1, store.size());
+        assertEquals(new CacheStatistics(1, 2, 1), store.getStatistics());
+    }
+
+    /**
+     * Tests that stored bytes are written to channels.
+     */
+    @Test
+    void testTransferTo() throws IOException {
+        HeapByteStore store = new HeapByteStore(1024);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(outputStream);
+        assertThrows(NullPointerException.class, () -> store.transferTo("key", null));
+
+        assertFalse(store.transferTo("key", channel));
+        assertTrue(store.put("key", new byte[]{1, 2, 3}));
+        assertTrue(store.transferTo("key", channel));
+        assertArrayEquals(new byte[]{1, 2, 3}, outputStream.toByteArray());
+    }
+}
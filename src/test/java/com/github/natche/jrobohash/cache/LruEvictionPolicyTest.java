@@ -0,0 +1,42 @@
+package com.github.natche.jrobohash.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link LruEvictionPolicy}.
+ */
+public class LruEvictionPolicyTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    LruEvictionPolicyTest() {}
+
+    /**
+     * Tests that the least recently used key is selected as the victim.
+     */
+    @Test
+    void testSelectVictim() {
+        LruEvictionPolicy<String> policy = new LruEvictionPolicy<>();
+        assertThrows(NullPointerException.class, () -> policy.recordAccess(null));
+        assertThrows(NullPointerException.class, () -> policy.recordInsertion(null));
+        assertThrows(NullPointerException.class, () -> policy.recordRemoval(null));
+        assertNull(policy.selectVictim());
+
+        policy.recordInsertion("a");
+        policy.recordInsertion("b");
+        policy.recordInsertion("c");
+        assertEquals("a", policy.selectVictim());
+
+        policy.recordAccess("a");
+        policy.recordAccess("absent");
+        assertEquals("b", policy.selectVictim());
+
+        policy.recordRemoval("b");
+        assertEquals("c", policy.selectVictim());
+
+        policy.recordInsertion("c");
+        assertEquals("a", policy.selectVictim());
+    }
+}
@@ -0,0 +1,228 @@
+package com.github.natche.jrobohash.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link SlabByteStore}.
+ */
+public class SlabByteStoreTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    SlabByteStoreTest() {}
+
+    /**
+     * Tests for construction of a store and its size classes.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(IllegalArgumentException.class, () -> new SlabByteStore(1024, 1023));
+        assertThrows(IllegalArgumentException.class, () -> new SlabByteStore(4095, 4096));
+        assertThrows(IllegalArgumentException.class, () -> new SlabByteStore(SlabByteStore.DEFAULT_SLAB_SIZE - 1));
+
+        SlabByteStore store = new SlabByteStore(8192, 4096);
+        assertEquals(4096, store.getSlabSize());
+        assertThrows(IllegalArgumentException.class, () -> store.chunkSizeFor(-1));
+        assertThrows(IllegalArgumentException.class, () -> store.chunkSizeFor(4097));
+        assertEquals(1024, store.chunkSizeFor(0));
+        assertEquals(1024, store.chunkSizeFor(1024));
+        assertEquals(1280, store.chunkSizeFor(1025));
+        assertEquals(3136, store.chunkSizeFor(3000));
+        assertEquals(4096, store.chunkSizeFor(4000));
+        assertEquals("SlabByteStore{size=0, slabSize=4096, slabCount=0, maxSlabCount=2,"
+                + " reassignedSlabCount=0, sizeClassCount=8}", store.toString());
+        assertEquals(new SlabStatistics(8192, 0, 0, 0), store.getSlabStatistics());
+    }
+
+    /**
+     * Tests for lookups, insertions, eviction within size classes and invalidation.
+     */
+    @Test
+    void testGetPutInvalidate() {
+        SlabByteStore store = new SlabByteStore(8192, 4096);
+        assertThrows(NullPointerException.class, () -> store.getIfPresent(null));
+        assertThrows(NullPointerException.class, () -> store.put(null, new byte[1]));
+        assertThrows(NullPointerException.class, () -> store.put("key", null));
+        assertThrows(NullPointerException.class, () -> store.invalidate(null));
+
+        byte[] a = filled(1000, 1);
+        assertNull(store.getIfPresent("a"));
+        assertTrue(store.put("a", a));
+        a[0] = 42;
+        assertArrayEquals(filled(1000, 1), store.getIfPresent("a"));
+        assertTrue(store.put("b", filled(1000, 2)));
+        assertTrue(store.put("c", filled(1000, 3)));
+        assertTrue(store.put("d", filled(1000, 4)));
+        assertTrue(store.put("e", filled(3000, 5)));
+        assertEquals(new SlabStatistics(8192, 8192, 4 * 1024 + 3136, 7000), store.getSlabStatistics());
+
+        // every slab is assigned, thus the least recently used entry of the size class is evicted
+        assertNotNull(store.getIfPresent("a"));
+        assertTrue(store.put("f", filled(1000, 6)));
+        assertNull(store.getIfPresent("b"));
+        assertArrayEquals(filled(1000, 1), store.getIfPresent("a"));
+        assertArrayEquals(filled(1000, 6), store.getIfPresent("f"));
+        assertEquals(5, store.size());
+
+        // the least recently used entry of the store is of another size class, thus its slab is reassigned
+        assertTrue(store.put("g", filled(2000, 7)));
+        assertArrayEquals(filled(2000, 7), store.getIfPresent("g"));
+        assertNull(store.getIfPresent("a"));
+        assertArrayEquals(filled(3000, 5), store.getIfPresent("e"));
+        assertEquals(2, store.size());
+        assertEquals(1, store.getReassignedSlabCount());
+
+        assertFalse(store.put("huge", filled(4097, 8)));
+        assertTrue(store.invalidate("e"));
+        assertFalse(store.invalidate("e"));
+        assertEquals(1, store.size());
+        assertEquals(new CacheStatistics(6, 3, 5), store.getStatistics());
+
+        SlabStatistics statistics = store.getSlabStatistics();
+        assertEquals(store.chunkSizeFor(2000), statistics.getChunkBytes());
+        assertEquals(2000, statistics.getStoredBytes());
+        assertEquals(8192 - store.chunkSizeFor(2000), statistics.getFreeBytes());
+    }
+
+    /**
+     * Tests that load times are held by the entries they were stored with, not by reused chunks.
+     */
+    @Test
+    void testLoadTime() {
+        SlabByteStore store = new SlabByteStore(4096, 4096);
+        assertThrows(NullPointerException.class, () -> store.getLoadTime(null));
+
+        assertTrue(store.put("a", filled(1000, 1), 3));
+        assertEquals(OptionalLong.of(3), store.getLoadTime("a"));
+        assertTrue(store.invalidate("a"));
+        assertEquals(OptionalLong.empty(), store.getLoadTime("a"));
+
+        assertTrue(store.put("b", filled(1000, 2)));
+        assertEquals(OptionalLong.empty(), store.getLoadTime("b"));
+        assertTrue(store.put("b", filled(1000, 2), 8));
+        assertEquals(OptionalLong.of(8), store.getLoadTime("b"));
+        assertEquals(new CacheStatistics(0, 0, 0), store.getStatistics());
+    }
+
+    /**
+     * Tests that slabs holding no entries are reassigned to other size classes without evictions,
+     * and that slabs holding pinned entries are not reassigned.
+     */
+    @Test
+    void testRebalance() {
+        SlabByteStore store = new SlabByteStore(8192, 4096);
+        for (int index = 0; index < 4; index++) {
+            assertTrue(store.put("small" + index, filled(1000, index)));
+        }
+        assertTrue(store.put("large", filled(3000, 4)));
+        for (int index = 0; index < 4; index++) {
+            assertTrue(store.invalidate("small" + index));
+        }
+
+        assertTrue(store.put("other", filled(3000, 5)));
+        assertArrayEquals(filled(3000, 4), store.getIfPresent("large"));
+        assertArrayEquals(filled(3000, 5), store.getIfPresent("other"));
+        assertEquals(1, store.getReassignedSlabCount());
+        assertEquals(0, store.getStatistics().getEvictionCount());
+
+        SlabByteStore pinnedStore = new SlabByteStore(8192, 4096);
+        assertTrue(pinnedStore.put("small", filled(1000, 1)));
+        assertTrue(pinnedStore.put("large", filled(3000, 2)));
+        assertTrue(pinnedStore.read("small", buffer -> {
+            assertTrue(pinnedStore.put("other", filled(3000, 3)));
+            return true;
+        }));
+        assertArrayEquals(filled(1000, 1), pinnedStore.getIfPresent("small"));
+        assertNull(pinnedStore.getIfPresent("large"));
+        assertEquals(0, pinnedStore.getReassignedSlabCount());
+        assertEquals(1, pinnedStore.getStatistics().getEvictionCount());
+    }
+
+    /**
+     * Tests that entries are read from views of their slab and that pinned chunks are not reused.
+     */
+    @Test
+    void testRead() {
+        SlabByteStore store = new SlabByteStore(4096, 4096);
+        assertThrows(NullPointerException.class, () -> store.read(null, ByteBuffer::remaining));
+        assertThrows(NullPointerException.class, () -> store.read("key", null));
+
+        assertNull(store.read("key", ByteBuffer::remaining));
+        assertTrue(store.put("key", filled(3000, 1)));
+        assertEquals(Integer.valueOf(3000), store.read("key", ByteBuffer::remaining));
+        assertTrue(store.read("key", ByteBuffer::isReadOnly));
+
+        byte[] bytes = store.read("key", buffer -> {
+            assertTrue(store.invalidate("key"));
+            assertFalse(store.put("other", filled(3000, 2)));
+            byte[] read = new byte[buffer.remaining()];
+            buffer.get(read);
+            return read;
+        });
+        assertArrayEquals(filled(3000, 1), bytes);
+        assertTrue(store.put("other", filled(3000, 2)));
+        assertEquals(new CacheStatistics(3, 1, 0), store.getStatistics());
+    }
+
+    /**
+     * Tests that entries are written to channels and that pinned chunks are not reused.
+     */
+    @Test
+    void testTransferTo() throws IOException {
+        SlabByteStore store = new SlabByteStore(4096, 4096);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(outputStream);
+        assertThrows(NullPointerException.class, () -> store.transferTo(null, channel));
+        assertThrows(NullPointerException.class, () -> store.transferTo("key", null));
+
+        assertFalse(store.transferTo("key", channel));
+        assertTrue(store.put("key", filled(3000, 1)));
+        assertTrue(store.transferTo("key", channel));
+        assertArrayEquals(filled(3000, 1), outputStream.toByteArray());
+
+        outputStream.reset();
+        WritableByteChannel evictingChannel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer source) throws IOException {
+                assertTrue(store.invalidate("key"));
+                assertFalse(store.put("other", filled(3000, 2)));
+                return channel.write(source);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {}
+        };
+        assertTrue(store.transferTo("key", evictingChannel));
+        assertArrayEquals(filled(3000, 1), outputStream.toByteArray());
+        assertTrue(store.put("other", filled(3000, 2)));
+        assertArrayEquals(filled(3000, 2), store.getIfPresent("other"));
+    }
+
+    /**
+     * Returns a new array of the provided length filled with the provided value.
+     *
+     * @param length the length of the array
+     * @param value  the value to fill the array with
+     * @return a new array of the provided length filled with the provided value
+     */
+    private static byte[] filled(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
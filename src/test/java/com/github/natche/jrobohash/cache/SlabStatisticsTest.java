@@ -0,0 +1,50 @@
+package com.github.natche.jrobohash.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link SlabStatistics}.
+ */
+public class SlabStatisticsTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    SlabStatisticsTest() {}
+
+    /**
+     * Tests for construction and the accessor methods.
+     */
+    @Test
+    void testAccessors() {
+        assertThrows(IllegalArgumentException.class, () -> new SlabStatistics(0, 0, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> new SlabStatistics(10, 10, 5, 6));
+        assertThrows(IllegalArgumentException.class, () -> new SlabStatistics(10, 10, 11, 6));
+        assertThrows(IllegalArgumentException.class, () -> new SlabStatistics(10, 11, 5, 5));
+
+        SlabStatistics statistics = new SlabStatistics(100, 50, 40, 30);
+        assertEquals(100, statistics.getCapacityBytes());
+        assertEquals(50, statistics.getAllocatedBytes());
+        assertEquals(40, statistics.getChunkBytes());
+        assertEquals(30, statistics.getStoredBytes());
+        assertEquals(10, statistics.getFreeBytes());
+        assertEquals(0.25, statistics.getFragmentation());
+        assertEquals(0.0, new SlabStatistics(0, 0, 0, 0).getFragmentation());
+        assertEquals("SlabStatistics{capacityBytes=100, allocatedBytes=50, chunkBytes=40, storedBytes=30}",
+                statistics.toString());
+    }
+
+    /**
+     * Tests for the equals and hashcode methods.
+     */
+    @Test
+    void testEqualsHashCode() {
+        SlabStatistics statistics = new SlabStatistics(100, 50, 40, 30);
+        assertEquals(statistics, statistics);
+        assertEquals(statistics, new SlabStatistics(100, 50, 40, 30));
+        assertEquals(statistics.hashCode(), new SlabStatistics(100, 50, 40, 30).hashCode());
+        assertNotEquals(statistics, new SlabStatistics(100, 50, 40, 31));
+        assertNotEquals(statistics, new Object());
+    }
+}
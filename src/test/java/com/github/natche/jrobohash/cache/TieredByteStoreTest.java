@@ -0,0 +1,93 @@
+package com.github.natche.jrobohash.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link TieredByteStore}.
+ */
+public class TieredByteStoreTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    TieredByteStoreTest() {}
+
+    /**
+     * Tests for construction of a tiered store.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(NullPointerException.class, () -> new TieredByteStore((ByteStore[]) null));
+        assertThrows(IllegalArgumentException.class, TieredByteStore::new);
+        assertThrows(NullPointerException.class, () -> new TieredByteStore(new HeapByteStore(1), null));
+
+        HeapByteStore tier = new HeapByteStore(1024);
+        TieredByteStore store = new TieredByteStore(tier);
+        assertEquals(1, store.getTiers().size());
+        assertEquals("TieredByteStore{tiers=[HeapByteStore{size=0, weight=0, maximumBytes=1024}]}",
+                store.toString());
+    }
+
+    /**
+     * Tests that lookups fall through the tiers and promote bytes to faster tiers.
+     */
+    @Test
+    void testTiers() throws IOException {
+        HeapByteStore fast = new HeapByteStore(1024);
+        HeapByteStore slow = new HeapByteStore(1024);
+        TieredByteStore store = new TieredByteStore(fast, slow);
+
+        assertNull(store.getIfPresent("key"));
+        assertTrue(slow.put("key", new byte[]{1, 2}));
+        assertNull(fast.getIfPresent("key"));
+        assertArrayEquals(new byte[]{1, 2}, store.getIfPresent("key"));
+        assertArrayEquals(new byte[]{1, 2}, fast.getIfPresent("key"));
+
+        assertTrue(store.put("other", new byte[]{3}));
+        assertNotNull(fast.getIfPresent("other"));
+        assertNotNull(slow.getIfPresent("other"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertTrue(store.transferTo("other", Channels.newChannel(outputStream)));
+        assertArrayEquals(new byte[]{3}, outputStream.toByteArray());
+        assertFalse(store.transferTo("absent", Channels.newChannel(outputStream)));
+
+        assertTrue(slow.put("slow", new byte[]{4, 5, 6}));
+        assertEquals(Integer.valueOf(3), store.read("slow", ByteBuffer::remaining));
+        assertNull(fast.getIfPresent("slow"));
+        assertNull(store.read("absent", ByteBuffer::remaining));
+
+        assertTrue(store.invalidate("key"));
+        assertFalse(store.invalidate("key"));
+        assertNull(slow.getIfPresent("key"));
+        assertEquals(new CacheStatistics(3, 3, 0), store.getStatistics());
+    }
+
+    /**
+     * Tests that load times are stored in every tier and promoted along with the bytes.
+     */
+    @Test
+    void testLoadTime() {
+        HeapByteStore fast = new HeapByteStore(1024);
+        HeapByteStore slow = new HeapByteStore(1024);
+        TieredByteStore store = new TieredByteStore(fast, slow);
+        assertThrows(NullPointerException.class, () -> store.getLoadTime(null));
+
+        assertEquals(OptionalLong.empty(), store.getLoadTime("key"));
+        assertTrue(store.put("key", new byte[]{1}, 5));
+        assertEquals(OptionalLong.of(5), fast.getLoadTime("key"));
+        assertEquals(OptionalLong.of(5), slow.getLoadTime("key"));
+
+        assertTrue(slow.put("slow", new byte[]{2}, 9));
+        assertEquals(OptionalLong.of(9), store.getLoadTime("slow"));
+        assertNotNull(store.getIfPresent("slow"));
+        assertEquals(OptionalLong.of(9), fast.getLoadTime("slow"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.natche.jrobohash.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link TinyLfuEvictionPolicy}.
+ */
+public class TinyLfuEvictionPolicyTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    TinyLfuEvictionPolicyTest() {}
+
+    /**
+     * Tests for construction of a policy.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(IllegalArgumentException.class, () -> new TinyLfuEvictionPolicy<String>(0));
+        assertThrows(IllegalArgumentException.class, () -> new TinyLfuEvictionPolicy<String>(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TinyLfuEvictionPolicy<String>(10, 1));
+        assertDoesNotThrow(() -> new TinyLfuEvictionPolicy<String>(10, 0.5));
+    }
+
+    /**
+     * Tests that frequently accessed keys win admission contests against infrequent ones.
+     */
+    @Test
+    void testSelectVictim() {
+        TinyLfuEvictionPolicy<String> policy = new TinyLfuEvictionPolicy<>(16, 0.5);
+        assertThrows(NullPointerException.class, () -> policy.recordAccess(null));
+        assertThrows(NullPointerException.class, () -> policy.recordInsertion(null));
+        assertThrows(NullPointerException.class, () -> policy.recordRemoval(null));
+        assertThrows(NullPointerException.class, () -> policy.frequency(null));
+        assertNull(policy.selectVictim());
+
+        policy.recordInsertion("only");
+        assertEquals("only", policy.selectVictim());
+        policy.recordRemoval("only");
+
+        // the window holds a single key, so "hot" overflows and is admitted to the empty main space
+        policy.recordInsertion("hot");
+        policy.recordInsertion("cold");
+        assertEquals("hot", policy.selectVictim());
+
+        for (int index = 0; index < 5; index++) {
+            policy.recordAccess("hot");
+        }
+        assertTrue(policy.frequency("hot") > policy.frequency("cold"));
+
+        // "cold" overflows the window and loses its admission contest against "hot"
+        policy.recordInsertion("new");
+        assertEquals("cold", policy.selectVictim());
+        policy.recordRemoval("cold");
+        assertEquals("hot", policy.selectVictim());
+        assertEquals(0, policy.frequency("absent"));
+    }
+}
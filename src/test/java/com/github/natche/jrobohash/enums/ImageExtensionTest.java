@@ -2,8 +2,13 @@ package com.github.natche.jrobohash.enums;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Tests for the {@link ImageExtension}s supported by RoboHash.
@@ -67,4 +72,54 @@ public class ImageExtensionTest {
         assertEquals("my-image.loop.png", ImageExtension.PNG.setAsImageExtension("my-image.loop.something"));
         assertEquals("my-image.png.jpeg.jpeg", ImageExtension.JPEG.setAsImageExtension("my-image.png.jpeg.jpeg"));
     }
+
+    /**
+     * Tests for the get canonical extension method.
+     */
+    @Test
+    void testGetCanonicalExtension() {
+        assertEquals(ImageExtension.JPG, ImageExtension.JPG.getCanonicalExtension());
+        assertEquals(ImageExtension.JPG, ImageExtension.JPEG.getCanonicalExtension());
+        assertEquals(ImageExtension.PNG, ImageExtension.PNG.getCanonicalExtension());
+        assertEquals(ImageExtension.BITMAP, ImageExtension.BITMAP.getCanonicalExtension());
+    }
+
+    /**
+     * Tests for the append as image extension method.
+     */
+    @Test
+    void testAppendAsImageExtension() throws IOException {
+        StringBuilder builder = new StringBuilder("prefix/");
+        assertThrows(NullPointerException.class, () -> ImageExtension.PNG.appendAsImageExtension(null, "my-image"));
+        assertThrows(NullPointerException.class, () -> ImageExtension.PNG.appendAsImageExtension(builder, null));
+        assertThrows(IllegalArgumentException.class, () -> ImageExtension.PNG.appendAsImageExtension(builder, "  "));
+
+        assertSame(builder, ImageExtension.PNG.appendAsImageExtension(builder, "my-image.loop.something"));
+        assertEquals("prefix/my-image.loop.png", builder.toString());
+
+        for (String filename : new String[]{"my-image", "my-image.jpeg", "my-image.png.jpeg.jpeg"}) {
+            assertEquals(ImageExtension.JPEG.setAsImageExtension(filename),
+                    ImageExtension.JPEG.appendAsImageExtension(new StringBuilder(), filename).toString());
+        }
+    }
+
+    /**
+     * Tests for the matches signature method.
+     */
+    @Test
+    void testMatchesSignature() {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0};
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+        byte[] bitmap = {'B', 'M', 0, 0};
+
+        assertThrows(NullPointerException.class, () -> ImageExtension.PNG.matchesSignature(null));
+        assertTrue(ImageExtension.PNG.matchesSignature(png));
+        assertFalse(ImageExtension.PNG.matchesSignature(jpeg));
+        assertFalse(ImageExtension.PNG.matchesSignature(new byte[]{(byte) 0x89, 'P'}));
+        assertTrue(ImageExtension.JPG.matchesSignature(jpeg));
+        assertTrue(ImageExtension.JPEG.matchesSignature(jpeg));
+        assertFalse(ImageExtension.JPEG.matchesSignature(bitmap));
+        assertTrue(ImageExtension.BITMAP.matchesSignature(bitmap));
+        assertFalse(ImageExtension.BITMAP.matchesSignature(png));
+    }
 }
@@ -1,9 +1,11 @@
 package com.github.natche.jrobohash.enums;
 
 import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.google.common.collect.ImmutableList;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -57,4 +59,47 @@ public class ImageSetTest {
         assertEquals("5", ImageSet.HUMANS.getListUrlParameterName());
         assertThrows(JRoboHashException.class, ImageSet.ANY::getListUrlParameterName);
     }
+
+    /**
+     * Tests for the get mask, to mask and from mask methods.
+     */
+    @Test
+    void testMasks() {
+        assertEquals(1, ImageSet.DEFAULT.getMask());
+        assertEquals(1 << 5, ImageSet.ANY.getMask());
+        assertEquals(1 << ImageSet.values().length, ImageSet.MASK_COUNT);
+
+        int mask = ImageSet.toMask(ImmutableList.of(ImageSet.HUMANS, ImageSet.MONSTERS, ImageSet.HUMANS));
+        assertEquals(ImageSet.MONSTERS.getMask() | ImageSet.HUMANS.getMask(), mask);
+        assertEquals(0, ImageSet.toMask(ImmutableList.of()));
+        assertThrows(NullPointerException.class, () -> ImageSet.toMask(null));
+
+        assertEquals(ImmutableList.of(ImageSet.MONSTERS, ImageSet.HUMANS), ImageSet.fromMask(mask));
+        assertSame(ImageSet.fromMask(mask), ImageSet.fromMask(mask));
+        assertEquals(ImmutableList.of(), ImageSet.fromMask(0));
+        assertEquals(ImmutableList.copyOf(ImageSet.values()), ImageSet.fromMask(ImageSet.MASK_COUNT - 1));
+        assertThrows(IllegalArgumentException.class, () -> ImageSet.fromMask(-1));
+        assertThrows(IllegalArgumentException.class, () -> ImageSet.fromMask(ImageSet.MASK_COUNT));
+    }
+
+    /**
+     * Tests for the construct URL parameter method accepting a mask.
+     */
+    @Test
+    void testConstructUrlParameterForMask() {
+        assertEquals("?set=set2", ImageSet.constructUrlParameter(ImageSet.MONSTERS.getMask(), true));
+        assertEquals("&set=set2", ImageSet.constructUrlParameter(ImageSet.MONSTERS.getMask(), false));
+
+        int mask = ImageSet.HUMANS.getMask() | ImageSet.MONSTERS.getMask();
+        assertEquals("?sets=2,5", ImageSet.constructUrlParameter(mask, true));
+        assertEquals("&sets=2,5", ImageSet.constructUrlParameter(mask, false));
+        assertSame(ImageSet.constructUrlParameter(mask, true), ImageSet.constructUrlParameter(mask, true));
+
+        assertEquals("?set=any", ImageSet.constructUrlParameter(mask | ImageSet.ANY.getMask(), true));
+        assertEquals("?set=any", ImageSet.constructUrlParameter(ImageSet.MASK_COUNT - 1, true));
+
+        assertThrows(IllegalArgumentException.class, () -> ImageSet.constructUrlParameter(0, true));
+        assertThrows(IllegalArgumentException.class,
+                () -> ImageSet.constructUrlParameter(ImageSet.MASK_COUNT, true));
+    }
 }
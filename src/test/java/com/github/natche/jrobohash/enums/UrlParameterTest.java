@@ -63,4 +63,14 @@ public class UrlParameterTest {
         assertThrows(IllegalArgumentException.class, () -> UrlParameter.SIZE.encodeUrlParameter("     "));
         assertEquals("&size=300x300", UrlParameter.SIZE.encodeUrlParameter("300x300"));
     }
+
+    /**
+     * Tests for the get URL parameter prefix method.
+     */
+    @Test
+    void testGetUrlParameterPrefix() {
+        assertEquals("?sets=", UrlParameter.IMAGE_SETS.getUrlParameterPrefix(true));
+        assertEquals("&sets=", UrlParameter.IMAGE_SETS.getUrlParameterPrefix(false));
+        assertEquals("&size=", UrlParameter.SIZE.getUrlParameterPrefix(false));
+    }
 }
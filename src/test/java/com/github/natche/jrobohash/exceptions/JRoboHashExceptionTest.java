@@ -3,6 +3,7 @@ package com.github.natche.jrobohash.exceptions;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -25,5 +26,10 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
         assertThrows(NullPointerException.class, () -> new JRoboHashException(nullString));
         assertDoesNotThrow(() -> new JRoboHashException("Exception"));
         assertDoesNotThrow(() -> new JRoboHashException(new Exception("Exception")));
+        assertThrows(NullPointerException.class, () -> new JRoboHashException("Exception", null));
+        assertThrows(IllegalArgumentException.class, () -> new JRoboHashException("", new Exception()));
+
+        Exception cause = new Exception("Cause");
+        assertSame(cause, new JRoboHashException("Exception", cause).getCause());
     }
 }
@@ -0,0 +1,44 @@
+package com.github.natche.jrobohash.exceptions;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link RequestTimeoutException}.
+ */
+public class RequestTimeoutExceptionTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    RequestTimeoutExceptionTest() {}
+
+    /**
+     * Tests for creation of exceptions.
+     */
+    @Test
+    @SuppressWarnings("ThrowableNotThrown")
+    void testCreation() {
+        Duration timeout = Duration.ofSeconds(1);
+        assertThrows(NullPointerException.class, () -> new RequestTimeoutException(null, timeout));
+        assertThrows(NullPointerException.class, () -> new RequestTimeoutException("url", null));
+        assertThrows(IllegalArgumentException.class, () -> new RequestTimeoutException(" ", timeout));
+        assertThrows(NullPointerException.class, () -> new RequestTimeoutException("url", timeout, null));
+
+        RequestTimeoutException exception = new RequestTimeoutException("https://robohash.org/a.png", timeout);
+        assertEquals("https://robohash.org/a.png", exception.getUrl());
+        assertEquals(timeout, exception.getTimeout());
+        assertNull(exception.getCause());
+        assertTrue(exception.isDeadlineExceeded());
+        assertEquals("Timed out after PT1S getting image from URL: https://robohash.org/a.png",
+                exception.getMessage());
+
+        HttpTimeoutException cause = new HttpTimeoutException("request timed out");
+        RequestTimeoutException transportException = new RequestTimeoutException("url", timeout, cause);
+        assertSame(cause, transportException.getCause());
+        assertFalse(transportException.isDeadlineExceeded());
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.natche.jrobohash.exceptions;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link UpstreamStatusException}.
+ */
+public class UpstreamStatusExceptionTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    UpstreamStatusExceptionTest() {}
+
+    /**
+     * Tests for creation of exceptions.
+     */
+    @Test
+    @SuppressWarnings("ThrowableNotThrown")
+    void testCreation() {
+        assertThrows(NullPointerException.class, () -> new UpstreamStatusException(null, 404));
+        assertThrows(IllegalArgumentException.class, () -> new UpstreamStatusException(" ", 404));
+
+        UpstreamStatusException exception = new UpstreamStatusException("https://robohash.org/a.png", 503);
+        assertEquals("https://robohash.org/a.png", exception.getUrl());
+        assertEquals(503, exception.getStatusCode());
+        assertEquals("Failed to get image from URL: https://robohash.org/a.png, status: 503", exception.getMessage());
+    }
+
+    /**
+     * Tests for the is transient method.
+     */
+    @Test
+    void testIsTransient() {
+        assertTrue(new UpstreamStatusException("url", 500).isTransient());
+        assertTrue(new UpstreamStatusException("url", 503).isTransient());
+        assertTrue(new UpstreamStatusException("url", 429).isTransient());
+        assertFalse(new UpstreamStatusException("url", 400).isTransient());
+        assertFalse(new UpstreamStatusException("url", 404).isTransient());
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.natche.jrobohash.export;
+
+import com.github.natche.jrobohash.enums.ArchiveFormat;
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.request.LocalRoboHashServer;
+import com.github.natche.jrobohash.request.RoboHashClient;
+import com.github.natche.jrobohash.request.RoboHashRequestBuilder;
+import com.github.natche.jrobohash.request.RoboHashRequestBuilderImpl;
+import com.github.natche.jrobohash.request.RoboHashResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ArchiveExporter}.
+ */
+public class ArchiveExporterTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    ArchiveExporterTest() {}
+
+    /**
+     * Tests for construction of an exporter via its builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(NullPointerException.class, () -> ArchiveExporter.builder().setClient(null));
+        assertThrows(NullPointerException.class, () -> ArchiveExporter.builder().setFormat(null));
+        assertThrows(IllegalArgumentException.class, () -> ArchiveExporter.builder().setMaxInFlight(0));
+        assertThrows(NullPointerException.class, () -> ArchiveExporter.builder().setEntryNamer(null));
+
+        ArchiveExporter exporter = ArchiveExporter.builder().build();
+        assertEquals(ArchiveExporter.DEFAULT_FORMAT, exporter.getFormat());
+        assertEquals(ArchiveExporter.DEFAULT_MAX_IN_FLIGHT, exporter.getMaxInFlight());
+        assertThrows(NullPointerException.class, () -> exporter.export((List<RoboHashRequestBuilder>) null,
+                new ByteArrayOutputStream()));
+        assertThrows(NullPointerException.class, () -> exporter.export(List.of(), null));
+        assertEquals("ArchiveExporter{format=ZIP, maxInFlight=8}", exporter.toString());
+    }
+
+    /**
+     * Tests for the default entry names.
+     */
+    @Test
+    void testDefaultEntryName() {
+        assertThrows(NullPointerException.class, () -> ArchiveExporter.defaultEntryName(null));
+        assertEquals("user_1_example.com",
+                ArchiveExporter.defaultEntryName(new RoboHashRequestBuilderImpl("user/1@example.com")));
+        assertEquals(64, ArchiveExporter.defaultEntryName(new RoboHashRequestBuilderImpl("k".repeat(100))).length());
+    }
+
+    /**
+     * Tests for exporting avatars to a ZIP archive.
+     */
+    @Test
+    void testExportZip() throws IOException {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            ArchiveExporter exporter = ArchiveExporter.builder()
+                    .setClient(RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build())
+                    .setMaxInFlight(3)
+                    .build();
+            List<RoboHashRequestBuilder> builders = IntStream.range(0, 10)
+                    .mapToObj(i -> new RoboHashRequestBuilderImpl("zip-" + i))
+                    .collect(Collectors.toList());
+            builders.add(new RoboHashRequestBuilderImpl("zip-0").setImageExtension(ImageExtension.JPG));
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            assertTrue(exporter.export(builders, outputStream).isEmpty());
+            assertTrue(server.getMaxConcurrentRequests() <= 3);
+
+            List<String> names = new ArrayList<>();
+            try (ZipInputStream zipInputStream = new ZipInputStream(
+                    new ByteArrayInputStream(outputStream.toByteArray()))) {
+                ZipEntry entry;
+                while ((entry = zipInputStream.getNextEntry()) != null) {
+                    names.add(entry.getName());
+                    assertEquals(ZipEntry.STORED, entry.getMethod());
+                    assertArrayEquals(server.getImageBytes(), zipInputStream.readAllBytes());
+                }
+            }
+            assertEquals(11, names.size());
+            assertTrue(names.contains("zip-9.png"));
+            assertTrue(names.contains("zip-0.png"));
+            assertTrue(names.contains("zip-0-2.png"));
+        }
+    }
+
+    /**
+     * Tests for exporting avatars to a TAR archive.
+     */
+    @Test
+    void testExportTar() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            ArchiveExporter exporter = ArchiveExporter.builder()
+                    .setClient(RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build())
+                    .setFormat(ArchiveFormat.TAR)
+                    .setEntryNamer(builder -> "avatars/" + builder.getAvatarKey())
+                    .build();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            assertTrue(exporter.export(List.of(new RoboHashRequestBuilderImpl("tar")), outputStream).isEmpty());
+
+            byte[] archive = outputStream.toByteArray();
+            int imageLength = server.getImageBytes().length;
+            int paddedLength = (imageLength + 511) / 512 * 512;
+            assertEquals(512 + paddedLength + 1024, archive.length);
+            assertEquals("avatars/tar.png", new String(archive, 0, 15));
+        }
+    }
+
+    /**
+     * Tests that entry names are sanitized and truncated before anything is written, and that entries
+     * which cannot be named are skipped and returned as failed.
+     */
+    @Test
+    void testEntryNames() throws IOException {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            ArchiveExporter exporter = ArchiveExporter.builder()
+                    .setClient(RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build())
+                    .setFormat(ArchiveFormat.TAR)
+                    .setMaxInFlight(1)
+                    .setEntryNamer(builder -> {
+                        String key = builder.getAvatarKey();
+                        if (key.equals("throwing")) throw new IllegalStateException("unnamed");
+                        if (key.equals("parent")) return "../..";
+                        if (key.equals("absolute")) return "/etc/../passwd";
+                        if (key.equals("windows")) return "C:\\avatars\\.\\avatar";
+                        return "/../" + "\u00e9".repeat(60);
+                    })
+                    .build();
+            List<RoboHashRequestBuilder> builders = List.of(new RoboHashRequestBuilderImpl("long"),
+                    new RoboHashRequestBuilderImpl("throwing"), new RoboHashRequestBuilderImpl("long"),
+                    new RoboHashRequestBuilderImpl("parent"), new RoboHashRequestBuilderImpl("absolute"),
+                    new RoboHashRequestBuilderImpl("windows"));
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            List<RoboHashResult> failedResults = exporter.export(builders, outputStream);
+            assertEquals(List.of("throwing", "parent"), failedResults.stream()
+                    .map(result -> result.getBuilder().getAvatarKey())
+                    .collect(Collectors.toList()));
+
+            byte[] archive = outputStream.toByteArray();
+            int paddedLength = (server.getImageBytes().length + 511) / 512 * 512;
+            assertEquals(4 * (512 + paddedLength) + 1024, archive.length);
+            List<String> names = new ArrayList<>();
+            for (int offset = 0; offset < 4 * (512 + paddedLength); offset += 512 + paddedLength) {
+                int length = 0;
+                while (length < 100 && archive[offset + length] != 0) {
+                    length++;
+                }
+                names.add(new String(archive, offset, length, StandardCharsets.UTF_8));
+            }
+            assertEquals(List.of("\u00e9".repeat(48) + ".png", "\u00e9".repeat(47) + "-2.png", "etc/passwd.png",
+                    "C_/avatars/avatar.png"), names);
+        }
+    }
+
+    /**
+     * Tests that failed fetches are skipped and returned.
+     */
+    @Test
+    void testFailedFetches() throws IOException {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            ArchiveExporter exporter = ArchiveExporter.builder()
+                    .setClient(RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build())
+                    .build();
+            server.setStatusCode(500);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            List<RoboHashResult> failedResults = exporter.export(
+                    List.of(new RoboHashRequestBuilderImpl("failed")), outputStream);
+            assertEquals(1, failedResults.size());
+            assertEquals("failed", failedResults.get(0).getBuilder().getAvatarKey());
+            try (ZipInputStream zipInputStream = new ZipInputStream(
+                    new ByteArrayInputStream(outputStream.toByteArray()))) {
+                assertNull(zipInputStream.getNextEntry());
+            }
+        }
+    }
+}
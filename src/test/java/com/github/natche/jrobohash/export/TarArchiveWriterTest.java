@@ -0,0 +1,80 @@
+package com.github.natche.jrobohash.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link TarArchiveWriter}.
+ */
+public class TarArchiveWriterTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    TarArchiveWriterTest() {}
+
+    /**
+     * Tests for writing entries.
+     */
+    @Test
+    void testWriteEntry() throws IOException {
+        assertThrows(NullPointerException.class, () -> new TarArchiveWriter(null, 0));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TarArchiveWriter writer = new TarArchiveWriter(outputStream, 1_700_000_000L);
+        byte[] content = "avatar".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(IllegalArgumentException.class, () -> writer.writeEntry("a".repeat(101), content, false));
+        writer.writeEntry("avatar.png", content, false);
+        writer.finish();
+
+        byte[] archive = outputStream.toByteArray();
+        assertEquals(TarArchiveWriter.BLOCK_SIZE * 4, archive.length);
+        assertEquals("avatar.png", readString(archive, 0, 100));
+        assertEquals("0000644", readString(archive, 100, 8));
+        assertEquals(Long.toOctalString(content.length), readString(archive, 124, 12).replaceFirst("^0+", ""));
+        assertEquals(Long.toOctalString(1_700_000_000L), readString(archive, 136, 12).replaceFirst("^0+", ""));
+        assertEquals('0', archive[156]);
+        assertEquals("ustar", readString(archive, 257, 6));
+
+        long checksum = 0;
+        for (int index = 0; index < TarArchiveWriter.BLOCK_SIZE; index++) {
+            checksum += index >= 148 && index < 156 ? ' ' : archive[index] & 0xFF;
+        }
+        assertEquals(checksum, Long.parseLong(readString(archive, 148, 8).trim(), 8));
+
+        assertArrayEquals(content, Arrays.copyOfRange(archive, 512, 512 + content.length));
+        assertTrue(allZero(Arrays.copyOfRange(archive, 512 + content.length, archive.length)));
+    }
+
+    /**
+     * Returns the NUL terminated ASCII string of the provided field.
+     *
+     * @param bytes  the bytes
+     * @param offset the offset of the field
+     * @param length the length of the field
+     * @return the string of the field
+     */
+    private static String readString(byte[] bytes, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && bytes[end] != 0) end++;
+        return new String(bytes, offset, end - offset, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns whether all of the provided bytes are zero.
+     *
+     * @param bytes the bytes
+     * @return whether all of the provided bytes are zero
+     */
+    private static boolean allZero(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b != 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.natche.jrobohash.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ZipArchiveWriter}.
+ */
+public class ZipArchiveWriterTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    ZipArchiveWriterTest() {}
+
+    /**
+     * Tests for writing stored and deflated entries.
+     */
+    @Test
+    void testWriteEntry() throws IOException {
+        assertThrows(NullPointerException.class, () -> new ZipArchiveWriter(null, 0));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ZipArchiveWriter writer = new ZipArchiveWriter(outputStream, 1_700_000_000_000L);
+        byte[] stored = {1, 2, 3, 4};
+        byte[] deflated = new byte[1000];
+        writer.writeEntry("stored.png", stored, false);
+        writer.writeEntry("deflated.bmp", deflated, true);
+        writer.finish();
+        assertTrue(outputStream.size() < stored.length + deflated.length);
+
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            ZipEntry storedEntry = zipInputStream.getNextEntry();
+            assertNotNull(storedEntry);
+            assertEquals("stored.png", storedEntry.getName());
+            assertEquals(ZipEntry.STORED, storedEntry.getMethod());
+            assertArrayEquals(stored, zipInputStream.readAllBytes());
+
+            ZipEntry deflatedEntry = zipInputStream.getNextEntry();
+            assertNotNull(deflatedEntry);
+            assertEquals("deflated.bmp", deflatedEntry.getName());
+            assertEquals(ZipEntry.DEFLATED, deflatedEntry.getMethod());
+            assertArrayEquals(deflated, zipInputStream.readAllBytes());
+
+            assertNull(zipInputStream.getNextEntry());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.natche.jrobohash.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link Deadline}.
+ */
+public class DeadlineTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    DeadlineTest() {}
+
+    /**
+     * Tests for deadlines.
+     */
+    @Test
+    void testDeadline() throws InterruptedException {
+        assertThrows(IllegalArgumentException.class, () -> Deadline.after(Duration.ofMillis(-1)));
+
+        assertSame(Deadline.NONE, Deadline.after(null));
+        assertFalse(Deadline.NONE.isBounded());
+        assertFalse(Deadline.NONE.isExpired());
+        assertEquals(Long.MAX_VALUE, Deadline.NONE.remainingNanos());
+        assertNull(Deadline.NONE.getTimeout());
+
+        Deadline deadline = Deadline.after(Duration.ofMillis(20));
+        assertTrue(deadline.isBounded());
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remainingNanos() <= Duration.ofMillis(20).toNanos());
+        assertEquals(Duration.ofMillis(20), deadline.getTimeout());
+        assertEquals("Deadline{timeout=PT0.02S}", deadline.toString());
+
+        Thread.sleep(30);
+        assertTrue(deadline.isExpired());
+        assertTrue(deadline.remainingNanos() <= 0);
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.cache.ExpiryPolicy;
+import com.github.natche.jrobohash.exceptions.RequestTimeoutException;
+import com.github.natche.jrobohash.exceptions.UpstreamStatusException;
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ExpiryTracker}.
+ */
+public class ExpiryTrackerTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    ExpiryTrackerTest() {}
+
+    /**
+     * Tests for the freshness of cached entries.
+     */
+    @Test
+    void testFreshness() {
+        AtomicLong nanos = new AtomicLong();
+        ExpiryTracker tracker = new ExpiryTracker(newPolicy(nanos));
+        assertEquals(ExpiryTracker.Freshness.EXPIRED, tracker.getFreshness(OptionalLong.empty()));
+
+        OptionalLong loadTime = OptionalLong.of(tracker.now());
+        nanos.set(Duration.ofSeconds(9).toNanos());
+        assertEquals(ExpiryTracker.Freshness.FRESH, tracker.getFreshness(loadTime));
+        nanos.set(Duration.ofSeconds(10).toNanos());
+        assertEquals(ExpiryTracker.Freshness.STALE, tracker.getFreshness(loadTime));
+        nanos.set(Duration.ofSeconds(20).toNanos());
+        assertEquals(ExpiryTracker.Freshness.EXPIRED, tracker.getFreshness(loadTime));
+
+        assertEquals(ExpiryTracker.Freshness.FRESH, tracker.getFreshness(OptionalLong.of(tracker.now())));
+    }
+
+    /**
+     * Tests for caching failed requests.
+     */
+    @Test
+    void testFailures() {
+        AtomicLong nanos = new AtomicLong();
+        ExpiryTracker tracker = new ExpiryTracker(newPolicy(nanos));
+        UpstreamStatusException clientError = new UpstreamStatusException("client", 400);
+        UpstreamStatusException serverError = new UpstreamStatusException("server", 503);
+        RequestTimeoutException timeout = new RequestTimeoutException("timeout", Duration.ofSeconds(1));
+
+        tracker.recordFailure("client", clientError);
+        tracker.recordFailure("server", serverError);
+        tracker.recordFailure("timeout", timeout);
+        assertSame(clientError, tracker.getFailureIfPresent("client"));
+        assertSame(serverError, tracker.getFailureIfPresent("server"));
+        assertSame(timeout, tracker.getFailureIfPresent("timeout"));
+        assertNull(tracker.getFailureIfPresent("other"));
+
+        nanos.set(Duration.ofSeconds(1).toNanos());
+        assertSame(clientError, tracker.getFailureIfPresent("client"));
+        assertNull(tracker.getFailureIfPresent("server"));
+        nanos.set(Duration.ofSeconds(5).toNanos());
+        assertNull(tracker.getFailureIfPresent("client"));
+
+        ExpiryTracker uncachedTracker = new ExpiryTracker(ExpiryPolicy.builder().build());
+        uncachedTracker.recordFailure("server", serverError);
+        assertNull(uncachedTracker.getFailureIfPresent("server"));
+    }
+
+    /**
+     * Returns a new policy with a time to live and a stale window of ten seconds, caching client errors
+     * for five seconds and other failures for one second.
+     *
+     * @param nanos the time read by the ticker of the policy
+     * @return a new policy
+     */
+    private static ExpiryPolicy newPolicy(AtomicLong nanos) {
+        return ExpiryPolicy.builder()
+                .setTimeToLive(Duration.ofSeconds(10))
+                .setStaleWhileRevalidate(Duration.ofSeconds(10))
+                .setClientErrorTtl(Duration.ofSeconds(5))
+                .setServerErrorTtl(Duration.ofSeconds(1))
+                .setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                })
+                .build();
+    }
+}
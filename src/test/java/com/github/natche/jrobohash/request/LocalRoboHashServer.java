@@ -0,0 +1,213 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for a RoboHash server used by tests. Every request is answered with the same
+ * image, that of the {@code builder5.png} test image, unless a status code or delay is configured.
+ */
+public final class LocalRoboHashServer implements AutoCloseable {
+    /**
+     * The image every successful request is answered with.
+     */
+    public static final Path IMAGE_PATH = Path.of("./src/test/java/com/github/natche/jrobohash/images/builder5.png");
+
+    /**
+     * The underlying HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * The executor requests are handled on.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The bytes of the served image.
+     */
+    private final byte[] imageBytes;
+
+    /**
+     * The request URIs received by this server, in order of arrival.
+     */
+    private final List<String> requestUris = new CopyOnWriteArrayList<>();
+
+    /**
+     * The status code requests are answered with.
+     */
+    private final AtomicInteger statusCode = new AtomicInteger(200);
+
+    /**
+     * The delay in milliseconds before requests are answered.
+     */
+    private final AtomicLong delayMillis = new AtomicLong();
+
+    /**
+     * The time in milliseconds the body of successful responses stalls for after its first half.
+     */
+    private final AtomicLong bodyStallMillis = new AtomicLong();
+
+    /**
+     * The number of requests currently being handled.
+     */
+    private final AtomicInteger activeRequests = new AtomicInteger();
+
+    /**
+     * The maximum number of requests handled concurrently.
+     */
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+
+    /**
+     * Creates and starts a new server on an ephemeral port of the loopback address.
+     *
+     * @throws JRoboHashException if the server cannot be started
+     */
+    public LocalRoboHashServer() {
+        try {
+            imageBytes = Files.readAllBytes(IMAGE_PATH);
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new JRoboHashException(e);
+        }
+
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Answers the provided exchange.
+     *
+     * @param exchange the exchange
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        requestUris.add(exchange.getRequestURI().toString());
+        maxActiveRequests.accumulateAndGet(activeRequests.incrementAndGet(), Math::max);
+
+        try {
+            Thread.sleep(delayMillis.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            activeRequests.decrementAndGet();
+        }
+
+        int status = statusCode.get();
+        byte[] body = status == 200 ? imageBytes : new byte[0];
+        exchange.getResponseHeaders().set("Content-Type", "image/png");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            long stallMillis = bodyStallMillis.get();
+            if (stallMillis > 0 && body.length > 1) {
+                outputStream.write(body, 0, body.length / 2);
+                outputStream.flush();
+                Thread.sleep(stallMillis);
+                outputStream.write(body, body.length / 2, body.length - body.length / 2);
+            } else {
+                outputStream.write(body);
+            }
+        } catch (IOException ignored) {
+            // The client went away, such as when a request is cancelled
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the base URL of this server, ending with a slash.
+     *
+     * @return the base URL of this server
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Returns the bytes of the image this server answers requests with.
+     *
+     * @return the bytes of the image this server answers requests with
+     */
+    public byte[] getImageBytes() {
+        return imageBytes.clone();
+    }
+
+    /**
+     * Returns the request URIs received by this server, in order of arrival.
+     *
+     * @return the request URIs received by this server
+     */
+    public List<String> getRequestUris() {
+        return List.copyOf(requestUris);
+    }
+
+    /**
+     * Returns the number of requests received by this server.
+     *
+     * @return the number of requests received by this server
+     */
+    public int getRequestCount() {
+        return requestUris.size();
+    }
+
+    /**
+     * Returns the maximum number of requests this server handled concurrently.
+     *
+     * @return the maximum number of requests this server handled concurrently
+     */
+    public int getMaxConcurrentRequests() {
+        return maxActiveRequests.get();
+    }
+
+    /**
+     * Sets the status code requests are answered with.
+     *
+     * @param statusCode the status code
+     */
+    public void setStatusCode(int statusCode) {
+        this.statusCode.set(statusCode);
+    }
+
+    /**
+     * Sets the delay before requests are answered.
+     *
+     * @param delayMillis the delay in milliseconds
+     */
+    public void setDelayMillis(long delayMillis) {
+        this.delayMillis.set(delayMillis);
+    }
+
+    /**
+     * Sets the time the body of successful responses stalls for after its first half has been sent.
+     *
+     * @param bodyStallMillis the time in milliseconds, zero to send bodies at once
+     */
+    public void setBodyStallMillis(long bodyStallMillis) {
+        this.bodyStallMillis.set(bodyStallMillis);
+    }
+
+    /**
+     * Stops this server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.enums.PrefetchPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link PrefetchOptions}.
+ */
+public class PrefetchOptionsTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    PrefetchOptionsTest() {}
+
+    /**
+     * Tests for construction of options via their builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(IllegalArgumentException.class, () -> PrefetchOptions.builder().setMaxInFlight(0));
+        assertThrows(NullPointerException.class, () -> PrefetchOptions.builder().setPriority(null));
+        assertThrows(IllegalArgumentException.class, () -> PrefetchOptions.builder().setRequestsPerSecond(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PrefetchOptions.builder().setRequestsPerSecond(Double.POSITIVE_INFINITY));
+
+        assertEquals(PrefetchOptions.DEFAULT_MAX_IN_FLIGHT, PrefetchOptions.DEFAULT.getMaxInFlight());
+        assertEquals(PrefetchOptions.DEFAULT_PRIORITY, PrefetchOptions.DEFAULT.getPriority());
+        assertEquals(OptionalDouble.empty(), PrefetchOptions.DEFAULT.getRequestsPerSecond());
+
+        PrefetchOptions options = PrefetchOptions.builder()
+                .setMaxInFlight(8)
+                .setPriority(PrefetchPriority.NORMAL)
+                .setRequestsPerSecond(50)
+                .build();
+        assertEquals(8, options.getMaxInFlight());
+        assertEquals(PrefetchPriority.NORMAL, options.getPriority());
+        assertEquals(OptionalDouble.of(50), options.getRequestsPerSecond());
+    }
+
+    /**
+     * Tests for the toString method.
+     */
+    @Test
+    void testToString() {
+        assertEquals("PrefetchOptions{maxInFlight=4, priority=LOW, requestsPerSecond=0.0}",
+                PrefetchOptions.DEFAULT.toString());
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.cache.BoundedCache;
+import com.github.natche.jrobohash.cache.HeapByteStore;
+import com.github.natche.jrobohash.enums.PrefetchPriority;
+import com.google.common.collect.Iterables;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link Prefetch}.
+ */
+public class PrefetchTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    PrefetchTest() {}
+
+    /**
+     * Tests for prefetching encoded images into the byte store.
+     */
+    @Test
+    void testPrefetchBytes() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            HeapByteStore byteStore = new HeapByteStore(10_000_000);
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setByteStore(byteStore)
+                    .build();
+            List<RoboHashRequestBuilder> builders = newBuilders("bytes", 5);
+
+            Prefetch prefetch = client.prefetch(builders, PrefetchOptions.builder()
+                    .setMaxInFlight(2)
+                    .setPriority(PrefetchPriority.NORMAL)
+                    .build());
+            assertEquals(OptionalLong.of(5), prefetch.getTotalCount());
+            prefetch.getCompletion().join();
+
+            assertTrue(prefetch.isDone());
+            assertEquals(5, prefetch.getIssuedCount());
+            assertEquals(5, prefetch.getSucceededCount());
+            assertEquals(0, prefetch.getFailedCount());
+            assertEquals(5, server.getRequestCount());
+            assertTrue(server.getMaxConcurrentRequests() <= 2);
+            builders.forEach(builder -> assertNotNull(byteStore.getIfPresent(client.buildRequestUrl(builder))));
+
+            builders.forEach(client::getImageBytes);
+            assertEquals(5, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Tests for prefetching decoded images into the image cache.
+     */
+    @Test
+    void testPrefetchImages() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            BoundedCache<String, BufferedImage> imageCache = BoundedCache.forImages(10_000_000);
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setImageCache(imageCache)
+                    .build();
+            List<RoboHashRequestBuilder> builders = newBuilders("images", 3);
+
+            Prefetch prefetch = client.prefetch(Iterables.unmodifiableIterable(builders));
+            prefetch.getCompletion().join();
+            assertEquals(OptionalLong.of(3), prefetch.getTotalCount());
+            assertEquals(3, prefetch.getSucceededCount());
+            builders.forEach(builder -> assertNotNull(imageCache.getIfPresent(client.buildRequestUrl(builder))));
+
+            Prefetch cachedPrefetch = client.prefetch(builders);
+            cachedPrefetch.getCompletion().join();
+            assertEquals(3, cachedPrefetch.getSucceededCount());
+            assertEquals(3, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Tests that failed fetches are counted without failing the prefetch.
+     */
+    @Test
+    void testFailures() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setByteStore(new HeapByteStore(1_000_000))
+                    .build();
+            server.setStatusCode(404);
+
+            Prefetch prefetch = client.prefetch(newBuilders("failures", 3));
+            prefetch.getCompletion().join();
+            assertEquals(0, prefetch.getSucceededCount());
+            assertEquals(3, prefetch.getFailedCount());
+        }
+    }
+
+    /**
+     * Tests that a low priority prefetch waits for foreground calls and may be cancelled.
+     */
+    @Test
+    void testLowPriority() throws InterruptedException {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setByteStore(new HeapByteStore(10_000_000))
+                    .build();
+            server.setDelayMillis(200);
+
+            CompletableFuture<byte[]> foregroundCall = client.getImageBytesAsync(
+                    new RoboHashRequestBuilderImpl("foreground"));
+            Prefetch prefetch = client.prefetch(newBuilders("low", 2));
+            Thread.sleep(50);
+            assertEquals(1, server.getRequestCount());
+            assertEquals(2, prefetch.getIssuedCount());
+            assertFalse(prefetch.isDone());
+            foregroundCall.join();
+            prefetch.getCompletion().join();
+            assertEquals(3, server.getRequestCount());
+
+            CompletableFuture<byte[]> secondForegroundCall = client.getImageBytesAsync(
+                    new RoboHashRequestBuilderImpl("second-foreground"));
+            Prefetch cancelledPrefetch = client.prefetch(newBuilders("cancelled", 2));
+            assertTrue(cancelledPrefetch.cancel());
+            assertFalse(cancelledPrefetch.cancel());
+            assertTrue(cancelledPrefetch.isDone());
+            assertThrows(CompletionException.class, () -> cancelledPrefetch.getCompletion().join());
+            secondForegroundCall.join();
+            Thread.sleep(50);
+            assertEquals(4, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Tests that fetches are spaced at the configured rate.
+     */
+    @Test
+    void testRate() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setByteStore(new HeapByteStore(10_000_000))
+                    .build();
+
+            long start = System.nanoTime();
+            client.prefetch(newBuilders("rate", 4), PrefetchOptions.builder()
+                    .setRequestsPerSecond(20)
+                    .build()).getCompletion().join();
+            assertTrue(System.nanoTime() - start >= 140_000_000L);
+            assertEquals(4, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Tests for the toString method.
+     */
+    @Test
+    void testToString() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setByteStore(new HeapByteStore(1_000_000))
+                    .build();
+            Prefetch prefetch = client.prefetch(newBuilders("string", 1));
+            prefetch.getCompletion().join();
+            assertEquals("Prefetch{totalCount=1, issuedCount=1, succeededCount=1, failedCount=0, done=true}",
+                    prefetch.toString());
+        }
+    }
+
+    /**
+     * Returns the provided number of builders with distinct keys.
+     *
+     * @param prefix the prefix of the keys
+     * @param count  the number of builders
+     * @return the builders
+     */
+    private static List<RoboHashRequestBuilder> newBuilders(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new RoboHashRequestBuilderImpl(prefix + "-" + i))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.natche.jrobohash.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link RequestCoalescer}.
+ */
+public class RequestCoalescerTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    RequestCoalescerTest() {}
+
+    /**
+     * Tests that concurrent loads of the same key are coalesced into one.
+     */
+    @Test
+    void testCoalesce() {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+        assertThrows(NullPointerException.class, () -> coalescer.coalesce(null, CompletableFuture::new));
+        assertThrows(NullPointerException.class, () -> coalescer.coalesce("key", null));
+
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> load = new CompletableFuture<>();
+        CompletableFuture<String> first = coalescer.coalesce("key", () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        CompletableFuture<String> second = coalescer.coalesce("key", () -> {
+            loads.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        CompletableFuture<String> other = coalescer.coalesce("other", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other value");
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals(1, coalescer.getCoalescedCount());
+        assertEquals(1, coalescer.getInFlightCount());
+        assertEquals("other value", other.join());
+
+        second.cancel(true);
+        assertFalse(first.isDone());
+        load.complete("value");
+        assertEquals("value", first.join());
+        assertEquals(0, coalescer.getInFlightCount());
+
+        CompletableFuture<String> fresh = coalescer.coalesce("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("fresh value");
+        });
+        assertEquals("fresh value", fresh.join());
+        assertEquals(3, loads.get());
+    }
+
+    /**
+     * Tests that a load is cancelled and forgotten once every caller waiting for it gave up.
+     */
+    @Test
+    void testCoalesceAbandoned() {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+
+        CompletableFuture<String> load = new CompletableFuture<>();
+        CompletableFuture<String> first = coalescer.coalesce("key", () -> load);
+        CompletableFuture<String> second = coalescer.coalesce("key", CompletableFuture::new);
+        first.cancel(true);
+        assertFalse(load.isDone());
+        assertEquals(1, coalescer.getInFlightCount());
+        second.cancel(true);
+        assertTrue(load.isCancelled());
+        assertEquals(0, coalescer.getInFlightCount());
+        assertEquals(1, coalescer.getAbandonedCount());
+
+        CompletableFuture<String> fresh = coalescer.coalesce("key", () -> CompletableFuture.completedFuture("value"));
+        assertEquals("value", fresh.join());
+        fresh.cancel(true);
+        assertEquals(1, coalescer.getAbandonedCount());
+    }
+
+    /**
+     * Tests that failed loads are shared and then forgotten.
+     */
+    @Test
+    void testCoalesceFailure() {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+
+        CompletableFuture<String> failed = coalescer.coalesce("key",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("failure")));
+        CompletionException exception = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+
+        CompletableFuture<String> thrown = coalescer.coalesce("key", () -> {
+            throw new IllegalStateException("failure");
+        });
+        assertThrows(CompletionException.class, thrown::join);
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+}
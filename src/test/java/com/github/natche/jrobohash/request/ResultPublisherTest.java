@@ -0,0 +1,216 @@
+package com.github.natche.jrobohash.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ResultPublisher}.
+ */
+public class ResultPublisherTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    ResultPublisherTest() {}
+
+    /**
+     * Tests for construction of a publisher.
+     */
+    @Test
+    void testConstruction() {
+        RoboHashClient client = RoboHashClient.builder().build();
+        assertThrows(NullPointerException.class, () -> new ResultPublisher(null, Stream.empty(), 1));
+        assertThrows(NullPointerException.class, () -> new ResultPublisher(client, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ResultPublisher(client, Stream.empty(), 0));
+        assertThrows(NullPointerException.class, () -> new ResultPublisher(client, Stream.empty(), 1).subscribe(null));
+    }
+
+    /**
+     * Tests that every result is emitted once demand is unbounded.
+     */
+    @Test
+    void testUnboundedDemand() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build();
+            AtomicBoolean closed = new AtomicBoolean();
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+
+            client.publishAll(newBuilders(10).onClose(() -> closed.set(true)), 4).subscribe(subscriber);
+            subscriber.subscription.request(Long.MAX_VALUE);
+            subscriber.completion.join();
+
+            assertEquals(10, subscriber.results.size());
+            assertTrue(subscriber.results.stream().allMatch(RoboHashResult::isSuccess));
+            assertEquals(10, server.getRequestCount());
+            assertTrue(server.getMaxConcurrentRequests() <= 4);
+            assertTrue(closed.get());
+        }
+    }
+
+    /**
+     * Tests that fetches are only issued for signalled demand.
+     */
+    @Test
+    void testBackpressure() throws InterruptedException {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build();
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+
+            client.publishAll(newBuilders(100), 8).subscribe(subscriber);
+            Thread.sleep(50);
+            assertEquals(0, server.getRequestCount());
+
+            subscriber.subscription.request(3);
+            waitForResults(subscriber, 3);
+            Thread.sleep(50);
+            assertEquals(3, subscriber.results.size());
+            assertEquals(3, server.getRequestCount());
+
+            subscriber.subscription.request(2);
+            waitForResults(subscriber, 5);
+            subscriber.subscription.cancel();
+            Thread.sleep(50);
+            assertEquals(5, server.getRequestCount());
+            assertFalse(subscriber.completion.isDone());
+        }
+    }
+
+    /**
+     * Tests that failed fetches are emitted as failed results.
+     */
+    @Test
+    void testFailedResults() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build();
+            server.setStatusCode(500);
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+
+            client.publishAll(newBuilders(3), 2).subscribe(subscriber);
+            subscriber.subscription.request(10);
+            subscriber.completion.join();
+            assertEquals(3, subscriber.results.size());
+            assertTrue(subscriber.results.stream().noneMatch(RoboHashResult::isSuccess));
+        }
+    }
+
+    /**
+     * Tests for the errors signalled to subscribers.
+     */
+    @Test
+    void testErrors() {
+        RoboHashClient client = RoboHashClient.builder().build();
+        Flow.Publisher<RoboHashResult> publisher = client.publishAll(Stream.empty(), 1);
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.completion.join();
+        assertTrue(subscriber.results.isEmpty());
+
+        RecordingSubscriber secondSubscriber = new RecordingSubscriber();
+        publisher.subscribe(secondSubscriber);
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(Exception.class, secondSubscriber.completion::join).getCause());
+
+        RecordingSubscriber invalidSubscriber = new RecordingSubscriber();
+        client.publishAll(newBuilders(1), 1).subscribe(invalidSubscriber);
+        invalidSubscriber.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class,
+                assertThrows(Exception.class, invalidSubscriber.completion::join).getCause());
+
+        RecordingSubscriber throwingSubscriber = new RecordingSubscriber();
+        client.publishAll(Stream.of((RoboHashRequestBuilder) null), 1).subscribe(throwingSubscriber);
+        throwingSubscriber.subscription.request(1);
+        assertInstanceOf(NullPointerException.class,
+                assertThrows(Exception.class, throwingSubscriber.completion::join).getCause());
+    }
+
+    /**
+     * Returns a stream of the provided number of builders with distinct keys.
+     *
+     * @param count the number of builders
+     * @return the builders
+     */
+    private static Stream<RoboHashRequestBuilder> newBuilders(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new RoboHashRequestBuilderImpl("published-" + i));
+    }
+
+    /**
+     * Waits until the provided subscriber received the provided number of results.
+     *
+     * @param subscriber the subscriber
+     * @param count      the number of results
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void waitForResults(RecordingSubscriber subscriber, int count) throws InterruptedException {
+        for (int i = 0; i < 200 && subscriber.results.size() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * A subscriber recording the signals it receives.
+     */
+    private static final class RecordingSubscriber implements Flow.Subscriber<RoboHashResult> {
+        /**
+         * The results received.
+         */
+        private final List<RoboHashResult> results = new CopyOnWriteArrayList<>();
+
+        /**
+         * The future completed on the terminal signal.
+         */
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        /**
+         * The subscription received.
+         */
+        private volatile Flow.Subscription subscription;
+
+        /**
+         * Records the provided subscription.
+         *
+         * @param subscription the subscription
+         */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        /**
+         * Records the provided result.
+         *
+         * @param item the result
+         */
+        @Override
+        public void onNext(RoboHashResult item) {
+            results.add(item);
+        }
+
+        /**
+         * Completes the completion exceptionally with the provided error.
+         *
+         * @param throwable the error
+         */
+        @Override
+        public void onError(Throwable throwable) {
+            completion.completeExceptionally(throwable);
+        }
+
+        /**
+         * Completes the completion.
+         */
+        @Override
+        public void onComplete() {
+            completion.complete(null);
+        }
+    }
+}
@@ -0,0 +1,966 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.balancing.Endpoint;
+import com.github.natche.jrobohash.balancing.EndpointPool;
+import com.github.natche.jrobohash.cache.BoundedCache;
+import com.github.natche.jrobohash.cache.CacheStatistics;
+import com.github.natche.jrobohash.cache.ExpiryPolicy;
+import com.github.natche.jrobohash.cache.HeapByteStore;
+import com.github.natche.jrobohash.cache.SlabByteStore;
+import com.github.natche.jrobohash.enums.BalancingStrategy;
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.enums.ImageSet;
+import com.github.natche.jrobohash.enums.SaveMode;
+import com.github.natche.jrobohash.exceptions.CircuitOpenException;
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.github.natche.jrobohash.exceptions.RequestTimeoutException;
+import com.github.natche.jrobohash.exceptions.UpstreamStatusException;
+import com.github.natche.jrobohash.resilience.CircuitBreaker;
+import com.github.natche.jrobohash.resilience.ConcurrencyLimiter;
+import com.github.natche.jrobohash.resilience.HedgingPolicy;
+import com.github.natche.jrobohash.resilience.RetryPolicy;
+import com.github.natche.jrobohash.resilience.TokenBucket;
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.http.HttpClient;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link RoboHashClient}.
+ */
+public class RoboHashClientTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    RoboHashClientTest() {}
+
+    /**
+     * Tests for construction of a client via its builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setBaseUrl(null));
+        assertThrows(IllegalArgumentException.class, () -> RoboHashClient.builder().setBaseUrl(""));
+        assertThrows(IllegalArgumentException.class, () -> RoboHashClient.builder().setBaseUrl("   "));
+        assertThrows(IllegalArgumentException.class, () -> RoboHashClient.builder().setBaseUrl("ftp://host/"));
+        assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setHttpVersion(null));
+        assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setExecutor(null));
+
+        RoboHashClient defaultClient = RoboHashClient.builder().build();
+        assertEquals(RoboHashClient.DEFAULT_BASE_URL, defaultClient.getBaseUrl());
+        assertEquals(HttpClient.Version.HTTP_2, defaultClient.getHttpVersion());
+
+        RoboHashClient customClient = RoboHashClient.builder()
+                .setBaseUrl("http://localhost:8080")
+                .setHttpVersion(HttpClient.Version.HTTP_1_1)
+                .build();
+        assertEquals("http://localhost:8080/", customClient.getBaseUrl());
+        assertEquals(HttpClient.Version.HTTP_1_1, customClient.getHttpVersion());
+        assertEquals("RoboHashClient{baseUrl=\"http://localhost:8080/\", httpVersion=HTTP_1_1}",
+                customClient.toString());
+    }
+
+    /**
+     * Tests for the build request URL method.
+     */
+    @Test
+    void testBuildRequestUrl() {
+        RoboHashClient client = RoboHashClient.builder().setBaseUrl("http://localhost:8080/robohash/").build();
+        assertThrows(NullPointerException.class, () -> client.buildRequestUrl(null));
+
+        RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("minimal").addImageSet(ImageSet.KITTENS);
+        assertEquals("http://localhost:8080/robohash/minimal.png?set=set4&bgset=any&size=300x300",
+                client.buildRequestUrl(builder));
+    }
+
+    /**
+     * Tests for the compile URL template method.
+     */
+    @Test
+    void testCompileUrlTemplate() {
+        RoboHashClient client = RoboHashClient.builder().setBaseUrl("http://localhost:8080/robohash/").build();
+        assertThrows(NullPointerException.class, () -> client.compileUrlTemplate(null));
+
+        RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("minimal").addImageSet(ImageSet.KITTENS);
+        RoboHashUrlTemplate template = client.compileUrlTemplate(builder);
+        assertEquals(client.getBaseUrl(), template.getBaseUrl());
+        assertEquals(client.buildRequestUrl(builder), template.buildRequestUrl("minimal"));
+        assertEquals("http://localhost:8080/robohash/other.png?set=set4&bgset=any&size=300x300",
+                template.buildRequestUrl("other"));
+    }
+
+    /**
+     * Tests for the append request URL method.
+     */
+    @Test
+    void testAppendRequestUrl() {
+        RoboHashClient client = RoboHashClient.builder().setBaseUrl("http://localhost:8080/robohash/").build();
+        RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("minimal.jpg")
+                .addImageSet(ImageSet.KITTENS)
+                .addImageSet(ImageSet.HUMANS)
+                .setIgnoreExtension(false);
+        assertThrows(NullPointerException.class, () -> client.appendRequestUrl(null, new StringBuilder()));
+        assertThrows(NullPointerException.class, () -> client.appendRequestUrl(builder, null));
+
+        assertEquals(client.buildRequestUrl(builder), client.appendRequestUrl(builder, new StringBuilder()).toString());
+        assertEquals("http://localhost:8080/robohash/minimal.png?sets=4,5&bgset=any&size=300x300&ignoreext=false",
+                client.appendRequestUrl(builder, new StringWriter()).toString());
+
+        Appendable closedAppendable = new Appendable() {
+            @Override
+            public Appendable append(CharSequence sequence) throws IOException {
+                throw new IOException("closed");
+            }
+
+            @Override
+            public Appendable append(CharSequence sequence, int start, int end) throws IOException {
+                throw new IOException("closed");
+            }
+
+            @Override
+            public Appendable append(char c) throws IOException {
+                throw new IOException("closed");
+            }
+        };
+        assertThrows(JRoboHashException.class, () -> client.appendRequestUrl(builder, closedAppendable));
+    }
+
+    /**
+     * Tests for the get image methods against a local stand-in server.
+     */
+    @Test
+    void testGetImage() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setHttpVersion(HttpClient.Version.HTTP_1_1)
+                    .setExecutor(executor)
+                    .build();
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("minimal");
+
+            assertThrows(NullPointerException.class, () -> client.getImage(null));
+            assertThrows(NullPointerException.class, () -> client.getImageAsync(null));
+            assertThrows(NullPointerException.class, () -> client.getImageBytes(null));
+            assertThrows(NullPointerException.class, () -> client.getImageBytesAsync(null));
+
+            assertArrayEquals(server.getImageBytes(), client.getImageBytes(builder));
+            assertArrayEquals(server.getImageBytes(), client.getImageBytesAsync(builder).join());
+
+            BufferedImage image = client.getImage(builder);
+            assertEquals(300, image.getWidth());
+            assertEquals(300, image.getHeight());
+            assertEquals(300, client.getImageAsync(builder).join().getWidth());
+
+            assertEquals(4, server.getRequestCount());
+            assertEquals("/minimal.png?set=any&bgset=any&size=300x300", server.getRequestUris().get(0));
+
+            server.setStatusCode(404);
+            assertThrows(JRoboHashException.class, () -> client.getImage(builder));
+            CompletionException exception = assertThrows(CompletionException.class,
+                    () -> client.getImageBytesAsync(builder).join());
+            assertInstanceOf(JRoboHashException.class, exception.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests for the save to file methods against a local stand-in server.
+     */
+    @Test
+    void testSaveToFile() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build();
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("minimal");
+
+            assertThrows(NullPointerException.class, () -> client.saveToFile(null, null));
+            assertThrows(NullPointerException.class, () -> client.saveToFile(builder, null));
+            assertThrows(IllegalArgumentException.class, () -> client.saveToFile(builder, new File(".")));
+            assertThrows(NullPointerException.class, () -> client.saveToFileAsync(builder, null));
+
+            File tmpDir = new File("tmp-client");
+            //noinspection ResultOfMethodCallIgnored
+            tmpDir.mkdir();
+            assertTrue(tmpDir.exists());
+
+            File file = new File("tmp-client/minimal.png");
+            assertDoesNotThrow(() -> client.saveToFile(builder, file));
+            assertTrue(file.exists());
+            assertThrows(IllegalArgumentException.class, () -> client.saveToFile(builder, file));
+            assertTrue(file.delete());
+
+            assertDoesNotThrow(() -> client.saveToFileAsync(builder, file).join());
+            assertTrue(file.exists());
+            assertTrue(file.delete());
+            assertTrue(tmpDir.delete());
+        }
+    }
+
+    /**
+     * Tests that images are streamed to disk as returned by the server and only transcoded when required.
+     */
+    @Test
+    void testSaveModes() throws IOException {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build();
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("minimal");
+            assertThrows(NullPointerException.class,
+                    () -> client.saveToFile(builder, new File("tmp-client/minimal.png"), null));
+
+            File tmpDir = new File("tmp-client");
+            //noinspection ResultOfMethodCallIgnored
+            tmpDir.mkdir();
+
+            File streamed = new File("tmp-client/streamed.png");
+            client.saveToFile(builder, streamed, SaveMode.STREAM);
+            assertArrayEquals(server.getImageBytes(), Files.readAllBytes(streamed.toPath()));
+
+            File transcoded = new File("tmp-client/transcoded.png");
+            client.saveToFile(builder, transcoded, SaveMode.TRANSCODE);
+            assertTrue(ImageExtension.PNG.matchesSignature(Files.readAllBytes(transcoded.toPath())));
+
+            File converted = new File("tmp-client/converted.jpeg");
+            client.saveToFile(builder.setImageExtension(ImageExtension.JPEG), converted, SaveMode.STREAM);
+            assertTrue(ImageExtension.JPEG.matchesSignature(Files.readAllBytes(converted.toPath())));
+
+            server.setStatusCode(404);
+            File missing = new File("tmp-client/missing.jpeg");
+            assertThrows(JRoboHashException.class, () -> client.saveToFile(builder, missing));
+            assertFalse(missing.exists());
+
+            String[] savedFiles = tmpDir.list();
+            assertNotNull(savedFiles);
+            assertEquals(3, savedFiles.length);
+            assertTrue(streamed.delete());
+            assertTrue(transcoded.delete());
+            assertTrue(converted.delete());
+            assertTrue(tmpDir.delete());
+        }
+    }
+
+    /**
+     * Tests for the batch fetch methods against a local stand-in server.
+     */
+    @Test
+    void testFetchAll() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setHttpVersion(HttpClient.Version.HTTP_1_1)
+                    .build();
+            List<RoboHashRequestBuilder> builders = IntStream.range(0, 20)
+                    .mapToObj(index -> (RoboHashRequestBuilder) new RoboHashRequestBuilderImpl("key" + index))
+                    .collect(Collectors.toList());
+
+            assertThrows(NullPointerException.class,
+                    () -> client.fetchAll((Iterable<RoboHashRequestBuilder>) null, 1, result -> {}));
+            assertThrows(NullPointerException.class, () -> client.fetchAll(builders, 1, null));
+            assertThrows(IllegalArgumentException.class, () -> client.fetchAll(builders, 0, result -> {}));
+
+            server.setDelayMillis(20);
+            List<RoboHashResult> results = new ArrayList<>();
+            client.fetchAll(builders, 4, results::add).join();
+            assertEquals(20, results.size());
+            assertTrue(results.stream().allMatch(RoboHashResult::isSuccess));
+            assertEquals(20, server.getRequestCount());
+            assertTrue(server.getMaxConcurrentRequests() <= 4);
+
+            List<RoboHashResult> streamResults = new ArrayList<>();
+            client.fetchAll(builders.stream().limit(5), 2, streamResults::add).join();
+            assertEquals(5, streamResults.size());
+
+            List<RoboHashResult> emptyResults = new ArrayList<>();
+            client.fetchAll(List.of(), 2, emptyResults::add).join();
+            assertTrue(emptyResults.isEmpty());
+
+            server.setStatusCode(500);
+            List<RoboHashResult> failedResults = new ArrayList<>();
+            client.fetchAll(builders.subList(0, 3), 2, failedResults::add).join();
+            assertEquals(3, failedResults.size());
+            assertTrue(failedResults.stream().noneMatch(RoboHashResult::isSuccess));
+            assertInstanceOf(JRoboHashException.class, failedResults.get(0).getError());
+
+            server.setStatusCode(200);
+            CompletionException exception = assertThrows(CompletionException.class,
+                    () -> client.fetchAll(builders, 2, result -> {
+                        throw new IllegalStateException("consumer failure");
+                    }).join());
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+        }
+    }
+
+    /**
+     * Tests that concurrent requests for the same avatar share a single fetch and decode.
+     */
+    @Test
+    void testRequestCoalescing() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build();
+            assertTrue(client.isRequestCoalescing());
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("popular");
+
+            server.setDelayMillis(200);
+            List<CompletableFuture<BufferedImage>> futures = IntStream.range(0, 10)
+                    .mapToObj(index -> client.getImageAsync(builder))
+                    .collect(Collectors.toList());
+            List<BufferedImage> images = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+            assertEquals(1, server.getRequestCount());
+            assertTrue(images.stream().allMatch(image -> image == images.get(0)));
+            assertEquals(9, client.getCoalescedRequestCount());
+
+            RoboHashClient uncoalescedClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setRequestCoalescing(false)
+                    .build();
+            assertFalse(uncoalescedClient.isRequestCoalescing());
+            IntStream.range(0, 3)
+                    .mapToObj(index -> uncoalescedClient.getImageBytesAsync(builder))
+                    .collect(Collectors.toList())
+                    .forEach(CompletableFuture::join);
+            assertEquals(4, server.getRequestCount());
+            assertEquals(0, uncoalescedClient.getCoalescedRequestCount());
+        }
+    }
+
+    /**
+     * Tests that equivalent builders share coalesced fetches.
+     */
+    @Test
+    void testEquivalentRequestCoalescing() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build();
+            List<RoboHashRequestBuilder> builders = List.of(
+                    new RoboHashRequestBuilderImpl("equivalent")
+                            .addImageSet(ImageSet.KITTENS)
+                            .addImageSet(ImageSet.MONSTERS)
+                            .setImageExtension(ImageExtension.JPEG),
+                    new RoboHashRequestBuilderImpl("equivalent")
+                            .addImageSet(ImageSet.MONSTERS)
+                            .addImageSet(ImageSet.KITTENS)
+                            .addImageSet(ImageSet.MONSTERS)
+                            .setImageExtension(ImageExtension.JPG));
+
+            server.setDelayMillis(200);
+            builders.stream()
+                    .map(client::getImageBytesAsync)
+                    .collect(Collectors.toList())
+                    .forEach(CompletableFuture::join);
+            assertEquals(1, server.getRequestCount());
+            assertEquals(1, client.getCoalescedRequestCount());
+        }
+    }
+
+    /**
+     * Tests that decoded images are served from the configured image cache.
+     */
+    @Test
+    void testImageCache() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setImageCache(null));
+            assertTrue(RoboHashClient.builder().build().getImageCache().isEmpty());
+
+            BoundedCache<String, BufferedImage> imageCache = BoundedCache.forImages(10_000_000);
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setImageCache(imageCache)
+                    .build();
+            assertSame(imageCache, client.getImageCache().orElseThrow());
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("cached");
+
+            BufferedImage image = client.getImage(builder);
+            assertSame(image, client.getImage(builder));
+            assertSame(image, client.getImageAsync(builder).join());
+            assertEquals(1, server.getRequestCount());
+            assertSame(image, imageCache.getIfPresent(client.buildRequestUrl(builder)));
+            assertEquals(new CacheStatistics(3, 1, 0), imageCache.getStatistics());
+
+            client.getImage(builder.setWidth(200));
+            assertEquals(2, server.getRequestCount());
+            assertEquals(2, imageCache.size());
+        }
+    }
+
+    /**
+     * Tests that encoded image bytes are served from the configured byte store and decoded lazily.
+     */
+    @Test
+    void testByteStore() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setByteStore(null));
+            assertTrue(RoboHashClient.builder().build().getByteStore().isEmpty());
+
+            HeapByteStore byteStore = new HeapByteStore(1_000_000);
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setByteStore(byteStore)
+                    .build();
+            assertSame(byteStore, client.getByteStore().orElseThrow());
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("stored");
+
+            byte[] bytes = client.getImageBytes(builder);
+            assertArrayEquals(server.getImageBytes(), bytes);
+            assertSame(bytes, client.getImageBytes(builder));
+            assertSame(bytes, byteStore.getIfPresent(client.buildRequestUrl(builder)));
+            assertEquals(1, byteStore.size());
+            assertEquals(bytes.length, byteStore.weight());
+
+            BufferedImage image = client.getImage(builder);
+            assertEquals(300, image.getWidth());
+            assertEquals(1, server.getRequestCount());
+
+            File file = new File("stored.png");
+            assertDoesNotThrow(() -> client.saveToFile(builder, file));
+            assertArrayEquals(bytes, assertDoesNotThrow(() -> Files.readAllBytes(file.toPath())));
+            assertTrue(file.delete());
+            assertEquals(1, server.getRequestCount());
+
+            // images are decoded straight from the slabs of an off-heap store
+            SlabByteStore slabStore = new SlabByteStore(SlabByteStore.DEFAULT_SLAB_SIZE);
+            RoboHashClient slabClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setByteStore(slabStore)
+                    .build();
+            assertArrayEquals(bytes, slabClient.getImageBytes(builder));
+            assertEquals(300, slabClient.getImage(builder).getWidth());
+            assertEquals(2, server.getRequestCount());
+            assertEquals(new CacheStatistics(1, 1, 0), slabStore.getStatistics());
+        }
+    }
+
+    /**
+     * Tests that encoded images are streamed to output streams and channels.
+     */
+    @Test
+    void testStreamTo() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashClient client = RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build();
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("streamed");
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            WritableByteChannel channel = Channels.newChannel(outputStream);
+
+            assertThrows(NullPointerException.class, () -> client.streamTo(null, outputStream));
+            assertThrows(NullPointerException.class, () -> client.streamTo(builder, (ByteArrayOutputStream) null));
+            assertThrows(NullPointerException.class, () -> client.streamTo(builder, (WritableByteChannel) null));
+
+            client.streamTo(builder, outputStream);
+            assertArrayEquals(server.getImageBytes(), outputStream.toByteArray());
+            outputStream.reset();
+            client.streamTo(builder, channel);
+            assertArrayEquals(server.getImageBytes(), outputStream.toByteArray());
+            assertEquals(2, server.getRequestCount());
+
+            HeapByteStore byteStore = new HeapByteStore(1_000_000);
+            RoboHashClient storingClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setByteStore(byteStore)
+                    .build();
+            storingClient.getImageBytes(builder);
+            outputStream.reset();
+            storingClient.streamTo(builder, outputStream);
+            assertArrayEquals(server.getImageBytes(), outputStream.toByteArray());
+            assertEquals(3, server.getRequestCount());
+
+            server.setStatusCode(404);
+            outputStream.reset();
+            assertThrows(JRoboHashException.class, () -> client.streamTo(builder, outputStream));
+            assertEquals(0, outputStream.size());
+        }
+    }
+
+    /**
+     * Tests that transient failures are retried and that the circuit breaker fails requests fast.
+     */
+    @Test
+    void testResilience() throws IOException {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setRetryPolicy(null));
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setCircuitBreaker(null));
+
+            RetryPolicy retryPolicy = RetryPolicy.builder()
+                    .setMaxAttempts(3)
+                    .setBaseDelay(Duration.ofMillis(1))
+                    .setMaxDelay(Duration.ofMillis(10))
+                    .build();
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setRetryPolicy(retryPolicy)
+                    .build();
+            assertEquals(Optional.of(retryPolicy), client.getRetryPolicy());
+            assertEquals(Optional.empty(), client.getCircuitBreaker());
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("resilient");
+
+            server.setStatusCode(503);
+            UpstreamStatusException unavailable = assertThrows(UpstreamStatusException.class,
+                    () -> client.getImageBytes(builder));
+            assertEquals(503, unavailable.getStatusCode());
+            assertEquals(3, server.getRequestCount());
+            assertEquals(2, retryPolicy.getRetryCount());
+            assertEquals(1, retryPolicy.getExhaustedCount());
+
+            server.setStatusCode(404);
+            assertThrows(UpstreamStatusException.class, () -> client.getImageBytes(builder));
+            assertEquals(4, server.getRequestCount());
+
+            File directory = Files.createTempDirectory("resilient").toFile();
+            File file = new File(directory, "resilient.png");
+            try {
+                assertThrows(UpstreamStatusException.class,
+                        () -> client.saveToFile(builder, file, SaveMode.STREAM));
+                assertFalse(file.exists());
+                server.setStatusCode(200);
+                client.saveToFile(builder, file, SaveMode.STREAM);
+                assertArrayEquals(server.getImageBytes(), Files.readAllBytes(file.toPath()));
+            } finally {
+                Files.deleteIfExists(file.toPath());
+                Files.deleteIfExists(directory.toPath());
+            }
+
+            CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+                    .setSlidingWindowSize(2)
+                    .setMinimumCalls(2)
+                    .build();
+            RoboHashClient guardedClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setCircuitBreaker(circuitBreaker)
+                    .build();
+            int requestCount = server.getRequestCount();
+            server.setStatusCode(500);
+            assertThrows(UpstreamStatusException.class, () -> guardedClient.getImageBytes(builder));
+            assertThrows(UpstreamStatusException.class, () -> guardedClient.streamTo(builder,
+                    new ByteArrayOutputStream()));
+            assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+            assertThrows(CircuitOpenException.class, () -> guardedClient.getImageBytes(builder));
+            assertEquals(requestCount + 2, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Tests that requests are limited by the concurrency limiter and the rate limiter.
+     */
+    @Test
+    void testConcurrencyLimits() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setConcurrencyLimiter(null));
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setRateLimiter(null));
+
+            ConcurrencyLimiter concurrencyLimiter = ConcurrencyLimiter.builder()
+                    .setInitialLimit(2)
+                    .setMaxLimit(2)
+                    .build();
+            // a frozen ticker never refills the bucket, thus the calls beyond its capacity are throttled
+            TokenBucket rateLimiter = new TokenBucket(1000, 4, new Ticker() {
+                @Override
+                public long read() {
+                    return 0;
+                }
+            });
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setRequestCoalescing(false)
+                    .setConcurrencyLimiter(concurrencyLimiter)
+                    .setRateLimiter(rateLimiter)
+                    .build();
+            assertEquals(Optional.of(concurrencyLimiter), client.getConcurrencyLimiter());
+            assertEquals(Optional.of(rateLimiter), client.getRateLimiter());
+
+            server.setDelayMillis(20);
+            List<RoboHashRequestBuilder> builders = IntStream.range(0, 8)
+                    .mapToObj(i -> new RoboHashRequestBuilderImpl("limited-" + i))
+                    .collect(Collectors.toList());
+            client.fetchAll(builders, 8, result -> assertTrue(result.isSuccess())).join();
+
+            assertEquals(8, server.getRequestCount());
+            assertTrue(server.getMaxConcurrentRequests() <= 2);
+            assertEquals(0, concurrencyLimiter.getInFlight());
+            assertEquals(4, rateLimiter.getThrottledCount());
+        }
+    }
+
+    /**
+     * Tests that slow requests for image bytes are hedged.
+     */
+    @Test
+    void testHedging() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setHedgingPolicy(null));
+
+            HedgingPolicy hedgingPolicy = HedgingPolicy.builder()
+                    .setInitialDelay(Duration.ofMillis(20))
+                    .build();
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setHedgingPolicy(hedgingPolicy)
+                    .build();
+            assertEquals(Optional.of(hedgingPolicy), client.getHedgingPolicy());
+
+            server.setDelayMillis(200);
+            assertArrayEquals(server.getImageBytes(), client.getImageBytes(new RoboHashRequestBuilderImpl("hedged")));
+            assertEquals(2, server.getRequestCount());
+            assertEquals(1, hedgingPolicy.getHedgeCount());
+
+            // a hedge takes its own token of the rate limiter and is not sent without one
+            TokenBucket rateLimiter = new TokenBucket(1, 1, new Ticker() {
+                @Override
+                public long read() {
+                    return 0;
+                }
+            });
+            RoboHashClient limitedClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setHedgingPolicy(hedgingPolicy)
+                    .setRateLimiter(rateLimiter)
+                    .build();
+            assertArrayEquals(server.getImageBytes(),
+                    limitedClient.getImageBytes(new RoboHashRequestBuilderImpl("limited")));
+            assertEquals(3, server.getRequestCount());
+            assertEquals(1, hedgingPolicy.getHedgeCount());
+            assertEquals(0, rateLimiter.getAvailableTokens());
+        }
+    }
+
+    /**
+     * Tests that requests are bounded by the connect, request and call timeouts.
+     */
+    @Test
+    void testTimeouts() {
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setConnectTimeout(null));
+            assertThrows(IllegalArgumentException.class,
+                    () -> RoboHashClient.builder().setConnectTimeout(Duration.ZERO));
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setRequestTimeout(null));
+            assertThrows(IllegalArgumentException.class,
+                    () -> RoboHashClient.builder().setRequestTimeout(Duration.ofMillis(-1)));
+            assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setCallTimeout(null));
+            assertThrows(IllegalArgumentException.class, () -> RoboHashClient.builder().setCallTimeout(Duration.ZERO));
+
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setConnectTimeout(Duration.ofSeconds(1))
+                    .setCallTimeout(Duration.ofMillis(100))
+                    .build();
+            assertEquals(Optional.of(Duration.ofSeconds(1)), client.getConnectTimeout());
+            assertEquals(Optional.empty(), client.getRequestTimeout());
+            assertEquals(Optional.of(Duration.ofMillis(100)), client.getCallTimeout());
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("timeout");
+            assertThrows(NullPointerException.class, () -> client.getImageBytesAsync(builder, null));
+            assertThrows(NullPointerException.class, () -> client.getImageAsync(null, Duration.ofSeconds(1)));
+
+            server.setDelayMillis(1000);
+            long start = System.nanoTime();
+            RequestTimeoutException callTimeout = assertThrows(RequestTimeoutException.class,
+                    () -> client.getImageBytes(builder));
+            assertEquals(Duration.ofMillis(100), callTimeout.getTimeout());
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(900).toNanos());
+            assertThrows(RequestTimeoutException.class, () -> client.getImage(builder));
+
+            // the fetches every caller gave up on were aborted rather than left in flight to be joined
+            assertEquals(2, server.getRequestCount());
+            assertEquals(3, client.getAbandonedRequestCount());
+            server.setDelayMillis(50);
+            start = System.nanoTime();
+            assertEquals(300, client.getImageAsync(builder, Duration.ofSeconds(5)).join().getWidth());
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(900).toNanos());
+            assertEquals(3, server.getRequestCount());
+            assertEquals(0, client.getCoalescedRequestCount());
+
+            server.setDelayMillis(0);
+            server.setBodyStallMillis(5000);
+            start = System.nanoTime();
+            RequestTimeoutException streamTimeout = assertThrows(RequestTimeoutException.class,
+                    () -> client.streamTo(new RoboHashRequestBuilderImpl("stalled"), new ByteArrayOutputStream()));
+            assertEquals(Duration.ofMillis(100), streamTimeout.getTimeout());
+            assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+            server.setBodyStallMillis(0);
+
+            RetryPolicy retryPolicy = RetryPolicy.builder()
+                    .setMaxAttempts(2)
+                    .setBaseDelay(Duration.ZERO)
+                    .setMaxDelay(Duration.ofMillis(1))
+                    .build();
+            RoboHashClient retryingClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setRequestTimeout(Duration.ofMillis(100))
+                    .setRetryPolicy(retryPolicy)
+                    .build();
+            server.setDelayMillis(1000);
+            RequestTimeoutException requestTimeout = assertThrows(RequestTimeoutException.class,
+                    () -> retryingClient.getImageBytes(builder));
+            assertEquals(Duration.ofMillis(100), requestTimeout.getTimeout());
+            assertNotNull(requestTimeout.getCause());
+            assertEquals(1, retryPolicy.getRetryCount());
+        }
+    }
+
+    /**
+     * Tests for balancing requests across an endpoint pool.
+     */
+    @Test
+    void testEndpointPool() {
+        assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setEndpointPool(null));
+
+        try (LocalRoboHashServer primaryServer = new LocalRoboHashServer();
+             LocalRoboHashServer failingServer = new LocalRoboHashServer();
+             EndpointPool pool = EndpointPool.builder()
+                     .addEndpoint(primaryServer.getBaseUrl())
+                     .addEndpoint(failingServer.getBaseUrl())
+                     .setStrategy(BalancingStrategy.ROUND_ROBIN)
+                     .setConsecutiveFailures(2)
+                     .build()) {
+            RoboHashClient client = RoboHashClient.builder()
+                    .setEndpointPool(pool)
+                    .setRetryPolicy(RetryPolicy.builder()
+                            .setBaseDelay(Duration.ZERO)
+                            .setMaxDelay(Duration.ofMillis(1))
+                            .build())
+                    .build();
+            assertEquals(primaryServer.getBaseUrl(), client.getBaseUrl());
+            assertEquals(Optional.of(pool), client.getEndpointPool());
+            assertThrows(IllegalStateException.class, () -> RoboHashClient.builder()
+                    .setBaseUrl(failingServer.getBaseUrl())
+                    .setEndpointPool(pool)
+                    .build());
+            assertEquals(Optional.empty(), RoboHashClient.builder().build().getEndpointPool());
+
+            for (int i = 0; i < 4; i++) {
+                RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("balanced" + i);
+                assertTrue(client.buildRequestUrl(builder).startsWith(primaryServer.getBaseUrl()));
+                assertEquals(300, client.getImage(builder).getWidth());
+            }
+            assertEquals(2, primaryServer.getRequestCount());
+            assertEquals(2, failingServer.getRequestCount());
+
+            failingServer.setStatusCode(503);
+            for (int i = 0; i < 6; i++) {
+                assertArrayEquals(primaryServer.getImageBytes(),
+                        client.getImageBytes(new RoboHashRequestBuilderImpl("failover" + i)));
+            }
+            Endpoint failingEndpoint = pool.getEndpoints().get(1);
+            assertTrue(failingEndpoint.isEjected());
+            assertEquals(2, failingEndpoint.getFailureCount());
+            assertEquals(4, failingServer.getRequestCount());
+            assertEquals(8, primaryServer.getRequestCount());
+        }
+
+        try (LocalRoboHashServer slowServer = new LocalRoboHashServer();
+             EndpointPool pool = EndpointPool.builder()
+                     .addEndpoint(slowServer.getBaseUrl())
+                     .setConsecutiveFailures(1)
+                     .build()) {
+            RoboHashClient client = RoboHashClient.builder().setEndpointPool(pool).build();
+            slowServer.setDelayMillis(1000);
+            for (int i = 0; i < 2; i++) {
+                CompletionException exception = assertThrows(CompletionException.class, () -> client
+                        .getImageBytesAsync(new RoboHashRequestBuilderImpl("slow"), Duration.ofMillis(50)).join());
+                assertInstanceOf(RequestTimeoutException.class, exception.getCause());
+            }
+
+            // requests aborted at the deadline of the caller say nothing about the health of the endpoint
+            Endpoint slowEndpoint = pool.getEndpoints().get(0);
+            assertFalse(slowEndpoint.isEjected());
+            assertEquals(0, slowEndpoint.getFailureCount());
+            assertEquals(0, slowEndpoint.getSuccessCount());
+            assertEquals(0, slowEndpoint.getOutstandingRequests());
+        }
+    }
+
+    /**
+     * Tests for argument validation of prefetches.
+     */
+    @Test
+    void testPrefetch() {
+        RoboHashClient client = RoboHashClient.builder()
+                .setByteStore(new HeapByteStore(1_000_000))
+                .build();
+        assertThrows(NullPointerException.class, () -> client.prefetch(null));
+        assertThrows(NullPointerException.class, () -> client.prefetch(List.of(), null));
+        assertThrows(IllegalStateException.class, () -> RoboHashClient.builder().build().prefetch(List.of()));
+
+        Prefetch prefetch = client.prefetch(List.of());
+        assertTrue(prefetch.isDone());
+        assertEquals(0, prefetch.getIssuedCount());
+    }
+
+    /**
+     * Tests for stale-while-revalidate and negative caching per the expiry policy.
+     */
+    @Test
+    void testExpiryPolicy() throws InterruptedException {
+        assertThrows(NullPointerException.class, () -> RoboHashClient.builder().setExpiryPolicy(null));
+
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            AtomicLong nanos = new AtomicLong();
+            ExpiryPolicy expiryPolicy = ExpiryPolicy.builder()
+                    .setTimeToLive(Duration.ofSeconds(10))
+                    .setStaleWhileRevalidate(Duration.ofSeconds(10))
+                    .setClientErrorTtl(Duration.ofSeconds(30))
+                    .setTicker(new Ticker() {
+                        @Override
+                        public long read() {
+                            return nanos.get();
+                        }
+                    })
+                    .build();
+            RoboHashClient client = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setImageCache(BoundedCache.forImages(10_000_000))
+                    .setExpiryPolicy(expiryPolicy)
+                    .build();
+            assertEquals(Optional.of(expiryPolicy), client.getExpiryPolicy());
+            assertEquals(Optional.empty(), RoboHashClient.builder().build().getExpiryPolicy());
+
+            RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("expiring");
+            BufferedImage image = client.getImage(builder);
+            nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+            assertSame(image, client.getImage(builder));
+            assertEquals(1, server.getRequestCount());
+
+            nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+            server.setDelayMillis(100);
+            assertSame(image, client.getImageAsync(builder).getNow(null));
+            BufferedImage refreshedImage = image;
+            for (int i = 0; i < 100 && refreshedImage == image; i++) {
+                Thread.sleep(10);
+                refreshedImage = client.getImage(builder);
+            }
+            assertNotSame(image, refreshedImage);
+            assertEquals(2, server.getRequestCount());
+
+            server.setDelayMillis(0);
+            nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+            assertNotSame(refreshedImage, client.getImage(builder));
+            assertEquals(3, server.getRequestCount());
+
+            server.setStatusCode(400);
+            RoboHashRequestBuilder badBuilder = new RoboHashRequestBuilderImpl("bad");
+            UpstreamStatusException clientError = assertThrows(UpstreamStatusException.class,
+                    () -> client.getImageBytes(badBuilder));
+            assertSame(clientError, assertThrows(UpstreamStatusException.class, () -> client.getImage(badBuilder)));
+            assertEquals(4, server.getRequestCount());
+            nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+            assertThrows(UpstreamStatusException.class, () -> client.getImage(badBuilder));
+            assertEquals(5, server.getRequestCount());
+
+            server.setStatusCode(503);
+            RoboHashRequestBuilder unavailableBuilder = new RoboHashRequestBuilderImpl("unavailable");
+            assertThrows(UpstreamStatusException.class, () -> client.getImageBytes(unavailableBuilder));
+            assertThrows(UpstreamStatusException.class, () -> client.getImageBytes(unavailableBuilder));
+            assertEquals(7, server.getRequestCount());
+
+            // an expired image is refetched rather than decoded again from the byte store
+            server.setStatusCode(200);
+            RoboHashClient storingClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setImageCache(BoundedCache.forImages(10_000_000))
+                    .setByteStore(new HeapByteStore(10_000_000))
+                    .setExpiryPolicy(expiryPolicy)
+                    .build();
+            RoboHashRequestBuilder storedBuilder = new RoboHashRequestBuilderImpl("stored");
+            storingClient.getImage(storedBuilder);
+            assertEquals(8, server.getRequestCount());
+            nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+            storingClient.getImage(storedBuilder);
+            assertEquals(9, server.getRequestCount());
+
+            // a single background refresh is in flight per stale image without request coalescing
+            RoboHashClient uncoalescedClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setRequestCoalescing(false)
+                    .setImageCache(BoundedCache.forImages(10_000_000))
+                    .setExpiryPolicy(expiryPolicy)
+                    .build();
+            RoboHashRequestBuilder staleBuilder = new RoboHashRequestBuilderImpl("stale");
+            BufferedImage staleImage = uncoalescedClient.getImage(staleBuilder);
+            assertEquals(10, server.getRequestCount());
+            nanos.addAndGet(Duration.ofSeconds(15).toNanos());
+            server.setDelayMillis(200);
+            for (int i = 0; i < 5; i++) {
+                assertSame(staleImage, uncoalescedClient.getImage(staleBuilder));
+            }
+            for (int i = 0; i < 100 && uncoalescedClient.getImage(staleBuilder) == staleImage; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(11, server.getRequestCount());
+
+            // an image cached by a client without an expiry policy has no known age and is refetched
+            BoundedCache<String, BufferedImage> sharedCache = BoundedCache.forImages(10_000_000);
+            RoboHashClient unexpiringClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setImageCache(sharedCache)
+                    .build();
+            RoboHashClient expiringClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setImageCache(sharedCache)
+                    .setExpiryPolicy(expiryPolicy)
+                    .build();
+            server.setDelayMillis(0);
+            RoboHashRequestBuilder sharedBuilder = new RoboHashRequestBuilderImpl("shared");
+            BufferedImage sharedImage = unexpiringClient.getImage(sharedBuilder);
+            BufferedImage expiringImage = expiringClient.getImage(sharedBuilder);
+            assertNotSame(sharedImage, expiringImage);
+            assertEquals(13, server.getRequestCount());
+            assertSame(expiringImage, unexpiringClient.getImage(sharedBuilder));
+            nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+            assertNotSame(expiringImage, expiringClient.getImage(sharedBuilder));
+            assertEquals(14, server.getRequestCount());
+
+            // stored bytes expire on the byte path as well
+            HeapByteStore byteStore = new HeapByteStore(10_000_000);
+            RoboHashClient bytesClient = RoboHashClient.builder()
+                    .setBaseUrl(server.getBaseUrl())
+                    .setByteStore(byteStore)
+                    .setExpiryPolicy(expiryPolicy)
+                    .build();
+            RoboHashRequestBuilder bytesBuilder = new RoboHashRequestBuilderImpl("bytes");
+            String bytesUrl = bytesClient.buildRequestUrl(bytesBuilder);
+            bytesClient.getImageBytes(bytesBuilder);
+            bytesClient.getImageBytes(bytesBuilder);
+            assertEquals(15, server.getRequestCount());
+            OptionalLong storedLoadTime = byteStore.getLoadTime(bytesUrl);
+            nanos.addAndGet(Duration.ofSeconds(15).toNanos());
+            bytesClient.getImageBytes(bytesBuilder);
+            for (int i = 0; i < 100 && byteStore.getLoadTime(bytesUrl).equals(storedLoadTime); i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(OptionalLong.of(nanos.get()), byteStore.getLoadTime(bytesUrl));
+            assertEquals(16, server.getRequestCount());
+            nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+            bytesClient.getImageBytes(bytesBuilder);
+            assertEquals(17, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Tests for argument validation of published fetches.
+     */
+    @Test
+    void testPublishAll() {
+        RoboHashClient client = RoboHashClient.builder().build();
+        assertThrows(NullPointerException.class, () -> client.publishAll(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> client.publishAll(Stream.empty(), 0));
+        assertNotNull(client.publishAll(Stream.empty(), 1));
+    }
+}
@@ -168,7 +168,7 @@ public class RoboHashRequestBuilderImplTest {
         implementationOne.setImageSets(ImmutableList.of(ImageSet.ANY));
         assertEquals(ImmutableList.of(ImageSet.ANY), implementationOne.getImageSets());
         implementationOne.setImageSets(ImmutableList.of(ImageSet.SEXY_ROBOTS, ImageSet.DEFAULT));
-        assertEquals(ImmutableList.of(ImageSet.SEXY_ROBOTS, ImageSet.DEFAULT), implementationOne.getImageSets());
+        assertEquals(ImmutableList.of(ImageSet.DEFAULT, ImageSet.SEXY_ROBOTS), implementationOne.getImageSets());
 
         implementationOne.addImageSet(ImageSet.ANY);
         assertTrue(implementationOne.getImageSets().contains(ImageSet.ANY));
@@ -176,6 +176,14 @@ public class RoboHashRequestBuilderImplTest {
         assertTrue(implementationOne.getImageSets().contains(ImageSet.KITTENS));
         assertFalse(implementationOne.getImageSets().contains(ImageSet.ANY));
 
+        implementationOne.setImageSets(ImmutableList.of(ImageSet.HUMANS, ImageSet.MONSTERS, ImageSet.HUMANS));
+        assertEquals(ImmutableList.of(ImageSet.MONSTERS, ImageSet.HUMANS), implementationOne.getImageSets());
+        assertEquals(ImageSet.MONSTERS.getMask() | ImageSet.HUMANS.getMask(), implementationOne.getImageSetsMask());
+        implementationOne.addImageSet(ImageSet.MONSTERS);
+        assertEquals(ImmutableList.of(ImageSet.MONSTERS, ImageSet.HUMANS), implementationOne.getImageSets());
+        implementationOne.resetImageSets();
+        assertEquals(ImageSet.ANY.getMask(), implementationOne.getImageSetsMask());
+
         assertThrows(IllegalArgumentException.class, () -> implementationOne.addImageSets(ImmutableList.of()));
         assertThrows(IllegalArgumentException.class, () -> implementationOne.removeImageSets(ImmutableList.of()));
         assertThrows(IllegalArgumentException.class, () -> implementationOne.setImageSets(ImmutableList.of()));
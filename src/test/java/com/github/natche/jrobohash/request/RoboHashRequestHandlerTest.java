@@ -16,6 +16,7 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -83,6 +84,26 @@ public class RoboHashRequestHandlerTest {
         }
     }
 
+    /**
+     * Tests for the accessor and mutator of the client requests are delegated to.
+     */
+    @Test
+    void testClient() {
+        assertThrows(NullPointerException.class, () -> RoboHashRequestHandler.setClient(null));
+        RoboHashClient defaultClient = RoboHashRequestHandler.getClient();
+        assertEquals(RoboHashClient.DEFAULT_BASE_URL, defaultClient.getBaseUrl());
+
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            RoboHashRequestHandler.setClient(RoboHashClient.builder().setBaseUrl(server.getBaseUrl()).build());
+            assertEquals(server.getBaseUrl() + "minimal.png?set=any&bgset=any&size=300x300",
+                    RoboHashRequestHandler.buildRequestUrl(builder5));
+            assertEquals(300, RoboHashRequestHandler.getImage(builder5).getWidth());
+            assertEquals(1, server.getRequestCount());
+        } finally {
+            RoboHashRequestHandler.setClient(defaultClient);
+        }
+    }
+
     /**
      * Tests for the build request URL method.
      */
@@ -90,7 +111,7 @@ public class RoboHashRequestHandlerTest {
     void testBuildRequestUrl() {
         assertThrows(NullPointerException.class, () -> RoboHashRequestHandler.buildRequestUrl(null));
 
-        assertEquals("https://robohash.org/2bf1b7a19bcad06a8e894d7373a4cfc7.jpeg"
+        assertEquals("https://robohash.org/2bf1b7a19bcad06a8e894d7373a4cfc7.jpg"
                         + "?set=set5&bgset=bg2&size=500x500&gravatar=hashed",
                 RoboHashRequestHandler.buildRequestUrl(builder));
 
@@ -108,6 +129,73 @@ public class RoboHashRequestHandlerTest {
                 RoboHashRequestHandler.buildRequestUrl(builder5));
     }
 
+    /**
+     * Tests that equivalent builders yield the same canonical URL.
+     */
+    @Test
+    void testCanonicalRequestUrl() {
+        String url = RoboHashRequestHandler.buildRequestUrl(new RoboHashRequestBuilderImpl("key")
+                .addImageSet(ImageSet.MONSTERS)
+                .addImageSet(ImageSet.HUMANS)
+                .setImageExtension(ImageExtension.JPG));
+        assertEquals("https://robohash.org/key.jpg?sets=2,5&bgset=any&size=300x300", url);
+
+        assertEquals(url, RoboHashRequestHandler.buildRequestUrl(new RoboHashRequestBuilderImpl("key")
+                .addImageSet(ImageSet.HUMANS)
+                .addImageSet(ImageSet.MONSTERS)
+                .addImageSet(ImageSet.HUMANS)
+                .setImageExtension(ImageExtension.JPEG)));
+        assertEquals(url, RoboHashRequestHandler.buildRequestUrl(new RoboHashRequestBuilderImpl("key.png")
+                .setImageSets(List.of(ImageSet.HUMANS, ImageSet.MONSTERS))
+                .setImageExtension(ImageExtension.JPG)));
+
+        assertEquals("https://robohash.org/key.png?set=set2&bgset=any&size=300x300",
+                RoboHashRequestHandler.buildRequestUrl(new RoboHashRequestBuilderImpl("key")
+                        .setImageSets(List.of(ImageSet.MONSTERS, ImageSet.MONSTERS))));
+        assertEquals("https://robohash.org/key.jpeg?set=any&bgset=any&size=300x300&ignoreext=false",
+                RoboHashRequestHandler.buildRequestUrl(new RoboHashRequestBuilderImpl("key")
+                        .setImageExtension(ImageExtension.JPEG)
+                        .setIgnoreExtension(false)));
+    }
+
+    /**
+     * Tests for the compile URL template method.
+     */
+    @Test
+    void testCompileUrlTemplate() {
+        assertThrows(NullPointerException.class, () -> RoboHashRequestHandler.compileUrlTemplate(null));
+
+        for (RoboHashRequestBuilder requestBuilder : new RoboHashRequestBuilder[]{
+                builder, builder2, builder3, builder4, builder5}) {
+            RoboHashUrlTemplate template = RoboHashRequestHandler.compileUrlTemplate(requestBuilder);
+            assertEquals(RoboHashRequestHandler.buildRequestUrl(requestBuilder),
+                    template.buildRequestUrl(requestBuilder.getAvatarKey()));
+        }
+    }
+
+    /**
+     * Tests for the append request URL method.
+     */
+    @Test
+    void testAppendRequestUrl() {
+        assertThrows(NullPointerException.class,
+                () -> RoboHashRequestHandler.appendRequestUrl(null, new StringBuilder()));
+        assertThrows(NullPointerException.class, () -> RoboHashRequestHandler.appendRequestUrl(builder, null));
+
+        StringBuilder urlBuilder = new StringBuilder();
+        for (RoboHashRequestBuilder requestBuilder : new RoboHashRequestBuilder[]{
+                builder, builder2, builder3, builder4, builder5}) {
+            urlBuilder.setLength(0);
+            assertSame(urlBuilder, RoboHashRequestHandler.appendRequestUrl(requestBuilder, urlBuilder));
+            assertEquals(RoboHashRequestHandler.buildRequestUrl(requestBuilder), urlBuilder.toString());
+        }
+
+        StringBuilder page = new StringBuilder("<img src=\"");
+        RoboHashRequestHandler.appendRequestUrl(builder4, page).append("\">");
+        assertEquals("<img src=\"https://robohash.org/nathan-v-cheshire.png?sets=2,5&bgset=bg2&size=701x701\">",
+                page.toString());
+    }
+
     /**
      * Tests for the get image method.
      */
@@ -116,6 +204,46 @@ public class RoboHashRequestHandlerTest {
         // this is transitively tested by testSaveToFile
     }
 
+    /**
+     * Tests for the asynchronous get image methods.
+     */
+    @Test
+    void testGetImageAsync() {
+        assertThrows(NullPointerException.class, () -> RoboHashRequestHandler.getImageAsync(null));
+        assertThrows(NullPointerException.class, () -> RoboHashRequestHandler.getImageBytesAsync(null));
+
+        BufferedImage image = RoboHashRequestHandler.getImageAsync(builder4).join();
+        assertEquals(701, image.getWidth());
+        assertEquals(701, image.getHeight());
+
+        byte[] imageBytes = RoboHashRequestHandler.getImageBytesAsync(builder5).join();
+        assertTrue(imageBytes.length > 0);
+    }
+
+    /**
+     * Tests for the asynchronous save to file method.
+     */
+    @Test
+    void testSaveToFileAsync() {
+        assertThrows(NullPointerException.class, () -> RoboHashRequestHandler.saveToFileAsync(null, null));
+        assertThrows(NullPointerException.class, () -> RoboHashRequestHandler.saveToFileAsync(builder, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> RoboHashRequestHandler.saveToFileAsync(builder, new File(".")));
+
+        File tmpDir = new File("tmp-async");
+        //noinspection ResultOfMethodCallIgnored
+        tmpDir.mkdir();
+        assertTrue(tmpDir.exists());
+
+        File builder5File = new File("tmp-async/builder" + builder5.getImageExtension().getExtensionWithPeriod());
+        assertDoesNotThrow(() -> RoboHashRequestHandler.saveToFileAsync(builder5, builder5File).join());
+        assertTrue(builder5File.exists());
+        File builder5ComparisonFile = new File("./src/test/java/com/github/natche/jrobohash/images/builder5.png");
+        assertTrue(fileImagesEqual(builder5File, builder5ComparisonFile));
+        assertTrue(builder5File.delete());
+        assertTrue(tmpDir.delete());
+    }
+
     /**
      * Returns whether the images stored in the provided files are equivalent.
      *
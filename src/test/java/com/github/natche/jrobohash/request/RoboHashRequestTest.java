@@ -0,0 +1,219 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.enums.BackgroundSet;
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.enums.ImageSet;
+import com.github.natche.jrobohash.enums.UseGravatar;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link RoboHashRequest}.
+ */
+public class RoboHashRequestTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    RoboHashRequestTest() {}
+
+    /**
+     * Returns a builder using every parameter.
+     *
+     * @return a builder using every parameter
+     */
+    private static RoboHashRequestBuilder newBuilder() {
+        return new RoboHashRequestBuilderImpl("nathan")
+                .addImageSet(ImageSet.MONSTERS)
+                .addImageSet(ImageSet.HUMANS)
+                .setBackgroundSet(BackgroundSet.OUTSIDE)
+                .setImageExtension(ImageExtension.JPG)
+                .setUseGravatar(UseGravatar.YES)
+                .setIgnoreExtension(false)
+                .setWidth(200)
+                .setHeight(100);
+    }
+
+    /**
+     * Tests for creating a request from a builder.
+     */
+    @Test
+    void testCopyOf() {
+        assertThrows(NullPointerException.class, () -> RoboHashRequest.copyOf(null));
+        assertThrows(IllegalArgumentException.class, () -> new RoboHashRequestBuilderImpl("key")
+                .removeImageSet(ImageSet.ANY).build());
+
+        RoboHashRequestBuilder builder = newBuilder();
+        RoboHashRequest request = builder.build();
+        assertSame(request, RoboHashRequest.copyOf(request));
+        assertSame(request, request.build());
+        assertEquals("nathan", request.getAvatarKey());
+        assertEquals(List.of(ImageSet.MONSTERS, ImageSet.HUMANS), request.getImageSets());
+        assertEquals(BackgroundSet.OUTSIDE, request.getBackgroundSet());
+        assertEquals(200, request.getWidth());
+        assertEquals(100, request.getHeight());
+        assertEquals(UseGravatar.YES, request.getUseGravatar());
+        assertFalse(request.shouldIgnoreExtension());
+        assertEquals(ImageExtension.JPG, request.getImageExtension());
+        assertTrue(request.isSafeUrlMode());
+
+        builder.setWidth(500).addImageSet(ImageSet.KITTENS);
+        assertEquals(200, request.getWidth());
+        assertEquals(List.of(ImageSet.MONSTERS, ImageSet.HUMANS), request.getImageSets());
+    }
+
+    /**
+     * Tests that requests cannot be mutated.
+     */
+    @Test
+    void testImmutable() {
+        RoboHashRequest request = newBuilder().build();
+        assertFalse(RoboHashRequestBuilder.class.isAssignableFrom(RoboHashRequest.class));
+        assertTrue(RoboHashRequestOptions.class.isAssignableFrom(RoboHashRequestBuilder.class));
+        assertThrows(UnsupportedOperationException.class, () -> request.getImageSets().add(ImageSet.KITTENS));
+        assertEquals(200, request.getWidth());
+    }
+
+    /**
+     * Tests for deriving a builder from a request.
+     */
+    @Test
+    void testToBuilder() {
+        RoboHashRequest request = newBuilder().build();
+        RoboHashRequestBuilderImpl builder = request.toBuilder();
+        assertEquals(newBuilder(), builder);
+        assertEquals(request, builder.build());
+
+        RoboHashRequest unsafe = ((RoboHashRequestBuilderImpl) new RoboHashRequestBuilderImpl("key"))
+                .disableSafeUrlMode().build();
+        assertFalse(unsafe.toBuilder().isSafeUrlMode());
+        assertEquals(unsafe, unsafe.toBuilder().build());
+    }
+
+    /**
+     * Tests for the relative URL of a request.
+     */
+    @Test
+    void testGetRelativeUrl() {
+        RoboHashRequest request = newBuilder().build();
+        assertEquals("nathan.jpg?sets=2,5&bgset=bg1&size=200x100&gravatar=yes&ignoreext=false",
+                request.getRelativeUrl());
+        assertSame(request.getRelativeUrl(), request.getRelativeUrl());
+
+        RoboHashClient client = RoboHashClient.builder().setBaseUrl("http://localhost/").build();
+        assertEquals(client.buildRequestUrl(newBuilder()), client.buildRequestUrl(request));
+        assertEquals(client.buildRequestUrl(newBuilder()),
+                client.appendRequestUrl(request, new StringBuilder()).toString());
+    }
+
+    /**
+     * Tests for the canonical form of a request.
+     */
+    @Test
+    void testCanonicalize() {
+        RoboHashRequest canonical = new RoboHashRequestBuilderImpl("key.jpg")
+                .addImageSet(ImageSet.MONSTERS)
+                .addImageSet(ImageSet.HUMANS)
+                .setImageExtension(ImageExtension.JPG)
+                .build();
+        assertTrue(canonical.isCanonical());
+        assertSame(canonical, canonical.canonicalize());
+
+        List<RoboHashRequestBuilder> equivalentBuilders = List.of(
+                new RoboHashRequestBuilderImpl("key")
+                        .addImageSet(ImageSet.HUMANS)
+                        .addImageSet(ImageSet.MONSTERS)
+                        .addImageSet(ImageSet.HUMANS)
+                        .setImageExtension(ImageExtension.JPEG),
+                new RoboHashRequestBuilderImpl("key.bmp")
+                        .setImageSets(List.of(ImageSet.MONSTERS, ImageSet.HUMANS))
+                        .setImageExtension(ImageExtension.JPG),
+                ((RoboHashRequestBuilderImpl) new RoboHashRequestBuilderImpl("key")
+                        .setImageSets(List.of(ImageSet.MONSTERS, ImageSet.HUMANS))
+                        .setImageExtension(ImageExtension.JPG))
+                        .disableSafeUrlMode());
+        for (RoboHashRequestBuilder builder : equivalentBuilders) {
+            RoboHashRequest request = builder.build();
+            assertFalse(request.isCanonical());
+            assertNotEquals(canonical, request);
+            assertEquals(canonical, request.canonicalize());
+            assertEquals(canonical.getFingerprint(), request.canonicalize().getFingerprint());
+            assertEquals(canonical.getRelativeUrl(), request.getRelativeUrl());
+        }
+
+        RoboHashRequest notIgnoringExtension = new RoboHashRequestBuilderImpl("key")
+                .setImageExtension(ImageExtension.JPEG)
+                .setIgnoreExtension(false)
+                .build();
+        assertEquals(ImageExtension.JPEG, notIgnoringExtension.canonicalize().getImageExtension());
+        assertEquals("key.jpeg", notIgnoringExtension.canonicalize().getAvatarKey());
+        assertEquals(List.of(ImageSet.ANY), new RoboHashRequestBuilderImpl("key").build().canonicalize().getImageSets());
+        assertEquals("a.b.png", new RoboHashRequestBuilderImpl("a.b.c").build().canonicalize().getAvatarKey());
+    }
+
+    /**
+     * Tests for the fingerprint of a request.
+     */
+    @Test
+    void testGetFingerprint() {
+        assertEquals(newBuilder().build().getFingerprint(), newBuilder().build().getFingerprint());
+        assertNotEquals(newBuilder().build().getFingerprint(), newBuilder().setWidth(201).build().getFingerprint());
+        assertNotEquals(new RoboHashRequestBuilderImpl("a.png").build().getFingerprint(),
+                new RoboHashRequestBuilderImpl("a").build().getFingerprint());
+
+        Set<Long> fingerprints = IntStream.range(0, 10_000)
+                .mapToObj(i -> new RoboHashRequestBuilderImpl("user-" + i).setWidth(100 + i % 7).build())
+                .map(RoboHashRequest::getFingerprint)
+                .collect(Collectors.toSet());
+        assertEquals(10_000, fingerprints.size());
+
+        Set<Integer> hashCodes = new HashSet<>();
+        for (int width = 1; width <= 100; width++) {
+            for (int height = 1; height <= 100; height++) {
+                hashCodes.add(new RoboHashRequestBuilderImpl("key").setWidth(width).setHeight(height).build()
+                        .hashCode());
+            }
+        }
+        assertEquals(10_000, hashCodes.size());
+    }
+
+    /**
+     * Tests that requests may be shared across threads.
+     */
+    @Test
+    void testThreadSafety() {
+        RoboHashRequest request = newBuilder().build();
+        List<CompletableFuture<String>> urls = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> RoboHashRequestHandler.buildRequestUrl(request)))
+                .collect(Collectors.toList());
+        urls.forEach(url -> assertEquals(RoboHashRequestHandler.buildRequestUrl(newBuilder()), url.join()));
+    }
+
+    /**
+     * Tests for the equals, hashCode and toString methods.
+     */
+    @Test
+    void testEqualsHashCodeToString() {
+        RoboHashRequest request = newBuilder().build();
+        RoboHashRequest equal = newBuilder().build();
+        RoboHashRequest different = newBuilder().setUseGravatar(UseGravatar.HASHED).build();
+
+        assertEquals(request, request);
+        assertEquals(request, equal);
+        assertNotEquals(request, different);
+        assertNotEquals(request, newBuilder());
+        assertNotEquals(request, new Object());
+        assertEquals(request.hashCode(), equal.hashCode());
+        assertNotEquals(request.hashCode(), different.hashCode());
+        assertEquals("RoboHashRequest{avatarKey=\"nathan\", imageSets=[MONSTERS, HUMANS], backgroundSet=OUTSIDE,"
+                + " width=200, height=100, useGravatar=YES, ignoreExtension=false, imageExtension=JPG,"
+                + " safeUrlMode=true}", request.toString());
+    }
+}
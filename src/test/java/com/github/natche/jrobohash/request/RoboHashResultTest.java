@@ -0,0 +1,62 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link RoboHashResult}.
+ */
+public class RoboHashResultTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    RoboHashResultTest() {}
+
+    /**
+     * Tests for creation of successful results.
+     */
+    @Test
+    void testSuccess() throws IOException {
+        RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("key");
+        byte[] imageBytes = Files.readAllBytes(LocalRoboHashServer.IMAGE_PATH);
+
+        assertThrows(NullPointerException.class, () -> RoboHashResult.success(null, "url", imageBytes));
+        assertThrows(NullPointerException.class, () -> RoboHashResult.success(builder, null, imageBytes));
+        assertThrows(NullPointerException.class, () -> RoboHashResult.success(builder, "url", null));
+
+        RoboHashResult result = RoboHashResult.success(builder, "url", imageBytes);
+        assertTrue(result.isSuccess());
+        assertSame(builder, result.getBuilder());
+        assertEquals("url", result.getUrl());
+        assertSame(imageBytes, result.getImageBytes());
+        assertEquals(300, result.getImage().getWidth());
+        assertThrows(IllegalStateException.class, result::getError);
+        assertEquals("RoboHashResult{url=\"url\", success=true, bytes=" + imageBytes.length + "}", result.toString());
+    }
+
+    /**
+     * Tests for creation of failed results.
+     */
+    @Test
+    void testFailure() {
+        RoboHashRequestBuilder builder = new RoboHashRequestBuilderImpl("key");
+        JRoboHashException error = new JRoboHashException("failure");
+
+        assertThrows(NullPointerException.class, () -> RoboHashResult.failure(null, "url", error));
+        assertThrows(NullPointerException.class, () -> RoboHashResult.failure(builder, null, error));
+        assertThrows(NullPointerException.class, () -> RoboHashResult.failure(builder, "url", null));
+
+        RoboHashResult result = RoboHashResult.failure(builder, "url", new CompletionException(error));
+        assertFalse(result.isSuccess());
+        assertSame(error, result.getError());
+        assertThrows(IllegalStateException.class, result::getImageBytes);
+        assertThrows(IllegalStateException.class, result::getImage);
+        assertEquals("RoboHashResult{url=\"url\", success=false, error=" + error + "}", result.toString());
+    }
+}
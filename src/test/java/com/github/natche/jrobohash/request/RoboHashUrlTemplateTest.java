@@ -0,0 +1,165 @@
+package com.github.natche.jrobohash.request;
+
+import com.github.natche.jrobohash.enums.BackgroundSet;
+import com.github.natche.jrobohash.enums.ImageExtension;
+import com.github.natche.jrobohash.enums.ImageSet;
+import com.github.natche.jrobohash.enums.UseGravatar;
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link RoboHashUrlTemplate}.
+ */
+public class RoboHashUrlTemplateTest {
+    /**
+     * The base URL templates are compiled against.
+     */
+    private static final String BASE_URL = "http://localhost:8080/robohash/";
+
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    RoboHashUrlTemplateTest() {}
+
+    /**
+     * Returns a builder using every parameter.
+     *
+     * @param avatarKey the avatar key of the builder
+     * @return a builder using every parameter
+     */
+    private static RoboHashRequestBuilder newBuilder(String avatarKey) {
+        return new RoboHashRequestBuilderImpl(avatarKey)
+                .addImageSet(ImageSet.HUMANS)
+                .addImageSet(ImageSet.MONSTERS)
+                .setBackgroundSet(BackgroundSet.OUTSIDE)
+                .setImageExtension(ImageExtension.JPEG)
+                .setUseGravatar(UseGravatar.HASHED)
+                .setIgnoreExtension(false)
+                .setWidth(200)
+                .setHeight(100);
+    }
+
+    /**
+     * Tests for construction and the getters.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(NullPointerException.class, () -> new RoboHashUrlTemplate(null, newBuilder("key")));
+        assertThrows(NullPointerException.class, () -> new RoboHashUrlTemplate(BASE_URL, null));
+
+        RoboHashUrlTemplate template = new RoboHashUrlTemplate(BASE_URL, newBuilder("key"));
+        assertEquals(BASE_URL, template.getBaseUrl());
+        assertEquals(ImageExtension.JPEG, template.getImageExtension());
+        assertEquals("?sets=2,5&bgset=bg1&size=200x100&gravatar=hashed&ignoreext=false", template.getQuery());
+        assertTrue(template.isSafeUrlMode());
+
+        RoboHashUrlTemplate ignoringTemplate = new RoboHashUrlTemplate(BASE_URL,
+                new RoboHashRequestBuilderImpl("key").setImageExtension(ImageExtension.JPEG));
+        assertEquals(ImageExtension.JPG, ignoringTemplate.getImageExtension());
+        assertEquals("?set=any&bgset=any&size=300x300", ignoringTemplate.getQuery());
+    }
+
+    /**
+     * Tests for the build request URL method.
+     */
+    @Test
+    void testBuildRequestUrl() {
+        RoboHashUrlTemplate template = new RoboHashUrlTemplate(BASE_URL, newBuilder("ignored"));
+        assertThrows(NullPointerException.class, () -> template.buildRequestUrl(null));
+        assertThrows(IllegalArgumentException.class, () -> template.buildRequestUrl(""));
+        assertThrows(IllegalArgumentException.class, () -> template.buildRequestUrl("   "));
+
+        assertEquals(BASE_URL + "nathan.jpeg?sets=2,5&bgset=bg1&size=200x100&gravatar=hashed&ignoreext=false",
+                template.buildRequestUrl("nathan"));
+        for (String avatarKey : ImmutableList.of("nathan", "nathan.png", "archive.tar.gz", "a b")) {
+            assertEquals(RoboHashRequestHandler.buildRequestUrl(BASE_URL, newBuilder(avatarKey)),
+                    template.buildRequestUrl(avatarKey));
+        }
+
+        RoboHashUrlTemplate strictTemplate = new RoboHashUrlTemplate(BASE_URL,
+                new RoboHashRequestBuilderImpl("key").disableSafeUrlMode());
+        assertFalse(strictTemplate.isSafeUrlMode());
+        assertEquals(BASE_URL + "valid.png?set=any&bgset=any&size=300x300", strictTemplate.buildRequestUrl("valid"));
+        assertThrows(IllegalArgumentException.class, () -> strictTemplate.buildRequestUrl("not valid"));
+    }
+
+    /**
+     * Tests for the append request URL method.
+     */
+    @Test
+    void testAppendRequestUrl() {
+        RoboHashUrlTemplate template = new RoboHashUrlTemplate(BASE_URL, newBuilder("ignored"));
+        assertThrows(NullPointerException.class, () -> template.appendRequestUrl(null, new StringBuilder()));
+        assertThrows(NullPointerException.class, () -> template.appendRequestUrl("key", null));
+
+        StringBuilder urlBuilder = new StringBuilder("<img src=\"");
+        template.appendRequestUrl("nathan", urlBuilder).append("\">");
+        assertEquals("<img src=\"" + template.buildRequestUrl("nathan") + "\">", urlBuilder.toString());
+        assertEquals(template.buildRequestUrl("nathan"),
+                template.appendRequestUrl("nathan", new StringWriter()).toString());
+
+        Appendable closedAppendable = new Appendable() {
+            @Override
+            public Appendable append(CharSequence sequence) throws IOException {
+                throw new IOException("closed");
+            }
+
+            @Override
+            public Appendable append(CharSequence sequence, int start, int end) throws IOException {
+                throw new IOException("closed");
+            }
+
+            @Override
+            public Appendable append(char character) throws IOException {
+                throw new IOException("closed");
+            }
+        };
+        assertThrows(JRoboHashException.class, () -> template.appendRequestUrl("nathan", closedAppendable));
+    }
+
+    /**
+     * Tests for the build request URLs methods.
+     */
+    @Test
+    void testBuildRequestUrls() {
+        RoboHashUrlTemplate template = new RoboHashUrlTemplate(BASE_URL, newBuilder("ignored"));
+        assertThrows(NullPointerException.class, () -> template.buildRequestUrls((List<String>) null));
+        assertThrows(NullPointerException.class, () -> template.buildRequestUrls((Stream<String>) null));
+        assertThrows(NullPointerException.class, () -> template.buildRequestUrls(Arrays.asList("key", null)));
+        assertThrows(IllegalArgumentException.class, () -> template.buildRequestUrls(ImmutableList.of("key", "")));
+
+        List<String> avatarKeys = IntStream.range(0, 1000).mapToObj(index -> "user-" + index)
+                .collect(Collectors.toList());
+        List<String> expectedUrls = avatarKeys.stream().map(avatarKey ->
+                RoboHashRequestHandler.buildRequestUrl(BASE_URL, newBuilder(avatarKey))).collect(Collectors.toList());
+
+        assertEquals(expectedUrls, template.buildRequestUrls(avatarKeys));
+        assertEquals(ImmutableList.of(), template.buildRequestUrls(ImmutableList.of()));
+        assertEquals(expectedUrls, template.buildRequestUrls(avatarKeys.stream()).collect(Collectors.toList()));
+
+        Stream<String> parallelUrls = template.buildRequestUrls(avatarKeys.parallelStream());
+        assertTrue(parallelUrls.isParallel());
+        assertEquals(expectedUrls, parallelUrls.collect(Collectors.toList()));
+    }
+
+    /**
+     * Tests for the to string method.
+     */
+    @Test
+    void testToString() {
+        RoboHashUrlTemplate template = new RoboHashUrlTemplate(BASE_URL, new RoboHashRequestBuilderImpl("key"));
+        assertEquals("RoboHashUrlTemplate{baseUrl=\"http://localhost:8080/robohash/\", imageExtension=PNG,"
+                + " query=\"?set=any&bgset=any&size=300x300\", safeUrlMode=true}", template.toString());
+    }
+}
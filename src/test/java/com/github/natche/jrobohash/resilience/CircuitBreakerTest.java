@@ -0,0 +1,232 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.github.natche.jrobohash.exceptions.CircuitOpenException;
+import com.github.natche.jrobohash.exceptions.RequestTimeoutException;
+import com.github.natche.jrobohash.exceptions.UpstreamStatusException;
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link CircuitBreaker}.
+ */
+public class CircuitBreakerTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    CircuitBreakerTest() {}
+
+    /**
+     * Tests for construction of a circuit breaker via its builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(IllegalArgumentException.class, () -> CircuitBreaker.builder().setFailureRateThreshold(0));
+        assertThrows(IllegalArgumentException.class, () -> CircuitBreaker.builder().setFailureRateThreshold(1.5));
+        assertThrows(IllegalArgumentException.class, () -> CircuitBreaker.builder().setSlidingWindowSize(0));
+        assertThrows(IllegalArgumentException.class, () -> CircuitBreaker.builder().setMinimumCalls(0));
+        assertThrows(NullPointerException.class, () -> CircuitBreaker.builder().setOpenDuration(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> CircuitBreaker.builder().setOpenDuration(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> CircuitBreaker.builder().setHalfOpenCalls(0));
+        assertThrows(NullPointerException.class, () -> CircuitBreaker.builder().setTicker(null));
+        assertThrows(IllegalStateException.class, () -> CircuitBreaker.builder()
+                .setSlidingWindowSize(5).setMinimumCalls(6).build());
+
+        CircuitBreaker circuitBreaker = CircuitBreaker.builder().build();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals("CircuitBreaker{state=CLOSED, successCount=0, failureCount=0, rejectedCount=0, openedCount=0}",
+                circuitBreaker.toString());
+    }
+
+    /**
+     * Tests for opening, half opening and closing of the circuit breaker.
+     */
+    @Test
+    void testStateTransitions() {
+        AtomicLong nanos = new AtomicLong();
+        CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+                .setFailureRateThreshold(0.5)
+                .setSlidingWindowSize(4)
+                .setMinimumCalls(4)
+                .setOpenDuration(Duration.ofSeconds(10))
+                .setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                })
+                .build();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.recordSuccess();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.recordSuccess();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        assertEquals(3, circuitBreaker.getSuccessCount());
+        assertEquals(3, circuitBreaker.getFailureCount());
+        assertEquals(2, circuitBreaker.getRejectedCount());
+        assertEquals(2, circuitBreaker.getOpenedCount());
+    }
+
+    /**
+     * Tests for guarding calls with the circuit breaker.
+     */
+    @Test
+    void testExecute() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+                .setFailureRateThreshold(1)
+                .setSlidingWindowSize(2)
+                .setMinimumCalls(2)
+                .build();
+        assertThrows(NullPointerException.class, () -> circuitBreaker.execute(null));
+
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(CompletionException.class, () -> circuitBreaker.execute(() -> {
+                calls.incrementAndGet();
+                return CompletableFuture.failedFuture(new UpstreamStatusException("url", 404));
+            }).join());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(4, circuitBreaker.getSuccessCount());
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(CompletionException.class, () -> circuitBreaker.execute(() -> {
+                calls.incrementAndGet();
+                return CompletableFuture.failedFuture(new UpstreamStatusException("url", 503));
+            }).join());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        CompletionException rejected = assertThrows(CompletionException.class, () -> circuitBreaker.execute(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("image");
+        }).join());
+        assertInstanceOf(CircuitOpenException.class, rejected.getCause());
+        assertEquals(6, calls.get());
+        assertEquals(1, circuitBreaker.getRejectedCount());
+    }
+
+    /**
+     * Tests that calls admitted before the breaker opened do not count as trial calls once half open.
+     */
+    @Test
+    void testOutcomesOfEarlierStates() {
+        AtomicLong nanos = new AtomicLong();
+        CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+                .setFailureRateThreshold(1)
+                .setSlidingWindowSize(2)
+                .setMinimumCalls(2)
+                .setOpenDuration(Duration.ofSeconds(10))
+                .setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                })
+                .build();
+
+        CompletableFuture<String> succeeding = new CompletableFuture<>();
+        CompletableFuture<String> cancelled = new CompletableFuture<>();
+        circuitBreaker.execute(() -> succeeding);
+        circuitBreaker.execute(() -> cancelled);
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.execute(() -> CompletableFuture.failedFuture(new UpstreamStatusException("url", 503)));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        CompletableFuture<String> trial = new CompletableFuture<>();
+        circuitBreaker.execute(() -> trial);
+        succeeding.complete("image");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        cancelled.cancel(true);
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        trial.complete("image");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(2, circuitBreaker.getSuccessCount());
+    }
+
+    /**
+     * Tests that timeouts of the transport count as failures while cancelled calls and passed deadlines
+     * are not recorded.
+     */
+    @Test
+    void testTimeoutsAndCancellations() {
+        AtomicLong nanos = new AtomicLong();
+        CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+                .setFailureRateThreshold(1)
+                .setSlidingWindowSize(2)
+                .setMinimumCalls(2)
+                .setOpenDuration(Duration.ofSeconds(10))
+                .setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                })
+                .build();
+
+        CompletableFuture<String> cancelled = new CompletableFuture<>();
+        CompletableFuture<String> guarded = circuitBreaker.execute(() -> cancelled);
+        cancelled.cancel(true);
+        CompletionException cancellation = assertThrows(CompletionException.class, guarded::join);
+        assertInstanceOf(CancellationException.class, cancellation.getCause());
+        assertEquals(0, circuitBreaker.getSuccessCount());
+        assertEquals(0, circuitBreaker.getFailureCount());
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(CompletionException.class, () -> circuitBreaker.execute(() -> CompletableFuture.failedFuture(
+                    new RequestTimeoutException("url", Duration.ofMillis(100)))).join());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getFailureCount());
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(CompletionException.class, () -> circuitBreaker.execute(() -> CompletableFuture.failedFuture(
+                    new RequestTimeoutException("url", Duration.ofMillis(100), new HttpTimeoutException("timeout"))))
+                    .join());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2, circuitBreaker.getFailureCount());
+
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        CompletableFuture<String> cancelledTrial = new CompletableFuture<>();
+        circuitBreaker.execute(() -> cancelledTrial);
+        cancelledTrial.cancel(true);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals("image", circuitBreaker.execute(() -> CompletableFuture.completedFuture("image")).join());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getSuccessCount());
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.github.natche.jrobohash.exceptions.UpstreamStatusException;
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ConcurrencyLimiter}.
+ */
+public class ConcurrencyLimiterTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    ConcurrencyLimiterTest() {}
+
+    /**
+     * Tests for construction of a limiter via its builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.builder().setInitialLimit(0));
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.builder().setMinLimit(0));
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.builder().setMaxLimit(0));
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.builder().setBackoffRatio(0));
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.builder().setBackoffRatio(1));
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.builder().setLatencyTolerance(0.5));
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.builder().setBaselineWindow(0));
+        assertThrows(NullPointerException.class, () -> ConcurrencyLimiter.builder().setTicker(null));
+        assertThrows(IllegalStateException.class, () -> ConcurrencyLimiter.builder()
+                .setInitialLimit(5).setMaxLimit(4).build());
+        assertThrows(IllegalStateException.class, () -> ConcurrencyLimiter.builder()
+                .setInitialLimit(5).setMinLimit(6).build());
+
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder().build();
+        assertEquals(ConcurrencyLimiter.DEFAULT_INITIAL_LIMIT, limiter.getLimit());
+        assertEquals("ConcurrencyLimiter{limit=10, inFlight=0, waitingCount=0, backoffCount=0}", limiter.toString());
+        assertThrows(NullPointerException.class, () -> limiter.execute(null));
+    }
+
+    /**
+     * Tests that the limit grows additively while calls are fast and backs off multiplicatively on overload.
+     */
+    @Test
+    void testAdaptiveLimit() {
+        AtomicLong nanos = new AtomicLong();
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .setInitialLimit(2)
+                .setMaxLimit(4)
+                .setBackoffRatio(0.9)
+                .setLatencyTolerance(2)
+                .setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                })
+                .build();
+
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(limiter.execute(() -> {
+                CompletableFuture<String> call = new CompletableFuture<>();
+                calls.add(call);
+                return call;
+            }));
+        }
+        assertEquals(2, calls.size());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getWaitingCount());
+
+        nanos.addAndGet(Duration.ofMillis(10).toNanos());
+        calls.get(0).complete("first");
+        assertEquals("first", results.get(0).join());
+        assertEquals(3, limiter.getLimit());
+        assertEquals(3, calls.size());
+        assertEquals(0, limiter.getWaitingCount());
+
+        calls.get(1).complete("second");
+        assertEquals(4, limiter.getLimit());
+
+        nanos.addAndGet(Duration.ofMillis(50).toNanos());
+        calls.get(2).complete("third");
+        assertEquals(3, limiter.getLimit());
+        assertEquals(1, limiter.getBackoffCount());
+        assertEquals(0, limiter.getInFlight());
+
+        CompletionException failure = assertThrows(CompletionException.class, () -> limiter.execute(
+                () -> CompletableFuture.failedFuture(new UpstreamStatusException("url", 429))).join());
+        assertInstanceOf(UpstreamStatusException.class, failure.getCause());
+        assertEquals(2, limiter.getBackoffCount());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Tests that the baseline latency is only sampled from successful calls and forgets old samples.
+     */
+    @Test
+    void testBaselineWindow() {
+        AtomicLong nanos = new AtomicLong();
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .setInitialLimit(4)
+                .setMaxLimit(4)
+                .setLatencyTolerance(2)
+                .setBaselineWindow(2)
+                .setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                })
+                .build();
+
+        assertThrows(CompletionException.class, () -> limiter.execute(timedCall(nanos, 1,
+                CompletableFuture.failedFuture(new UpstreamStatusException("url", 404)))).join());
+        limiter.execute(timedCall(nanos, 10, CompletableFuture.completedFuture("image"))).join();
+        limiter.execute(timedCall(nanos, 15, CompletableFuture.completedFuture("image"))).join();
+        assertEquals(0, limiter.getBackoffCount());
+
+        limiter.execute(timedCall(nanos, 1, CompletableFuture.completedFuture("image"))).join();
+        for (int i = 0; i < 4; i++) {
+            limiter.execute(timedCall(nanos, 10, CompletableFuture.completedFuture("image"))).join();
+        }
+        assertEquals(3, limiter.getBackoffCount());
+        limiter.execute(timedCall(nanos, 10, CompletableFuture.completedFuture("image"))).join();
+        assertEquals(3, limiter.getBackoffCount());
+    }
+
+    /**
+     * Tests that cancelling the future of a call dequeues a waiting call and cancels a started call.
+     */
+    @Test
+    void testCancellation() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
+                .setInitialLimit(1)
+                .setMaxLimit(1)
+                .build();
+
+        CompletableFuture<String> firstCall = new CompletableFuture<>();
+        CompletableFuture<String> first = limiter.execute(() -> firstCall);
+        AtomicInteger secondStarts = new AtomicInteger();
+        CompletableFuture<String> second = limiter.execute(() -> {
+            secondStarts.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        assertEquals(1, limiter.getWaitingCount());
+
+        second.cancel(true);
+        assertEquals(0, limiter.getWaitingCount());
+        first.cancel(true);
+        assertTrue(firstCall.isCancelled());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, secondStarts.get());
+        assertEquals(0, limiter.getBackoffCount());
+        assertEquals(1, limiter.getLimit());
+        assertEquals("image", limiter.execute(() -> CompletableFuture.completedFuture("image")).join());
+    }
+
+    /**
+     * Returns a call which takes the provided latency on the provided fake clock and then completes
+     * with the provided outcome.
+     *
+     * @param nanos         the fake clock
+     * @param latencyMillis the latency of the call in milliseconds
+     * @param outcome       the outcome of the call
+     * @return the call
+     */
+    private static Supplier<CompletableFuture<String>> timedCall(AtomicLong nanos, long latencyMillis,
+                                                                 CompletableFuture<String> outcome) {
+        return () -> {
+            nanos.addAndGet(Duration.ofMillis(latencyMillis).toNanos());
+            return outcome;
+        };
+    }
+}
@@ -0,0 +1,218 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.github.natche.jrobohash.exceptions.UpstreamStatusException;
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link HedgingPolicy}.
+ */
+public class HedgingPolicyTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    HedgingPolicyTest() {}
+
+    /**
+     * Tests for construction of a policy via its builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(IllegalArgumentException.class, () -> HedgingPolicy.builder().setPercentile(0));
+        assertThrows(IllegalArgumentException.class, () -> HedgingPolicy.builder().setPercentile(1));
+        assertThrows(NullPointerException.class, () -> HedgingPolicy.builder().setInitialDelay(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> HedgingPolicy.builder().setInitialDelay(Duration.ofMillis(-1)));
+        assertThrows(NullPointerException.class, () -> HedgingPolicy.builder().setMinDelay(null));
+        assertThrows(IllegalArgumentException.class, () -> HedgingPolicy.builder().setMinDelay(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class, () -> HedgingPolicy.builder().setBudgetRatio(0));
+        assertThrows(IllegalArgumentException.class, () -> HedgingPolicy.builder().setBudgetRatio(1.5));
+        assertThrows(IllegalArgumentException.class, () -> HedgingPolicy.builder().setMaxBurst(0));
+        assertThrows(NullPointerException.class, () -> HedgingPolicy.builder().setTicker(null));
+
+        HedgingPolicy policy = HedgingPolicy.builder().build();
+        assertEquals(HedgingPolicy.DEFAULT_INITIAL_DELAY, policy.getHedgeDelay());
+        assertEquals("HedgingPolicy{percentile=0.95, hedgeDelay=PT0.5S, callCount=0, hedgeCount=0, hedgeWinCount=0}",
+                policy.toString());
+        assertThrows(NullPointerException.class, () -> policy.execute(null));
+        assertThrows(NullPointerException.class, () -> policy.execute(CompletableFuture::new, null));
+    }
+
+    /**
+     * Tests that the hedge delay follows the configured percentile of observed latencies.
+     */
+    @Test
+    void testHedgeDelay() {
+        AtomicLong nanos = new AtomicLong();
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .setPercentile(0.95)
+                .setMinDelay(Duration.ofMillis(1))
+                .setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                })
+                .build();
+
+        for (int i = 1; i <= 20; i++) {
+            long latencyNanos = Duration.ofMillis(i).toNanos();
+            assertEquals(i, policy.execute(() -> {
+                nanos.addAndGet(latencyNanos);
+                return CompletableFuture.completedFuture(latencyNanos);
+            }).join() / 1_000_000);
+        }
+
+        assertEquals(Duration.ofMillis(19), policy.getHedgeDelay());
+        assertEquals(20, policy.getCallCount());
+        assertEquals(0, policy.getHedgeCount());
+    }
+
+    /**
+     * Tests that slow calls are hedged within the budget and that the loser is cancelled.
+     */
+    @Test
+    void testExecute() throws InterruptedException {
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .setInitialDelay(Duration.ofMillis(10))
+                .setBudgetRatio(0.1)
+                .setMaxBurst(1)
+                .build();
+
+        List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> result = policy.execute(() -> {
+            CompletableFuture<String> request = new CompletableFuture<>();
+            requests.add(request);
+            return request;
+        });
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (requests.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(2, requests.size());
+
+        requests.get(1).complete("hedge");
+        assertEquals("hedge", result.join());
+        assertTrue(requests.get(0).isCancelled());
+        assertEquals(1, policy.getHedgeCount());
+        assertEquals(1, policy.getHedgeWinCount());
+
+        requests.clear();
+        CompletableFuture<String> unhedgedResult = policy.execute(() -> {
+            CompletableFuture<String> request = new CompletableFuture<>();
+            requests.add(request);
+            return request;
+        });
+        Thread.sleep(50);
+        assertEquals(1, requests.size());
+        requests.get(0).complete("primary");
+        assertEquals("primary", unhedgedResult.join());
+        assertEquals(1, policy.getHedgeCount());
+
+        CompletionException failure = assertThrows(CompletionException.class, () -> policy.execute(
+                () -> CompletableFuture.failedFuture(new UpstreamStatusException("url", 404))).join());
+        assertInstanceOf(UpstreamStatusException.class, failure.getCause());
+        assertEquals(3, policy.getCallCount());
+    }
+
+    /**
+     * Tests that a hedge the admission rejects is neither sent nor spent.
+     */
+    @Test
+    void testHedgeAdmission() throws InterruptedException {
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .setInitialDelay(Duration.ofMillis(1))
+                .setMaxBurst(1)
+                .build();
+
+        AtomicInteger admissions = new AtomicInteger();
+        List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> rejectedResult = policy.execute(() -> {
+            CompletableFuture<String> request = new CompletableFuture<>();
+            requests.add(request);
+            return request;
+        }, () -> {
+            admissions.incrementAndGet();
+            return false;
+        });
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (admissions.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(20);
+        assertEquals(1, admissions.get());
+        assertEquals(1, requests.size());
+        assertEquals(0, policy.getHedgeCount());
+        requests.get(0).complete("primary");
+        assertEquals("primary", rejectedResult.join());
+
+        requests.clear();
+        CompletableFuture<String> admittedResult = policy.execute(() -> {
+            CompletableFuture<String> request = new CompletableFuture<>();
+            requests.add(request);
+            return request;
+        }, () -> true);
+        while (requests.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(2, requests.size());
+        requests.get(1).complete("hedge");
+        assertEquals("hedge", admittedResult.join());
+        assertEquals(1, policy.getHedgeCount());
+    }
+
+    /**
+     * Tests that the time a first request cut short by a winning hedge had taken is recorded as its latency,
+     * rather than the latency of the hedge.
+     */
+    @Test
+    void testCensoredLatency() throws InterruptedException {
+        AtomicLong nanos = new AtomicLong();
+        HedgingPolicy policy = HedgingPolicy.builder()
+                .setInitialDelay(Duration.ZERO)
+                .setMinDelay(Duration.ZERO)
+                .setBudgetRatio(1)
+                .setMaxBurst(20)
+                .setTicker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                })
+                .build();
+
+        for (int i = 0; i < 20; i++) {
+            List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+            String result = policy.execute(() -> {
+                if (requests.isEmpty()) {
+                    nanos.addAndGet(Duration.ofMillis(40).toNanos());
+                    CompletableFuture<String> request = new CompletableFuture<>();
+                    requests.add(request);
+                    return request;
+                }
+                nanos.addAndGet(Duration.ofMillis(10).toNanos());
+                return CompletableFuture.completedFuture("hedge");
+            }).join();
+            assertEquals("hedge", result);
+
+            // the win is recorded after the result completes, thus before the next call advances the time
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (policy.getHedgeWinCount() <= i && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+
+        assertEquals(20, policy.getHedgeWinCount());
+        assertEquals(Duration.ofMillis(50), policy.getHedgeDelay());
+    }
+}
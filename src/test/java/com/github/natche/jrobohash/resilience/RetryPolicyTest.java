@@ -0,0 +1,142 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.github.natche.jrobohash.exceptions.RequestTimeoutException;
+import com.github.natche.jrobohash.exceptions.UpstreamStatusException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link RetryPolicy}.
+ */
+public class RetryPolicyTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    RetryPolicyTest() {}
+
+    /**
+     * Tests for construction of a policy via its builder.
+     */
+    @Test
+    void testBuilder() {
+        assertThrows(IllegalArgumentException.class, () -> RetryPolicy.builder().setMaxAttempts(0));
+        assertThrows(NullPointerException.class, () -> RetryPolicy.builder().setBaseDelay(null));
+        assertThrows(IllegalArgumentException.class, () -> RetryPolicy.builder().setBaseDelay(Duration.ofMillis(-1)));
+        assertThrows(NullPointerException.class, () -> RetryPolicy.builder().setMaxDelay(null));
+        assertThrows(IllegalArgumentException.class, () -> RetryPolicy.builder().setMaxDelay(Duration.ofMillis(-1)));
+        assertThrows(IllegalStateException.class, () -> RetryPolicy.builder()
+                .setBaseDelay(Duration.ofSeconds(2)).setMaxDelay(Duration.ofSeconds(1)).build());
+
+        RetryPolicy defaultPolicy = RetryPolicy.builder().build();
+        assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, defaultPolicy.getMaxAttempts());
+        assertEquals(RetryPolicy.DEFAULT_BASE_DELAY, defaultPolicy.getBaseDelay());
+        assertEquals(RetryPolicy.DEFAULT_MAX_DELAY, defaultPolicy.getMaxDelay());
+        assertEquals("RetryPolicy{maxAttempts=3, baseDelay=PT0.1S, maxDelay=PT2S, retryCount=0, exhaustedCount=0}",
+                defaultPolicy.toString());
+    }
+
+    /**
+     * Tests for the next delay method.
+     */
+    @Test
+    void testNextDelay() {
+        RetryPolicy policy = RetryPolicy.builder()
+                .setBaseDelay(Duration.ofMillis(100))
+                .setMaxDelay(Duration.ofSeconds(1))
+                .build();
+        assertThrows(NullPointerException.class, () -> policy.nextDelay(null));
+
+        Duration previousDelay = policy.getBaseDelay();
+        for (int i = 0; i < 1000; i++) {
+            Duration delay = policy.nextDelay(previousDelay);
+            assertTrue(delay.compareTo(Duration.ofMillis(100)) >= 0);
+            assertTrue(delay.compareTo(previousDelay.multipliedBy(3)) <= 0);
+            assertTrue(delay.compareTo(Duration.ofSeconds(1)) <= 0);
+            previousDelay = delay;
+        }
+    }
+
+    /**
+     * Tests for retrying transient failures.
+     */
+    @Test
+    void testExecute() {
+        RetryPolicy policy = RetryPolicy.builder()
+                .setMaxAttempts(3)
+                .setBaseDelay(Duration.ZERO)
+                .setMaxDelay(Duration.ofMillis(5))
+                .build();
+        assertThrows(NullPointerException.class, () -> policy.execute(null));
+
+        AtomicInteger attempts = new AtomicInteger();
+        String result = policy.execute(() -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.<String>failedFuture(new UpstreamStatusException("url", 503))
+                : CompletableFuture.completedFuture("image")).join();
+        assertEquals("image", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, policy.getRetryCount());
+        assertEquals(0, policy.getExhaustedCount());
+
+        attempts.set(0);
+        CompletionException exhausted = assertThrows(CompletionException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new JRoboHashException("error", new IOException("reset")));
+        }).join());
+        assertInstanceOf(JRoboHashException.class, exhausted.getCause());
+        assertEquals(3, attempts.get());
+        assertEquals(4, policy.getRetryCount());
+        assertEquals(1, policy.getExhaustedCount());
+
+        attempts.set(0);
+        CompletionException rejected = assertThrows(CompletionException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new UpstreamStatusException("url", 404));
+        }).join());
+        assertInstanceOf(UpstreamStatusException.class, rejected.getCause());
+        assertEquals(1, attempts.get());
+        assertEquals(4, policy.getRetryCount());
+    }
+
+    /**
+     * Tests that no retries are made once the timeout of a call elapsed.
+     */
+    @Test
+    void testExecuteWithTimeout() {
+        RetryPolicy policy = RetryPolicy.builder()
+                .setMaxAttempts(100)
+                .setBaseDelay(Duration.ofMillis(20))
+                .setMaxDelay(Duration.ofSeconds(5))
+                .build();
+        assertThrows(NullPointerException.class, () -> policy.execute(null, Duration.ofSeconds(1)));
+        assertThrows(NullPointerException.class, () -> policy.execute(CompletableFuture::new, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> policy.execute(CompletableFuture::new, Duration.ofMillis(-1)));
+
+        AtomicInteger attempts = new AtomicInteger();
+        long start = System.nanoTime();
+        CompletionException timedOut = assertThrows(CompletionException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.<String>failedFuture(new UpstreamStatusException("url", 503));
+        }, Duration.ofMillis(200)).join());
+        assertInstanceOf(UpstreamStatusException.class, timedOut.getCause());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        assertTrue(attempts.get() < 100);
+        assertEquals(0, policy.getExhaustedCount());
+
+        attempts.set(0);
+        CompletionException deadline = assertThrows(CompletionException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.<String>failedFuture(new RequestTimeoutException("url", Duration.ofSeconds(1)));
+        }, Duration.ofSeconds(1)).join());
+        assertInstanceOf(RequestTimeoutException.class, deadline.getCause());
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.natche.jrobohash.resilience;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link TokenBucket}.
+ */
+public class TokenBucketTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    TokenBucketTest() {}
+
+    /**
+     * Tests for construction of token buckets.
+     */
+    @Test
+    void testCreation() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(Double.POSITIVE_INFINITY, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+        assertThrows(NullPointerException.class, () -> new TokenBucket(1, 1, null));
+
+        TokenBucket bucket = new TokenBucket(10, 5);
+        assertEquals(10, bucket.getTokensPerSecond(), 1e-9);
+        assertEquals(5, bucket.getCapacity());
+        assertEquals(5, bucket.getAvailableTokens());
+        assertEquals("TokenBucket{tokensPerSecond=10.0, capacity=5, availableTokens=5, throttledCount=0}",
+                bucket.toString());
+    }
+
+    /**
+     * Tests for taking and reserving tokens.
+     */
+    @Test
+    void testAcquire() {
+        AtomicLong nanos = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 2, new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        });
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        nanos.addAndGet(Duration.ofMillis(100).toNanos());
+        assertEquals(0, bucket.reserve());
+        assertEquals(Duration.ofMillis(100).toNanos(), bucket.reserve());
+        assertEquals(Duration.ofMillis(200).toNanos(), bucket.reserve());
+        assertEquals(2, bucket.getThrottledCount());
+        assertFalse(bucket.tryAcquire());
+
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(2, bucket.getAvailableTokens());
+        assertNull(bucket.acquire().join());
+    }
+}
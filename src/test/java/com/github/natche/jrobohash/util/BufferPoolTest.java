@@ -0,0 +1,59 @@
+package com.github.natche.jrobohash.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link BufferPool}.
+ */
+public class BufferPoolTest {
+    /**
+     * Creates a new instance of this class for testing purposes.
+     */
+    BufferPoolTest() {}
+
+    /**
+     * Tests for construction of a pool.
+     */
+    @Test
+    void testConstruction() {
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(1, 0));
+
+        BufferPool pool = new BufferPool(16, 2);
+        assertEquals(16, pool.getBufferSize());
+        assertEquals("BufferPool{bufferSize=16, pooledCount=0}", pool.toString());
+    }
+
+    /**
+     * Tests that released buffers are cleared and reused up to the maximum number pooled.
+     */
+    @Test
+    void testAcquireRelease() {
+        BufferPool pool = new BufferPool(16, 2);
+        assertThrows(NullPointerException.class, () -> pool.release(null));
+        assertThrows(IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocate(8)));
+        assertThrows(IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocateDirect(16)));
+
+        ByteBuffer first = pool.acquire();
+        assertEquals(16, first.capacity());
+        first.put((byte) 1).flip();
+        pool.release(first);
+        assertEquals(1, pool.getPooledCount());
+
+        ByteBuffer reused = pool.acquire();
+        assertSame(first, reused);
+        assertEquals(0, reused.position());
+        assertEquals(16, reused.limit());
+        assertEquals(0, pool.getPooledCount());
+
+        pool.release(reused);
+        pool.release(pool.acquire());
+        pool.release(ByteBuffer.allocate(16));
+        pool.release(ByteBuffer.allocate(16));
+        assertEquals(2, pool.getPooledCount());
+    }
+}
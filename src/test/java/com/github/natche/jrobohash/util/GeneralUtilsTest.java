@@ -1,11 +1,18 @@
 package com.github.natche.jrobohash.util;
 
 import com.github.natche.jrobohash.exceptions.JRoboHashException;
+import com.github.natche.jrobohash.exceptions.RequestTimeoutException;
+import com.github.natche.jrobohash.request.LocalRoboHashServer;
 import org.junit.jupiter.api.Test;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -55,6 +62,73 @@ public class GeneralUtilsTest {
         assertEquals(280, bi.get().getHeight());
     }
 
+    /**
+     * Test to ensure reading a buffered image is bounded by its timeout.
+     */
+    @Test
+    void testReadBufferedImageTimeout() {
+        assertThrows(NullPointerException.class, () -> GeneralUtils.readBufferedImage("URL", null));
+        assertThrows(IllegalArgumentException.class, () -> GeneralUtils.readBufferedImage("URL", Duration.ZERO));
+
+        try (LocalRoboHashServer server = new LocalRoboHashServer()) {
+            String url = server.getBaseUrl() + "timeout.png";
+            BufferedImage image = GeneralUtils.readBufferedImage(url, Duration.ofSeconds(5));
+            assertEquals(300, image.getWidth());
+
+            server.setDelayMillis(1000);
+            long start = System.nanoTime();
+            RequestTimeoutException exception = assertThrows(RequestTimeoutException.class,
+                    () -> GeneralUtils.readBufferedImage(url, Duration.ofMillis(100)));
+            assertEquals(Duration.ofMillis(100), exception.getTimeout());
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(900).toNanos());
+
+            server.setDelayMillis(0);
+            server.setBodyStallMillis(5000);
+            start = System.nanoTime();
+            RequestTimeoutException stallException = assertThrows(RequestTimeoutException.class,
+                    () -> GeneralUtils.readBufferedImage(url, Duration.ofMillis(200)));
+            assertEquals(Duration.ofMillis(200), stallException.getTimeout());
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(900).toNanos());
+        }
+    }
+
+    /**
+     * Test to ensure decoding a buffered image from encoded bytes works.
+     */
+    @Test
+    void testDecodeBufferedImage() throws IOException {
+        assertThrows(NullPointerException.class, () -> GeneralUtils.decodeBufferedImage(null));
+        assertThrows(IllegalArgumentException.class, () -> GeneralUtils.decodeBufferedImage(new byte[0]));
+        assertThrows(JRoboHashException.class, () -> GeneralUtils.decodeBufferedImage(new byte[]{1, 2, 3}));
+
+        byte[] imageBytes = Files.readAllBytes(
+                Path.of("./src/test/java/com/github/natche/jrobohash/images/builder5.png"));
+        BufferedImage image = GeneralUtils.decodeBufferedImage(imageBytes);
+        assertEquals(300, image.getWidth());
+        assertEquals(300, image.getHeight());
+    }
+
+    /**
+     * Test to ensure images are decoded from the remaining bytes of buffers.
+     */
+    @Test
+    void testDecodeBufferedImageFromBuffer() throws IOException {
+        assertThrows(NullPointerException.class, () -> GeneralUtils.decodeBufferedImageFromBuffer(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> GeneralUtils.decodeBufferedImageFromBuffer(ByteBuffer.allocate(0)));
+        assertThrows(JRoboHashException.class,
+                () -> GeneralUtils.decodeBufferedImageFromBuffer(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+
+        byte[] imageBytes = Files.readAllBytes(
+                Path.of("./src/test/java/com/github/natche/jrobohash/images/builder5.png"));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(imageBytes.length + 2);
+        buffer.put((byte) 0).put(imageBytes).put((byte) 0).flip();
+        buffer.position(1).limit(imageBytes.length + 1);
+        BufferedImage image = GeneralUtils.decodeBufferedImageFromBuffer(buffer.asReadOnlyBuffer());
+        assertEquals(300, image.getWidth());
+        assertEquals(300, image.getHeight());
+    }
+
     /**
      * Test to ensure valid and invalid filenames are properly categorized.
      */